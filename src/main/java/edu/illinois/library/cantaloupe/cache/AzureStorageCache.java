@@ -99,6 +99,8 @@ class AzureStorageCache implements DerivativeCache {
     private static final Set<String> uploadingKeys =
             new ConcurrentSkipListSet<>();
 
+    private final CacheStatistics statistics = new CacheStatistics();
+
     static synchronized CloudBlobClient getClientInstance() {
         if (client == null) {
             try {
@@ -175,6 +177,11 @@ class AzureStorageCache implements DerivativeCache {
         return null;
     }
 
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
     @Override
     public InputStream newDerivativeImageInputStream(OperationList opList)
             throws IOException {
@@ -322,7 +329,9 @@ class AzureStorageCache implements DerivativeCache {
         TaskQueue.getInstance().submit(() -> {
             LOGGER.debug("purgeAsync(): {}", blob);
             try {
-                blob.deleteIfExists();
+                if (blob.deleteIfExists()) {
+                    statistics.recordEvictions(1);
+                }
             } catch (StorageException e) {
                 LOGGER.warn("purgeAsync(): failed to delete {}: {}",
                         blob, e.getMessage());
@@ -352,6 +361,7 @@ class AzureStorageCache implements DerivativeCache {
             }
             LOGGER.debug("purgeInvalid(): deleted {} of {} items",
                     deletedCount, count);
+            statistics.recordEvictions(deletedCount);
         } catch (URISyntaxException | StorageException e) {
             throw new IOException(e.getMessage(), e);
         }
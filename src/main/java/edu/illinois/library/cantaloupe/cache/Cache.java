@@ -34,6 +34,27 @@ public interface Cache {
      */
     default void cleanUp() throws IOException {}
 
+    /**
+     * <p>Returns the statistics of the instance, which are reported by the
+     * status endpoints.</p>
+     *
+     * <p>Lookups and reads and writes that go through {@link CacheFacade} or
+     * {@link InfoService} are recorded by them. Implementations need only
+     * record {@link CacheStatistics#recordEvictions(long) evictions}, which
+     * only they know about.</p>
+     *
+     * <p>The default implementation returns an instance that is created on
+     * first use and retained for as long as the cache is reachable, so
+     * implementations need not override it unless they record evictions.</p>
+     *
+     * @return Statistics of the instance, which must be the same object
+     *         every time.
+     * @since 4.1
+     */
+    default CacheStatistics getStatistics() {
+        return CacheStatistics.forCache(this);
+    }
+
     /**
      * <p>Implementations should perform all necessary initialization in this
      * method rather than a constructor or static initializer.</p>
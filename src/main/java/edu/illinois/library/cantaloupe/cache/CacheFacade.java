@@ -5,12 +5,14 @@ import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.image.Info;
 import edu.illinois.library.cantaloupe.operation.OperationList;
 import edu.illinois.library.cantaloupe.processor.Processor;
+import edu.illinois.library.cantaloupe.processor.Pyramidizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 /**
@@ -75,6 +77,9 @@ public final class CacheFacade {
     }
 
     /**
+     * The lookup is recorded in the {@link Cache#getStatistics() statistics}
+     * of the source cache.
+     *
      * @param identifier Image identifier.
      * @return           Path of a file corresponding to the given identifier
      *                   in the source cache, or {@literal null} if none
@@ -84,7 +89,32 @@ public final class CacheFacade {
     public Path getSourceCacheFile(Identifier identifier) throws IOException {
         SourceCache sourceCache = getSourceCache();
         if (sourceCache != null) {
-            return sourceCache.getSourceImageFile(identifier);
+            final long start = System.nanoTime();
+            final Path file = sourceCache.getSourceImageFile(identifier);
+            recordFileLookup(sourceCache, file, start);
+            return file;
+        }
+        return null;
+    }
+
+    /**
+     * A file that is found is recorded as a hit in the {@link
+     * Cache#getStatistics() statistics} of the derivative cache. One that is
+     * not is not recorded as a miss, as callers fall back to {@link
+     * #newDerivativeImageInputStream(OperationList)}.
+     *
+     * @see DerivativeCache#getDerivativeImageFile(OperationList)
+     */
+    public Path getDerivativeImageFile(OperationList opList)
+            throws IOException {
+        DerivativeCache derivativeCache = getDerivativeCache();
+        if (derivativeCache != null) {
+            final long start = System.nanoTime();
+            final Path file = derivativeCache.getDerivativeImageFile(opList);
+            if (file != null) {
+                recordFileLookup(derivativeCache, file, start);
+            }
+            return file;
         }
         return null;
     }
@@ -98,29 +128,82 @@ public final class CacheFacade {
     }
 
     /**
+     * The lookup, and the bytes read from the returned stream and the time
+     * spent reading them, are recorded in the {@link Cache#getStatistics()
+     * statistics} of the derivative cache and in {@link
+     * edu.illinois.library.cantaloupe.status.Metrics}.
+     *
      * @see DerivativeCache#newDerivativeImageInputStream(OperationList)
      */
     public InputStream newDerivativeImageInputStream(OperationList opList)
             throws IOException {
         DerivativeCache derivativeCache = getDerivativeCache();
         if (derivativeCache != null) {
-            return derivativeCache.newDerivativeImageInputStream(opList);
+            final long start = System.nanoTime();
+            InputStream is =
+                    derivativeCache.newDerivativeImageInputStream(opList);
+            final long nanos = System.nanoTime() - start;
+            final CacheStatistics statistics = derivativeCache.getStatistics();
+            if (is != null) {
+                statistics.recordHit();
+                return new MeteredInputStream(is, derivativeCache, nanos);
+            }
+            statistics.recordMiss();
+            statistics.recordRead(0, nanos);
         }
         return null;
     }
 
     /**
+     * The put, and the bytes written to the returned stream and the time
+     * spent writing them, are recorded in the {@link Cache#getStatistics()
+     * statistics} of the derivative cache and in {@link
+     * edu.illinois.library.cantaloupe.status.Metrics} when it is closed,
+     * provided that the caller has {@link
+     * MeteredOutputStream#setCompletelyWritten(boolean) marked it as
+     * completely written}.
+     *
      * @see DerivativeCache#newDerivativeImageOutputStream(OperationList)
      */
-    public OutputStream newDerivativeImageOutputStream(OperationList opList)
+    public MeteredOutputStream newDerivativeImageOutputStream(OperationList opList)
             throws IOException {
         DerivativeCache derivativeCache = getDerivativeCache();
         if (derivativeCache != null) {
-            return derivativeCache.newDerivativeImageOutputStream(opList);
+            final long start = System.nanoTime();
+            OutputStream os =
+                    derivativeCache.newDerivativeImageOutputStream(opList);
+            if (os != null) {
+                return new MeteredOutputStream(os, derivativeCache,
+                        System.nanoTime() - start);
+            }
         }
         return null;
     }
 
+    /**
+     * Records the lookup of a file in the given cache as a hit, and a read of
+     * the whole file, if it was found, or otherwise as a miss.
+     */
+    private static void recordFileLookup(Cache cache,
+                                         Path file,
+                                         long startNanos) {
+        final CacheStatistics statistics = cache.getStatistics();
+        if (file != null) {
+            long size = 0;
+            try {
+                size = Files.size(file);
+            } catch (IOException e) {
+                // It was purged in the meantime; the caller will find out.
+                LOGGER.debug("recordFileLookup(): {}", e.getMessage());
+            }
+            statistics.recordHit();
+            statistics.recordRead(size, System.nanoTime() - startNanos);
+        } else {
+            statistics.recordMiss();
+            statistics.recordRead(0, System.nanoTime() - startNanos);
+        }
+    }
+
     /**
      * @see Cache#purge
      */
@@ -138,6 +221,7 @@ public final class CacheFacade {
         SourceCache sourceCache = getSourceCache();
         if (sourceCache != null) {
             sourceCache.purge();
+            Pyramidizer.getInstance().purge();
         }
     }
 
@@ -158,6 +242,7 @@ public final class CacheFacade {
         SourceCache sourceCache = getSourceCache();
         if (sourceCache != null) {
             sourceCache.purge(identifier);
+            Pyramidizer.getInstance().purge(identifier);
         }
     }
 
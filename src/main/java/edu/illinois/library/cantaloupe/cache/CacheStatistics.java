@@ -0,0 +1,318 @@
+package edu.illinois.library.cantaloupe.cache;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>Counts the hits, misses, puts, evictions, bytes read and written, and
+ * read and write latency of a cache, both since it was created and in
+ * {@link Window rolling windows} of up to an hour.</p>
+ *
+ * <p>A read is any lookup in the cache, whether it is a hit or a miss, plus
+ * the reading of whatever it returned. A write is the writing of whatever
+ * was put into it.</p>
+ *
+ * <p>Recording is lock-free except once a minute, when the oldest minute of
+ * the rolling windows is recycled. Counts that are recorded concurrently
+ * with that may be attributed to the wrong minute, so the windowed counts
+ * are approximate.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @since 4.1
+ */
+public final class CacheStatistics {
+
+    /**
+     * Period of time over which counts are summed.
+     */
+    public enum Window {
+
+        LAST_MINUTE("lastMinute", 1),
+        LAST_15_MINUTES("last15Minutes", 15),
+        LAST_HOUR("lastHour", 60),
+        TOTAL("total", 0);
+
+        private final String key;
+        private final int minutes;
+
+        Window(String key, int minutes) {
+            this.key = key;
+            this.minutes = minutes;
+        }
+
+        /**
+         * @return Key of the window in {@link #toMap()}.
+         */
+        public String getKey() {
+            return key;
+        }
+
+    }
+
+    /**
+     * Immutable snapshot of the counts of one {@link Window}.
+     */
+    public static final class Counts {
+
+        private final long[] values;
+
+        private Counts(long[] values) {
+            this.values = values;
+        }
+
+        public long getBytesRead() {
+            return values[Field.BYTES_READ.ordinal()];
+        }
+
+        public long getBytesWritten() {
+            return values[Field.BYTES_WRITTEN.ordinal()];
+        }
+
+        public long getEvictions() {
+            return values[Field.EVICTIONS.ordinal()];
+        }
+
+        /**
+         * @return Ratio of hits to lookups, or {@literal 0} if there have
+         *         been none.
+         */
+        public double getHitRatio() {
+            final long lookups = getHits() + getMisses();
+            return (lookups > 0) ? getHits() / (double) lookups : 0;
+        }
+
+        public long getHits() {
+            return values[Field.HITS.ordinal()];
+        }
+
+        /**
+         * @return Mean read latency in milliseconds, or {@literal 0} if there
+         *         have been no reads.
+         */
+        public double getMeanReadMsec() {
+            return meanMsec(values[Field.READ_NANOS.ordinal()], getReads());
+        }
+
+        /**
+         * @return Mean write latency in milliseconds, or {@literal 0} if
+         *         there have been no writes.
+         */
+        public double getMeanWriteMsec() {
+            return meanMsec(values[Field.WRITE_NANOS.ordinal()], getWrites());
+        }
+
+        public long getMisses() {
+            return values[Field.MISSES.ordinal()];
+        }
+
+        public long getPuts() {
+            return values[Field.PUTS.ordinal()];
+        }
+
+        public long getReads() {
+            return values[Field.READS.ordinal()];
+        }
+
+        public long getWrites() {
+            return values[Field.WRITES.ordinal()];
+        }
+
+        private static double meanMsec(long nanos, long count) {
+            return (count > 0) ?
+                    nanos / (double) count / TimeUnit.MILLISECONDS.toNanos(1) : 0;
+        }
+
+        public Map<String,Object> toMap() {
+            final Map<String,Object> map = new LinkedHashMap<>();
+            map.put("hits", getHits());
+            map.put("misses", getMisses());
+            map.put("hitRatio", getHitRatio());
+            map.put("puts", getPuts());
+            map.put("evictions", getEvictions());
+            map.put("bytesRead", getBytesRead());
+            map.put("bytesWritten", getBytesWritten());
+            map.put("reads", getReads());
+            map.put("meanReadMsec", getMeanReadMsec());
+            map.put("writes", getWrites());
+            map.put("meanWriteMsec", getMeanWriteMsec());
+            return map;
+        }
+
+    }
+
+    private enum Field {
+        HITS, MISSES, PUTS, EVICTIONS, BYTES_READ, BYTES_WRITTEN,
+        READS, READ_NANOS, WRITES, WRITE_NANOS
+    }
+
+    /**
+     * Counts of one minute of a rolling window.
+     */
+    private static final class Slot {
+
+        private final LongAdder[] adders = newAdders();
+
+        /**
+         * Minute since the epoch that is being counted.
+         */
+        private volatile long minute = -1;
+
+        private void reset(long minute) {
+            for (LongAdder adder : adders) {
+                adder.reset();
+            }
+            this.minute = minute;
+        }
+
+    }
+
+    /**
+     * Length of the longest {@link Window}.
+     */
+    private static final int NUM_SLOTS = 60;
+
+    /**
+     * Statistics of caches that don't override {@link Cache#getStatistics()},
+     * which are weakly keyed so as not to keep the caches reachable.
+     */
+    private static final Map<Cache,CacheStatistics> DEFAULT_INSTANCES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final LongSupplier clock;
+    private final LongAdder[] totals = newAdders();
+    private final Slot[] slots = new Slot[NUM_SLOTS];
+
+    /**
+     * @param cache Cache that does not override {@link
+     *              Cache#getStatistics()}.
+     * @return      Statistics of the given cache, which are the same object
+     *              every time.
+     */
+    static CacheStatistics forCache(Cache cache) {
+        return DEFAULT_INSTANCES.computeIfAbsent(cache,
+                c -> new CacheStatistics());
+    }
+
+    private static LongAdder[] newAdders() {
+        final LongAdder[] adders = new LongAdder[Field.values().length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    public CacheStatistics() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock Supplies the current time in epoch milliseconds.
+     */
+    CacheStatistics(LongSupplier clock) {
+        this.clock = clock;
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    private void add(Field field, long amount) {
+        final long minute = currentMinute();
+        final Slot slot = slots[(int) (minute % NUM_SLOTS)];
+        if (slot.minute != minute) {
+            synchronized (slot) {
+                if (slot.minute != minute) {
+                    slot.reset(minute);
+                }
+            }
+        }
+        slot.adders[field.ordinal()].add(amount);
+        totals[field.ordinal()].add(amount);
+    }
+
+    private long currentMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(clock.getAsLong());
+    }
+
+    /**
+     * @param window Window over which to sum the counts.
+     * @return       Counts of the given window.
+     */
+    public Counts getCounts(Window window) {
+        final long[] values = new long[Field.values().length];
+        if (Window.TOTAL.equals(window)) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = totals[i].sum();
+            }
+        } else {
+            final long currentMinute = currentMinute();
+            for (Slot slot : slots) {
+                final long age = currentMinute - slot.minute;
+                if (age >= 0 && age < window.minutes) {
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] += slot.adders[i].sum();
+                    }
+                }
+            }
+        }
+        return new Counts(values);
+    }
+
+    /**
+     * @param count Number of items that the cache removed on its own, because
+     *              they were expired or it was full.
+     */
+    public void recordEvictions(long count) {
+        add(Field.EVICTIONS, count);
+    }
+
+    public void recordHit() {
+        add(Field.HITS, 1);
+    }
+
+    public void recordMiss() {
+        add(Field.MISSES, 1);
+    }
+
+    public void recordPut() {
+        add(Field.PUTS, 1);
+    }
+
+    /**
+     * @param bytes Number of bytes read.
+     * @param nanos Time spent looking up and reading them.
+     */
+    public void recordRead(long bytes, long nanos) {
+        add(Field.READS, 1);
+        add(Field.BYTES_READ, bytes);
+        add(Field.READ_NANOS, nanos);
+    }
+
+    /**
+     * @param bytes Number of bytes written.
+     * @param nanos Time spent writing them.
+     */
+    public void recordWrite(long bytes, long nanos) {
+        add(Field.WRITES, 1);
+        add(Field.BYTES_WRITTEN, bytes);
+        add(Field.WRITE_NANOS, nanos);
+    }
+
+    /**
+     * @return Map of the counts of each {@link Window}, keyed by {@link
+     *         Window#getKey()}.
+     */
+    public Map<String,Object> toMap() {
+        final Map<String,Object> map = new LinkedHashMap<>();
+        for (Window window : Window.values()) {
+            map.put(window.getKey(), getCounts(window).toMap());
+        }
+        return map;
+    }
+
+}
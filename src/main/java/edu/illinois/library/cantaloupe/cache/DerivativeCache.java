@@ -7,6 +7,7 @@ import edu.illinois.library.cantaloupe.image.Info;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Path;
 
 /**
  * <p>Interface to be implemented by cache that cache derivative images and
@@ -30,6 +31,26 @@ public interface DerivativeCache extends Cache {
      */
     Info getImageInfo(Identifier identifier) throws IOException;
 
+    /**
+     * <p>Returns the file in which a valid image corresponding to the given
+     * operation list is cached, for implementations that store images in
+     * the local filesystem. Such a file can be read at arbitrary positions,
+     * which enables it to be served in response to byte-range requests.</p>
+     *
+     * <p>The default implementation returns {@literal null}.</p>
+     *
+     * @param opList Operation list for which to retrieve a file.
+     * @return File corresponding to the given operation list, or {@literal
+     *         null} if a valid image does not exist in the cache or the
+     *         implementation does not store images in files.
+     * @throws IOException
+     * @since 4.1
+     */
+    default Path getDerivativeImageFile(OperationList opList)
+            throws IOException {
+        return null;
+    }
+
     /**
      * <p>Returns an input stream corresponding to the given operation list,
      * or <code>null</code> if a valid image corresponding to the given
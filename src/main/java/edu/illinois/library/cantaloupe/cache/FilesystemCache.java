@@ -54,6 +54,7 @@ import java.util.stream.Collectors;
  *                     <li>Intermediate subdirectories (see [1])
  *                         <ul>
  *                             <li>{identifier hash (see [2])} (see [3])</li>
+ *                             <li>{identifier hash}.ptif (see [5])</li>
  *                         </ul>
  *                     </li>
  *                 </ul>
@@ -92,6 +93,9 @@ import java.util.stream.Collectors;
  *     longer than the filesystem's filename length limit.</li>
  *     <li>Cache files are created with a {@literal .tmp} extension and moved
  *     into place when closed for writing.</li>
+ *     <li>Pyramidal TIFFs derived from source images by the {@link
+ *     edu.illinois.library.cantaloupe.processor.Pyramidizer} are stored next
+ *     to them, and expire and get purged along with them.</li>
  * </ol>
  *
  * <h1>Notes</h1>
@@ -112,8 +116,8 @@ class FilesystemCache implements SourceCache, DerivativeCache {
      * closed.</p>
      *
      * <p>{@link T} may be either an {@link Identifier} corresponding to a
-     * source image, or an {@link OperationList} corresponding to a derivative
-     * image.</p>
+     * source image, an {@link OperationList} corresponding to a derivative
+     * image, or the {@link Path} of a pyramidal image.</p>
      */
     private static class ConcurrentFileOutputStream<T> extends OutputStream {
 
@@ -237,11 +241,13 @@ class FilesystemCache implements SourceCache, DerivativeCache {
     private static final String SOURCE_IMAGE_FOLDER = "source";
 
     private static final String INFO_EXTENSION = ".json";
+    private static final String PYRAMID_EXTENSION = ".ptif";
     private static final String TEMP_EXTENSION = ".tmp";
 
     /**
-     * Set of {@link Identifier}s or {@link OperationList}s) for which image
-     * files are currently being written from any thread.
+     * Set of {@link Identifier}s, {@link OperationList}s, or pyramidal image
+     * {@link Path}s for which image files are currently being written from
+     * any thread.
      */
     private static final Set<Object> imagesBeingWritten =
             ConcurrentHashMap.newKeySet();
@@ -285,6 +291,8 @@ class FilesystemCache implements SourceCache, DerivativeCache {
     private final Map<Identifier,ReadWriteLock> infoLocks =
             new ConcurrentHashMap<>();
 
+    private final CacheStatistics statistics = new CacheStatistics();
+
     /**
      * Returns the last-accessed time of the given file. On some OS/filesystem
      * combinations, this may be unreliable, in which case the last-modified
@@ -457,6 +465,30 @@ class FilesystemCache implements SourceCache, DerivativeCache {
                 .resolve(StringUtils.filesystemSafe(identifier.toString()));
     }
 
+    /**
+     * @param identifier Identifier of the source image.
+     * @return Path of the pyramidal TIFF derived from the source image with
+     *         the given identifier.
+     */
+    static Path pyramidalImageFile(Identifier identifier) {
+        return rootSourceImagePath()
+                .resolve(hashedPathFragment(identifier.toString()))
+                .resolve(StringUtils.filesystemSafe(identifier.toString())
+                        + PYRAMID_EXTENSION);
+    }
+
+    /**
+     * @param identifier Identifier of the source image.
+     * @return Temp file corresponding to a pyramidal TIFF derived from the
+     *         source image with the given identifier.
+     */
+    static Path pyramidalImageTempFile(Identifier identifier) {
+        return rootSourceImagePath()
+                .resolve(hashedPathFragment(identifier.toString()))
+                .resolve(StringUtils.filesystemSafe(identifier.toString())
+                        + PYRAMID_EXTENSION + tempFileSuffix());
+    }
+
     /**
      * @param identifier Identifier identifying the file.
      * @return Temp file corresponding to a source image with the given
@@ -575,6 +607,42 @@ class FilesystemCache implements SourceCache, DerivativeCache {
         return file;
     }
 
+    @Override
+    public Path getDerivativeImageFile(OperationList ops) throws IOException {
+        final Path cacheFile = derivativeImageFile(ops);
+        if (!Files.exists(cacheFile)) {
+            return null;
+        }
+        if (isExpired(cacheFile)) {
+            purgeAsync(cacheFile);
+            return null;
+        }
+        LOGGER.debug("getDerivativeImageFile(): hit: {} ({})", ops, cacheFile);
+        return cacheFile;
+    }
+
+    @Override
+    public Path getPyramidalImageFile(Identifier identifier)
+            throws IOException {
+        final Path cacheFile = pyramidalImageFile(identifier);
+        if (imagesBeingWritten.contains(cacheFile) ||
+                !Files.exists(cacheFile)) {
+            return null;
+        }
+        if (isExpired(cacheFile)) {
+            purgeAsync(cacheFile);
+            return null;
+        }
+        LOGGER.debug("getPyramidalImageFile(): hit: {} ({})",
+                identifier, cacheFile);
+        return cacheFile;
+    }
+
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
     @Override
     public InputStream newDerivativeImageInputStream(OperationList ops)
             throws IOException {
@@ -612,6 +680,16 @@ class FilesystemCache implements SourceCache, DerivativeCache {
                 derivativeImageFile(ops), derivativeImageWriteLock);
     }
 
+    @Override
+    public OutputStream newPyramidalImageOutputStream(Identifier identifier)
+            throws IOException {
+        // The pyramid is tracked by its path rather than its identifier so
+        // that readers of the source image don't wait on it.
+        final Path cacheFile = pyramidalImageFile(identifier);
+        return newOutputStream(cacheFile, pyramidalImageTempFile(identifier),
+                cacheFile, sourceImageWriteLock);
+    }
+
     /**
      * @param identifier Identifier representing the image to write to.
      * @return An output stream to write to. The stream will generally write to
@@ -628,7 +706,8 @@ class FilesystemCache implements SourceCache, DerivativeCache {
     }
 
     /**
-     * @param imageIdentifier {@link Identifier} or {@link OperationList}
+     * @param imageIdentifier {@link Identifier}, {@link OperationList}, or
+     *                        {@link Path} of a pyramidal image
      * @param tempFile Temporary file to write to.
      * @param destFile Destination file that tempFile will be moved to when
      *                 writing is complete.
@@ -756,6 +835,14 @@ class FilesystemCache implements SourceCache, DerivativeCache {
             } catch (IOException e) {
                 LOGGER.warn(e.getMessage());
             }
+            // Delete the pyramidal TIFF derived from it.
+            final Path pyramidFile = pyramidalImageFile(identifier);
+            try {
+                LOGGER.debug("purge(Identifier): deleting {}", pyramidFile);
+                Files.deleteIfExists(pyramidFile);
+            } catch (IOException e) {
+                LOGGER.warn(e.getMessage());
+            }
             // Delete the info.
             final Path infoFile = infoFile(identifier);
             try {
@@ -829,7 +916,9 @@ class FilesystemCache implements SourceCache, DerivativeCache {
         TaskQueue.getInstance().submit(() -> {
             LOGGER.debug("purgeAsync(): deleting stale file: {}", path);
             try {
-                Files.deleteIfExists(path);
+                if (Files.deleteIfExists(path)) {
+                    statistics.recordEvictions(1);
+                }
             } catch (IOException e) {
                 LOGGER.warn("purgeAsync(): unable to delete {}", path);
             }
@@ -873,6 +962,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
             LOGGER.debug("purgeInvalid(): purged {} item(s) totaling {} bytes",
                     visitor.getDeletedFileCount(),
                     visitor.getDeletedFileSize());
+            statistics.recordEvictions(visitor.getDeletedFileCount());
         } finally {
             isGlobalPurgeInProgress.set(false);
             synchronized (imagePurgeLock) {
@@ -7,6 +7,7 @@ import edu.illinois.library.cantaloupe.config.ConfigurationException;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.image.Info;
 import edu.illinois.library.cantaloupe.operation.OperationList;
+import edu.illinois.library.cantaloupe.util.StringUtils;
 import org.apache.commons.io.output.NullOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -256,6 +257,8 @@ class HeapCache implements DerivativeCache {
 
     private final Object persistenceLock = new Object();
 
+    private final CacheStatistics statistics = new CacheStatistics();
+
     /**
      * <p>Dumps the cache contents to the file specified by
      * {@link edu.illinois.library.cantaloupe.config.Key#HEAPCACHE_PATHNAME},
@@ -396,23 +399,7 @@ class HeapCache implements DerivativeCache {
         final Configuration config = Configuration.getInstance();
         String humanSize = config.getString(HEAPCACHE_TARGET_SIZE);
         if (humanSize != null && humanSize.length() > 0) {
-            final String numberStr = humanSize.replaceAll("[^\\d.]", "");
-            final double number = Double.parseDouble(numberStr);
-            long size;
-            short exponent;
-
-            if (humanSize.endsWith("M") || humanSize.endsWith("MB")) {
-                exponent = 2;
-            } else if (humanSize.endsWith("G") || humanSize.endsWith("GB")) {
-                exponent = 3;
-            } else if (humanSize.endsWith("T") || humanSize.endsWith("TB")) {
-                exponent = 4;
-            } else if (humanSize.endsWith("P") || humanSize.endsWith("PB")) { // you never know
-                exponent = 5;
-            } else {
-                exponent = 0;
-            }
-            size = Math.round(number * Math.pow(1024, exponent));
+            final long size = StringUtils.toByteSize(humanSize);
             if (size <= 0) {
                 throw new ConfigurationException(HEAPCACHE_TARGET_SIZE +
                         " must be greater than zero.");
@@ -513,6 +500,11 @@ class HeapCache implements DerivativeCache {
         }
     }
 
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
     @Override
     public InputStream newDerivativeImageInputStream(OperationList opList) {
         Item item = get(itemKey(opList));
@@ -584,6 +576,7 @@ class HeapCache implements DerivativeCache {
                     }
                 }
                 isDirty.lazySet(true);
+                statistics.recordEvictions(purgedItems);
                 LOGGER.info("purgeExcess(): purged {} items ({} bytes)",
                         purgedItems, purgedSize);
             }
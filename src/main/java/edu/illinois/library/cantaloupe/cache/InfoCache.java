@@ -34,6 +34,8 @@ public final class InfoCache {
 
     private final ObjectCache<Identifier, Info> objectCache;
 
+    private final CacheStatistics statistics = new CacheStatistics();
+
     InfoCache() {
         final long maxByteSize =
                 Math.round(Runtime.getRuntime().maxMemory() * MAX_HEAP_PERCENT);
@@ -57,6 +59,15 @@ public final class InfoCache {
         return objectCache.get(identifier);
     }
 
+    /**
+     * @return Statistics of the instance, recorded by {@link InfoService}.
+     *         Evictions are not counted.
+     * @since 4.1
+     */
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
     public long maxSize() {
         return objectCache.maxSize();
     }
@@ -0,0 +1,208 @@
+package edu.illinois.library.cantaloupe.cache;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.util.ObjectCache;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>Heap cache of serialized information responses, so that a request for
+ * the information of an image that has recently been requested by another
+ * client can be answered without rebuilding and reserializing it.</p>
+ *
+ * <p>Entries are keyed by identifier and by a &quot;variant&quot; string
+ * that must capture everything else that the response depends on, such as
+ * the endpoint, base URI, page index, and scale constraint. They are
+ * invalidated along with the other cached content of their identifier by
+ * {@link CacheFacade#purge(Identifier)} and {@link CacheFacade#purge()}.</p>
+ *
+ * <p>Responses are also assumed not to depend on anything else about the
+ * request. Notably, delegate methods that contribute to them are invoked only
+ * when an entry is created, so they must return the same result for every
+ * request for the same image.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @since 4.1
+ */
+public final class InfoResponseCache {
+
+    /**
+     * Cached response, along with its entity tag and, if {@link
+     * Key#INFO_RESPONSE_CACHE_GZIP} is enabled, a gzip-compressed copy.
+     * The arrays must not be modified.
+     */
+    public static final class Entry {
+
+        private final byte[] content, gzippedContent;
+        private final String entityTag, gzippedEntityTag;
+
+        private Entry(byte[] content, byte[] gzippedContent) {
+            this.content = content;
+            this.entityTag = newEntityTag(content);
+            this.gzippedContent = gzippedContent;
+            this.gzippedEntityTag = (gzippedContent != null) ?
+                    newEntityTag(gzippedContent) : null;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+
+        public String getEntityTag() {
+            return entityTag;
+        }
+
+        /**
+         * @return Gzip-compressed content, or {@literal null} if compression
+         *         is disabled.
+         */
+        public byte[] getGzippedContent() {
+            return gzippedContent;
+        }
+
+        /**
+         * @return Entity tag of the {@link #getGzippedContent() gzipped
+         *         content}, or {@literal null} if compression is disabled.
+         */
+        public String getGzippedEntityTag() {
+            return gzippedEntityTag;
+        }
+
+        private int weigh() {
+            final long bytes = content.length +
+                    ((gzippedContent != null) ? gzippedContent.length : 0);
+            return (int) Math.min(Integer.MAX_VALUE, bytes / 1024 + 1);
+        }
+
+    }
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(InfoResponseCache.class);
+
+    /**
+     * Cached responses will consume, at most, this much of max heap.
+     */
+    private static final float MAX_HEAP_PERCENT = 0.05f;
+
+    private static InfoResponseCache instance;
+
+    private final ObjectCache<List<Object>, Entry> entries;
+
+    /**
+     * For testing only.
+     */
+    static synchronized void clearInstance() {
+        instance = null;
+    }
+
+    /**
+     * @return Shared instance.
+     */
+    public static synchronized InfoResponseCache getInstance() {
+        if (instance == null) {
+            instance = new InfoResponseCache();
+        }
+        return instance;
+    }
+
+    /**
+     * @return Whether the {@link Key#INFO_RESPONSE_CACHE_ENABLED} key is set
+     *         to {@literal true}.
+     */
+    public static boolean isEnabled() {
+        return Configuration.getInstance()
+                .getBoolean(Key.INFO_RESPONSE_CACHE_ENABLED, false);
+    }
+
+    private static boolean isGzipEnabled() {
+        return Configuration.getInstance()
+                .getBoolean(Key.INFO_RESPONSE_CACHE_GZIP, true);
+    }
+
+    /**
+     * N.B.: This must produce the same tags as {@link
+     * edu.illinois.library.cantaloupe.resource.PublicResource}, so that they
+     * don't change when the cache is enabled or disabled.
+     */
+    private static String newEntityTag(byte[] content) {
+        return "\"" + DigestUtils.sha1Hex(content) + "\"";
+    }
+
+    private static byte[] gzip(byte[] content) {
+        final ByteArrayOutputStream os =
+                new ByteArrayOutputStream(content.length / 2);
+        try (GZIPOutputStream gzos = new GZIPOutputStream(os)) {
+            gzos.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return os.toByteArray();
+    }
+
+    private InfoResponseCache() {
+        final long maxByteSize =
+                Math.round(Runtime.getRuntime().maxMemory() * MAX_HEAP_PERCENT);
+        LOGGER.info("Max {} size: {} bytes ({}% max heap)",
+                InfoResponseCache.class.getSimpleName(),
+                maxByteSize,
+                Math.round(MAX_HEAP_PERCENT * 100));
+        entries = new ObjectCache<>(Math.max(1, maxByteSize / 1024),
+                Entry::weigh,
+                (key, entry) -> {});
+    }
+
+    /**
+     * @param identifier Identifier of the image described by the response.
+     * @param variant    Everything else that the response depends on.
+     * @return           Cached response, or {@literal null} if none exists.
+     */
+    public Entry get(Identifier identifier, String variant) {
+        return entries.get(Arrays.asList(identifier, variant));
+    }
+
+    /**
+     * Caches a response.
+     *
+     * @param identifier Identifier of the image described by the response.
+     * @param variant    Everything else that the response depends on.
+     * @param content    Complete response entity, which must not be modified
+     *                   afterwards.
+     * @return           New cached entry.
+     */
+    public Entry put(Identifier identifier, String variant, byte[] content) {
+        final Entry entry = new Entry(content,
+                isGzipEnabled() ? gzip(content) : null);
+        entries.put(Arrays.asList(identifier, variant), entry);
+        return entry;
+    }
+
+    public long maxSize() {
+        return entries.maxSize();
+    }
+
+    void purge() {
+        LOGGER.debug("purge()");
+        entries.removeAll();
+    }
+
+    void purge(Identifier identifier) {
+        LOGGER.debug("purge(Identifier): purging {}", identifier);
+        entries.removeAll(key -> identifier.equals(key.get(0)));
+    }
+
+    public long size() {
+        return entries.size();
+    }
+
+}
@@ -6,6 +6,7 @@ import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.image.Info;
 import edu.illinois.library.cantaloupe.processor.Processor;
+import edu.illinois.library.cantaloupe.status.Metrics;
 import edu.illinois.library.cantaloupe.util.ObjectCache;
 import edu.illinois.library.cantaloupe.util.Stopwatch;
 import org.slf4j.Logger;
@@ -66,8 +67,16 @@ public final class InfoService {
      * @see #getOrReadInfo(Identifier, Processor)
      */
     Info getInfo(final Identifier identifier) throws IOException {
+        final Metrics metrics = Metrics.getInstance();
+
         // Check the info cache.
+        long start = System.nanoTime();
         Info info = infoCache.get(identifier);
+        if (isObjectCacheEnabled()) {
+            recordLookup(infoCache.getStatistics(), info, start);
+        }
+        metrics.recordSince(Metrics.Stage.INFO_CACHE_LOOKUP,
+                infoCache.getClass().getSimpleName(), start);
 
         if (info != null) {
             LOGGER.debug("getInfo(): retrieved from {}: {}",
@@ -77,7 +86,11 @@ public final class InfoService {
             final DerivativeCache derivCache = CacheFactory.getDerivativeCache();
             if (derivCache != null) {
                 Stopwatch watch = new Stopwatch();
+                start = System.nanoTime();
                 info = derivCache.getImageInfo(identifier);
+                recordLookup(derivCache.getStatistics(), info, start);
+                metrics.recordSince(Metrics.Stage.INFO_CACHE_LOOKUP,
+                        derivCache.getClass().getSimpleName(), start);
                 if (info != null) {
                     LOGGER.debug("getInfo(): retrieved info of {} from {} in {}",
                             identifier,
@@ -145,14 +158,20 @@ public final class InfoService {
                 getBoolean(Key.INFO_CACHE_ENABLED, false);
     }
 
+    /**
+     * Purges the object cache along with the {@link InfoResponseCache}, whose
+     * content is derived from it.
+     */
     public void purgeObjectCache() {
         LOGGER.debug("purgeObjectCache()");
         infoCache.purge();
+        InfoResponseCache.getInstance().purge();
     }
 
     void purgeObjectCache(Identifier identifier) {
         LOGGER.debug("purgeObjectCache(): purging {}", identifier);
         infoCache.purge(identifier);
+        InfoResponseCache.getInstance().purge(identifier);
     }
 
     /**
@@ -163,7 +182,11 @@ public final class InfoService {
             LOGGER.debug("putInObjectCache(): adding info: {} (new size: {})",
                     identifier,
                     infoCache.size() + 1);
+            final long start = System.nanoTime();
             infoCache.put(identifier, info);
+            final CacheStatistics statistics = infoCache.getStatistics();
+            statistics.recordPut();
+            statistics.recordWrite(0, System.nanoTime() - start);
         } else {
             LOGGER.trace("putInObjectCache(): {} is disabled; doing nothing",
                     infoCache.getClass().getSimpleName());
@@ -180,7 +203,11 @@ public final class InfoService {
             putInObjectCache(identifier, info);
             if (derivCache != null) {
                 try {
+                    final long start = System.nanoTime();
                     derivCache.put(identifier, info);
+                    final CacheStatistics statistics = derivCache.getStatistics();
+                    statistics.recordPut();
+                    statistics.recordWrite(0, System.nanoTime() - start);
                 } catch (IOException e) {
                     LOGGER.error("putInCachesAsync(): {}", e.getMessage());
                 }
@@ -189,13 +216,31 @@ public final class InfoService {
         });
     }
 
+    /**
+     * Records a lookup of an info, whose size is unknown, as a hit or a miss
+     * and a read.
+     */
+    private static void recordLookup(CacheStatistics statistics,
+                                     Info info,
+                                     long startNanos) {
+        if (info != null) {
+            statistics.recordHit();
+        } else {
+            statistics.recordMiss();
+        }
+        statistics.recordRead(0, System.nanoTime() - startNanos);
+    }
+
     /**
      * Reads the information of a source image from the given processor.
      */
     private Info readInfo(final Identifier identifier,
                           final Processor proc) throws IOException {
         final Stopwatch watch = new Stopwatch();
+        final long start = System.nanoTime();
         final Info info = proc.readImageInfo();
+        Metrics.getInstance().recordSince(Metrics.Stage.INFO_READ,
+                proc.getClass().getSimpleName(), start);
 
         LOGGER.debug("readInfo(): read {} from {} in {}",
                 identifier,
@@ -143,6 +143,8 @@ class JdbcCache implements DerivativeCache {
 
     private static HikariDataSource dataSource;
 
+    private final CacheStatistics statistics = new CacheStatistics();
+
     /**
      * @return Connection from the connection pool. Clients must call
      *         {@link Connection#close} when they are done with it.
@@ -341,6 +343,11 @@ class JdbcCache implements DerivativeCache {
         return null;
     }
 
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
     @Override
     public InputStream newDerivativeImageInputStream(OperationList opList)
             throws IOException {
@@ -430,6 +437,8 @@ class JdbcCache implements DerivativeCache {
             connection.commit();
             LOGGER.debug("purgeInvalid(): purged {} derivative images and {} info(s)",
                     numDeletedDerivativeImages, numDeletedInfos);
+            statistics.recordEvictions(
+                    numDeletedDerivativeImages + numDeletedInfos);
         } catch (SQLException e) {
             throw new IOException(e.getMessage(), e);
         }
@@ -489,7 +498,7 @@ class JdbcCache implements DerivativeCache {
     private void purgeDerivativeImageAsync(OperationList ops) {
         TaskQueue.getInstance().submit(() -> {
             try (Connection conn = getConnection()) {
-                purgeDerivativeImage(ops, conn);
+                statistics.recordEvictions(purgeDerivativeImage(ops, conn));
             } catch (SQLException e) {
                 LOGGER.error("purgeDerivativeImageAsync(): {}", e.getMessage());
             }
@@ -567,7 +576,7 @@ class JdbcCache implements DerivativeCache {
     private void purgeInfoAsync(Identifier identifier) {
         TaskQueue.getInstance().submit(() -> {
             try (Connection conn = getConnection()) {
-                purgeInfo(identifier, conn);
+                statistics.recordEvictions(purgeInfo(identifier, conn));
             } catch (SQLException e) {
                 LOGGER.error("purgeImageInfosAsync(): {}", e.getMessage());
             }
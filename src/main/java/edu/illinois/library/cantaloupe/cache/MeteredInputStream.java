@@ -0,0 +1,88 @@
+package edu.illinois.library.cantaloupe.cache;
+
+import edu.illinois.library.cantaloupe.status.Metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the bytes read from a wrapped cache stream, and the time spent
+ * reading them, and records them in the {@link Cache#getStatistics()
+ * statistics of the cache} and as a {@link Metrics.Stage#CACHE_READ}
+ * duration when it is closed. Time spent by the reader between reads is not
+ * counted.
+ */
+final class MeteredInputStream extends FilterInputStream {
+
+    private final Cache cache;
+    private long bytes;
+    private long nanos;
+    private boolean isClosed;
+
+    /**
+     * @param in           Stream to wrap.
+     * @param cache        Cache from which the stream reads.
+     * @param lookupNanos  Time spent obtaining the stream from the cache.
+     */
+    MeteredInputStream(InputStream in, Cache cache, long lookupNanos) {
+        super(in);
+        this.cache = cache;
+        this.nanos = lookupNanos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            super.close();
+        } finally {
+            nanos += System.nanoTime() - start;
+            if (!isClosed) {
+                isClosed = true;
+                cache.getStatistics().recordRead(bytes, nanos);
+                Metrics.getInstance().record(Metrics.Stage.CACHE_READ,
+                        cache.getClass().getSimpleName(), nanos);
+            }
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            final int b = super.read();
+            if (b != -1) {
+                bytes++;
+            }
+            return b;
+        } finally {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            final int n = super.read(b, off, len);
+            if (n > 0) {
+                bytes += n;
+            }
+            return n;
+        } finally {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return super.skip(n);
+        } finally {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+}
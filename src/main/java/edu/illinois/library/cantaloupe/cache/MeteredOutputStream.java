@@ -0,0 +1,108 @@
+package edu.illinois.library.cantaloupe.cache;
+
+import edu.illinois.library.cantaloupe.status.Metrics;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * <p>Counts the bytes written to a wrapped cache stream, and the time spent
+ * writing them, including closing the stream, and records them as a put in
+ * the {@link Cache#getStatistics() statistics of the cache} and as a {@link
+ * Metrics.Stage#CACHE_WRITE} duration when it is closed. Time spent by the
+ * writer between writes, such as while encoding an image, is not counted.</p>
+ *
+ * <p>Nothing is recorded unless the writer has {@link
+ * #setCompletelyWritten(boolean) declared} that it has written everything it
+ * meant to, as an incompletely written image will be purged rather than
+ * put.</p>
+ *
+ * @since 4.1
+ */
+public final class MeteredOutputStream extends FilterOutputStream {
+
+    private final Cache cache;
+    private long bytes;
+    private long nanos;
+    private boolean isClosed, isCompletelyWritten;
+
+    /**
+     * @param out        Stream to wrap.
+     * @param cache      Cache to which the stream writes.
+     * @param openNanos  Time spent obtaining the stream from the cache.
+     */
+    MeteredOutputStream(OutputStream out, Cache cache, long openNanos) {
+        super(out);
+        this.cache = cache;
+        this.nanos = openNanos;
+    }
+
+    /**
+     * Closes the wrapped stream without flushing it first, as {@link
+     * FilterOutputStream#close()} would, because some cache streams have to
+     * be closed exactly once.
+     */
+    @Override
+    public void close() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            out.close();
+        } finally {
+            nanos += System.nanoTime() - start;
+            if (!isClosed && isCompletelyWritten) {
+                final CacheStatistics statistics = cache.getStatistics();
+                statistics.recordPut();
+                statistics.recordWrite(bytes, nanos);
+                Metrics.getInstance().record(Metrics.Stage.CACHE_WRITE,
+                        cache.getClass().getSimpleName(), nanos);
+            }
+            isClosed = true;
+        }
+    }
+
+    /**
+     * To be invoked with an argument of {@literal true} by the writer once
+     * it has written everything, before it closes the instance.
+     */
+    public void setCompletelyWritten(boolean isCompletelyWritten) {
+        this.isCompletelyWritten = isCompletelyWritten;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            out.flush();
+        } finally {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            out.write(b);
+            bytes++;
+        } finally {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Overridden because {@link FilterOutputStream#write(byte[], int, int)}
+     * writes one byte at a time.
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            out.write(b, off, len);
+            bytes += len;
+        } finally {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+}
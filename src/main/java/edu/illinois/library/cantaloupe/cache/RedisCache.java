@@ -213,6 +213,8 @@ class RedisCache implements DerivativeCache {
     static final String INFO_HASH_KEY =
             "edu.illinois.library.cantaloupe.info";
 
+    private final CacheStatistics statistics = new CacheStatistics();
+
     private static StatefulRedisConnection<String, byte[]> getConnection() {
         return LazyConnectionHolder.connection;
     }
@@ -236,6 +238,14 @@ class RedisCache implements DerivativeCache {
         return null;
     }
 
+    /**
+     * Evictions are not counted, as expiration is handled by Redis itself.
+     */
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
     @Override
     public InputStream newDerivativeImageInputStream(OperationList opList) {
         final String imageKey = imageKey(opList);
@@ -206,6 +206,8 @@ class S3Cache implements DerivativeCache {
      */
     private static AmazonS3 client;
 
+    private final CacheStatistics statistics = new CacheStatistics();
+
     static synchronized AmazonS3 getClientInstance() {
         if (client == null) {
             final Configuration config = Configuration.getInstance();
@@ -294,6 +296,11 @@ class S3Cache implements DerivativeCache {
         return null;
     }
 
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
     @Override
     public InputStream newDerivativeImageInputStream(OperationList opList)
             throws IOException {
@@ -411,6 +418,7 @@ class S3Cache implements DerivativeCache {
             LOGGER.debug("purgeAsync(): deleting {} from bucket {}",
                     key, bucketName);
             s3.deleteObject(bucketName, key);
+            statistics.recordEvictions(1);
             return null;
         });
     }
@@ -444,6 +452,7 @@ class S3Cache implements DerivativeCache {
 
         LOGGER.debug("purgeInvalid(): deleted {} of {} items",
                 deletedCount, count);
+        statistics.recordEvictions(deletedCount);
     }
 
     @Override
@@ -45,6 +45,43 @@ public interface SourceCache extends Cache {
      */
     Path getSourceImageFile(Identifier identifier) throws IOException;
 
+    /**
+     * <p>Returns a tiled, multi-resolution TIFF derived from the source image
+     * corresponding to the given identifier, or {@literal null} if one does
+     * not exist in the cache.</p>
+     *
+     * <p>Like {@link #getSourceImageFile(Identifier)}, clients must not write
+     * to the returned path.</p>
+     *
+     * <p>This default implementation returns {@literal null}.</p>
+     *
+     * @param identifier Identifier of the source image.
+     * @return           Pyramidal TIFF file, or {@literal null}.
+     * @see edu.illinois.library.cantaloupe.processor.Pyramidizer
+     * @since 4.1
+     */
+    default Path getPyramidalImageFile(Identifier identifier)
+            throws IOException {
+        return null;
+    }
+
+    /**
+     * <p>Returns an output stream to which a pyramidal TIFF derived from the
+     * source image corresponding to the given identifier can be written, to
+     * be stored alongside it.</p>
+     *
+     * <p>This default implementation throws an {@link
+     * UnsupportedOperationException}.</p>
+     *
+     * @param identifier Identifier of the source image.
+     * @return           Output stream to write to.
+     * @since 4.1
+     */
+    default OutputStream newPyramidalImageOutputStream(Identifier identifier)
+            throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * @param identifier Identifier of an image to write to the cache.
      * @return Output stream to which an image corresponding to the given
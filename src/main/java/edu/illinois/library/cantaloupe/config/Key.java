@@ -92,6 +92,9 @@ public enum Key {
     HEAPCACHE_PERSIST("HeapCache.persist"),
     HEAPCACHE_TARGET_SIZE("HeapCache.target_size"),
     HTTP_ACCEPT_QUEUE_LIMIT("http.accept_queue_limit"),
+    HTTP_ASYNC_ENABLED("http.async.enabled"),
+    HTTP_ASYNC_MAX_QUEUED_REQUESTS("http.async.max_queued_requests"),
+    HTTP_ASYNC_MAX_THREADS("http.async.max_threads"),
     HTTP_ENABLED("http.enabled"),
     HTTP_HTTP2_ENABLED("http.http2.enabled"),
     HTTP_HOST("http.host"),
@@ -119,6 +122,8 @@ public enum Key {
     IIIF_MIN_TILE_SIZE("endpoint.iiif.min_tile_size"),
     IMAGEMAGICKPROCESSOR_PATH_TO_BINARIES("ImageMagickProcessor.path_to_binaries"),
     INFO_CACHE_ENABLED("cache.server.info.enabled"),
+    INFO_RESPONSE_CACHE_ENABLED("cache.server.info_response.enabled"),
+    INFO_RESPONSE_CACHE_GZIP("cache.server.info_response.gzip"),
     JDBCCACHE_CONNECTION_TIMEOUT("JdbcCache.connection_timeout"),
     JDBCCACHE_DERIVATIVE_IMAGE_TABLE("JdbcCache.derivative_image_table"),
     JDBCCACHE_INFO_TABLE("JdbcCache.info_table"),
@@ -132,6 +137,7 @@ public enum Key {
     KAKADUDEMOPROCESSOR_PATH_TO_BINARIES("KakaduDemoProcessor.path_to_binaries"),
     MAX_PIXELS("max_pixels"),
     OPENJPEGPROCESSOR_PATH_TO_BINARIES("OpenJpegProcessor.path_to_binaries"),
+    OVERLAY_CACHE_MAX_SIZE("overlays.cache.max_size"),
     OVERLAY_ENABLED("overlays.enabled"),
     OVERLAY_IMAGE("overlays.BasicStrategy.image"),
     OVERLAY_INSET("overlays.BasicStrategy.inset"),
@@ -150,15 +156,35 @@ public enum Key {
     OVERLAY_STRING_STROKE_COLOR("overlays.BasicStrategy.string.stroke.color"),
     OVERLAY_STRING_STROKE_WIDTH("overlays.BasicStrategy.string.stroke.width"),
     OVERLAY_TYPE("overlays.BasicStrategy.type"),
+    PDFBOXPROCESSOR_DOCUMENT_CACHE_MAX_SIZE("PdfBoxProcessor.document_cache.max_size"),
+    PDFBOXPROCESSOR_MAX_MAIN_MEMORY("PdfBoxProcessor.max_main_memory"),
+    PDFBOXPROCESSOR_RASTER_CACHE_MAX_SIZE("PdfBoxProcessor.raster_cache.max_size"),
     PRINT_STACK_TRACE_ON_ERROR_PAGES("print_stack_trace_on_error_pages"),
+    PROCESSOR_ADMISSION_ENABLED("processor.admission.enabled"),
+    PROCESSOR_ADMISSION_MAX_CONCURRENT("processor.admission.max_concurrent"),
+    PROCESSOR_ADMISSION_MAX_PIXELS("processor.admission.max_pixels"),
+    PROCESSOR_ADMISSION_MAX_QUEUED("processor.admission.max_queued"),
+    PROCESSOR_ADMISSION_QUEUE_TIMEOUT("processor.admission.queue_timeout"),
+    PROCESSOR_ADMISSION_RETRY_AFTER("processor.admission.retry_after"),
     PROCESSOR_BACKGROUND_COLOR("processor.background_color"),
+    PROCESSOR_BUFFER_POOL_MAX_SIZE("processor.buffer_pool.max_size"),
     PROCESSOR_DOWNSCALE_FILTER("processor.downscale_filter"),
     PROCESSOR_DPI("processor.dpi"),
     PROCESSOR_FALLBACK("processor.ManualSelectionStrategy.fallback"),
     PROCESSOR_FALLBACK_RETRIEVAL_STRATEGY("processor.fallback_retrieval_strategy"),
+    PROCESSOR_IMAGEIO_SUBSAMPLE("processor.imageio.subsample"),
+    PROCESSOR_IMAGEIO_SUBSAMPLE_PRESERVE_QUALITY("processor.imageio.subsample.preserve_quality"),
+    PROCESSOR_IMAGEIO_LOSSLESS_JPEG_TRANSFORMS("processor.imageio.lossless_jpeg_transforms"),
+    PROCESSOR_IMAGEIO_STREAMING_THRESHOLD("processor.imageio.streaming_threshold"),
+    PROCESSOR_IMAGEIO_TILE_PASSTHROUGH("processor.imageio.tile_passthrough"),
     PROCESSOR_JPG_PROGRESSIVE("processor.jpg.progressive"),
     PROCESSOR_JPG_QUALITY("processor.jpg.quality"),
+    PROCESSOR_PNG_COMPRESSION_LEVEL("processor.png.compression_level"),
+    PROCESSOR_PNG_FILTER("processor.png.filter"),
+    PROCESSOR_PNG_PARALLEL_ENCODING("processor.png.parallel_encoding"),
     PROCESSOR_PRESERVE_METADATA("processor.metadata.preserve"),
+    PROCESSOR_PYRAMIDIZE("processor.pyramidize"),
+    PROCESSOR_PYRAMIDIZE_REQUEST_THRESHOLD("processor.pyramidize.request_threshold"),
     PROCESSOR_RESPECT_ORIENTATION("processor.metadata.respect_orientation"),
     PROCESSOR_SELECTION_STRATEGY("processor.selection_strategy"),
     PROCESSOR_SHARPEN("processor.sharpen"),
@@ -8,6 +8,7 @@ import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.tika.detect.Detector;
 import org.apache.tika.io.TikaInputStream;
@@ -16,6 +17,7 @@ import org.apache.tika.parser.AutoDetectParser;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
@@ -58,6 +60,15 @@ public final class MediaType {
 
     private String subtype, type;
 
+    /**
+     * Holds the Tika detector, which is expensive to create, so that it
+     * isn't created until it's needed.
+     */
+    private static final class TikaDetectorHolder {
+        private static final Detector DETECTOR =
+                new AutoDetectParser().getDetector();
+    }
+
     /**
      * Attempts to detect the media type(s) of the given magic bytes. The
      * detection is fast but imperfect.
@@ -70,12 +81,17 @@ public final class MediaType {
             throws IOException {
         final List<MediaType> types = new ArrayList<>();
 
+        final Format format = SignatureDetector.detect(bytes, bytes.length);
+        if (format != null) {
+            types.add(format.getPreferredMediaType());
+            return types;
+        }
+
         // https://tika.apache.org/1.1/detection.html
         try (TikaInputStream is = TikaInputStream.get(bytes)) {
-            AutoDetectParser parser = new AutoDetectParser();
-            Detector detector = parser.getDetector();
             Metadata md = new Metadata();
-            org.apache.tika.mime.MediaType mediaType = detector.detect(is, md);
+            org.apache.tika.mime.MediaType mediaType =
+                    TikaDetectorHolder.DETECTOR.detect(is, md);
             types.add(new MediaType(mediaType.toString()));
         }
         return types;
@@ -93,13 +109,22 @@ public final class MediaType {
             throws IOException {
         final List<MediaType> types = new ArrayList<>();
 
+        try (InputStream is = Files.newInputStream(path)) {
+            final byte[] header = new byte[SignatureDetector.HEADER_LENGTH];
+            final int length = IOUtils.read(is, header);
+            final Format format = SignatureDetector.detect(header, length);
+            if (format != null) {
+                types.add(format.getPreferredMediaType());
+                return types;
+            }
+        }
+
         // https://tika.apache.org/1.1/detection.html
         try (TikaInputStream is = TikaInputStream.get(path)) {
-            AutoDetectParser parser = new AutoDetectParser();
-            Detector detector = parser.getDetector();
             Metadata md = new Metadata();
             md.add(Metadata.RESOURCE_NAME_KEY, path.toString());
-            org.apache.tika.mime.MediaType mediaType = detector.detect(is, md);
+            org.apache.tika.mime.MediaType mediaType =
+                    TikaDetectorHolder.DETECTOR.detect(is, md);
             types.add(new MediaType(mediaType.toString()));
         }
         return types;
@@ -118,12 +143,23 @@ public final class MediaType {
             throws IOException {
         final List<MediaType> types = new ArrayList<>();
 
-        // https://tika.apache.org/1.1/detection.html
-        AutoDetectParser parser = new AutoDetectParser();
-        Detector detector = parser.getDetector();
+        final byte[] header = new byte[SignatureDetector.HEADER_LENGTH];
+        inputStream.mark(header.length);
+        final int length;
+        try {
+            length = IOUtils.read(inputStream, header);
+        } finally {
+            inputStream.reset();
+        }
+        final Format format = SignatureDetector.detect(header, length);
+        if (format != null) {
+            types.add(format.getPreferredMediaType());
+            return types;
+        }
 
-        org.apache.tika.mime.MediaType mediaType = detector.detect(
-                inputStream, new Metadata());
+        // https://tika.apache.org/1.1/detection.html
+        org.apache.tika.mime.MediaType mediaType =
+                TikaDetectorHolder.DETECTOR.detect(inputStream, new Metadata());
         types.add(new MediaType(mediaType.toString()));
 
         return types;
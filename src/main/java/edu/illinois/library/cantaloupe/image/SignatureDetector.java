@@ -0,0 +1,181 @@
+package edu.illinois.library.cantaloupe.image;
+
+/**
+ * <p>Detects the {@link Format} of a file from the signature ("magic bytes")
+ * at the beginning of it.</p>
+ *
+ * <p>This recognizes only the formats in {@link Format}, but does so without
+ * any of the overhead of Tika, which {@link MediaType} falls back to when
+ * this doesn't recognize a signature.</p>
+ *
+ * @since 4.1
+ */
+final class SignatureDetector {
+
+    /**
+     * Number of leading bytes needed to recognize any supported signature.
+     * (DICOM's is the deepest, at byte 128.)
+     */
+    static final int HEADER_LENGTH = 132;
+
+    /**
+     * ISO base media file format brands of MPEG-4 video.
+     */
+    private static final String[] MP4_BRANDS = new String[] {
+            "avc1", "dash", "f4v ", "iso2", "iso3", "iso4", "iso5", "iso6",
+            "isom", "M4V ", "mmp4", "mp41", "mp42", "MSNV" };
+
+    /**
+     * Top-level atom types that may begin a QuickTime file lacking a
+     * {@literal ftyp} atom.
+     */
+    private static final String[] QUICKTIME_ATOMS = new String[] {
+            "free", "mdat", "moov", "pnot", "skip", "wide" };
+
+    /**
+     * @param bytes  Leading bytes of a file.
+     * @param length Number of valid bytes in the array.
+     * @return       Format corresponding to the signature at the beginning
+     *               of the given bytes, or {@literal null} if it is not
+     *               recognized.
+     */
+    static Format detect(byte[] bytes, int length) {
+        if (length < 4) {
+            return null;
+        }
+        // DICOM's signature follows a 128-byte preamble, which may contain
+        // anything.
+        if (matches(bytes, length, 128, "DICM")) {
+            return Format.DCM;
+        }
+        switch (bytes[0] & 0xff) {
+            case 0x00:
+                if (startsWith(bytes, length, 0, 0x00, 0x00, 0x01, 0xba) ||
+                        startsWith(bytes, length, 0, 0x00, 0x00, 0x01, 0xb3)) {
+                    return Format.MPG;
+                } else if (startsWith(bytes, length, 0, 0x00, 0x00, 0x00, 0x0c,
+                        'j', 'P', ' ', ' ', 0x0d, 0x0a, 0x87, 0x0a)) {
+                    // The brand of the ftyp box that follows the signature
+                    // box distinguishes JP2 from JPX, JPM, etc.
+                    return matches(bytes, length, 20, "jp2 ") ?
+                            Format.JP2 : null;
+                }
+                return detectISOBaseMedia(bytes, length);
+            case 0x1a:
+                if (startsWith(bytes, length, 0, 0x1a, 0x45, 0xdf, 0xa3) &&
+                        contains(bytes, length, "webm")) {
+                    return Format.WEBM;
+                }
+                return null;
+            case '%':
+                return matches(bytes, length, 0, "%PDF-") ? Format.PDF : null;
+            case 'B':
+                // "BM" alone is too common to be reliable, so the size of the
+                // DIB header, which is always one of a few values, is
+                // checked too.
+                if (bytes[1] == 'M' && length >= 18 &&
+                        bytes[15] == 0 && bytes[16] == 0 && bytes[17] == 0) {
+                    switch (bytes[14]) {
+                        case 12: case 40: case 52: case 56: case 64:
+                        case 108: case 124:
+                            return Format.BMP;
+                    }
+                }
+                return null;
+            case 'F':
+                return startsWith(bytes, length, 0, 'F', 'L', 'V', 0x01) ?
+                        Format.FLV : null;
+            case 'G':
+                return (matches(bytes, length, 0, "GIF87a") ||
+                        matches(bytes, length, 0, "GIF89a")) ?
+                        Format.GIF : null;
+            case 'I':
+                return (startsWith(bytes, length, 0, 'I', 'I', 0x2a, 0x00) ||
+                        startsWith(bytes, length, 0, 'I', 'I', 0x2b, 0x00)) ?
+                        Format.TIF : null;
+            case 'M':
+                return (startsWith(bytes, length, 0, 'M', 'M', 0x00, 0x2a) ||
+                        startsWith(bytes, length, 0, 'M', 'M', 0x00, 0x2b)) ?
+                        Format.TIF : null;
+            case 'R':
+                if (matches(bytes, length, 0, "RIFF")) {
+                    if (matches(bytes, length, 8, "WEBP")) {
+                        return Format.WEBP;
+                    } else if (matches(bytes, length, 8, "AVI ")) {
+                        return Format.AVI;
+                    }
+                }
+                return null;
+            case 0x89:
+                return startsWith(bytes, length, 0,
+                        0x89, 'P', 'N', 'G', 0x0d, 0x0a, 0x1a, 0x0a) ?
+                        Format.PNG : null;
+            case 0xff:
+                return startsWith(bytes, length, 0, 0xff, 0xd8, 0xff) ?
+                        Format.JPG : null;
+        }
+        return null;
+    }
+
+    /**
+     * Distinguishes MPEG-4 from QuickTime, which share a container format,
+     * by the brand in the {@literal ftyp} atom.
+     */
+    private static Format detectISOBaseMedia(byte[] bytes, int length) {
+        if (matches(bytes, length, 4, "ftyp")) {
+            if (matches(bytes, length, 8, "qt  ")) {
+                return Format.MOV;
+            }
+            for (String brand : MP4_BRANDS) {
+                if (matches(bytes, length, 8, brand)) {
+                    return Format.MP4;
+                }
+            }
+            return null;
+        }
+        for (String atom : QUICKTIME_ATOMS) {
+            if (matches(bytes, length, 4, atom)) {
+                return Format.MOV;
+            }
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] bytes, int length, int offset,
+                                      int... signature) {
+        if (offset + signature.length > length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((bytes[offset + i] & 0xff) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(byte[] bytes, int length, int offset,
+                                   String signature) {
+        if (offset + signature.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length(); i++) {
+            if (bytes[offset + i] != signature.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(byte[] bytes, int length, String str) {
+        for (int i = 0; i + str.length() <= length; i++) {
+            if (matches(bytes, length, i, str)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private SignatureDetector() {}
+
+}
@@ -1,5 +1,6 @@
 package edu.illinois.library.cantaloupe.operation.overlay;
 
+import edu.illinois.library.cantaloupe.util.ObjectCache;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -7,23 +8,50 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.URI;
-import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 
 /**
- * Thread-safe, in-memory image overlay cache.
+ * <p>Thread-safe, in-memory image overlay cache.</p>
+ *
+ * <p>The total size of the cached images is bounded. Concurrent requests for
+ * the same uncached image wait on a single download of it, without blocking
+ * requests for other images.</p>
  */
 final class ImageOverlayCache {
 
     private static final Logger LOGGER = LoggerFactory.
             getLogger(ImageOverlayCache.class);
 
-    private final Set<URI> downloadingOverlays =
-            new ConcurrentSkipListSet<>();
-    private final Map<URI, byte[]> overlays = new ConcurrentHashMap<>();
+    /**
+     * Overlay images are typically small, so this is plenty.
+     */
+    private static final long DEFAULT_MAX_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * In-progress downloads by URI.
+     */
+    private final ConcurrentMap<URI, CompletableFuture<byte[]>> downloads =
+            new ConcurrentHashMap<>();
+
+    private final ObjectCache<URI, byte[]> overlays;
+
+    ImageOverlayCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize Maximum total size of the cached images in bytes.
+     */
+    ImageOverlayCache(long maxSize) {
+        overlays = new ObjectCache<>(Math.max(1, maxSize / 1024),
+                bytes -> bytes.length / 1024 + 1,
+                (uri, bytes) -> {});
+    }
 
     /**
      * @param uri Overlay image URI.
@@ -31,41 +59,64 @@ final class ImageOverlayCache {
      * @throws IOException If the image cannot be accessed.
      */
     byte[] putAndGet(URI uri) throws IOException {
+        // Try to pluck it out of the cache.
+        byte[] bytes = overlays.get(uri);
+        if (bytes != null) {
+            LOGGER.debug("putAndGet(): hit for {}", uri);
+            return bytes;
+        }
+
         // If the overlay is currently being downloaded in another thread,
-        // wait for it to download.
-        synchronized (this) {
-            while (downloadingOverlays.contains(uri)) {
-                try {
-                    LOGGER.debug("putAndGet(): waiting on {}", uri);
-                    wait();
-                } catch (InterruptedException e) {
-                    break;
-                }
-            }
+        // wait for that download instead of starting another one.
+        final CompletableFuture<byte[]> download = new CompletableFuture<>();
+        final CompletableFuture<byte[]> otherDownload =
+                downloads.putIfAbsent(uri, download);
+        if (otherDownload != null) {
+            LOGGER.debug("putAndGet(): waiting on {}", uri);
+            return await(otherDownload);
         }
 
-        // Try to pluck it out of the cache.
-        byte[] cachedValue = overlays.get(uri);
-        if (cachedValue != null) {
-            LOGGER.debug("putAndGet(): hit for {}", uri);
-            return cachedValue;
+        try {
+            // Another thread may have finished downloading it in the
+            // meantime.
+            bytes = overlays.get(uri);
+            if (bytes == null) {
+                LOGGER.debug("putAndGet(): miss for {}", uri);
+                bytes = download(uri);
+                overlays.put(uri, bytes);
+            }
+            download.complete(bytes);
+            return bytes;
+        } catch (IOException | RuntimeException e) {
+            download.completeExceptionally(e);
+            throw e;
+        } finally {
+            downloads.remove(uri, download);
         }
+    }
 
-        LOGGER.debug("putAndGet(): miss for {}", uri);
+    private static byte[] await(CompletableFuture<byte[]> download)
+            throws IOException {
+        try {
+            return download.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
 
-        // It's not being downloaded and isn't cached, so download and cache it.
-        downloadingOverlays.add(uri);
+    private static byte[] download(URI uri) throws IOException {
         try (InputStream is = uri.toURL().openStream();
              ByteArrayOutputStream os = new ByteArrayOutputStream()) {
             IOUtils.copy(is, os);
-            overlays.put(uri, os.toByteArray());
-        } finally {
-            downloadingOverlays.remove(uri);
-            synchronized (this) {
-                notifyAll();
-            }
+            return os.toByteArray();
         }
-        return overlays.get(uri);
     }
 
 }
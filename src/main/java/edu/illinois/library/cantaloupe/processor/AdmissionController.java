@@ -0,0 +1,328 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InterruptedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Limits the amount of processing that each {@link Processor}
+ * implementation does at once, so that a surge of requests requiring
+ * expensive processing can't exhaust the heap and take down requests that
+ * are cheap to fulfill along with it.</p>
+ *
+ * <p>Each processor class has its own &quot;bulkhead&quot; that admits up to
+ * {@link Key#PROCESSOR_ADMISSION_MAX_CONCURRENT} requests producing up to
+ * {@link Key#PROCESSOR_ADMISSION_MAX_PIXELS} output pixels in total at once.
+ * Requests beyond those limits wait in a queue of up to {@link
+ * Key#PROCESSOR_ADMISSION_MAX_QUEUED} requests for up to {@link
+ * Key#PROCESSOR_ADMISSION_QUEUE_TIMEOUT} seconds, after which, or if the
+ * queue is full, they are rejected with an {@link
+ * AdmissionRejectedException}. The limits can be overridden for a particular
+ * processor using keys like {@literal
+ * processor.admission.PdfBoxProcessor.max_concurrent}.</p>
+ *
+ * <p>Only requests that are actually going to be processed should be
+ * admitted; derivative cache hits, unmodified source images, and information
+ * requests should not be.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @since 4.1
+ */
+public final class AdmissionController {
+
+    /**
+     * Represents an admitted request. Must be {@link #close() closed} when
+     * processing is complete.
+     */
+    public static final class Permit implements AutoCloseable {
+
+        private final Bulkhead bulkhead;
+        private final long pixels;
+        private boolean isClosed;
+
+        private Permit(Bulkhead bulkhead, long pixels) {
+            this.bulkhead = bulkhead;
+            this.pixels = pixels;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!isClosed && bulkhead != null) {
+                bulkhead.release(pixels);
+            }
+            isClosed = true;
+        }
+
+    }
+
+    /**
+     * Concurrency and pixel limits, and queue, of a single processor.
+     */
+    static final class Bulkhead {
+
+        private int maxConcurrent, maxQueued;
+        private long maxPixels;
+
+        private int active, queued;
+        private long activePixels, rejected;
+
+        /**
+         * Updates the limits, which are read from the configuration upon
+         * every acquisition so that they can be changed at runtime.
+         */
+        synchronized void setLimits(int maxConcurrent,
+                                    long maxPixels,
+                                    int maxQueued) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxPixels = maxPixels;
+            this.maxQueued = maxQueued;
+            // Raised limits may admit waiting requests.
+            notifyAll();
+        }
+
+        /**
+         * @param pixels       Cost of the request, which must already have
+         *                     been capped to {@link #maxPixels}.
+         * @param timeoutMsec  Maximum time to wait in the queue.
+         * @return             Whether the request was admitted.
+         */
+        synchronized boolean acquire(long pixels, long timeoutMsec)
+                throws InterruptedException {
+            // Requests that find others already waiting go to the back of
+            // the line, even if they would fit.
+            if (queued == 0 && canAdmit(pixels)) {
+                admit(pixels);
+                return true;
+            }
+            if (queued >= maxQueued) {
+                rejected++;
+                return false;
+            }
+            queued++;
+            try {
+                final long deadline = System.nanoTime() +
+                        TimeUnit.MILLISECONDS.toNanos(timeoutMsec);
+                while (!canAdmit(pixels)) {
+                    final long remainingMsec = TimeUnit.NANOSECONDS.toMillis(
+                            deadline - System.nanoTime());
+                    if (remainingMsec <= 0) {
+                        rejected++;
+                        return false;
+                    }
+                    wait(remainingMsec);
+                }
+                admit(pixels);
+                return true;
+            } finally {
+                queued--;
+            }
+        }
+
+        private void admit(long pixels) {
+            active++;
+            activePixels += pixels;
+        }
+
+        private boolean canAdmit(long pixels) {
+            return active < maxConcurrent &&
+                    (maxPixels <= 0 || activePixels + pixels <= maxPixels);
+        }
+
+        synchronized void release(long pixels) {
+            active--;
+            activePixels -= pixels;
+            notifyAll();
+        }
+
+        /**
+         * @return Cost of a request for an image of the given number of
+         *         pixels. A request for an image larger than {@link
+         *         #maxPixels} costs all of them, so that it is processed
+         *         alone rather than never.
+         */
+        synchronized long cost(long pixels) {
+            return (maxPixels > 0) ? Math.min(pixels, maxPixels) : 0;
+        }
+
+        synchronized int getActive() {
+            return active;
+        }
+
+        synchronized int getQueued() {
+            return queued;
+        }
+
+        synchronized long getRejected() {
+            return rejected;
+        }
+
+        synchronized Map<String,Object> toMap() {
+            final Map<String,Object> map = new LinkedHashMap<>();
+            map.put("active", active);
+            map.put("activePixels", activePixels);
+            map.put("queued", queued);
+            map.put("rejected", rejected);
+            map.put("maxConcurrent", maxConcurrent);
+            map.put("maxPixels", maxPixels);
+            map.put("maxQueued", maxQueued);
+            return map;
+        }
+
+    }
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(AdmissionController.class);
+
+    private static final int DEFAULT_MAX_QUEUED = 100;
+
+    private static final long DEFAULT_MAX_PIXELS = 100000000;
+
+    private static final int DEFAULT_QUEUE_TIMEOUT = 30;
+
+    private static final int DEFAULT_RETRY_AFTER = 5;
+
+    private static final Permit NO_OP_PERMIT = new Permit(null, 0);
+
+    private static AdmissionController instance;
+
+    private final ConcurrentMap<String,Bulkhead> bulkheads =
+            new ConcurrentHashMap<>();
+
+    /**
+     * For testing only.
+     */
+    static synchronized void clearInstance() {
+        instance = null;
+    }
+
+    /**
+     * @return Shared instance.
+     */
+    public static synchronized AdmissionController getInstance() {
+        if (instance == null) {
+            instance = new AdmissionController();
+        }
+        return instance;
+    }
+
+    private static boolean isEnabled() {
+        return Configuration.getInstance()
+                .getBoolean(Key.PROCESSOR_ADMISSION_ENABLED, false);
+    }
+
+    /**
+     * Sets the limits of the given bulkhead from the configuration.
+     *
+     * @param processorName Processor class simple name.
+     * @param bulkhead      Bulkhead of the processor.
+     */
+    private static void configure(String processorName, Bulkhead bulkhead) {
+        final Configuration config = Configuration.getInstance();
+        final String prefix = "processor.admission." + processorName + ".";
+
+        int maxConcurrent = config.getInt(Key.PROCESSOR_ADMISSION_MAX_CONCURRENT, 0);
+        if (maxConcurrent <= 0) {
+            maxConcurrent = Runtime.getRuntime().availableProcessors() * 2;
+        }
+        maxConcurrent = config.getInt(prefix + "max_concurrent", maxConcurrent);
+
+        long maxPixels = config.getLong(Key.PROCESSOR_ADMISSION_MAX_PIXELS,
+                DEFAULT_MAX_PIXELS);
+        maxPixels = config.getLong(prefix + "max_pixels", maxPixels);
+
+        int maxQueued = config.getInt(Key.PROCESSOR_ADMISSION_MAX_QUEUED,
+                DEFAULT_MAX_QUEUED);
+        maxQueued = config.getInt(prefix + "max_queued", maxQueued);
+
+        bulkhead.setLimits(Math.max(1, maxConcurrent), maxPixels,
+                Math.max(0, maxQueued));
+    }
+
+    /**
+     * Admits a request, waiting if necessary.
+     *
+     * @param processor Processor that will process the request.
+     * @param pixels    Number of pixels in the image that the processor will
+     *                  produce, which serves as an estimate of its cost.
+     * @return          Permit that must be closed when processing is
+     *                  complete.
+     * @throws AdmissionRejectedException if the processor's queue is full, or
+     *         the request waited in it for too long.
+     * @throws InterruptedIOException if the calling thread was interrupted
+     *         while waiting.
+     */
+    public Permit acquire(Processor processor,
+                          long pixels) throws AdmissionRejectedException,
+                                              InterruptedIOException {
+        if (!isEnabled()) {
+            return NO_OP_PERMIT;
+        }
+        final Configuration config = Configuration.getInstance();
+        final String processorName = processor.getClass().getSimpleName();
+        final Bulkhead bulkhead = bulkheads.computeIfAbsent(
+                processorName, name -> new Bulkhead());
+        configure(processorName, bulkhead);
+        final long cost = bulkhead.cost(pixels);
+        final long timeoutMsec = 1000L * config.getInt(
+                Key.PROCESSOR_ADMISSION_QUEUE_TIMEOUT, DEFAULT_QUEUE_TIMEOUT);
+        try {
+            if (bulkhead.acquire(cost, timeoutMsec)) {
+                return new Permit(bulkhead, cost);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(
+                    "Interrupted while waiting for " + processorName);
+        }
+        final int retryAfter = config.getInt(
+                Key.PROCESSOR_ADMISSION_RETRY_AFTER, DEFAULT_RETRY_AFTER);
+        LOGGER.warn("acquire(): {} is too busy; rejecting a request for " +
+                "{} pixels", processorName, pixels);
+        throw new AdmissionRejectedException(
+                processorName + " is too busy to accept the request",
+                retryAfter);
+    }
+
+    /**
+     * @return Number of requests currently being processed by all
+     *         processors.
+     */
+    public int getActiveCount() {
+        return bulkheads.values().stream().mapToInt(Bulkhead::getActive).sum();
+    }
+
+    /**
+     * @return Number of requests currently waiting for all processors.
+     */
+    public int getQueueDepth() {
+        return bulkheads.values().stream().mapToInt(Bulkhead::getQueued).sum();
+    }
+
+    /**
+     * @return Number of requests that have been rejected by all processors.
+     */
+    public long getRejectedCount() {
+        return bulkheads.values().stream().mapToLong(Bulkhead::getRejected).sum();
+    }
+
+    /**
+     * @return Map of processor names to maps of their limits and current
+     *         activity, in name order.
+     */
+    public Map<String,Map<String,Object>> toMap() {
+        final Map<String,Map<String,Object>> map = new TreeMap<>();
+        bulkheads.forEach((name, bulkhead) -> map.put(name, bulkhead.toMap()));
+        return map;
+    }
+
+}
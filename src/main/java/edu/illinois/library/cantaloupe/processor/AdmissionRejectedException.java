@@ -0,0 +1,27 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link AdmissionController} when a processor is too busy to
+ * accept a request.
+ *
+ * @since 4.1
+ */
+public class AdmissionRejectedException extends IOException {
+
+    private final int retryAfter;
+
+    AdmissionRejectedException(String message, int retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return Number of seconds after which the client may retry.
+     */
+    public int getRetryAfter() {
+        return retryAfter;
+    }
+
+}
@@ -0,0 +1,386 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Size-classed, bounded pool of reusable {@literal byte[]} and {@literal
+ * int[]} arrays, and of {@link WritableRaster}s backed by them, for use in
+ * the Java 2D processing pipeline.</p>
+ *
+ * <p>Arrays are grouped into size classes four per power of two, so a
+ * borrowed array may be up to 25% larger than requested. Arrays smaller than
+ * {@link #MIN_POOLED_LENGTH} are not worth pooling and are simply
+ * allocated. The total size of all idle arrays retained by the pool is capped
+ * by {@link Key#PROCESSOR_BUFFER_POOL_MAX_SIZE}; arrays released beyond that
+ * are left to the garbage collector.</p>
+ *
+ * <p>Images backed by pooled rasters may only be used for the lifetime of the
+ * {@link Lease} through which they were acquired. A lease binds itself to the
+ * current thread when it is {@link #newLease() created}, and {@link
+ * #newImage(int, int, int)} will draw from it only when called from that
+ * thread; otherwise it falls back to an ordinary allocation.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @since 4.1
+ */
+public final class BufferPool {
+
+    /**
+     * Tracks the arrays borrowed for the duration of a request and returns
+     * them to the pool when {@link #close() closed}.
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final List<Object> arrays = new ArrayList<>();
+        private final Lease previous;
+        private final Thread thread;
+
+        private Lease() {
+            this.thread = Thread.currentThread();
+            this.previous = CURRENT_LEASE.get();
+            CURRENT_LEASE.set(this);
+        }
+
+        private synchronized void add(Object array) {
+            arrays.add(array);
+        }
+
+        private BufferPool getPool() {
+            return BufferPool.this;
+        }
+
+        /**
+         * Returns all borrowed arrays to the pool. Any images obtained from
+         * the lease must not be used afterwards.
+         */
+        @Override
+        public synchronized void close() {
+            for (Object array : arrays) {
+                if (array instanceof byte[]) {
+                    release((byte[]) array);
+                } else {
+                    release((int[]) array);
+                }
+            }
+            arrays.clear();
+            if (Thread.currentThread() == thread &&
+                    CURRENT_LEASE.get() == this) {
+                if (previous != null) {
+                    CURRENT_LEASE.set(previous);
+                } else {
+                    CURRENT_LEASE.remove();
+                }
+            }
+        }
+
+    }
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(BufferPool.class);
+
+    /**
+     * Arrays with fewer elements than this are allocated normally.
+     */
+    static final int MIN_POOLED_LENGTH = 65536;
+
+    private static final long DEFAULT_MAX_SIZE = 256 * 1024 * 1024;
+
+    private static final ThreadLocal<Lease> CURRENT_LEASE = new ThreadLocal<>();
+
+    private static BufferPool instance;
+
+    private final ConcurrentMap<Integer, Deque<byte[]>> byteArrays =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Deque<int[]>> intArrays =
+            new ConcurrentHashMap<>();
+
+    private final long maxRetainedBytes;
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final LongAdder hits          = new LongAdder();
+    private final LongAdder misses        = new LongAdder();
+
+    /**
+     * @param length Minimum array length.
+     * @return       Length of the size class that would hold an array of the
+     *               given length, or the length itself if it is not
+     *               poolable.
+     */
+    static int capacityFor(int length) {
+        if (length < MIN_POOLED_LENGTH) {
+            return length;
+        }
+        final long step = Integer.highestOneBit(length) / 4;
+        final long capacity = ((length + step - 1) / step) * step;
+        return (capacity > Integer.MAX_VALUE - 8) ? length : (int) capacity;
+    }
+
+    /**
+     * For testing only.
+     */
+    static synchronized void clearInstance() {
+        instance = null;
+    }
+
+    /**
+     * @return Shared instance.
+     */
+    public static synchronized BufferPool getInstance() {
+        if (instance == null) {
+            instance = new BufferPool(readMaxSize());
+        }
+        return instance;
+    }
+
+    private static long readMaxSize() {
+        final Configuration config = Configuration.getInstance();
+        final String humanSize =
+                config.getString(Key.PROCESSOR_BUFFER_POOL_MAX_SIZE);
+        if (humanSize != null && !humanSize.isEmpty()) {
+            try {
+                return Math.max(0, StringUtils.toByteSize(humanSize));
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Invalid value for {}; using the default",
+                        Key.PROCESSOR_BUFFER_POOL_MAX_SIZE);
+            }
+        }
+        return DEFAULT_MAX_SIZE;
+    }
+
+    /**
+     * Convenience method that allocates an image from the calling thread's
+     * current {@link Lease}, if any, or allocates a new one otherwise.
+     *
+     * @param width  Image width.
+     * @param height Image height.
+     * @param type   One of the {@link BufferedImage} {@literal TYPE_*}
+     *               constants.
+     * @return       New image, cleared to zero.
+     */
+    public static BufferedImage newImage(int width, int height, int type) {
+        final Lease lease = CURRENT_LEASE.get();
+        if (lease != null) {
+            return lease.getPool().newImage(width, height, type, lease);
+        }
+        return new BufferedImage(width, height, type);
+    }
+
+    BufferPool(long maxRetainedBytes) {
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    /**
+     * @param minLength Minimum array length.
+     * @return          Array with a length equal to or greater than the given
+     *                  length. Its contents are undefined.
+     */
+    public byte[] borrowBytes(int minLength) {
+        final int capacity = capacityFor(minLength);
+        if (capacity >= MIN_POOLED_LENGTH && maxRetainedBytes > 0) {
+            final Deque<byte[]> deque = byteArrays.get(capacity);
+            final byte[] array = (deque != null) ? deque.pollFirst() : null;
+            if (array != null) {
+                retainedBytes.addAndGet(-array.length);
+                hits.increment();
+                return array;
+            }
+            misses.increment();
+        }
+        return new byte[capacity];
+    }
+
+    /**
+     * @param minLength Minimum array length.
+     * @return          Array with a length equal to or greater than the given
+     *                  length. Its contents are undefined.
+     */
+    public int[] borrowInts(int minLength) {
+        final int capacity = capacityFor(minLength);
+        if (capacity >= MIN_POOLED_LENGTH && maxRetainedBytes > 0) {
+            final Deque<int[]> deque = intArrays.get(capacity);
+            final int[] array = (deque != null) ? deque.pollFirst() : null;
+            if (array != null) {
+                retainedBytes.addAndGet(-array.length * 4L);
+                hits.increment();
+                return array;
+            }
+            misses.increment();
+        }
+        return new int[capacity];
+    }
+
+    /**
+     * Returns an array to the pool. The caller must not use it afterwards.
+     */
+    public void release(byte[] array) {
+        if (array != null && isPoolable(array.length) &&
+                reserve(array.length)) {
+            byteArrays.computeIfAbsent(array.length,
+                    k -> new ConcurrentLinkedDeque<>()).offerFirst(array);
+        }
+    }
+
+    /**
+     * Returns an array to the pool. The caller must not use it afterwards.
+     */
+    public void release(int[] array) {
+        if (array != null && isPoolable(array.length) &&
+                reserve(array.length * 4L)) {
+            intArrays.computeIfAbsent(array.length,
+                    k -> new ConcurrentLinkedDeque<>()).offerFirst(array);
+        }
+    }
+
+    private boolean isPoolable(int length) {
+        return maxRetainedBytes > 0 && length >= MIN_POOLED_LENGTH &&
+                capacityFor(length) == length;
+    }
+
+    private boolean reserve(long numBytes) {
+        long current;
+        do {
+            current = retainedBytes.get();
+            if (current + numBytes > maxRetainedBytes) {
+                return false;
+            }
+        } while (!retainedBytes.compareAndSet(current, current + numBytes));
+        return true;
+    }
+
+    /**
+     * Creates a new lease bound to the calling thread. It should be closed in
+     * a {@literal finally} block (or try-with-resources) by the same thread.
+     */
+    public Lease newLease() {
+        return new Lease();
+    }
+
+    /**
+     * <p>Returns a new image of one of the standard types, backed by a
+     * {@link WritableRaster} whose array is borrowed from the pool on behalf
+     * of the given lease.</p>
+     *
+     * <p>Types other than {@link BufferedImage#TYPE_INT_RGB}, {@link
+     * BufferedImage#TYPE_INT_ARGB}, {@link BufferedImage#TYPE_INT_BGR},
+     * {@link BufferedImage#TYPE_3BYTE_BGR}, {@link
+     * BufferedImage#TYPE_4BYTE_ABGR} and {@link BufferedImage#TYPE_BYTE_GRAY}
+     * are allocated normally.</p>
+     *
+     * @return New image, cleared to zero.
+     */
+    BufferedImage newImage(int width, int height, int type, Lease lease) {
+        if (maxRetainedBytes <= 0) {
+            return new BufferedImage(width, height, type);
+        }
+        final BufferedImage template;
+        switch (type) {
+            case BufferedImage.TYPE_INT_RGB:
+            case BufferedImage.TYPE_INT_ARGB:
+            case BufferedImage.TYPE_INT_BGR:
+            case BufferedImage.TYPE_3BYTE_BGR:
+            case BufferedImage.TYPE_4BYTE_ABGR:
+            case BufferedImage.TYPE_BYTE_GRAY:
+                template = new BufferedImage(1, 1, type);
+                break;
+            default:
+                return new BufferedImage(width, height, type);
+        }
+        final ColorModel colorModel = template.getColorModel();
+        final SampleModel sampleModel = template.getSampleModel()
+                .createCompatibleSampleModel(width, height);
+        final int size = (sampleModel.getDataType() == DataBuffer.TYPE_INT) ?
+                width * height :
+                width * height * sampleModel.getNumBands();
+        if (size < MIN_POOLED_LENGTH) {
+            return new BufferedImage(width, height, type);
+        }
+
+        final DataBuffer dataBuffer;
+        if (sampleModel.getDataType() == DataBuffer.TYPE_INT) {
+            final int[] array = borrowInts(size);
+            Arrays.fill(array, 0, size, 0);
+            lease.add(array);
+            dataBuffer = new DataBufferInt(array, size);
+        } else {
+            final byte[] array = borrowBytes(size);
+            Arrays.fill(array, 0, size, (byte) 0);
+            lease.add(array);
+            dataBuffer = new DataBufferByte(array, size);
+        }
+        final WritableRaster raster =
+                Raster.createWritableRaster(sampleModel, dataBuffer, null);
+        return new BufferedImage(colorModel, raster,
+                colorModel.isAlphaPremultiplied(), null);
+    }
+
+    /**
+     * @return Number of borrow requests satisfied by a pooled array.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Ratio of hits to poolable borrow requests, or {@literal 0} if
+     *         there have not been any.
+     */
+    public double getHitRate() {
+        final long hits = getHitCount();
+        final long total = hits + getMissCount();
+        return (total > 0) ? hits / (double) total : 0;
+    }
+
+    /**
+     * @return Maximum number of bytes that will be retained in idle arrays.
+     */
+    public long getMaxRetainedBytes() {
+        return maxRetainedBytes;
+    }
+
+    /**
+     * @return Number of poolable borrow requests that required a new
+     *         allocation.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Number of bytes currently retained in idle arrays.
+     */
+    public long getRetainedBytes() {
+        return retainedBytes.get();
+    }
+
+    /**
+     * Discards all idle arrays.
+     */
+    public void purge() {
+        byteArrays.clear();
+        intArrays.clear();
+        retainedBytes.set(0);
+    }
+
+}
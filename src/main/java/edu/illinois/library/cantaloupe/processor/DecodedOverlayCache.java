@@ -0,0 +1,275 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.operation.overlay.ImageOverlay;
+import edu.illinois.library.cantaloupe.processor.codec.ImageReader;
+import edu.illinois.library.cantaloupe.processor.codec.ImageReaderFactory;
+import edu.illinois.library.cantaloupe.util.ObjectCache;
+import edu.illinois.library.cantaloupe.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Objects;
+
+/**
+ * <p>Caches {@link ImageOverlay overlay images} in the form in which the
+ * Java 2D pipeline draws them, so that they don't have to be decoded for
+ * every request.</p>
+ *
+ * <p>Decoded images are converted to {@link
+ * BufferedImage#TYPE_INT_ARGB_PRE}, which Java 2D can composite onto
+ * the base image without any per-pixel format conversion. For {@link
+ * edu.illinois.library.cantaloupe.operation.overlay.Position#REPEAT
+ * repeating} overlays, the tiled layer covering an image of a given size is
+ * cached as well, as most output images are one of a few tile sizes.</p>
+ *
+ * <p>The total size of all cached images is bounded by {@link
+ * Key#OVERLAY_CACHE_MAX_SIZE}. Cached images are shared, so they must not be
+ * modified.</p>
+ *
+ * @since 4.1
+ */
+final class DecodedOverlayCache {
+
+    /**
+     * Key of a tiled layer.
+     */
+    private static final class LayerKey {
+
+        private final URI uri;
+        private final int width, height;
+
+        LayerKey(URI uri, int width, int height) {
+            this.uri = uri;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            } else if (obj instanceof LayerKey) {
+                LayerKey other = (LayerKey) obj;
+                return uri.equals(other.uri) &&
+                        width == other.width &&
+                        height == other.height;
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(uri, width, height);
+        }
+
+    }
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(DecodedOverlayCache.class);
+
+    private static final long DEFAULT_MAX_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Cached images are all {@link BufferedImage#TYPE_INT_ARGB_PRE}.
+     */
+    private static final int BYTES_PER_PIXEL = 4;
+
+    /**
+     * A layer is cached only if it would take up no more than this fraction
+     * of the cache, so that layers for unusually large images can't evict
+     * everything else.
+     */
+    private static final int MAX_LAYER_FRACTION = 4;
+
+    private static DecodedOverlayCache instance;
+
+    /**
+     * Decoded images keyed by {@link URI}, and layers keyed by {@link
+     * LayerKey}; {@literal null} when caching is disabled.
+     */
+    private final ObjectCache<Object, BufferedImage> images;
+
+    /**
+     * For testing only.
+     */
+    static synchronized void clearInstance() {
+        instance = null;
+    }
+
+    /**
+     * @return Shared instance.
+     */
+    static synchronized DecodedOverlayCache getInstance() {
+        if (instance == null) {
+            instance = new DecodedOverlayCache(readMaxSize());
+        }
+        return instance;
+    }
+
+    private static long readMaxSize() {
+        final Configuration config = Configuration.getInstance();
+        final String humanSize = config.getString(Key.OVERLAY_CACHE_MAX_SIZE);
+        if (humanSize != null && !humanSize.isEmpty()) {
+            try {
+                return Math.max(0, StringUtils.toByteSize(humanSize));
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Invalid value for {}; using the default",
+                        Key.OVERLAY_CACHE_MAX_SIZE);
+            }
+        }
+        return DEFAULT_MAX_SIZE;
+    }
+
+    /**
+     * @return Weight of the given image in kilobytes.
+     */
+    private static int weigh(BufferedImage image) {
+        return weigh(image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * @return Weight of an image of the given dimensions in kilobytes.
+     */
+    private static int weigh(long width, long height) {
+        final long bytes = width * height * BYTES_PER_PIXEL;
+        return (int) Math.min(Integer.MAX_VALUE, bytes / 1024 + 1);
+    }
+
+    /**
+     * @param maxSize Maximum total size of all cached images in bytes.
+     *                {@literal 0} disables caching.
+     */
+    DecodedOverlayCache(long maxSize) {
+        images = (maxSize > 0) ?
+                new ObjectCache<>(maxSize / 1024,
+                        DecodedOverlayCache::weigh,
+                        (key, image) -> {}) : null;
+    }
+
+    /**
+     * Returns the decoded image of the given overlay, decoding and caching it
+     * if necessary. Concurrent calls for the same uncached image decode it
+     * only once.
+     *
+     * @param overlay Image overlay.
+     * @return        Shared image of type {@link
+     *                BufferedImage#TYPE_INT_ARGB_PRE}, which must not be
+     *                modified.
+     * @throws IOException if the image cannot be read.
+     */
+    BufferedImage getImage(ImageOverlay overlay) throws IOException {
+        if (images == null) {
+            return decode(overlay);
+        }
+        try {
+            return images.get(overlay.getURI(), uri -> {
+                try {
+                    LOGGER.debug("getImage(): miss for {}", uri);
+                    return decode(overlay);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * <p>Returns a cached layer of the given dimensions onto which the image
+     * of the given overlay has been tiled in the manner of {@link
+     * edu.illinois.library.cantaloupe.operation.overlay.Position#REPEAT},
+     * so that it can be composited onto an image of the same dimensions with
+     * a single draw.</p>
+     *
+     * <p>If caching is disabled, or the layer would be too large to cache,
+     * {@literal null} is returned instead, as a layer drawn for a single use
+     * would only add a full-size allocation to tiling the overlay image
+     * directly onto the target image.</p>
+     *
+     * @param overlay Image overlay.
+     * @param width   Width of the layer.
+     * @param height  Height of the layer.
+     * @return        Shared layer, which must not be modified, or {@literal
+     *                null} if it is not cacheable.
+     * @throws IOException if the overlay image cannot be read.
+     */
+    BufferedImage getRepeatedLayer(ImageOverlay overlay,
+                                   int width,
+                                   int height) throws IOException {
+        if (images == null || weigh(width, height) >
+                images.maxSize() / MAX_LAYER_FRACTION) {
+            return null;
+        }
+        final BufferedImage tile = getImage(overlay);
+        return images.get(new LayerKey(overlay.getURI(), width, height),
+                key -> newRepeatedLayer(tile, width, height));
+    }
+
+    /**
+     * Discards all cached images.
+     */
+    void purge() {
+        if (images != null) {
+            images.purge();
+        }
+    }
+
+    private static BufferedImage decode(ImageOverlay overlay)
+            throws IOException {
+        ImageReader reader = null;
+        try (InputStream is = overlay.openStream()) {
+            reader = new ImageReaderFactory().newImageReader(is, Format.PNG);
+            final BufferedImage decoded = reader.read();
+            if (decoded.getType() == BufferedImage.TYPE_INT_ARGB_PRE) {
+                return decoded;
+            }
+            final BufferedImage image = new BufferedImage(
+                    decoded.getWidth(), decoded.getHeight(),
+                    BufferedImage.TYPE_INT_ARGB_PRE);
+            final Graphics2D g2d = image.createGraphics();
+            g2d.drawImage(decoded, 0, 0, null);
+            g2d.dispose();
+            return image;
+        } finally {
+            if (reader != null) {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage newRepeatedLayer(BufferedImage tile,
+                                                  int width,
+                                                  int height) {
+        final BufferedImage layer = new BufferedImage(
+                width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        final Graphics2D g2d = layer.createGraphics();
+        // Tiles are laid out from the center so that the pattern is
+        // symmetrical.
+        int startX = Math.round(width / 2f);
+        int startY = Math.round(height / 2f);
+        while (startX >= 0) {
+            startX -= tile.getWidth();
+        }
+        while (startY >= 0) {
+            startY -= tile.getHeight();
+        }
+        for (int x = startX; x < width; x += tile.getWidth()) {
+            for (int y = startY; y < height; y += tile.getHeight()) {
+                g2d.drawImage(tile, x, y, null);
+            }
+        }
+        g2d.dispose();
+        return layer;
+    }
+
+}
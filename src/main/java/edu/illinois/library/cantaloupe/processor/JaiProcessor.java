@@ -139,9 +139,8 @@ class JaiProcessor extends AbstractImageIOProcessor
             throws ProcessorException {
         super.process(opList, imageInfo, outputStream);
 
-        ImageReader reader = null;
         try {
-            reader = getReader();
+            final ImageReader reader = getReader();
             final Format outputFormat     = opList.getOutputFormat();
             final Orientation orientation = getEffectiveOrientation();
             final Dimension fullSize      = imageInfo.getSize();
@@ -258,9 +257,9 @@ class JaiProcessor extends AbstractImageIOProcessor
         } catch (IOException e) {
             throw new ProcessorException(e.getMessage(), e);
         } finally {
-            if (reader != null) {
-                reader.dispose();
-            }
+            // Dispose of the reader and forget it, so that a subsequent
+            // invocation will get a new one.
+            close();
         }
     }
 
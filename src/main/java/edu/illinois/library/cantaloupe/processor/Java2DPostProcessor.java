@@ -22,24 +22,23 @@ import edu.illinois.library.cantaloupe.processor.codec.BufferedImageSequence;
 import edu.illinois.library.cantaloupe.processor.codec.ImageWriter;
 import edu.illinois.library.cantaloupe.processor.codec.ImageWriterFactory;
 import edu.illinois.library.cantaloupe.processor.codec.ReaderHint;
+import edu.illinois.library.cantaloupe.processor.codec.StreamingImageSequence;
 import edu.illinois.library.cantaloupe.resource.iiif.ProcessorFeature;
+import edu.illinois.library.cantaloupe.status.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.image.BufferedImage;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.EnumSet;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -53,6 +52,110 @@ import java.util.stream.Collectors;
  */
 final class Java2DPostProcessor {
 
+    /**
+     * Processes frames on the {@link ThreadPool}, with at most one in flight
+     * per CPU, and hands them back in the order in which they were submitted.
+     */
+    private static final class FrameProcessor {
+
+        private final Deque<Future<?>> inFlight = new ArrayDeque<>();
+        private final int maxInFlight;
+        private final OperationList opList;
+        private final Info info;
+
+        FrameProcessor(OperationList opList, Info info) {
+            this.opList = opList;
+            this.info = info;
+            this.maxInFlight = Runtime.getRuntime().availableProcessors();
+        }
+
+        /**
+         * Cancels any frames still in flight, such as after an error.
+         */
+        void cancel() {
+            inFlight.forEach(f -> f.cancel(true));
+            inFlight.clear();
+        }
+
+        boolean isEmpty() {
+            return inFlight.isEmpty();
+        }
+
+        boolean isFull() {
+            return inFlight.size() >= maxInFlight;
+        }
+
+        void submit(BufferedImage frame) {
+            inFlight.add(ThreadPool.getInstance().submit(
+                    () -> processFrame(frame, opList, info)));
+        }
+
+        /**
+         * Waits for the earliest-submitted frame to finish processing.
+         *
+         * @return Processed frame.
+         */
+        BufferedImage take() throws IOException {
+            final Future<?> future = inFlight.remove();
+            try {
+                return (BufferedImage) future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+
+    }
+
+    /**
+     * Keeps track of the time spent writing to the wrapped stream, which may
+     * be a response and/or cache stream, so that it can be excluded from the
+     * encoding time.
+     */
+    private static final class WriteTimingOutputStream
+            extends FilterOutputStream {
+
+        private long writeNanos;
+
+        WriteTimingOutputStream(OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        long getWriteNanos() {
+            return writeNanos;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            final long start = System.nanoTime();
+            out.write(b);
+            writeNanos += System.nanoTime() - start;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            final long start = System.nanoTime();
+            out.write(b, off, len);
+            writeNanos += System.nanoTime() - start;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            final long start = System.nanoTime();
+            out.flush();
+            writeNanos += System.nanoTime() - start;
+        }
+
+    }
+
     private static final Logger LOGGER =
             LoggerFactory.getLogger(Java2DPostProcessor.class);
 
@@ -106,20 +209,30 @@ final class Java2DPostProcessor {
                             final ReductionFactor reductionFactor,
                             final Metadata metadata,
                             final OutputStream outputStream) throws IOException {
-        image = doPostProcess(image, readerHints, opList, imageInfo,
-                reductionFactor);
+        // Intermediate images created during post-processing are backed by
+        // pooled buffers that get returned to the pool once the result has
+        // been written.
+        try (BufferPool.Lease lease = BufferPool.getInstance().newLease()) {
+            image = doPostProcess(image, readerHints, opList, imageInfo,
+                    reductionFactor);
 
-        ImageWriter writer = new ImageWriterFactory()
-                .newImageWriter((Encode) opList.getFirst(Encode.class));
-        if (opList.getFirst(MetadataCopy.class) != null) {
-            writer.setMetadata(metadata);
+            final Encode encode = (Encode) opList.getFirst(Encode.class);
+            ImageWriter writer = new ImageWriterFactory().newImageWriter(encode);
+            if (opList.getFirst(MetadataCopy.class) != null) {
+                writer.setMetadata(metadata);
+            }
+            final WriteTimingOutputStream timingStream =
+                    new WriteTimingOutputStream(outputStream);
+            final long start = System.nanoTime();
+            writer.write(image, timingStream);
+            recordEncode(encode, start, timingStream);
         }
-        writer.write(image, outputStream);
     }
 
     /**
      * Variant for processing {@link BufferedImageSequence image sequences},
-     * such as to support animated GIFs.
+     * such as to support animated GIFs. Frames are processed in parallel, up
+     * to one per CPU at a time.
      *
      * @param sequence     Sequence containing one or more images, which will
      *                     be replaced with the post-processed versions.
@@ -139,8 +252,8 @@ final class Java2DPostProcessor {
         // 1. If the sequence contains no frames, throw an exception.
         // 2. If it contains only one frame, process the frame in the current
         //    thread.
-        // 3. If it contains more than one frame, spread the work across one
-        //    thread per CPU.
+        // 3. If it contains more than one frame, spread the work across the
+        //    thread pool.
         if (numFrames < 1) {
             throw new IllegalArgumentException("Empty sequence");
         } else if (numFrames == 1) {
@@ -148,68 +261,100 @@ final class Java2DPostProcessor {
             image = processFrame(image, opList, info);
             sequence.set(0, image);
         } else {
-            final int numThreads = Math.min(
-                    numFrames, Runtime.getRuntime().availableProcessors());
-            final int framesPerThread =
-                    (int) Math.ceil(numFrames / (float) numThreads);
-            final CountDownLatch latch = new CountDownLatch(numFrames);
-
-            LOGGER.debug("Processing {} frames in {} threads ({} frames per thread)",
-                    numFrames, numThreads, framesPerThread);
-
-            // Create a list containing numThreads queues. Each map will
-            // contain { "frame": int, "image": BufferedImage }.
-            final List<Queue<Map<String,Object>>> processingQueues =
-                    new ArrayList<>(numThreads);
-            for (short thread = 0; thread < numThreads; thread++) {
-                final Queue<Map<String,Object>> queue = new LinkedList<>();
-                processingQueues.add(queue);
-
-                final int startFrame = thread * framesPerThread;
-                final int endFrame = Math.min(startFrame + framesPerThread,
-                        numFrames);
-                for (int frameNum = startFrame; frameNum < endFrame; frameNum++) {
-                    Map<String,Object> map = new HashMap<>();
-                    map.put("frame", frameNum);
-                    map.put("image", sequence.get(frameNum));
-                    queue.add(map);
+            LOGGER.debug("Processing {} frames", numFrames);
+            final FrameProcessor processor = new FrameProcessor(opList, info);
+            try {
+                int numDone = 0;
+                for (int i = 0; i < numFrames; i++) {
+                    if (processor.isFull()) {
+                        sequence.set(numDone++, processor.take());
+                    }
+                    processor.submit(sequence.get(i));
+                }
+                while (numDone < numFrames) {
+                    sequence.set(numDone++, processor.take());
                 }
+            } finally {
+                processor.cancel();
             }
+        }
 
-            // Process each queue in a separate thread.
-            int i = 0;
-            for (Queue<Map<String,Object>> queue : processingQueues) {
-                final int queueNum = i;
-                ThreadPool.getInstance().submit(() -> {
-                    Map<String,Object> dict;
-                    while ((dict = queue.poll()) != null) {
-                        int frameNum = (int) dict.get("frame");
-                        LOGGER.trace("Thread {}: processing frame {} (latch count: {})",
-                                queueNum, frameNum, latch.getCount());
-                        BufferedImage image = (BufferedImage) dict.get("image");
-                        image = processFrame(image, opList, info);
-                        sequence.set(frameNum, image);
-                        latch.countDown();
-                    }
-                    return null;
-                });
-                i++;
-            }
+        final Encode encode = (Encode) opList.getFirst(Encode.class);
+        ImageWriter writer = new ImageWriterFactory().newImageWriter(encode);
+        if (opList.getFirst(MetadataCopy.class) != null) {
+            writer.setMetadata(metadata);
+        }
+        final WriteTimingOutputStream timingStream =
+                new WriteTimingOutputStream(outputStream);
+        final long start = System.nanoTime();
+        writer.write(sequence, timingStream);
+        recordEncode(encode, start, timingStream);
+    }
 
-            // Wait for all threads to finish.
-            try {
-                latch.await(5, TimeUnit.MINUTES); // hopefully not this long...
-            } catch (InterruptedException e) {
-                throw new IOException(e);
+    /**
+     * Variant for processing {@link StreamingImageSequence streaming image
+     * sequences}. Frames are read from the sequence, processed, and written
+     * to the output stream as they go, with only as many of them in memory
+     * at a time as there are CPUs processing them, so memory use does not
+     * depend on the length of the sequence.
+     *
+     * @param sequence     Sequence containing one or more images.
+     * @param opList       Operations to apply to each image in the sequence.
+     * @param info         Information about the source image.
+     * @param metadata     Metadata to embed in the resulting image.
+     * @param outputStream Stream to write the resulting image to.
+     * @throws IllegalArgumentException if the sequence is empty.
+     */
+    static void postProcess(final StreamingImageSequence sequence,
+                            final OperationList opList,
+                            final Info info,
+                            final Metadata metadata,
+                            final OutputStream outputStream) throws IOException {
+        final FrameProcessor processor = new FrameProcessor(opList, info);
+        // Frames are decoded in the current thread, which stays ahead of the
+        // writer by as many frames as the processor will accept.
+        final StreamingImageSequence processedSequence = () -> {
+            BufferedImage frame;
+            while (!processor.isFull() && (frame = sequence.next()) != null) {
+                processor.submit(frame);
             }
-        }
+            return processor.isEmpty() ? null : processor.take();
+        };
 
         ImageWriter writer = new ImageWriterFactory()
                 .newImageWriter((Encode) opList.getFirst(Encode.class));
         if (opList.getFirst(MetadataCopy.class) != null) {
             writer.setMetadata(metadata);
         }
-        writer.write(sequence, outputStream);
+        try {
+            writer.write(processedSequence, outputStream);
+        } finally {
+            processor.cancel();
+        }
+    }
+
+    /**
+     * Records the time spent encoding an image since the given start time,
+     * minus the time spent writing the encoded bytes to the given stream.
+     * This is not done for {@link StreamingImageSequence streaming image
+     * sequences}, as their frames are processed while they are encoded.
+     */
+    private static void recordEncode(Encode encode,
+                                     long startNanos,
+                                     WriteTimingOutputStream outputStream) {
+        final long nanos = System.nanoTime() - startNanos -
+                outputStream.getWriteNanos();
+        Metrics.getInstance().record(Metrics.Stage.ENCODE,
+                encode.getFormat().getPreferredExtension(), Math.max(0, nanos));
+    }
+
+    /**
+     * Records the time spent in a post-processing step since the given start
+     * time.
+     */
+    private static void recordStep(String step, long startNanos) {
+        Metrics.getInstance().recordSince(Metrics.Stage.POST_PROCESS, step,
+                startNanos);
     }
 
     private static BufferedImage processFrame(BufferedImage image,
@@ -230,7 +375,9 @@ final class Java2DPostProcessor {
             readerHints = EnumSet.noneOf(ReaderHint.class);
         }
 
+        long start = System.nanoTime();
         image = Java2DUtil.reduceTo8Bits(image);
+        recordStep("reduce_to_8_bits", start);
 
         final Dimension fullSize = imageInfo.getSize();
 
@@ -242,7 +389,9 @@ final class Java2DPostProcessor {
 
         if (!Orientation.ROTATE_0.equals(orientation) &&
                 opList.getFirst(Crop.class) == null) {
+            start = System.nanoTime();
             image = Java2DUtil.rotate(image, orientation);
+            recordStep("orient", start);
         }
 
         // Apply the crop operation, if present, and retain a reference
@@ -254,8 +403,10 @@ final class Java2DPostProcessor {
                 crop = (Crop) op;
                 if (crop.hasEffect(fullSize, opList) &&
                         !readerHints.contains(ReaderHint.ALREADY_CROPPED)) {
+                    start = System.nanoTime();
                     image = Java2DUtil.crop(image, crop, reductionFactor,
                             opList.getScaleConstraint());
+                    recordStep("crop", start);
                 }
             }
         }
@@ -266,32 +417,45 @@ final class Java2DPostProcessor {
                 .filter(op -> op.hasEffect(fullSize, opList))
                 .map(op -> (Redaction) op)
                 .collect(Collectors.toSet());
-        Java2DUtil.applyRedactions(image, fullSize, crop,
-                new double[] { 1.0, 1.0 }, reductionFactor,
-                opList.getScaleConstraint(), redactions);
+        if (!redactions.isEmpty()) {
+            start = System.nanoTime();
+            Java2DUtil.applyRedactions(image, fullSize, crop,
+                    new double[] { 1.0, 1.0 }, reductionFactor,
+                    opList.getScaleConstraint(), redactions);
+            recordStep("redact", start);
+        }
 
         if (!Orientation.ROTATE_0.equals(orientation) &&
                 opList.getFirst(Crop.class) != null &&
                 opList.getFirst(Rotate.class) == null) {
+            start = System.nanoTime();
             image = Java2DUtil.rotate(image, orientation);
+            recordStep("orient", start);
         }
 
         // Apply remaining operations.
         for (Operation op : opList) {
             if (op.hasEffect(fullSize, opList)) {
+                start = System.nanoTime();
                 if (op instanceof Scale) {
                     image = Java2DUtil.scale(image, (Scale) op,
                             opList.getScaleConstraint(), reductionFactor);
+                    recordStep("scale", start);
                 } else if (op instanceof Transpose) {
                     image = Java2DUtil.transpose(image, (Transpose) op);
+                    recordStep("transpose", start);
                 } else if (op instanceof Rotate) {
                     image = Java2DUtil.rotate(image, (Rotate) op);
+                    recordStep("rotate", start);
                 } else if (op instanceof ColorTransform) {
                     image = Java2DUtil.transformColor(image, (ColorTransform) op);
+                    recordStep("color_transform", start);
                 } else if (op instanceof Sharpen) {
                     image = Java2DUtil.sharpen(image, (Sharpen) op);
+                    recordStep("sharpen", start);
                 } else if (op instanceof Overlay) {
                     Java2DUtil.applyOverlay(image, (Overlay) op);
+                    recordStep("overlay", start);
                 }
             }
         }
@@ -7,7 +7,6 @@ import edu.illinois.library.cantaloupe.image.ScaleConstraint;
 import edu.illinois.library.cantaloupe.operation.Color;
 import edu.illinois.library.cantaloupe.operation.ColorTransform;
 import edu.illinois.library.cantaloupe.operation.Crop;
-import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.operation.Operation;
 import edu.illinois.library.cantaloupe.operation.OperationList;
 import edu.illinois.library.cantaloupe.operation.ReductionFactor;
@@ -20,24 +19,15 @@ import edu.illinois.library.cantaloupe.operation.Scale;
 import edu.illinois.library.cantaloupe.operation.Transpose;
 import edu.illinois.library.cantaloupe.operation.overlay.StringOverlay;
 import edu.illinois.library.cantaloupe.operation.overlay.Overlay;
-import edu.illinois.library.cantaloupe.processor.codec.ImageReader;
-import edu.illinois.library.cantaloupe.processor.codec.ImageReaderFactory;
 import edu.illinois.library.cantaloupe.processor.resample.ResampleFilter;
 import edu.illinois.library.cantaloupe.processor.resample.ResampleOp;
 import edu.illinois.library.cantaloupe.util.Stopwatch;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.awt.BasicStroke;
-import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
-import java.awt.Shape;
-import java.awt.font.FontRenderContext;
-import java.awt.font.GlyphVector;
 import java.awt.geom.AffineTransform;
 import java.awt.image.AffineTransformOp;
 import java.awt.image.BufferedImage;
@@ -46,7 +36,6 @@ import java.awt.image.ColorModel;
 import java.awt.image.ComponentColorModel;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.Set;
 
 /**
@@ -201,6 +190,10 @@ public final class Java2DUtil {
     static void applyOverlay(final BufferedImage baseImage,
                              final Overlay overlay) {
         if (overlay instanceof ImageOverlay) {
+            if (Position.REPEAT.equals(overlay.getPosition()) &&
+                    overlayRepeatedLayer(baseImage, (ImageOverlay) overlay)) {
+                return;
+            }
             BufferedImage overlayImage = getOverlayImage((ImageOverlay) overlay);
             if (overlayImage != null) {
                 overlayImage(baseImage, overlayImage,
@@ -221,7 +214,7 @@ public final class Java2DUtil {
         if (inImage.getType() == BufferedImage.TYPE_BYTE_INDEXED) {
             final Stopwatch watch = new Stopwatch();
 
-            outImage = new BufferedImage(
+            outImage = BufferPool.newImage(
                     inImage.getWidth(), inImage.getHeight(),
                     BufferedImage.TYPE_INT_ARGB);
             Graphics2D g2d = outImage.createGraphics();
@@ -281,19 +274,15 @@ public final class Java2DUtil {
 
     /**
      * @param overlay
-     * @return Overlay image.
+     * @return Overlay image, which is shared and must not be modified, or
+     *         {@literal null} if it could not be read.
+     * @see DecodedOverlayCache#getImage(ImageOverlay)
      */
     static BufferedImage getOverlayImage(ImageOverlay overlay) {
-        ImageReader reader = null;
-        try (InputStream is = overlay.openStream()) {
-            reader = new ImageReaderFactory().newImageReader(is, Format.PNG);
-            return reader.read();
+        try {
+            return DecodedOverlayCache.getInstance().getImage(overlay);
         } catch (IOException e) {
             LOGGER.warn("{} (skipping overlay)", e.getMessage());
-        } finally {
-            if (reader != null) {
-                reader.dispose();
-            }
         }
         return null;
     }
@@ -316,7 +305,6 @@ public final class Java2DUtil {
                     RenderingHints.VALUE_RENDER_QUALITY);
             g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
                     RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.drawImage(baseImage, 0, 0, null);
 
             if (Position.REPEAT.equals(position)) {
                 int startX = Math.round(baseImage.getWidth() / 2f);
@@ -394,7 +382,42 @@ public final class Java2DUtil {
     }
 
     /**
-     * Overlays a string onto an image.
+     * Composites a cached layer, onto which the image of the given overlay
+     * has already been tiled, onto the given image with a single draw.
+     *
+     * @param baseImage Image to overlay the layer onto.
+     * @param overlay   Overlay with a position of {@link Position#REPEAT}.
+     * @return          Whether the overlay has been dealt with: {@literal
+     *                  false} if no layer could be cached for an image of the
+     *                  size of the base image, in which case the overlay image
+     *                  has to be tiled directly onto it instead.
+     * @see DecodedOverlayCache#getRepeatedLayer(ImageOverlay, int, int)
+     */
+    private static boolean overlayRepeatedLayer(final BufferedImage baseImage,
+                                                final ImageOverlay overlay) {
+        final BufferedImage layer;
+        try {
+            layer = DecodedOverlayCache.getInstance().getRepeatedLayer(
+                    overlay, baseImage.getWidth(), baseImage.getHeight());
+        } catch (IOException e) {
+            LOGGER.warn("{} (skipping overlay)", e.getMessage());
+            return true;
+        }
+        if (layer == null) {
+            return false;
+        }
+        final Stopwatch watch = new Stopwatch();
+        final Graphics2D g2d = baseImage.createGraphics();
+        g2d.drawImage(layer, 0, 0, null);
+        g2d.dispose();
+        LOGGER.debug("overlayRepeatedLayer() executed in {}", watch);
+        return true;
+    }
+
+    /**
+     * Overlays a string onto an image. The string is laid out and rendered
+     * by the {@link StringOverlayCache}, and the result composited onto the
+     * image in a single draw.
      *
      * @param baseImage Image to overlay the string onto.
      * @param overlay   String to overlay onto the image.
@@ -404,58 +427,27 @@ public final class Java2DUtil {
         if (overlay.hasEffect()) {
             final Stopwatch watch = new Stopwatch();
 
-            final Graphics2D g2d = baseImage.createGraphics();
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                    RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
-                    RenderingHints.VALUE_TEXT_ANTIALIAS_GASP);
-            g2d.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
-                    RenderingHints.VALUE_FRACTIONALMETRICS_ON);
-            g2d.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL,
-                    RenderingHints.VALUE_STROKE_PURE);
-            g2d.setRenderingHint(RenderingHints.KEY_RENDERING,
-                    RenderingHints.VALUE_RENDER_QUALITY);
-
-            // Graphics2D.drawString() does not understand newlines. Each line
-            // has to be drawn separately.
-            Font font = overlay.getFont();
-            float fontSize = font.getSize();
+            final StringOverlayCache cache = StringOverlayCache.getInstance();
             final int inset = overlay.getInset();
-            final String[] lines = StringUtils.split(overlay.getString(), "\n");
-            final int padding = getBoxPadding(overlay);
-            int lineHeight;
-            int totalHeight;
-            int[] lineWidths;
-            int maxLineWidth;
+            final int padding = StringOverlayCache.getBoxPadding(overlay);
+            float fontSize = overlay.getFont().getSize();
+            StringOverlayCache.Layout layout;
             boolean fits = false;
 
             // Starting at the initial font size, loop through smaller sizes
             // down to the minimum in order to find the largest that will fit
             // entirely within the image.
             while (true) {
-                maxLineWidth = 0;
-                g2d.setFont(font);
-                final FontMetrics fm = g2d.getFontMetrics();
-                lineHeight = fm.getHeight();
-                totalHeight = lineHeight * lines.length;
-                // Find the max line width.
-                lineWidths = new int[lines.length];
-                for (int i = 0; i < lines.length; i++) {
-                    lineWidths[i] = fm.stringWidth(lines[i]);
-                    if (lineWidths[i] > maxLineWidth) {
-                        maxLineWidth = lineWidths[i];
-                    }
-                }
+                layout = cache.getLayout(overlay, fontSize);
 
                 // Will the overlay fit inside the image?
-                if (maxLineWidth + (inset * 2) + (padding * 2) <= baseImage.getWidth() &&
-                        totalHeight + (inset * 2) + (padding * 2) <= baseImage.getHeight()) {
+                if (layout.getMaxLineWidth() + (inset * 2) + (padding * 2) <= baseImage.getWidth() &&
+                        layout.getTotalHeight() + (inset * 2) + (padding * 2) <= baseImage.getHeight()) {
                     fits = true;
                     break;
                 } else {
                     if (fontSize - 1 >= overlay.getMinSize()) {
                         fontSize -= 1;
-                        font = font.deriveFont(fontSize);
                     } else {
                         break;
                     }
@@ -467,89 +459,27 @@ public final class Java2DUtil {
                         fontSize, overlay.getMinSize(),
                         overlay.getFont().getSize());
 
-                g2d.drawImage(baseImage, 0, 0, null);
-
                 final Rectangle bgBox = getBoundingBox(overlay, inset,
-                        lineWidths, lineHeight,
+                        layout.getLineWidths(), layout.getLineHeight(),
                         new Dimension(baseImage.getWidth(), baseImage.getHeight()));
+                final StringOverlayCache.Sprite sprite =
+                        cache.getSprite(overlay, layout);
 
-                // Draw the background, if it is not transparent.
-                if (overlay.getBackgroundColor().getAlpha() > 0) {
-                    g2d.setPaint(overlay.getBackgroundColor().toColor());
-                    g2d.fillRect(bgBox.intX(), bgBox.intY(),
-                            bgBox.intWidth(), bgBox.intHeight());
-                }
-
-                // Draw each line individually.
-                for (int i = 0; i < lines.length; i++) {
-                    double x, y;
-                    switch (overlay.getPosition()) {
-                        case TOP_LEFT:
-                            x = bgBox.x() + padding;
-                            y = bgBox.y() + lineHeight * i + padding;
-                            break;
-                        case TOP_RIGHT:
-                            x = bgBox.x() + maxLineWidth - lineWidths[i] + padding;
-                            y = bgBox.y() + lineHeight * i + padding;
-                            break;
-                        case BOTTOM_LEFT:
-                            x = bgBox.x() + padding;
-                            y = bgBox.y() + lineHeight * i + padding;
-                            break;
-                        // case BOTTOM_RIGHT: will be handled in default:
-                        case TOP_CENTER:
-                            x = bgBox.x() + (bgBox.width() - lineWidths[i]) / 2.0;
-                            y = bgBox.y() + lineHeight * i + padding;
-                            break;
-                        case BOTTOM_CENTER:
-                            x = bgBox.x() + (bgBox.width() - lineWidths[i]) / 2.0;
-                            y = bgBox.y() + lineHeight * i + padding;
-                            break;
-                        case LEFT_CENTER:
-                            x = bgBox.x() + padding;
-                            y = bgBox.y() + lineHeight * i + padding;
-                            break;
-                        case RIGHT_CENTER:
-                            x = bgBox.x() + maxLineWidth - lineWidths[i] + padding;
-                            y = bgBox.y() + lineHeight * i + padding;
-                            break;
-                        case CENTER:
-                            x = bgBox.x() + (bgBox.width() - lineWidths[i]) / 2.0;
-                            y = bgBox.y() + lineHeight * i + padding;
-                            break;
-                        default: // bottom right
-                            x = bgBox.x() + maxLineWidth - lineWidths[i] + padding;
-                            y = bgBox.y() + lineHeight * i + padding;
-                            break;
-                    }
-
-                    // This is arbitrary fudge, but it seems to work OK.
-                    y += lineHeight * 0.73;
-
-                    // Draw the text outline.
-                    if (overlay.getStrokeWidth() > 0.001) {
-                        final FontRenderContext frc = g2d.getFontRenderContext();
-                        final GlyphVector gv = font.createGlyphVector(frc, lines[i]);
-                        final Shape shape = gv.getOutline(Math.round(x), Math.round(y));
-                        g2d.setStroke(new BasicStroke(overlay.getStrokeWidth()));
-                        g2d.setPaint(overlay.getStrokeColor().toColor());
-                        g2d.draw(shape);
-                    }
+                final Graphics2D g2d = baseImage.createGraphics();
+                g2d.drawImage(sprite.getImage(),
+                        bgBox.intX() - sprite.getMargin(),
+                        bgBox.intY() - sprite.getMargin(), null);
+                g2d.dispose();
 
-                    // Draw the string.
-                    g2d.setPaint(overlay.getColor().toColor());
-                    g2d.drawString(lines[i], Math.round(x), Math.round(y));
-                }
                 LOGGER.debug("overlayString() executed in {}", watch);
             } else {
                 LOGGER.debug("overlayString(): {}-point ({}x{}) text won't fit in {}x{} image",
                         fontSize,
-                        maxLineWidth + inset,
-                        totalHeight + inset,
+                        layout.getMaxLineWidth() + inset,
+                        layout.getTotalHeight() + inset,
                         baseImage.getWidth(),
                         baseImage.getHeight());
             }
-            g2d.dispose();
         }
     }
 
@@ -560,7 +490,7 @@ public final class Java2DUtil {
                                             final Dimension imageSize) {
         // If the overlay background is visible, add some padding between the
         // text and the margin.
-        final int padding = getBoxPadding(overlay);
+        final int padding = StringOverlayCache.getBoxPadding(overlay);
         final double boxWidth = NumberUtils.max(lineWidths) + padding * 2;
         final double boxHeight = lineHeight * lineWidths.length + padding * 2;
         double boxX, boxY;
@@ -606,10 +536,6 @@ public final class Java2DUtil {
         return new Rectangle(boxX, boxY, boxWidth, boxHeight);
     }
 
-    private static int getBoxPadding(StringOverlay overlay) {
-        return (overlay.getBackgroundColor().getAlpha() > 0) ? 5 : 0;
-    }
-
     /**
      * @param colorModel Color model of the new image.
      * @param width      Width of the new image.
@@ -668,7 +594,7 @@ public final class Java2DUtil {
                 type = BufferedImage.TYPE_BYTE_GRAY;
             }
 
-            outImage = new BufferedImage(
+            outImage = BufferPool.newImage(
                     inImage.getWidth(), inImage.getHeight(), type);
             final ColorConvertOp op = new ColorConvertOp(
                     inColorModel.getColorSpace(),
@@ -716,7 +642,7 @@ public final class Java2DUtil {
                     newType = BufferedImage.TYPE_INT_RGB;
                     break;
             }
-            outImage = new BufferedImage(inImage.getWidth(),
+            outImage = BufferPool.newImage(inImage.getWidth(),
                     inImage.getHeight(), newType);
             Graphics2D g = outImage.createGraphics();
 
@@ -783,7 +709,7 @@ public final class Java2DUtil {
                             canvasWidth, canvasHeight, true);
                     break;
                 case BufferedImage.TYPE_BYTE_BINARY:
-                    outImage = new BufferedImage(
+                    outImage = BufferPool.newImage(
                             canvasWidth, canvasHeight,
                             BufferedImage.TYPE_INT_ARGB);
                     break;
@@ -792,7 +718,7 @@ public final class Java2DUtil {
                             canvasWidth, canvasHeight, true);
                     break;
                 default:
-                    outImage = new BufferedImage(
+                    outImage = BufferPool.newImage(
                             canvasWidth, canvasHeight,
                             BufferedImage.TYPE_INT_ARGB);
                     break;
@@ -900,20 +826,8 @@ public final class Java2DUtil {
                 final ResampleOp resampleOp = new ResampleOp(
                         targetSize.intWidth(), targetSize.intHeight());
 
-                // Try to use the requested resample filter.
-                ResampleFilter filter = null;
-                if (scale.getFilter() != null) {
-                    filter = scale.getFilter().toResampleFilter();
-                }
-                // No particular filter requested, so select a default.
-                if (filter == null) {
-                    if (targetSize.width() < sourceSize.width() ||
-                            targetSize.height() < sourceSize.height()) {
-                        filter = DEFAULT_DOWNSCALE_FILTER.toResampleFilter();
-                    } else {
-                        filter = DEFAULT_UPSCALE_FILTER.toResampleFilter();
-                    }
-                }
+                final ResampleFilter filter =
+                        getResampleFilter(scale, sourceSize, targetSize);
                 resampleOp.setFilter(filter);
 
                 scaledImage = resampleOp.filter(inImage, null);
@@ -925,7 +839,7 @@ public final class Java2DUtil {
                         filter.getName(), watch);
             }
         } else {
-            scaledImage = new BufferedImage(
+            scaledImage = BufferPool.newImage(
                     targetSize.intWidth(),
                     targetSize.intHeight(),
                     inImage.getType());
@@ -933,6 +847,34 @@ public final class Java2DUtil {
         return scaledImage;
     }
 
+    /**
+     * @param scale      Scale operation.
+     * @param sourceSize Size of the image to scale.
+     * @param targetSize Size to scale it to.
+     * @return           The filter requested by the given operation, or a
+     *                   default appropriate for the scale direction if none
+     *                   was requested.
+     */
+    static ResampleFilter getResampleFilter(Scale scale,
+                                            Dimension sourceSize,
+                                            Dimension targetSize) {
+        // Try to use the requested resample filter.
+        ResampleFilter filter = null;
+        if (scale.getFilter() != null) {
+            filter = scale.getFilter().toResampleFilter();
+        }
+        // No particular filter requested, so select a default.
+        if (filter == null) {
+            if (targetSize.width() < sourceSize.width() ||
+                    targetSize.height() < sourceSize.height()) {
+                filter = DEFAULT_DOWNSCALE_FILTER.toResampleFilter();
+            } else {
+                filter = DEFAULT_UPSCALE_FILTER.toResampleFilter();
+            }
+        }
+        return filter;
+    }
+
     /**
      * @param inImage Image to sharpen.
      * @param sharpen Sharpen operation.
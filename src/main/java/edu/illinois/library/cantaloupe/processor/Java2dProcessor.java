@@ -1,26 +1,96 @@
 package edu.illinois.library.cantaloupe.processor;
 
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.image.Dimension;
 import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Info;
+import edu.illinois.library.cantaloupe.image.Metadata;
+import edu.illinois.library.cantaloupe.image.Orientation;
+import edu.illinois.library.cantaloupe.image.Rectangle;
+import edu.illinois.library.cantaloupe.operation.Color;
+import edu.illinois.library.cantaloupe.operation.ColorTransform;
+import edu.illinois.library.cantaloupe.operation.Crop;
+import edu.illinois.library.cantaloupe.operation.Encode;
+import edu.illinois.library.cantaloupe.operation.MetadataCopy;
+import edu.illinois.library.cantaloupe.operation.Operation;
 import edu.illinois.library.cantaloupe.operation.OperationList;
 import edu.illinois.library.cantaloupe.operation.ReductionFactor;
+import edu.illinois.library.cantaloupe.operation.Scale;
 import edu.illinois.library.cantaloupe.processor.codec.BufferedImageSequence;
 import edu.illinois.library.cantaloupe.processor.codec.ImageReader;
+import edu.illinois.library.cantaloupe.processor.codec.ImageWriter;
+import edu.illinois.library.cantaloupe.processor.codec.ImageWriterFactory;
+import edu.illinois.library.cantaloupe.processor.codec.JPEGTransformer;
 import edu.illinois.library.cantaloupe.processor.codec.ReaderHint;
 import edu.illinois.library.cantaloupe.resource.iiif.ProcessorFeature;
+import edu.illinois.library.cantaloupe.status.Metrics;
+import edu.illinois.library.cantaloupe.util.StringUtils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.EnumSet;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 
 /**
  * <p>Processor using the Java 2D and ImageIO libraries.</p>
+ *
+ * <p>Images are normally read into memory in their entirety (or at least the
+ * requested region of them is) before being processed. When the decoded
+ * region of a mono-resolution TIFF source image would exceed {@link
+ * Key#PROCESSOR_IMAGEIO_STREAMING_THRESHOLD}, and the operation list is
+ * simple enough, it is instead read, scaled, and written in horizontal
+ * strips; see {@link StreamedImage}.</p>
+ *
+ * <p>Requests for exactly one of the tiles of a JPEG-compressed tiled TIFF,
+ * as an unaltered JPEG, are fulfilled by copying the compressed tile data to
+ * the output without decoding it; see {@link #readPassthroughTile}.</p>
+ *
+ * <p>JPEGs requested as JPEGs with only block-aligned cropping, rotation by
+ * multiples of 90 degrees, and/or mirroring are transformed in the DCT
+ * domain, without decoding them to pixels; see {@link JPEGTransformer}.</p>
  */
 class Java2dProcessor extends AbstractImageIOProcessor
         implements StreamProcessor, FileProcessor {
 
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(Java2dProcessor.class);
+
+    private static final long DEFAULT_STREAMING_THRESHOLD =
+            256 * 1024 * 1024;
+
+    private static final Set<Format> STREAMABLE_OUTPUT_FORMATS =
+            EnumSet.of(Format.JPG, Format.PNG, Format.TIF);
+
+    /**
+     * @return Decoded size in bytes above which images will be streamed, or
+     *         {@literal 0} if streaming is disabled.
+     */
+    private static long getStreamingThreshold() {
+        final Configuration config = Configuration.getInstance();
+        final String humanSize = config.getString(
+                Key.PROCESSOR_IMAGEIO_STREAMING_THRESHOLD);
+        if (humanSize == null) {
+            return DEFAULT_STREAMING_THRESHOLD;
+        } else if (humanSize.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Math.max(0, StringUtils.toByteSize(humanSize));
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Invalid value for {}; using the default",
+                    Key.PROCESSOR_IMAGEIO_STREAMING_THRESHOLD);
+            return DEFAULT_STREAMING_THRESHOLD;
+        }
+    }
+
     @Override
     public Set<ProcessorFeature> getSupportedFeatures() {
         return Java2DPostProcessor.SUPPORTED_FEATURES;
@@ -43,9 +113,8 @@ class Java2dProcessor extends AbstractImageIOProcessor
             throws ProcessorException {
         super.process(ops, imageInfo, outputStream);
 
-        ImageReader reader = null;
         try {
-            reader = getReader();
+            final ImageReader reader = getReader();
             final ReductionFactor rf    = new ReductionFactor();
             final Set<ReaderHint> hints = EnumSet.noneOf(ReaderHint.class);
 
@@ -55,24 +124,328 @@ class Java2dProcessor extends AbstractImageIOProcessor
             // frame, though.)
             if (Format.GIF.equals(imageInfo.getSourceFormat()) &&
                     Format.GIF.equals(ops.getOutputFormat())) {
-                BufferedImageSequence seq = reader.readSequence();
-                Java2DPostProcessor.postProcess(
-                        seq, ops, imageInfo, reader.getMetadata(0),
-                        outputStream);
+                if (isSequenceStreamable(reader, imageInfo)) {
+                    // The metadata must be read first, as reading it resets
+                    // the reader.
+                    final Metadata metadata = reader.getMetadata(0);
+                    Java2DPostProcessor.postProcess(
+                            reader.streamSequence(), ops, imageInfo,
+                            metadata, outputStream);
+                } else {
+                    final long start = System.nanoTime();
+                    BufferedImageSequence seq = reader.readSequence();
+                    Metrics.getInstance().recordSince(Metrics.Stage.DECODE,
+                            getClass().getSimpleName(), start);
+                    Java2DPostProcessor.postProcess(
+                            seq, ops, imageInfo, reader.getMetadata(0),
+                            outputStream);
+                }
+            } else if (transformLosslessly(ops, imageInfo, outputStream)) {
+                LOGGER.debug("process(): transformed {} in the DCT domain",
+                        ops);
             } else {
-                BufferedImage image =
-                        reader.read(ops, imageInfo.getOrientation(), rf, hints);
-                Java2DPostProcessor.postProcess(
-                        image, hints, ops, imageInfo, rf, reader.getMetadata(0),
-                        outputStream);
+                final byte[] tile = readPassthroughTile(reader, ops, imageInfo);
+                if (tile != null) {
+                    outputStream.write(tile);
+                } else if (isStreamable(reader, ops, imageInfo)) {
+                    processStreaming(reader, ops, imageInfo, outputStream);
+                } else {
+                    final long start = System.nanoTime();
+                    BufferedImage image = reader.read(
+                            ops, imageInfo.getOrientation(), rf, hints);
+                    Metrics.getInstance().recordSince(Metrics.Stage.DECODE,
+                            getClass().getSimpleName(), start);
+                    Java2DPostProcessor.postProcess(
+                            image, hints, ops, imageInfo, rf,
+                            reader.getMetadata(0), outputStream);
+                }
             }
         } catch (IOException e) {
             throw new ProcessorException(e.getMessage(), e);
         } finally {
-            if (reader != null) {
-                reader.dispose();
+            // Dispose of the reader and forget it, so that a subsequent
+            // invocation will get a new one.
+            close();
+        }
+    }
+
+    /**
+     * @return Region of the full-resolution source image corresponding to the
+     *         crop in the given operation list.
+     */
+    private static Rectangle getSourceRegion(OperationList ops,
+                                             Dimension fullSize) {
+        final Crop crop = (Crop) ops.getFirst(Crop.class);
+        if (crop != null) {
+            return crop.getRectangle(fullSize, ops.getScaleConstraint());
+        }
+        return new Rectangle(0, 0, fullSize.width(), fullSize.height());
+    }
+
+    /**
+     * @return Size of the image resulting from the given operation list.
+     */
+    private static Dimension getOutputSize(OperationList ops,
+                                           Rectangle sourceRegion) {
+        Scale scale = (Scale) ops.getFirst(Scale.class);
+        if (scale == null) {
+            scale = new Scale();
+        }
+        return scale.getResultingSize(sourceRegion.size(),
+                new ReductionFactor(), ops.getScaleConstraint());
+    }
+
+    /**
+     * <p>Attempts to fulfill the given operation list using a {@link
+     * JPEGTransformer}.</p>
+     *
+     * <p>N.B.: The output quality and interlacing will be those of the source
+     * image rather than the ones in the {@link Encode} operation.</p>
+     *
+     * @return Whether the operation list was fulfilled, in which case the
+     *         result has been written to the given output stream.
+     */
+    private boolean transformLosslessly(OperationList ops,
+                                        Info info,
+                                        OutputStream outputStream) throws IOException {
+        final Configuration config = Configuration.getInstance();
+        if (!config.getBoolean(Key.PROCESSOR_IMAGEIO_LOSSLESS_JPEG_TRANSFORMS, true) ||
+                !Format.JPG.equals(getSourceFormat()) ||
+                !Orientation.ROTATE_0.equals(info.getOrientation()) ||
+                !JPEGTransformer.canTransform(ops, info.getSize())) {
+            return false;
+        }
+        // Don't read the whole image unless the operations line up with its
+        // MCU grid, which can be read from its header.
+        final Dimension mcuSize;
+        try (InputStream is = (sourceFile != null) ?
+                Files.newInputStream(sourceFile) :
+                streamFactory.newInputStream()) {
+            mcuSize = JPEGTransformer.readMCUSize(is);
+        }
+        if (mcuSize == null ||
+                !JPEGTransformer.canTransform(ops, info.getSize(), mcuSize)) {
+            return false;
+        }
+        final byte[] data;
+        if (sourceFile != null) {
+            data = Files.readAllBytes(sourceFile);
+        } else {
+            try (InputStream is = streamFactory.newInputStream()) {
+                data = IOUtils.toByteArray(is);
             }
         }
+        return new JPEGTransformer(data)
+                .transform(ops, info.getSize(), outputStream);
+    }
+
+    /**
+     * <p>If the given operation list requests exactly one of the tiles of a
+     * JPEG-compressed source image (at any resolution level) as an unrotated,
+     * unaltered JPEG, this method returns that tile's compressed data, as
+     * read by {@link ImageReader#readTileAsJPEG}, so that it can be written
+     * out without being decoded and re-encoded.</p>
+     *
+     * <p>N.B.: The output quality and interlacing will be those of the source
+     * tile rather than the ones in the {@link Encode} operation.</p>
+     *
+     * @return Tile data, or {@literal null} if the operation list can't be
+     *         fulfilled this way.
+     */
+    private static byte[] readPassthroughTile(ImageReader reader,
+                                              OperationList ops,
+                                              Info info) throws IOException {
+        final Configuration config = Configuration.getInstance();
+        if (!config.getBoolean(Key.PROCESSOR_IMAGEIO_TILE_PASSTHROUGH, true) ||
+                !Format.TIF.equals(info.getSourceFormat()) ||
+                !Format.JPG.equals(ops.getOutputFormat()) ||
+                !Orientation.ROTATE_0.equals(info.getOrientation()) ||
+                ops.getScaleConstraint().hasEffect()) {
+            return null;
+        }
+        final Dimension fullSize = info.getSize();
+        for (Operation op : ops) {
+            if (op.hasEffect(fullSize, ops) &&
+                    !(op instanceof Crop) &&
+                    !(op instanceof Scale) &&
+                    !(op instanceof Encode)) {
+                return null;
+            }
+        }
+
+        final Rectangle region = getSourceRegion(ops, fullSize);
+        final Dimension outputSize = getOutputSize(ops, region);
+        final int numResolutions = reader.getNumResolutions();
+        for (int i = 0; i < numResolutions; i++) {
+            final Dimension tileSize = reader.getTileSize(i);
+            if (outputSize.intWidth() != tileSize.intWidth() ||
+                    outputSize.intHeight() != tileSize.intHeight()) {
+                continue;
+            }
+            // Resolution levels are assumed to be successively halved, so
+            // the level's scale is derived from its reduction factor rather
+            // than from its (rounded) size.
+            final Dimension levelSize = reader.getSize(i);
+            final ReductionFactor rf = new ReductionFactor((int) Math.round(
+                    Math.log(fullSize.width() / levelSize.width()) / Math.log(2)));
+            final double scale = rf.getScale();
+            final double x = region.x() * scale;
+            final double y = region.y() * scale;
+            if (Math.abs(levelSize.width() - fullSize.width() * scale) > 1 ||
+                    region.width() * scale != tileSize.width() ||
+                    region.height() * scale != tileSize.height() ||
+                    x % tileSize.width() != 0 ||
+                    y % tileSize.height() != 0) {
+                continue;
+            }
+            final byte[] tile = reader.readTileAsJPEG(i,
+                    (int) (x / tileSize.width()),
+                    (int) (y / tileSize.height()));
+            if (tile != null) {
+                LOGGER.debug("readPassthroughTile(): passing through tile " +
+                                "at {},{} of resolution level {}",
+                        x / tileSize.width(), y / tileSize.height(), i);
+            }
+            return tile;
+        }
+        return null;
+    }
+
+    /**
+     * @return Whether the decoded frames of the image sequence being read by
+     *         the given reader would occupy more memory than the {@link
+     *         Key#PROCESSOR_IMAGEIO_STREAMING_THRESHOLD streaming threshold},
+     *         in which case they should be processed one at a time.
+     */
+    private static boolean isSequenceStreamable(ImageReader reader,
+                                                Info info) throws IOException {
+        final long threshold = getStreamingThreshold();
+        if (threshold <= 0) {
+            return false;
+        }
+        final Dimension size = info.getSize();
+        // Assume 4 bytes per pixel, which is what frames will end up with
+        // after they have been processed.
+        final double decodedSize = size.width() * size.height() * 4 *
+                reader.getNumImages();
+        return decodedSize > threshold;
+    }
+
+    /**
+     * @return Whether the given operation list can be fulfilled by {@link
+     *         #processStreaming}, and whether the source image is large
+     *         enough for it to be worthwhile.
+     */
+    private boolean isStreamable(ImageReader reader,
+                                 OperationList ops,
+                                 Info info) throws IOException {
+        final long threshold = getStreamingThreshold();
+        if (threshold <= 0 ||
+                !Format.TIF.equals(info.getSourceFormat()) ||
+                !STREAMABLE_OUTPUT_FORMATS.contains(ops.getOutputFormat()) ||
+                !Orientation.ROTATE_0.equals(info.getOrientation()) ||
+                reader.getNumResolutions() != 1) {
+            return false;
+        }
+        final Dimension fullSize = info.getSize();
+        for (Operation op : ops) {
+            if (op.hasEffect(fullSize, ops) &&
+                    !(op instanceof Crop) &&
+                    !(op instanceof Scale) &&
+                    !(op instanceof ColorTransform) &&
+                    !(op instanceof Encode) &&
+                    !(op instanceof MetadataCopy)) {
+                return false;
+            }
+        }
+
+        final Rectangle region = getSourceRegion(ops, fullSize);
+        final Dimension outputSize = getOutputSize(ops, region);
+        if (outputSize.intWidth() < 3 || outputSize.intHeight() < 3) {
+            return false;
+        }
+        final ReductionFactor rf = reader.getSubsamplingReductionFactor(
+                ops, info.getOrientation(), null);
+        final double rfScale = rf.getScale();
+        // Assume 4 bytes per pixel, which is what most images will end up
+        // with after they have been decoded and reduced to 8 bits.
+        final double decodedSize = region.width() * rfScale *
+                region.height() * rfScale * 4;
+        return decodedSize > threshold;
+    }
+
+    /**
+     * Reads, scales, and writes the source image in strips, without ever
+     * holding all of it in memory. {@link #isStreamable} must have returned
+     * {@literal true}.
+     */
+    private void processStreaming(final ImageReader reader,
+                                  final OperationList ops,
+                                  final Info info,
+                                  final OutputStream outputStream) throws IOException {
+        final Dimension fullSize = info.getSize();
+        final Rectangle region = getSourceRegion(ops, fullSize);
+        final Dimension outputSize = getOutputSize(ops, region);
+        final ReductionFactor rf = reader.getSubsamplingReductionFactor(
+                ops, info.getOrientation(), null);
+        final Dimension reducedSize = new Dimension(
+                Math.ceil(region.width() * rf.getScale()),
+                Math.ceil(region.height() * rf.getScale()));
+        Scale scale = (Scale) ops.getFirst(Scale.class);
+        if (scale == null) {
+            scale = new Scale();
+        }
+        final Encode encode = getStreamingEncode(ops);
+        final ColorTransform colorTransform =
+                (ColorTransform) ops.getFirst(ColorTransform.class);
+
+        final UnaryOperator<BufferedImage> stripOperator = strip -> {
+            if (colorTransform != null) {
+                strip = Java2DUtil.transformColor(strip, colorTransform);
+            }
+            if (Format.JPG.equals(encode.getFormat())) {
+                final Color bgColor = encode.getBackgroundColor();
+                strip = (bgColor != null) ?
+                        Java2DUtil.removeAlpha(strip, bgColor) :
+                        Java2DUtil.removeAlpha(strip);
+            }
+            return strip;
+        };
+
+        LOGGER.debug("processStreaming(): streaming {}x{} region at {}x " +
+                        "subsampling to {}x{}",
+                region.intWidth(), region.intHeight(),
+                1 << rf.factor, outputSize.intWidth(), outputSize.intHeight());
+
+        final StreamedImage image = new StreamedImage(reader, region, rf,
+                outputSize,
+                Java2DUtil.getResampleFilter(scale, reducedSize, outputSize),
+                stripOperator);
+
+        ImageWriter writer = new ImageWriterFactory().newImageWriter(encode);
+        if (ops.getFirst(MetadataCopy.class) != null) {
+            writer.setMetadata(reader.getMetadata(0));
+        }
+        writer.write(image, outputStream);
+    }
+
+    /**
+     * Progressive JPEGs can't be written incrementally, so if the output
+     * format is JPEG, this method returns a copy of the operation list's
+     * {@link Encode} operation with interlacing disabled.
+     */
+    private static Encode getStreamingEncode(OperationList ops) {
+        final Encode encode = (Encode) ops.getFirst(Encode.class);
+        if (!Format.JPG.equals(encode.getFormat()) || !encode.isInterlacing()) {
+            return encode;
+        }
+        final Encode baseline = new Encode(encode.getFormat());
+        baseline.setBackgroundColor(encode.getBackgroundColor());
+        baseline.setCompression(encode.getCompression());
+        baseline.setMaxComponentSize(encode.getMaxComponentSize());
+        baseline.setQuality(encode.getQuality());
+        baseline.setInterlacing(false);
+        return baseline;
     }
 
 }
@@ -24,6 +24,7 @@ import edu.illinois.library.cantaloupe.processor.codec.ImageWriterFactory;
 import edu.illinois.library.cantaloupe.processor.codec.JPEG2000KakaduImageReader;
 import edu.illinois.library.cantaloupe.source.StreamFactory;
 import edu.illinois.library.cantaloupe.resource.iiif.ProcessorFeature;
+import edu.illinois.library.cantaloupe.status.Metrics;
 import kdu_jni.KduException;
 import kdu_jni.Kdu_global;
 
@@ -254,9 +255,12 @@ class KakaduNativeProcessor implements FileProcessor, StreamProcessor {
         final double[] diffScales = new double[] { 1.0, 1.0 };
 
         try {
+            final long start = System.nanoTime();
             final BufferedImage image = reader.readRegion(
                     roi, scaleOp, opList.getScaleConstraint(),
                     reductionFactor, diffScales);
+            Metrics.getInstance().recordSince(Metrics.Stage.DECODE,
+                    getClass().getSimpleName(), start);
             postProcess(image, opList, diffScales, info, reductionFactor,
                     outputStream);
         } catch (IOException e) {
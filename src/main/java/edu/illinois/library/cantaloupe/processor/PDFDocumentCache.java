@@ -0,0 +1,432 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.image.Dimension;
+import edu.illinois.library.cantaloupe.image.Metadata;
+import edu.illinois.library.cantaloupe.util.ObjectCache;
+import edu.illinois.library.cantaloupe.util.StringUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>Shares parsed {@link PDDocument}s, and pages rendered from them, across
+ * requests.</p>
+ *
+ * <p>Loading a document parses its cross-reference table and document
+ * catalog, which for large PDFs can take much longer than rendering a page.
+ * Loaded documents are therefore kept in a cache whose total weight, which is
+ * the size of the source PDFs, is bounded by {@link
+ * Key#PDFBOXPROCESSOR_DOCUMENT_CACHE_MAX_SIZE}. A document evicted while in
+ * use is closed only after its last user has {@link Document#release()
+ * released} it.</p>
+ *
+ * <p>A single {@link PDDocument} is not safe for concurrent use, so each
+ * {@link Document} has a {@link Document#getLock() lock} that must be held
+ * while accessing it.</p>
+ *
+ * <p>Rendered pages are cached separately, keyed by document, page, and DPI,
+ * so that all of the tiles of a page at a given scale are rendered from a
+ * single rasterization. The total size of their rasters is bounded by {@link
+ * Key#PDFBOXPROCESSOR_RASTER_CACHE_MAX_SIZE}.</p>
+ *
+ * @since 4.1
+ */
+final class PDFDocumentCache {
+
+    /**
+     * Loads a document.
+     */
+    @FunctionalInterface
+    interface Loader {
+
+        /**
+         * @return Loaded document.
+         */
+        Document load() throws IOException;
+
+    }
+
+    /**
+     * Loaded document, which may be shared by multiple requests.
+     */
+    static final class Document {
+
+        private final PDDocument pdDocument;
+        private final Metadata metadata;
+        private final long size;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * Number of users; guarded by the instance.
+         */
+        private int refCount = 1;
+
+        /**
+         * Whether the instance is no longer in the cache; guarded by the
+         * instance.
+         */
+        private boolean isEvicted;
+
+        /**
+         * @param pdDocument Loaded document.
+         * @param metadata   Metadata extracted from the document. May be
+         *                   {@literal null}.
+         * @param size       Size of the source PDF in bytes.
+         */
+        Document(PDDocument pdDocument, Metadata metadata, long size) {
+            this.pdDocument = pdDocument;
+            this.metadata = metadata;
+            this.size = size;
+        }
+
+        /**
+         * @return Lock that must be held while using the {@link
+         *         #getPDDocument() document}.
+         */
+        ReentrantLock getLock() {
+            return lock;
+        }
+
+        /**
+         * @return Metadata extracted from the document. May be {@literal
+         *         null}.
+         */
+        Metadata getMetadata() {
+            return metadata;
+        }
+
+        PDDocument getPDDocument() {
+            return pdDocument;
+        }
+
+        /**
+         * @return Whether the document has been closed.
+         */
+        synchronized boolean isClosed() {
+            return isEvicted && refCount == 0;
+        }
+
+        /**
+         * Signals that the caller is done with the instance. It must not be
+         * used afterwards.
+         */
+        void release() {
+            final boolean close;
+            synchronized (this) {
+                refCount--;
+                close = (isEvicted && refCount == 0);
+            }
+            if (close) {
+                IOUtils.closeQuietly(pdDocument);
+            }
+        }
+
+        /**
+         * @return Whether the caller may use the instance, which it must
+         *         {@link #release()} when it is done.
+         */
+        private synchronized boolean retain() {
+            if (isEvicted) {
+                return false;
+            }
+            refCount++;
+            return true;
+        }
+
+        /**
+         * Called when the instance is no longer in the cache.
+         */
+        private void evict() {
+            final boolean close;
+            synchronized (this) {
+                isEvicted = true;
+                close = (refCount == 0);
+            }
+            if (close) {
+                IOUtils.closeQuietly(pdDocument);
+            }
+        }
+
+        /**
+         * @return Weight of the instance in kilobytes.
+         */
+        private int weight() {
+            return (int) Math.min(Integer.MAX_VALUE, size / 1024 + 1);
+        }
+
+    }
+
+    /**
+     * Key of a rendered page.
+     */
+    private static final class RasterKey {
+
+        private final Object documentKey;
+        private final int pageIndex;
+        private final double dpi;
+
+        RasterKey(Object documentKey, int pageIndex, double dpi) {
+            this.documentKey = documentKey;
+            this.pageIndex = pageIndex;
+            this.dpi = dpi;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            } else if (obj instanceof RasterKey) {
+                RasterKey other = (RasterKey) obj;
+                return documentKey.equals(other.documentKey) &&
+                        pageIndex == other.pageIndex &&
+                        Double.compare(dpi, other.dpi) == 0;
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(documentKey, pageIndex, dpi);
+        }
+
+    }
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(PDFDocumentCache.class);
+
+    private static final long DEFAULT_DOCUMENT_CACHE_MAX_SIZE =
+            512 * 1024 * 1024;
+    private static final long DEFAULT_RASTER_CACHE_MAX_SIZE =
+            128 * 1024 * 1024;
+
+    /**
+     * Pages are rendered into {@link BufferedImage#TYPE_INT_RGB} images.
+     */
+    private static final int BYTES_PER_PIXEL = 4;
+
+    /**
+     * A rendered page is cached only if it would take up no more than this
+     * fraction of the raster cache, so that a single huge page can't evict
+     * all of the others.
+     */
+    private static final int MAX_RASTER_FRACTION = 4;
+
+    /**
+     * Number of locks among which concurrent loads are striped.
+     */
+    private static final int NUM_LOAD_LOCKS = 64;
+
+    private static PDFDocumentCache instance;
+
+    /**
+     * {@literal null} when caching of documents is disabled.
+     */
+    private final ObjectCache<Object, Document> documents;
+
+    /**
+     * {@literal null} when caching of rasters is disabled.
+     */
+    private final ObjectCache<RasterKey, BufferedImage> rasters;
+
+    /**
+     * Loads of the same document are serialized by these so that it is only
+     * loaded once.
+     */
+    private final Object[] loadLocks = new Object[NUM_LOAD_LOCKS];
+
+    /**
+     * For testing only.
+     */
+    static synchronized void clearInstance() {
+        if (instance != null) {
+            instance.purge();
+        }
+        instance = null;
+    }
+
+    /**
+     * @return Shared instance.
+     */
+    static synchronized PDFDocumentCache getInstance() {
+        if (instance == null) {
+            instance = new PDFDocumentCache(
+                    readSize(Key.PDFBOXPROCESSOR_DOCUMENT_CACHE_MAX_SIZE,
+                            DEFAULT_DOCUMENT_CACHE_MAX_SIZE),
+                    readSize(Key.PDFBOXPROCESSOR_RASTER_CACHE_MAX_SIZE,
+                            DEFAULT_RASTER_CACHE_MAX_SIZE));
+        }
+        return instance;
+    }
+
+    /**
+     * @return Number of bytes represented by the value of the given key, or
+     *         the given default if it is not set or invalid.
+     */
+    static long readSize(Key key, long defaultValue) {
+        final Configuration config = Configuration.getInstance();
+        final String humanSize = config.getString(key);
+        if (humanSize != null && !humanSize.isEmpty()) {
+            try {
+                return Math.max(0, StringUtils.toByteSize(humanSize));
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Invalid value for {}; using the default", key);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * @param maxDocumentBytes Maximum total size of the source PDFs of cached
+     *                         documents. {@literal 0} disables caching of
+     *                         documents.
+     * @param maxRasterBytes   Maximum total size of cached rasters.
+     *                         {@literal 0} disables caching of rasters.
+     */
+    PDFDocumentCache(long maxDocumentBytes, long maxRasterBytes) {
+        documents = (maxDocumentBytes > 0) ?
+                new ObjectCache<>(maxDocumentBytes / 1024,
+                        Document::weight,
+                        (key, doc) -> doc.evict()) : null;
+        rasters = (maxRasterBytes > 0) ?
+                new ObjectCache<>(maxRasterBytes / 1024,
+                        PDFDocumentCache::weigh,
+                        (key, image) -> {}) : null;
+        for (int i = 0; i < loadLocks.length; i++) {
+            loadLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * @return Weight of the given image in kilobytes.
+     */
+    private static int weigh(BufferedImage image) {
+        return weigh(image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * @return Weight of an image of the given dimensions in kilobytes.
+     */
+    private static int weigh(long width, long height) {
+        final long bytes = width * height * BYTES_PER_PIXEL;
+        return (int) Math.min(Integer.MAX_VALUE, bytes / 1024 + 1);
+    }
+
+    /**
+     * Returns the cached document with the given key, loading and caching it
+     * if necessary. The caller must {@link Document#release() release} it
+     * when it is done with it.
+     *
+     * @param key    Key identifying a particular version of a document, or
+     *               {@literal null} if there isn't one, in which case the
+     *               document is loaded but not cached.
+     * @param loader Loads the document.
+     * @return       Document.
+     */
+    Document acquire(Object key, Loader loader) throws IOException {
+        if (key == null || documents == null) {
+            final Document doc = loader.load();
+            doc.evict();
+            return doc;
+        }
+
+        Document doc = retain(key);
+        if (doc != null) {
+            LOGGER.trace("acquire(): hit for {}", key);
+            return doc;
+        }
+        synchronized (loadLocks[Math.floorMod(key.hashCode(), NUM_LOAD_LOCKS)]) {
+            // Another thread may have loaded it while we were waiting.
+            doc = retain(key);
+            if (doc != null) {
+                LOGGER.trace("acquire(): hit for {} after waiting", key);
+                return doc;
+            }
+            LOGGER.trace("acquire(): miss for {}", key);
+            doc = loader.load();
+            // The cache doesn't hold a reference of its own; the document
+            // stays open for as long as it is cached or in use.
+            documents.put(key, doc);
+        }
+        return doc;
+    }
+
+    /**
+     * @return Cached, retained document with the given key, or {@literal
+     *         null}.
+     */
+    private Document retain(Object key) {
+        final Document doc = documents.get(key);
+        if (doc != null && doc.retain()) {
+            return doc;
+        }
+        return null;
+    }
+
+    /**
+     * @param documentKey Key of a document.
+     * @param pageIndex   Zero-based page index.
+     * @param dpi         DPI at which the page was rendered.
+     * @return            Cached rendered page, or {@literal null}. The image
+     *                    is shared, so it must not be modified.
+     */
+    BufferedImage getRaster(Object documentKey, int pageIndex, double dpi) {
+        if (documentKey == null || rasters == null) {
+            return null;
+        }
+        return rasters.get(new RasterKey(documentKey, pageIndex, dpi));
+    }
+
+    /**
+     * @param size Dimensions of a rendered page.
+     * @return     Whether a page of the given dimensions would be cached by
+     *             {@link #putRaster}.
+     */
+    boolean isCachingRaster(Dimension size) {
+        return rasters != null &&
+                weigh(size.intWidth(), size.intHeight()) <=
+                        rasters.maxSize() / MAX_RASTER_FRACTION;
+    }
+
+    /**
+     * Closes all cached documents that aren't in use and discards all cached
+     * rasters.
+     */
+    void purge() {
+        if (documents != null) {
+            documents.purge();
+            documents.cleanUp();
+        }
+        if (rasters != null) {
+            rasters.purge();
+        }
+    }
+
+    /**
+     * Caches a rendered page. Rasters too large to be {@link
+     * #isCachingRaster(Dimension) cacheable} are not cached.
+     *
+     * @param documentKey Key of a document. If {@literal null}, the image is
+     *                    not cached.
+     * @param pageIndex   Zero-based page index.
+     * @param dpi         DPI at which the page was rendered.
+     * @param image       Image to cache, which must not be modified
+     *                    afterwards.
+     */
+    void putRaster(Object documentKey, int pageIndex, double dpi,
+                   BufferedImage image) {
+        if (documentKey == null || !isCachingRaster(
+                new Dimension(image.getWidth(), image.getHeight()))) {
+            return;
+        }
+        rasters.put(new RasterKey(documentKey, pageIndex, dpi), image);
+    }
+
+}
@@ -1,11 +1,16 @@
 package edu.illinois.library.cantaloupe.processor;
 
+import edu.illinois.library.cantaloupe.Application;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.image.Dimension;
+import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.image.Info;
 import edu.illinois.library.cantaloupe.image.Metadata;
+import edu.illinois.library.cantaloupe.image.Rectangle;
 import edu.illinois.library.cantaloupe.image.ScaleConstraint;
+import edu.illinois.library.cantaloupe.operation.Crop;
+import edu.illinois.library.cantaloupe.operation.Operation;
 import edu.illinois.library.cantaloupe.operation.OperationList;
 import edu.illinois.library.cantaloupe.operation.ReductionFactor;
 import edu.illinois.library.cantaloupe.operation.Scale;
@@ -15,12 +20,14 @@ import edu.illinois.library.cantaloupe.processor.codec.ImageWriterFactory;
 import edu.illinois.library.cantaloupe.processor.codec.ReaderHint;
 import edu.illinois.library.cantaloupe.resource.iiif.ProcessorFeature;
 import edu.illinois.library.cantaloupe.source.StreamFactory;
+import edu.illinois.library.cantaloupe.status.Metrics;
 import edu.illinois.library.cantaloupe.util.Stopwatch;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
 import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.DefaultResourceCache;
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDDocumentCatalog;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.common.PDMetadata;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
@@ -29,21 +36,28 @@ import org.apache.pdfbox.rendering.PDFRenderer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.awt.Color;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Map;
 import java.util.Set;
 
 /**
- * Processor using the <a href="https://pdfbox.apache.org">Apache PDFBox</a>
+ * <p>Processor using the <a href="https://pdfbox.apache.org">Apache PDFBox</a>
  * library to render source PDFs, and Java 2D to perform post-rasterization
- * processing steps.
+ * processing steps.</p>
+ *
+ * <p>Loaded documents and rendered pages are shared across instances via
+ * {@link PDFDocumentCache}.</p>
  */
 class PdfBoxProcessor extends AbstractProcessor
         implements FileProcessor, StreamProcessor {
@@ -53,8 +67,23 @@ class PdfBoxProcessor extends AbstractProcessor
 
     private static final int DEFAULT_DPI = 150;
 
-    private PDDocument doc;
-    private Metadata metadata;
+    private static final long DEFAULT_MAX_MAIN_MEMORY = 64 * 1024 * 1024;
+
+    /**
+     * Rendering time at very low DPIs is dominated by content stream
+     * processing rather than rasterization, so there is no point in going
+     * any lower than this.
+     */
+    private static final int MAX_REDUCTION_FACTOR = 6;
+
+    private PDFDocumentCache.Document doc;
+
+    /**
+     * Key of {@link #doc} in the {@link PDFDocumentCache}. May be {@literal
+     * null}.
+     */
+    private Object documentKey;
+
     private Path sourceFile;
     private StreamFactory streamFactory;
 
@@ -71,9 +100,11 @@ class PdfBoxProcessor extends AbstractProcessor
 
     @Override
     public void close() {
-        IOUtils.closeQuietly(doc);
+        if (doc != null) {
+            doc.release();
+        }
         doc = null;
-        metadata = null;
+        documentKey = null;
     }
 
     @Override
@@ -116,27 +147,39 @@ class PdfBoxProcessor extends AbstractProcessor
             super.process(opList, imageInfo, outputStream);
 
             final ScaleConstraint scaleConstraint = opList.getScaleConstraint();
+            final Dimension fullSize = imageInfo.getSize();
 
             final Set<ReaderHint> hints = EnumSet.noneOf(ReaderHint.class);
-            Scale scale = (Scale) opList.getFirst(Scale.class);
-            if (scale == null) {
-                scale = new Scale();
-            }
 
-            Double pct = scale.getPercent();
+            // Rasterize at the lowest DPI that satisfies the requested scale
+            // of the requested region.
             ReductionFactor reductionFactor = new ReductionFactor();
-            if (pct != null) {
-                reductionFactor = ReductionFactor.forScale(pct);
+            final Scale scale = (Scale) opList.getFirst(Scale.class);
+            if (scale != null) {
+                reductionFactor = scale.getReductionFactor(
+                        getROISize(opList, fullSize), scaleConstraint,
+                        MAX_REDUCTION_FACTOR);
+            }
+            final double dpi = new RasterizationHelper().getDPI(
+                    reductionFactor.factor, scaleConstraint);
+
+            Crop crop = (Crop) opList.getFirst(Crop.class);
+            if (crop != null && !crop.hasEffect(fullSize, opList)) {
+                crop = null;
             }
 
             // This processor supports a "page" URI query argument.
             int page = getPageNumber(opList.getOptions());
 
-            BufferedImage image = readImage(
-                    page - 1, reductionFactor, scaleConstraint);
+            readDocument(opList.getIdentifier());
+            final long start = System.nanoTime();
+            BufferedImage image = readImage(page - 1, dpi, crop,
+                    reductionFactor, scaleConstraint, hints);
+            Metrics.getInstance().recordSince(Metrics.Stage.DECODE,
+                    getClass().getSimpleName(), start);
             Java2DPostProcessor.postProcess(
                     image, hints, opList, imageInfo, reductionFactor,
-                    metadata, outputStream);
+                    doc.getMetadata(), outputStream);
         } catch (IOException | IndexOutOfBoundsException e) {
             throw new ProcessorException(e.getMessage(), e);
         } finally {
@@ -163,30 +206,88 @@ class PdfBoxProcessor extends AbstractProcessor
         return Math.max(page, 1);
     }
 
-    private void readDocument() throws IOException {
+    /**
+     * @param identifier Identifier of the source image, used to key the
+     *                   document when it is read from a stream. May be
+     *                   {@literal null}.
+     * @return           Key identifying the current version of the source
+     *                   document, or {@literal null} if it cannot be
+     *                   identified.
+     */
+    private Object getDocumentKey(Identifier identifier) throws IOException {
+        if (sourceFile != null) {
+            // Include the modification time and size so that a changed file
+            // doesn't get served from a stale document.
+            return Arrays.asList(sourceFile.toAbsolutePath(),
+                    Files.getLastModifiedTime(sourceFile).toMillis(),
+                    Files.size(sourceFile));
+        } else if (identifier != null) {
+            return Collections.singletonList(identifier);
+        }
+        return null;
+    }
+
+    /**
+     * @return Setting that keeps up to {@link
+     *         Key#PDFBOXPROCESSOR_MAX_MAIN_MEMORY} of each document's
+     *         buffered data on the heap, and the rest in a scratch file in
+     *         the application temporary directory.
+     */
+    private static MemoryUsageSetting getMemoryUsageSetting() {
+        final long maxMainMemory = PDFDocumentCache.readSize(
+                Key.PDFBOXPROCESSOR_MAX_MAIN_MEMORY, DEFAULT_MAX_MAIN_MEMORY);
+        return MemoryUsageSetting.setupMixed(maxMainMemory)
+                .setTempDir(Application.getTempPath().toFile());
+    }
+
+    /**
+     * Acquires the source document from the {@link PDFDocumentCache},
+     * loading it if necessary.
+     *
+     * @param identifier Identifier of the source image. May be {@literal
+     *                   null}, in which case a stream-based document will
+     *                   not be cached.
+     */
+    private void readDocument(Identifier identifier) throws IOException {
         if (doc == null) {
-            final Stopwatch watch = new Stopwatch();
+            documentKey = getDocumentKey(identifier);
+            doc = PDFDocumentCache.getInstance().acquire(
+                    documentKey, this::loadDocument);
+        }
+    }
 
-            if (sourceFile != null) {
-                doc = PDDocument.load(sourceFile.toFile());
-            } else {
-                try (InputStream is = streamFactory.newInputStream()) {
-                    doc = PDDocument.load(is);
-                }
+    private PDFDocumentCache.Document loadDocument() throws IOException {
+        final Stopwatch watch = new Stopwatch();
+        final PDDocument pdDoc;
+        final long size;
+
+        if (sourceFile != null) {
+            pdDoc = PDDocument.load(sourceFile.toFile(),
+                    getMemoryUsageSetting());
+            size = Files.size(sourceFile);
+        } else {
+            try (CountingInputStream is = new CountingInputStream(
+                    streamFactory.newInputStream())) {
+                pdDoc = PDDocument.load(is, getMemoryUsageSetting());
+                size = is.getByteCount();
             }
+        }
 
-            // Disable the document's cache of PDImageXObjects
-            // See: https://pdfbox.apache.org/2.0/faq.html#outofmemoryerror
-            // This cache has never proven to be a problem, but it's not needed.
-            doc.setResourceCache(new DefaultResourceCache() {
-                @Override
-                public void put(COSObject indirect, PDXObject xobject) {
-                    // no-op
-                }
-            });
+        // Disable the document's cache of PDImageXObjects
+        // See: https://pdfbox.apache.org/2.0/faq.html#outofmemoryerror
+        // This cache has never proven to be a problem, but it's not needed.
+        pdDoc.setResourceCache(new DefaultResourceCache() {
+            @Override
+            public void put(COSObject indirect, PDXObject xobject) {
+                // no-op
+            }
+        });
 
-            // Read the document's XMP metadata.
-            final PDMetadata pdfMetadata = doc.getDocumentCatalog().getMetadata();
+        // Read the document's XMP metadata.
+        Metadata metadata = null;
+        try {
+            final PDMetadata pdfMetadata =
+                    pdDoc.getDocumentCatalog().getMetadata();
             if (pdfMetadata != null) {
                 try (InputStream is = pdfMetadata.exportXMPMetadata()) {
                     ByteArrayOutputStream os = new ByteArrayOutputStream();
@@ -195,39 +296,173 @@ class PdfBoxProcessor extends AbstractProcessor
                     metadata.setXMP(os.toByteArray());
                 }
             }
+        } catch (IOException e) {
+            IOUtils.closeQuietly(pdDoc);
+            throw e;
+        }
 
-            LOGGER.debug("Loaded document in {}", watch);
+        LOGGER.debug("Loaded document in {}", watch);
+        return new PDFDocumentCache.Document(pdDoc, metadata, size);
+    }
+
+    /**
+     * @return Size of the given page rendered at the given DPI, computed the
+     *         same way as {@link PDFRenderer} does it.
+     */
+    private Dimension getPageSize(int pageIndex, double dpi) {
+        final PDPage page = doc.getPDDocument().getPage(pageIndex);
+        final PDRectangle cropBox = page.getCropBox();
+        final double scale = dpi / 72.0;
+        int widthPx = (int) Math.max(Math.floor(cropBox.getWidth() * scale), 1);
+        int heightPx = (int) Math.max(Math.floor(cropBox.getHeight() * scale), 1);
+        final int rotationAngle = page.getRotation();
+        if (rotationAngle == 90 || rotationAngle == 270) {
+            int tmp = widthPx;
+            //noinspection SuspiciousNameCombination
+            widthPx = heightPx;
+            heightPx = tmp;
         }
+        return new Dimension(widthPx, heightPx);
     }
 
     /**
-     * @return Rasterized page of the PDF.
+     * @return Size of the region of interest.
      */
-    private BufferedImage readImage(int pageIndex,
-                                    ReductionFactor rf,
-                                    ScaleConstraint scaleConstraint) throws IOException {
-        double dpi = new RasterizationHelper().getDPI(
-                rf.factor, scaleConstraint);
-        return readImage(pageIndex, dpi);
+    private static Dimension getROISize(OperationList opList,
+                                        Dimension fullSize) {
+        Dimension size = new Dimension(fullSize);
+        for (Operation op : opList) {
+            if (op instanceof Crop) {
+                size = ((Crop) op).getRectangle(
+                        size, opList.getScaleConstraint()).size();
+            }
+        }
+        return size;
     }
 
     /**
-     * @return Rasterized page of the PDF.
-     * @throws IllegalArgumentException if the given page index is out of
+     * <p>Rasterizes a page, or the cropped region of it, of the {@link
+     * #readDocument(Identifier) acquired document}.</p>
+     *
+     * <p>Pages small enough to be cached by the {@link PDFDocumentCache} are
+     * rendered whole and cached, so that all of their tiles at a given DPI
+     * are cut from a single rasterization. Otherwise, only the region is
+     * rendered, which bounds the memory used by a deep-zoom tile of a
+     * large-format page by the size of the tile rather than of the whole
+     * page.</p>
+     *
+     * <p>The returned image is always a private copy that the caller may
+     * modify.</p>
+     *
+     * @param pageIndex       Zero-based page index.
+     * @param dpi             DPI at which to rasterize the page.
+     * @param crop            Region to read. If {@literal null}, the whole
+     *                        page is read.
+     * @param rf              Reduction factor corresponding to {@literal
+     *                        dpi}.
+     * @param scaleConstraint Scale constraint.
+     * @param hints           Will have {@link ReaderHint#ALREADY_CROPPED}
+     *                        added to it if the returned image has been
+     *                        cropped.
+     * @return                Rasterized page or region of the PDF.
+     * @throws IndexOutOfBoundsException if the given page index is out of
      *                                   bounds.
      */
     private BufferedImage readImage(int pageIndex,
-                                    double dpi) throws IOException {
+                                    double dpi,
+                                    Crop crop,
+                                    ReductionFactor rf,
+                                    ScaleConstraint scaleConstraint,
+                                    Set<ReaderHint> hints) throws IOException {
         LOGGER.debug("DPI: {}", dpi);
 
-        readDocument();
-        PDFRenderer renderer = new PDFRenderer(doc);
-        return renderer.renderImageWithDPI(pageIndex, (float) dpi);
+        final PDFDocumentCache cache = PDFDocumentCache.getInstance();
+        // Holding the lock while checking the cache means that concurrent
+        // requests for the same page, e.g. for different tiles of it, will
+        // render it only once.
+        doc.getLock().lock();
+        try {
+            BufferedImage image = cache.getRaster(documentKey, pageIndex, dpi);
+            if (image != null) {
+                LOGGER.debug("readImage(): raster cache hit for page {}",
+                        pageIndex + 1);
+            } else {
+                final Dimension pageSize = getPageSize(pageIndex, dpi);
+                final boolean isCaching = documentKey != null &&
+                        cache.isCachingRaster(pageSize);
+                if (crop != null && !isCaching) {
+                    hints.add(ReaderHint.ALREADY_CROPPED);
+                    return renderRegion(pageIndex, dpi,
+                            crop.getRectangle(pageSize, rf, scaleConstraint));
+                }
+                final Stopwatch watch = new Stopwatch();
+                PDFRenderer renderer = new PDFRenderer(doc.getPDDocument());
+                image = renderer.renderImageWithDPI(pageIndex, (float) dpi);
+                LOGGER.debug("readImage(): rendered page {} in {}",
+                        pageIndex + 1, watch);
+                if (!isCaching) {
+                    return image;
+                }
+                cache.putRaster(documentKey, pageIndex, dpi, image);
+            }
+            if (crop != null) {
+                final Rectangle region = crop.getRectangle(
+                        new Dimension(image.getWidth(), image.getHeight()),
+                        rf, scaleConstraint);
+                image = image.getSubimage(
+                        region.intX(), region.intY(),
+                        region.intWidth(), region.intHeight());
+                hints.add(ReaderHint.ALREADY_CROPPED);
+            }
+            // Post-processing modifies the image in place, so it gets its
+            // own copy of the shared one.
+            return copy(image);
+        } finally {
+            doc.getLock().unlock();
+        }
+    }
+
+    /**
+     * Rasterizes only the given region of a page, by clipping and
+     * translating the graphics context that the page is drawn into.
+     *
+     * @param region Region of the page rasterized at the given DPI.
+     */
+    private BufferedImage renderRegion(int pageIndex,
+                                       double dpi,
+                                       Rectangle region) throws IOException {
+        final Stopwatch watch = new Stopwatch();
+        final int width = Math.max(region.intWidth(), 1);
+        final int height = Math.max(region.intHeight(), 1);
+        final BufferedImage image =
+                new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g2d = image.createGraphics();
+        try {
+            // The page background gets cleared to this color, which is
+            // otherwise black.
+            g2d.setBackground(Color.WHITE);
+            g2d.clipRect(0, 0, width, height);
+            g2d.translate(-region.intX(), -region.intY());
+            new PDFRenderer(doc.getPDDocument()).renderPageToGraphics(
+                    pageIndex, g2d, (float) (dpi / 72.0));
+        } finally {
+            g2d.dispose();
+        }
+        LOGGER.debug("renderRegion(): rendered {} of page {} in {}",
+                region, pageIndex + 1, watch);
+        return image;
+    }
+
+    private static BufferedImage copy(BufferedImage image) {
+        return new BufferedImage(image.getColorModel(),
+                image.copyData(null),
+                image.isAlphaPremultiplied(),
+                null);
     }
 
     @Override
     public Info readImageInfo() throws IOException {
-        readDocument();
+        readDocument(null);
 
         final Configuration config = Configuration.getInstance();
         final int dpi = config.getInt(Key.PROCESSOR_DPI, DEFAULT_DPI);
@@ -238,29 +473,35 @@ class PdfBoxProcessor extends AbstractProcessor
                 .build();
         info.getImages().clear();
 
-        for (int i = 0; i < doc.getNumberOfPages(); i++) {
-            // PDF doesn't have native dimensions, so figure out the dimensions
-            // at the current DPI setting.
-            final PDPage page = doc.getPage(i);
-            final PDRectangle cropBox = page.getCropBox();
-            final float widthPt = cropBox.getWidth();
-            final float heightPt = cropBox.getHeight();
-            final int rotationAngle = page.getRotation();
-
-            int widthPx = Math.round(widthPt * scale);
-            int heightPx = Math.round(heightPt * scale);
-            if (rotationAngle == 90 || rotationAngle == 270) {
-                int tmp = widthPx;
-                //noinspection SuspiciousNameCombination
-                widthPx = heightPx;
-                heightPx = tmp;
-            }
+        doc.getLock().lock();
+        try {
+            final PDDocument pdDoc = doc.getPDDocument();
+            for (int i = 0; i < pdDoc.getNumberOfPages(); i++) {
+                // PDF doesn't have native dimensions, so figure out the
+                // dimensions at the current DPI setting.
+                final PDPage page = pdDoc.getPage(i);
+                final PDRectangle cropBox = page.getCropBox();
+                final float widthPt = cropBox.getWidth();
+                final float heightPt = cropBox.getHeight();
+                final int rotationAngle = page.getRotation();
+
+                int widthPx = Math.round(widthPt * scale);
+                int heightPx = Math.round(heightPt * scale);
+                if (rotationAngle == 90 || rotationAngle == 270) {
+                    int tmp = widthPx;
+                    //noinspection SuspiciousNameCombination
+                    widthPx = heightPx;
+                    heightPx = tmp;
+                }
 
-            Dimension size = new Dimension(widthPx, heightPx);
-            Info.Image image = new Info.Image();
-            image.setSize(size);
-            image.setTileSize(size);
-            info.getImages().add(image);
+                Dimension size = new Dimension(widthPx, heightPx);
+                Info.Image image = new Info.Image();
+                image.setSize(size);
+                image.setTileSize(size);
+                info.getImages().add(image);
+            }
+        } finally {
+            doc.getLock().unlock();
         }
         return info;
     }
@@ -289,8 +530,15 @@ class PdfBoxProcessor extends AbstractProcessor
         if (pageStr != null) {
             final int page = Integer.parseInt(pageStr);
             try {
-                readDocument();
-                if (page > doc.getNumberOfPages()) {
+                readDocument(opList.getIdentifier());
+                final int numPages;
+                doc.getLock().lock();
+                try {
+                    numPages = doc.getPDDocument().getNumberOfPages();
+                } finally {
+                    doc.getLock().unlock();
+                }
+                if (page > numPages) {
                     close();
                     throw new ValidationException(
                             "Page number is out-of-bounds.");
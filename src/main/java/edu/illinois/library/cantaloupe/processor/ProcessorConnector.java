@@ -29,6 +29,15 @@ public final class ProcessorConnector {
     private static final Logger LOGGER =
             LoggerFactory.getLogger(ProcessorConnector.class);
 
+    /**
+     * Source cache to which the last processor was connected by {@link
+     * #connect(Source, Processor, Identifier, Format, boolean)} for an image
+     * request, or {@literal null}.
+     */
+    private SourceCache connectedSourceCache;
+    private Identifier connectedIdentifier;
+    private Format connectedSourceFormat;
+
     /**
      * @return Strategy from the application configuration, or a default.
      */
@@ -117,6 +126,7 @@ public final class ProcessorConnector {
      *                   no longer needed. Will be non-{@literal null} only if
      *                   the current retrieval strategy is {@link
      *                   RetrievalStrategy#DOWNLOAD}.
+     * @see #connect(Source, Processor, Identifier, Format, boolean)
      */
     public Future<Path> connect(Source source,
                                 Processor processor,
@@ -124,6 +134,37 @@ public final class ProcessorConnector {
                                 Format sourceFormat) throws IOException,
             CacheDisabledException, IncompatibleSourceException,
             InterruptedException {
+        return connect(source, processor, identifier, sourceFormat, false);
+    }
+
+    /**
+     * <p>Variant of {@link #connect(Source, Processor, Identifier, Format)}
+     * for image (as opposed to information) requests.</p>
+     *
+     * <p>If {@literal isImageRequest} is {@literal true} and the processor is
+     * connected to the source cache, the request will be {@link
+     * Pyramidizer#recordRequest counted} toward creating a pyramidal TIFF
+     * from the source image, if one doesn't already exist. Once the request
+     * is known to need processing, the processor can be connected to the
+     * pyramid instead using {@link #connectToPyramid(Processor)}.</p>
+     *
+     * @param source         Source to connect to the processor.
+     * @param processor      Processor to connect to the source.
+     * @param identifier     Identifier of the source image.
+     * @param isImageRequest Whether the connection is for the purpose of
+     *                       fulfilling an image request.
+     * @return               Instance representing a download in progress.
+     *                       See {@link #connect(Source, Processor, Identifier,
+     *                       Format)}.
+     * @since 4.1
+     */
+    public Future<Path> connect(Source source,
+                                Processor processor,
+                                Identifier identifier,
+                                Format sourceFormat,
+                                boolean isImageRequest) throws IOException,
+            CacheDisabledException, IncompatibleSourceException,
+            InterruptedException {
         final String sourceName = source.getClass().getSimpleName();
         final String processorName = processor.getClass().getSimpleName();
 
@@ -186,6 +227,10 @@ public final class ProcessorConnector {
 
                             Path file = downloadToSourceCache(
                                     streamFactory, sourceCache, identifier);
+                            if (isImageRequest) {
+                                recordRequest(sourceCache, identifier, file,
+                                        sourceFormat);
+                            }
                             connect(sourceCache, file, processor);
                         } else {
                             throw new CacheDisabledException(
@@ -221,6 +266,10 @@ public final class ProcessorConnector {
                         if (sourceCache != null) {
                             Path file = downloadToSourceCache(
                                     streamFactory, sourceCache, identifier);
+                            if (isImageRequest) {
+                                recordRequest(sourceCache, identifier, file,
+                                        sourceFormat);
+                            }
                             connect(sourceCache, file, processor);
                         } else {
                             throw new CacheDisabledException("Source cache is disabled.");
@@ -267,6 +316,70 @@ public final class ProcessorConnector {
         }
     }
 
+    /**
+     * Records a request for the given source-cached image toward {@link
+     * Pyramidizer pyramid generation}, if it is enabled and the image doesn't
+     * already have a pyramid, and remembers the connection for {@link
+     * #connectToPyramid(Processor)}.
+     *
+     * @param sourceCache     Source cache containing the source image.
+     * @param identifier      Identifier of the source image.
+     * @param sourceCacheFile Source image within the source cache.
+     * @param sourceFormat    Format of the source image.
+     */
+    private void recordRequest(SourceCache sourceCache,
+                               Identifier identifier,
+                               Path sourceCacheFile,
+                               Format sourceFormat) throws IOException {
+        if (!Pyramidizer.isEnabled()) {
+            return;
+        }
+        connectedSourceCache = sourceCache;
+        connectedIdentifier = identifier;
+        connectedSourceFormat = sourceFormat;
+        if (sourceCache.getPyramidalImageFile(identifier) == null) {
+            Pyramidizer.getInstance().recordRequest(
+                    identifier, sourceCacheFile, sourceFormat);
+        }
+    }
+
+    /**
+     * <p>Connects the given processor, which must have been connected to a
+     * source-cached image by {@link #connect(Source, Processor, Identifier,
+     * Format, boolean)}, to the pyramidal TIFF derived from it by the {@link
+     * Pyramidizer}, if one exists and the processor can read it.</p>
+     *
+     * <p>The pyramid is only suitable for processing. It must not be
+     * connected when the operations have no effect, as the source image
+     * would then be copied as-is, nor before the source image's info has
+     * been read.</p>
+     *
+     * @param processor Processor to connect.
+     * @return          Whether the processor was connected to a pyramid.
+     * @since 4.1
+     */
+    public boolean connectToPyramid(Processor processor) throws IOException {
+        if (connectedSourceCache == null) {
+            return false;
+        }
+        final Path pyramidFile =
+                connectedSourceCache.getPyramidalImageFile(connectedIdentifier);
+        if (pyramidFile == null) {
+            return false;
+        }
+        try {
+            processor.setSourceFormat(Format.TIF);
+        } catch (UnsupportedSourceFormatException e) {
+            LOGGER.debug("{} can't read TIFF; using the source image of {}",
+                    processor.getClass().getSimpleName(), connectedIdentifier);
+            processor.setSourceFormat(connectedSourceFormat);
+            return false;
+        }
+        LOGGER.debug("Using the pyramidal TIFF of {}", connectedIdentifier);
+        connect(connectedSourceCache, pyramidFile, processor);
+        return true;
+    }
+
     /**
      * Acquires the source image with the given identifier from the given
      * source cache, downloading it if necessary, and configures the given
@@ -0,0 +1,338 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.Application;
+import edu.illinois.library.cantaloupe.cache.CacheFactory;
+import edu.illinois.library.cantaloupe.cache.SourceCache;
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.image.Compression;
+import edu.illinois.library.cantaloupe.image.Dimension;
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.image.Orientation;
+import edu.illinois.library.cantaloupe.image.Rectangle;
+import edu.illinois.library.cantaloupe.operation.Encode;
+import edu.illinois.library.cantaloupe.operation.ReductionFactor;
+import edu.illinois.library.cantaloupe.processor.codec.ImageReader;
+import edu.illinois.library.cantaloupe.processor.codec.ImageReaderFactory;
+import edu.illinois.library.cantaloupe.processor.codec.ImageWriter;
+import edu.illinois.library.cantaloupe.processor.codec.ImageWriterFactory;
+import edu.illinois.library.cantaloupe.util.Stopwatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.image.RenderedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * <p>Converts mono-resolution source images in the {@link SourceCache} into
+ * tiled, multi-resolution (pyramidal) TIFFs, which are stored alongside them
+ * (see {@link SourceCache#getPyramidalImageFile(Identifier)}). The {@link
+ * ProcessorConnector} then connects processors to the pyramid instead of the
+ * source image, so that requests for small tiles or reduced sizes don't have
+ * to decode and downscale a huge region of the source image.</p>
+ *
+ * <p>Conversion of a source image is triggered once it has been requested
+ * {@link Key#PROCESSOR_PYRAMIDIZE_REQUEST_THRESHOLD} times. Conversions take
+ * place one at a time in a single low-priority thread, with a small bounded
+ * queue; requests that would overflow the queue are dropped, and will be
+ * retried upon subsequent requests.</p>
+ *
+ * <p>Source images are converted one tile row at a time, so they are never
+ * held in memory all at once. (Reading a row of a JPEG or PNG image entails
+ * decoding all of the rows above it, though, so those take longer to
+ * convert than TIFFs.)</p>
+ *
+ * <p>Only JPEG, PNG, and TIFF source images that are not rotated by an
+ * embedded {@link Orientation} are converted. Embedded metadata is not
+ * carried over into the pyramid.</p>
+ *
+ * @since 4.1
+ */
+public final class Pyramidizer {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(Pyramidizer.class);
+
+    private static final int DEFAULT_REQUEST_THRESHOLD = 20;
+
+    /**
+     * Maximum number of identifiers for which to count requests, and of
+     * identifiers to remember as {@link #unconvertibleIdentifiers
+     * unconvertible}. Beyond this, they are forgotten.
+     */
+    private static final int MAX_TRACKED_IDENTIFIERS = 10000;
+
+    /**
+     * Maximum number of conversions that may be waiting to run.
+     */
+    private static final int MAX_QUEUE_SIZE = 16;
+
+    /**
+     * The pyramid stops when both dimensions of the smallest image are at or
+     * below this size.
+     */
+    private static final int MIN_LEVEL_SIZE = 512;
+
+    /**
+     * Width and height of the tiles of the pyramid, which is also the height
+     * of the strips in which each level is computed.
+     */
+    private static final int TILE_SIZE = 512;
+
+    private static final Set<Format> SUPPORTED_FORMATS =
+            EnumSet.of(Format.JPG, Format.PNG, Format.TIF);
+
+    private static Pyramidizer instance;
+
+    private final ConcurrentMap<Identifier, AtomicInteger> requestCounts =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Identifiers of source images that are queued for conversion or being
+     * converted.
+     */
+    private final Set<Identifier> pendingIdentifiers =
+            ConcurrentHashMap.newKeySet();
+
+    /**
+     * Identifiers of source images that don't need to be, or can't be,
+     * converted.
+     */
+    private final Set<Identifier> unconvertibleIdentifiers =
+            ConcurrentHashMap.newKeySet();
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * For testing only.
+     */
+    static synchronized void clearInstance() {
+        if (instance != null) {
+            instance.executor.shutdownNow();
+        }
+        instance = null;
+    }
+
+    /**
+     * @return Shared instance.
+     */
+    public static synchronized Pyramidizer getInstance() {
+        if (instance == null) {
+            instance = new Pyramidizer();
+        }
+        return instance;
+    }
+
+    /**
+     * @return Whether pyramid generation is enabled.
+     */
+    static boolean isEnabled() {
+        return Configuration.getInstance().getBoolean(
+                Key.PROCESSOR_PYRAMIDIZE, false);
+    }
+
+    private Pyramidizer() {
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_QUEUE_SIZE),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "pyramidizer");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    /**
+     * Records a request for the given source image, and schedules it for
+     * conversion if it has been requested enough times.
+     *
+     * @param identifier      Identifier of the source image.
+     * @param sourceCacheFile Source image within the source cache.
+     * @param format          Format of the source image.
+     */
+    void recordRequest(Identifier identifier,
+                       Path sourceCacheFile,
+                       Format format) {
+        if (!SUPPORTED_FORMATS.contains(format) ||
+                pendingIdentifiers.contains(identifier) ||
+                unconvertibleIdentifiers.contains(identifier)) {
+            return;
+        }
+        if (requestCounts.size() >= MAX_TRACKED_IDENTIFIERS) {
+            requestCounts.clear();
+        }
+        final int count = requestCounts.computeIfAbsent(identifier,
+                k -> new AtomicInteger()).incrementAndGet();
+        final int threshold = Configuration.getInstance().getInt(
+                Key.PROCESSOR_PYRAMIDIZE_REQUEST_THRESHOLD,
+                DEFAULT_REQUEST_THRESHOLD);
+        if (count < threshold || !pendingIdentifiers.add(identifier)) {
+            return;
+        }
+        requestCounts.remove(identifier);
+        try {
+            executor.submit(() -> {
+                try {
+                    pyramidize(identifier, sourceCacheFile, format);
+                } catch (Exception e) {
+                    LOGGER.warn("Failed to pyramidize {}: {}",
+                            identifier, e.getMessage(), e);
+                } finally {
+                    pendingIdentifiers.remove(identifier);
+                }
+            });
+            LOGGER.debug("recordRequest(): queued {} for conversion",
+                    identifier);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("recordRequest(): queue is full; skipping {}",
+                    identifier);
+            pendingIdentifiers.remove(identifier);
+        }
+    }
+
+    private void markUnconvertible(Identifier identifier) {
+        if (unconvertibleIdentifiers.size() >= MAX_TRACKED_IDENTIFIERS) {
+            unconvertibleIdentifiers.clear();
+        }
+        unconvertibleIdentifiers.add(identifier);
+    }
+
+    /**
+     * Forgets everything that has been recorded about all source images, as
+     * they may have changed. Conversions that are already queued are not
+     * affected.
+     */
+    public void purge() {
+        requestCounts.clear();
+        unconvertibleIdentifiers.clear();
+    }
+
+    /**
+     * Forgets everything that has been recorded about the given source image,
+     * as it may have changed. A conversion that is already queued is not
+     * affected.
+     *
+     * @param identifier Identifier of the source image.
+     */
+    public void purge(Identifier identifier) {
+        requestCounts.remove(identifier);
+        unconvertibleIdentifiers.remove(identifier);
+    }
+
+    /**
+     * Converts the given source image into a pyramidal TIFF and writes it to
+     * the source cache.
+     */
+    void pyramidize(Identifier identifier,
+                    Path sourceCacheFile,
+                    Format format) throws IOException {
+        final SourceCache sourceCache = CacheFactory.getSourceCache();
+        if (sourceCache == null ||
+                sourceCache.getPyramidalImageFile(identifier) != null ||
+                !Files.exists(sourceCacheFile)) {
+            return;
+        }
+
+        final Stopwatch watch = new Stopwatch();
+        // Write to a temp file first so that a failed conversion doesn't
+        // leave a broken pyramid in the cache.
+        final Path tempFile = Application.getTempPath().resolve(
+                Pyramidizer.class.getSimpleName() + "-" +
+                        UUID.randomUUID() + "." +
+                        Format.TIF.getPreferredExtension());
+        ImageReader reader = null;
+        try {
+            reader = new ImageReaderFactory().newImageReader(
+                    sourceCacheFile, format);
+            if (reader.getNumResolutions() > 1) {
+                LOGGER.debug("pyramidize(): {} is already multi-resolution",
+                        identifier);
+                markUnconvertible(identifier);
+                return;
+            }
+            final Orientation orientation =
+                    reader.getMetadata(0).getOrientation();
+            if (orientation != null &&
+                    !Orientation.ROTATE_0.equals(orientation)) {
+                LOGGER.debug("pyramidize(): {} has an orientation of {}; " +
+                        "skipping", identifier, orientation);
+                markUnconvertible(identifier);
+                return;
+            }
+
+            final List<RenderedImage> levels = newLevels(reader);
+            final Encode encode = new Encode(Format.TIF);
+            encode.setCompression(Compression.LZW);
+            final ImageWriter writer =
+                    new ImageWriterFactory().newImageWriter(encode);
+            try (OutputStream os = Files.newOutputStream(tempFile)) {
+                writer.writeTiled(levels, TILE_SIZE, os);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            try (OutputStream os =
+                         sourceCache.newPyramidalImageOutputStream(identifier)) {
+                Files.copy(tempFile, os);
+            }
+            LOGGER.info("pyramidize(): created a {}-level pyramid of {} in {}",
+                    levels.size(), identifier, watch);
+        } finally {
+            if (reader != null) {
+                reader.dispose();
+            }
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * <p>Returns the levels of the pyramid of the image being read by the
+     * given reader, each of which is half the size of the one before it.</p>
+     *
+     * <p>The levels are {@link StreamedImage}s, which read their pixels from
+     * the source image, one tile row at a time, as they are written, so that
+     * the source image never has to be decoded into memory all at once. Each
+     * level is read at a power-of-two subsampling of the source image, as
+     * {@link Java2dProcessor} would read it to fulfill a request for that
+     * size.</p>
+     */
+    private static List<RenderedImage> newLevels(ImageReader reader)
+            throws IOException {
+        final Dimension fullSize = reader.getSize(0);
+        final Rectangle region = new Rectangle(
+                0, 0, fullSize.intWidth(), fullSize.intHeight());
+        final List<RenderedImage> levels = new ArrayList<>();
+        Dimension size = fullSize;
+        for (int factor = 0;
+             factor == 0 || size.intWidth() > MIN_LEVEL_SIZE ||
+                     size.intHeight() > MIN_LEVEL_SIZE;
+             factor++) {
+            final double period = 1 << factor;
+            size = new Dimension(
+                    Math.ceil(fullSize.width() / period),
+                    Math.ceil(fullSize.height() / period));
+            levels.add(new StreamedImage(reader, region,
+                    new ReductionFactor(factor), size, null,
+                    UnaryOperator.identity(), TILE_SIZE));
+        }
+        return levels;
+    }
+
+}
@@ -1,6 +1,7 @@
 package edu.illinois.library.cantaloupe.processor;
 
 import edu.illinois.library.cantaloupe.async.ThreadPool;
+import edu.illinois.library.cantaloupe.cache.CacheStatistics;
 import edu.illinois.library.cantaloupe.cache.SourceCache;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.source.StreamFactory;
@@ -148,9 +149,13 @@ final class SourceCacheDownload implements Future<Path> {
                     identifier,
                     SourceCache.class.getSimpleName());
             final byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+            long numBytes = 0, writeNanos = 0;
             int n;
             while ((n = is.read(buffer)) > 0) {
+                final long writeStart = System.nanoTime();
                 os.write(buffer, 0, n);
+                writeNanos += System.nanoTime() - writeStart;
+                numBytes += n;
 
                 if (isCancelled.get()) {
                     if (mayInterrupt.get()) {
@@ -159,6 +164,13 @@ final class SourceCacheDownload implements Future<Path> {
                     break;
                 }
             }
+            final long flushStart = System.nanoTime();
+            os.flush();
+            writeNanos += System.nanoTime() - flushStart;
+
+            final CacheStatistics statistics = sourceCache.getStatistics();
+            statistics.recordPut();
+            statistics.recordWrite(numBytes, writeNanos);
 
             LOGGER.debug("Downloaded {} to {} in {}",
                     identifier,
@@ -0,0 +1,414 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.image.Dimension;
+import edu.illinois.library.cantaloupe.image.Rectangle;
+import edu.illinois.library.cantaloupe.operation.ReductionFactor;
+import edu.illinois.library.cantaloupe.processor.codec.ImageReader;
+import edu.illinois.library.cantaloupe.processor.resample.ResampleFilter;
+import edu.illinois.library.cantaloupe.processor.resample.StreamingResampler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Image;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Vector;
+import java.util.function.UnaryOperator;
+
+/**
+ * <p>{@link RenderedImage} whose pixels are read from a region of a source
+ * image, resampled, and otherwise processed in horizontal strips, on demand,
+ * as an {@link javax.imageio.ImageWriter} asks for them. Only the current
+ * strip, and the source rows needed to compute it, are held in memory, so
+ * the memory needed to write an image is proportional to its width rather
+ * than its area.</p>
+ *
+ * <p>The image presents itself as a single tile. This is a {@link Raster}
+ * that computes its rows when {@link Raster#createChild children} are
+ * created from it, which is how the ImageIO JPEG writer consumes it. The PNG
+ * and TIFF writers instead request rows via {@link #getData(
+ * java.awt.Rectangle)}. Either way, the returned {@link Raster}s may share
+ * storage with the current strip, and must not be modified.</p>
+ *
+ * <p>Strips are most efficiently requested in top-to-bottom order.
+ * Requesting a preceding strip requires its source rows to be read
+ * again.</p>
+ *
+ * @since 4.1
+ */
+final class StreamedImage implements RenderedImage {
+
+    /**
+     * Raster that computes its pixels when children are created from it. Its
+     * own data buffer is only large enough for a single row and is never
+     * used.
+     */
+    private final class StreamedRaster extends Raster {
+
+        StreamedRaster(SampleModel sampleModel) {
+            super(sampleModel,
+                    sampleModel.createCompatibleSampleModel(
+                            sampleModel.getWidth(), 1).createDataBuffer(),
+                    new Point(0, 0));
+        }
+
+        @Override
+        public Raster createChild(int parentX, int parentY,
+                                  int width, int height,
+                                  int childMinX, int childMinY,
+                                  int[] bandList) {
+            return getRows(parentX, parentY, width, height).createChild(
+                    parentX, parentY, width, height,
+                    childMinX, childMinY, bandList);
+        }
+
+    }
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(StreamedImage.class);
+
+    /**
+     * Default number of output rows per strip.
+     */
+    static final int DEFAULT_STRIP_HEIGHT = 64;
+
+    private final ImageReader reader;
+    private final Rectangle sourceRegion;
+    private final ReductionFactor subsampling;
+    private final Dimension reducedSize;
+    private final int width, height, stripHeight;
+    private final StreamingResampler resampler;
+    private final UnaryOperator<BufferedImage> stripOperator;
+    private final int minSourceBandHeight;
+
+    private final ColorModel colorModel;
+    private final SampleModel sampleModel;
+
+    private BufferedImage currentStrip;
+    private int currentStripIndex = -1;
+
+    /**
+     * @param reader        Reader from which to read the source image.
+     * @param sourceRegion  Region of the full-resolution source image to
+     *                      read.
+     * @param subsampling   Factor by which to subsample the source region
+     *                      while reading it.
+     * @param size          Size of the image, to which the subsampled source
+     *                      region will be resampled.
+     * @param filter        Filter to resample with. May be {@literal null}
+     *                      if no resampling is needed.
+     * @param stripOperator Function to apply to each strip after resampling.
+     *                      It must return strips of the same type given
+     *                      strips of the same type.
+     */
+    StreamedImage(ImageReader reader,
+                  Rectangle sourceRegion,
+                  ReductionFactor subsampling,
+                  Dimension size,
+                  ResampleFilter filter,
+                  UnaryOperator<BufferedImage> stripOperator) throws IOException {
+        this(reader, sourceRegion, subsampling, size, filter, stripOperator,
+                DEFAULT_STRIP_HEIGHT);
+    }
+
+    /**
+     * @param reader        Reader from which to read the source image.
+     * @param sourceRegion  Region of the full-resolution source image to
+     *                      read.
+     * @param subsampling   Factor by which to subsample the source region
+     *                      while reading it.
+     * @param size          Size of the image, to which the subsampled source
+     *                      region will be resampled.
+     * @param filter        Filter to resample with. May be {@literal null}
+     *                      if no resampling is needed.
+     * @param stripOperator Function to apply to each strip after resampling.
+     *                      It must return strips of the same type given
+     *                      strips of the same type.
+     * @param stripHeight   Number of output rows per strip.
+     */
+    StreamedImage(ImageReader reader,
+                  Rectangle sourceRegion,
+                  ReductionFactor subsampling,
+                  Dimension size,
+                  ResampleFilter filter,
+                  UnaryOperator<BufferedImage> stripOperator,
+                  int stripHeight) throws IOException {
+        this.reader = reader;
+        this.sourceRegion = sourceRegion;
+        this.subsampling = subsampling;
+        this.width = size.intWidth();
+        this.height = size.intHeight();
+        this.stripOperator = stripOperator;
+        this.stripHeight = stripHeight;
+
+        final double period = 1 << subsampling.factor;
+        this.reducedSize = new Dimension(
+                Math.ceil(sourceRegion.width() / period),
+                Math.ceil(sourceRegion.height() / period));
+
+        if (reducedSize.intWidth() != width ||
+                reducedSize.intHeight() != height) {
+            resampler = new StreamingResampler(
+                    reducedSize.intWidth(), reducedSize.intHeight(),
+                    width, height, filter);
+        } else {
+            resampler = null;
+        }
+
+        // Read source bands at least as tall as the source tiles or strips,
+        // so that each one doesn't have to be decoded more than once or
+        // twice. (Not the tile height, which is the full height of a striped
+        // image.)
+        this.minSourceBandHeight = (int) Math.ceil(
+                reader.getStripHeight(0) / period);
+
+        // The first strip determines the color and sample models.
+        try {
+            final BufferedImage firstStrip = getStrip(0);
+            colorModel = firstStrip.getColorModel();
+            sampleModel = firstStrip.getSampleModel()
+                    .createCompatibleSampleModel(width, height);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private int getNumStrips() {
+        return (int) Math.ceil(height / (double) stripHeight);
+    }
+
+    /**
+     * @param index Strip index.
+     * @return      Strip at the given index.
+     * @throws UncheckedIOException if there is an error reading from the
+     *         source image.
+     */
+    private BufferedImage getStrip(int index) {
+        if (index != currentStripIndex) {
+            try {
+                currentStrip = null; // allow it to be collected
+                currentStrip = computeStrip(index);
+                currentStripIndex = index;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return currentStrip;
+    }
+
+    private BufferedImage computeStrip(int index) throws IOException {
+        final int startRow = index * stripHeight;
+        final int endRow = Math.min(height, startRow + stripHeight);
+
+        BufferedImage strip;
+        if (resampler == null) {
+            strip = readSourceRows(startRow, endRow);
+        } else {
+            final int startSrcRow =
+                    resampler.getStartSourceRow(startRow, endRow);
+            final int endSrcRow =
+                    resampler.getEndSourceRow(startRow, endRow);
+            resampler.discardRowsBefore(startSrcRow);
+
+            int fromSrcRow = resampler.getWindowEnd();
+            if (startSrcRow < resampler.getWindowStart() ||
+                    startSrcRow > fromSrcRow) {
+                fromSrcRow = startSrcRow;
+            }
+            if (fromSrcRow < endSrcRow) {
+                final int toSrcRow = Math.min(reducedSize.intHeight(),
+                        Math.max(endSrcRow, fromSrcRow + minSourceBandHeight));
+                resampler.addRows(readSourceRows(fromSrcRow, toSrcRow),
+                        fromSrcRow);
+            }
+            strip = resampler.resampleRows(startRow, endRow);
+        }
+        strip = stripOperator.apply(strip);
+
+        LOGGER.trace("computeStrip(): computed strip {}/{}",
+                index + 1, getNumStrips());
+        return strip;
+    }
+
+    /**
+     * @param startRow First row of the subsampled source region to read.
+     * @param endRow   Row after the last one to read.
+     * @return         Rows of the subsampled source region.
+     */
+    private BufferedImage readSourceRows(int startRow,
+                                         int endRow) throws IOException {
+        final int period = 1 << subsampling.factor;
+        final int y = sourceRegion.intY() + startRow * period;
+        final int maxY = sourceRegion.intY() + sourceRegion.intHeight();
+        final Rectangle bandRegion = new Rectangle(
+                sourceRegion.intX(), y, sourceRegion.intWidth(),
+                Math.min((endRow - startRow) * period, maxY - y));
+        final BufferedImage band =
+                reader.readRegion(0, bandRegion, subsampling);
+        return Java2DUtil.reduceTo8Bits(band);
+    }
+
+    /**
+     * @return Raster containing the given rows. If they all fall within the
+     *         same strip, it will share that strip's storage.
+     */
+    private Raster getRows(int x, int y, int w, int h) {
+        final int startStrip = y / stripHeight;
+        final int endStrip = (y + h - 1) / stripHeight;
+        if (startStrip == endStrip) {
+            final BufferedImage strip = getStrip(startStrip);
+            return strip.getRaster().createChild(
+                    x, y - startStrip * stripHeight, w, h, x, y, null);
+        }
+        final WritableRaster raster = Raster.createWritableRaster(
+                sampleModel.createCompatibleSampleModel(w, h),
+                new Point(x, y));
+        copyRows(raster);
+        return raster;
+    }
+
+    /**
+     * Copies the pixels within the bounds of the given raster into it.
+     */
+    private void copyRows(WritableRaster raster) {
+        final java.awt.Rectangle bounds = raster.getBounds();
+        final int startStrip = bounds.y / stripHeight;
+        final int endStrip = (bounds.y + bounds.height - 1) / stripHeight;
+        for (int i = startStrip; i <= endStrip; i++) {
+            final Raster stripRaster = getStrip(i).getRaster()
+                    .createTranslatedChild(0, i * stripHeight);
+            final java.awt.Rectangle intersection =
+                    stripRaster.getBounds().intersection(bounds);
+            raster.setRect(stripRaster.createChild(
+                    intersection.x, intersection.y,
+                    intersection.width, intersection.height,
+                    intersection.x, intersection.y, null));
+        }
+    }
+
+    @Override
+    public WritableRaster copyData(WritableRaster raster) {
+        if (raster == null) {
+            raster = Raster.createWritableRaster(sampleModel, null);
+        }
+        copyRows(raster);
+        return raster;
+    }
+
+    @Override
+    public ColorModel getColorModel() {
+        return colorModel;
+    }
+
+    /**
+     * N.B.: this materializes the whole image in memory.
+     */
+    @Override
+    public Raster getData() {
+        LOGGER.debug("getData(): materializing a {}x{} image",
+                width, height);
+        return copyData(null);
+    }
+
+    @Override
+    public Raster getData(java.awt.Rectangle rect) {
+        return getRows(rect.x, rect.y, rect.width, rect.height);
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getMinTileX() {
+        return 0;
+    }
+
+    @Override
+    public int getMinTileY() {
+        return 0;
+    }
+
+    @Override
+    public int getMinX() {
+        return 0;
+    }
+
+    @Override
+    public int getMinY() {
+        return 0;
+    }
+
+    @Override
+    public int getNumXTiles() {
+        return 1;
+    }
+
+    @Override
+    public int getNumYTiles() {
+        return 1;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return Image.UndefinedProperty;
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        return null;
+    }
+
+    @Override
+    public SampleModel getSampleModel() {
+        return sampleModel;
+    }
+
+    @Override
+    public Vector<RenderedImage> getSources() {
+        return null;
+    }
+
+    @Override
+    public Raster getTile(int tileX, int tileY) {
+        if (tileX != 0 || tileY != 0) {
+            throw new IllegalArgumentException("Invalid tile: " +
+                    tileX + ", " + tileY);
+        }
+        return new StreamedRaster(sampleModel);
+    }
+
+    @Override
+    public int getTileGridXOffset() {
+        return 0;
+    }
+
+    @Override
+    public int getTileGridYOffset() {
+        return 0;
+    }
+
+    @Override
+    public int getTileHeight() {
+        return height;
+    }
+
+    @Override
+    public int getTileWidth() {
+        return width;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+}
@@ -0,0 +1,335 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.operation.overlay.Position;
+import edu.illinois.library.cantaloupe.operation.overlay.StringOverlay;
+import edu.illinois.library.cantaloupe.util.ObjectCache;
+import org.apache.commons.lang3.StringUtils;
+
+import java.awt.BasicStroke;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.font.GlyphVector;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Caches the line layouts of {@link StringOverlay string overlays}, and
+ * sprites onto which they have been rendered, so that a string overlay that
+ * is the same across many requests&mdash;a copyright notice on every tile of
+ * an image, for example&mdash;is laid out and rasterized only once, and can
+ * be composited onto each output image with a single draw.</p>
+ *
+ * <p>Layouts are keyed by string, font, and font size. Sprites are keyed
+ * additionally by alignment, color, stroke, and background. Neither depends
+ * on the size of the output image, which only determines which font size is
+ * the largest that fits.</p>
+ *
+ * <p>Instances are thread-safe. Cached sprites are shared, so they must not
+ * be modified.</p>
+ *
+ * @since 4.1
+ */
+final class StringOverlayCache {
+
+    /**
+     * Font metrics of the lines of a string rendered in a particular font.
+     */
+    static final class Layout {
+
+        private final Font font;
+        private final String[] lines;
+        private final int lineHeight;
+        private final int[] lineWidths;
+        private final int maxLineWidth;
+
+        private Layout(Font font, String[] lines, FontMetrics fm) {
+            this.font = font;
+            this.lines = lines;
+            this.lineHeight = fm.getHeight();
+            this.lineWidths = new int[lines.length];
+            int maxWidth = 0;
+            for (int i = 0; i < lines.length; i++) {
+                lineWidths[i] = fm.stringWidth(lines[i]);
+                maxWidth = Math.max(maxWidth, lineWidths[i]);
+            }
+            this.maxLineWidth = maxWidth;
+        }
+
+        Font getFont() {
+            return font;
+        }
+
+        int getLineHeight() {
+            return lineHeight;
+        }
+
+        /**
+         * @return Widths of each line. The array must not be modified.
+         */
+        int[] getLineWidths() {
+            return lineWidths;
+        }
+
+        int getMaxLineWidth() {
+            return maxLineWidth;
+        }
+
+        int getTotalHeight() {
+            return lineHeight * lines.length;
+        }
+
+    }
+
+    /**
+     * String overlay rendered onto a transparent background.
+     */
+    static final class Sprite {
+
+        private final BufferedImage image;
+        private final int margin;
+
+        private Sprite(BufferedImage image, int margin) {
+            this.image = image;
+            this.margin = margin;
+        }
+
+        /**
+         * @return Image of type {@link BufferedImage#TYPE_INT_ARGB_PRE},
+         *         which must not be modified.
+         */
+        BufferedImage getImage() {
+            return image;
+        }
+
+        /**
+         * @return Width of the transparent margin around the overlay's
+         *         bounding box, into which glyph outlines may extend. The
+         *         image must be drawn this far above and to the left of the
+         *         bounding box.
+         */
+        int getMargin() {
+            return margin;
+        }
+
+    }
+
+    private enum Alignment {
+        LEFT, CENTER, RIGHT
+    }
+
+    /**
+     * Padding between the text and the edge of a visible background.
+     */
+    private static final int BOX_PADDING = 5;
+
+    private static final int MAX_LAYOUTS = 1024;
+
+    private static final long MAX_SPRITE_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Sprites are all {@link BufferedImage#TYPE_INT_ARGB_PRE}.
+     */
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private static StringOverlayCache instance;
+
+    private final ObjectCache<List<Object>, Layout> layouts =
+            new ObjectCache<>(MAX_LAYOUTS);
+
+    private final ObjectCache<List<Object>, Sprite> sprites =
+            new ObjectCache<>(MAX_SPRITE_SIZE / 1024,
+                    StringOverlayCache::weigh,
+                    (key, sprite) -> {});
+
+    /**
+     * For testing only.
+     */
+    static synchronized void clearInstance() {
+        instance = null;
+    }
+
+    /**
+     * @return Shared instance.
+     */
+    static synchronized StringOverlayCache getInstance() {
+        if (instance == null) {
+            instance = new StringOverlayCache();
+        }
+        return instance;
+    }
+
+    /**
+     * @return Padding between the text of the given overlay and the edge of
+     *         its bounding box.
+     */
+    static int getBoxPadding(StringOverlay overlay) {
+        return (overlay.getBackgroundColor().getAlpha() > 0) ? BOX_PADDING : 0;
+    }
+
+    private static Alignment getAlignment(Position position) {
+        switch (position) {
+            case TOP_LEFT:
+            case LEFT_CENTER:
+            case BOTTOM_LEFT:
+                return Alignment.LEFT;
+            case TOP_CENTER:
+            case CENTER:
+            case BOTTOM_CENTER:
+                return Alignment.CENTER;
+            default:
+                return Alignment.RIGHT;
+        }
+    }
+
+    /**
+     * @return New graphics context with the rendering hints used for drawing
+     *         all string overlays.
+     */
+    private static Graphics2D newGraphics(BufferedImage image) {
+        final Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                RenderingHints.VALUE_TEXT_ANTIALIAS_GASP);
+        g2d.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
+                RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL,
+                RenderingHints.VALUE_STROKE_PURE);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING,
+                RenderingHints.VALUE_RENDER_QUALITY);
+        return g2d;
+    }
+
+    /**
+     * @return Weight of the given sprite in kilobytes.
+     */
+    private static int weigh(Sprite sprite) {
+        final long bytes = (long) sprite.getImage().getWidth() *
+                sprite.getImage().getHeight() * BYTES_PER_PIXEL;
+        return (int) Math.min(Integer.MAX_VALUE, bytes / 1024 + 1);
+    }
+
+    /**
+     * @param overlay  String overlay.
+     * @param fontSize Size of the overlay's font to lay it out in.
+     * @return         Layout of the overlay's string in its font at the given
+     *                 size.
+     */
+    Layout getLayout(StringOverlay overlay, float fontSize) {
+        final List<Object> key = Arrays.asList(
+                overlay.getString(), overlay.getFont(), fontSize);
+        return layouts.get(key, k -> {
+            Font font = overlay.getFont();
+            if (font.getSize2D() != fontSize) {
+                font = font.deriveFont(fontSize);
+            }
+            // Graphics2D.drawString() does not understand newlines. Each
+            // line has to be laid out and drawn separately.
+            final String[] lines =
+                    StringUtils.split(overlay.getString(), "\n");
+            final BufferedImage scratch =
+                    new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB_PRE);
+            final Graphics2D g2d = newGraphics(scratch);
+            try {
+                g2d.setFont(font);
+                return new Layout(font, lines, g2d.getFontMetrics());
+            } finally {
+                g2d.dispose();
+            }
+        });
+    }
+
+    /**
+     * @param overlay String overlay.
+     * @param layout  Layout of the overlay, obtained from {@link
+     *                #getLayout(StringOverlay, float)}.
+     * @return        Sprite onto which the overlay's background box, text
+     *                outline, and text have been rendered.
+     */
+    Sprite getSprite(StringOverlay overlay, Layout layout) {
+        final List<Object> key = Arrays.asList(
+                overlay.getString(),
+                layout.getFont(),
+                getAlignment(overlay.getPosition()),
+                overlay.getColor().toRGBAHex(),
+                overlay.getStrokeColor().toRGBAHex(),
+                overlay.getStrokeWidth(),
+                overlay.getBackgroundColor().toRGBAHex());
+        return sprites.get(key, k -> newSprite(overlay, layout));
+    }
+
+    /**
+     * Discards all cached layouts and sprites.
+     */
+    void purge() {
+        layouts.purge();
+        sprites.purge();
+    }
+
+    private static Sprite newSprite(StringOverlay overlay, Layout layout) {
+        final int padding = getBoxPadding(overlay);
+        final int lineHeight = layout.getLineHeight();
+        final int[] lineWidths = layout.getLineWidths();
+        final int boxWidth = layout.getMaxLineWidth() + padding * 2;
+        final int boxHeight = layout.getTotalHeight() + padding * 2;
+        // Glyphs may overhang their advance width, and outlines extend
+        // beyond the glyphs, so leave room for them around the box.
+        final int margin = (int) Math.ceil(overlay.getStrokeWidth()) +
+                (int) Math.ceil(layout.getFont().getSize2D() / 4f);
+
+        final BufferedImage image = new BufferedImage(
+                boxWidth + margin * 2, boxHeight + margin * 2,
+                BufferedImage.TYPE_INT_ARGB_PRE);
+        final Graphics2D g2d = newGraphics(image);
+        g2d.setFont(layout.getFont());
+
+        // Draw the background, if it is not transparent.
+        if (overlay.getBackgroundColor().getAlpha() > 0) {
+            g2d.setPaint(overlay.getBackgroundColor().toColor());
+            g2d.fillRect(margin, margin, boxWidth, boxHeight);
+        }
+
+        final Alignment alignment = getAlignment(overlay.getPosition());
+        for (int i = 0; i < layout.lines.length; i++) {
+            double x;
+            switch (alignment) {
+                case LEFT:
+                    x = padding;
+                    break;
+                case CENTER:
+                    x = (boxWidth - lineWidths[i]) / 2.0;
+                    break;
+                default:
+                    x = layout.getMaxLineWidth() - lineWidths[i] + padding;
+                    break;
+            }
+            double y = lineHeight * i + padding;
+            // This is arbitrary fudge, but it seems to work OK.
+            y += lineHeight * 0.73;
+
+            final int intX = margin + (int) Math.round(x);
+            final int intY = margin + (int) Math.round(y);
+
+            // Draw the text outline.
+            if (overlay.getStrokeWidth() > 0.001) {
+                final GlyphVector gv = layout.getFont().createGlyphVector(
+                        g2d.getFontRenderContext(), layout.lines[i]);
+                final Shape shape = gv.getOutline(intX, intY);
+                g2d.setStroke(new BasicStroke(overlay.getStrokeWidth()));
+                g2d.setPaint(overlay.getStrokeColor().toColor());
+                g2d.draw(shape);
+            }
+
+            // Draw the string.
+            g2d.setPaint(overlay.getColor().toColor());
+            g2d.drawString(layout.lines[i], intX, intY);
+        }
+        g2d.dispose();
+        return new Sprite(image, margin);
+    }
+
+}
@@ -41,6 +41,13 @@ abstract class AbstractIIOImageReader {
      */
     javax.imageio.ImageReader iioReader;
 
+    /**
+     * Key of the {@link IIOPluginPool} to which {@link #iioReader} will be
+     * returned by {@link #dispose()}. {@literal null} if it is not to be
+     * pooled.
+     */
+    private String iioReaderPoolKey;
+
     /**
      * Set by {@link #setSource}.
      */
@@ -84,7 +91,18 @@ abstract class AbstractIIOImageReader {
             throw new IOException("No source set.");
         }
 
-        iioReader = negotiateIIOReader();
+        // Negotiation depends only on the format and the preferred
+        // implementations, so a reader negotiated for the same ones
+        // previously can be reused.
+        iioReaderPoolKey = (getFormat() != null) ?
+                IIOPluginPool.key(getFormat(), getPreferredIIOImplementations()) :
+                null;
+        if (iioReaderPoolKey != null) {
+            iioReader = IIOPluginPool.readers().borrow(iioReaderPoolKey);
+        }
+        if (iioReader == null) {
+            iioReader = negotiateIIOReader();
+        }
 
         if (iioReader != null) {
             getLogger().debug("Using {}", iioReader.getClass().getName());
@@ -110,14 +128,19 @@ abstract class AbstractIIOImageReader {
     }
 
     /**
-     * Should be called when the instance is no longer needed.
+     * Should be called when the instance is no longer needed. The ImageIO
+     * reader is returned to the {@link IIOPluginPool}.
      */
     public void dispose() {
         try {
             IOUtils.closeQuietly(inputStream);
         } finally {
             if (iioReader != null) {
-                iioReader.dispose();
+                if (iioReaderPoolKey != null) {
+                    IIOPluginPool.readers().release(iioReaderPoolKey, iioReader);
+                } else {
+                    iioReader.dispose();
+                }
                 iioReader = null;
             }
         }
@@ -188,6 +211,17 @@ abstract class AbstractIIOImageReader {
         return new Dimension(width, height);
     }
 
+    /**
+     * @return Tile height, or rows per strip, of the image at the given index,
+     *         as reported by the ImageIO reader, within the bounds of the
+     *         image height.
+     */
+    public int getStripHeight(int imageIndex) throws IOException {
+        final int height = iioReader.getHeight(imageIndex);
+        final int stripHeight = iioReader.getTileHeight(imageIndex);
+        return (stripHeight > 0) ? Math.min(stripHeight, height) : height;
+    }
+
     /**
      * @return Tile size of the image at the given index, or the full image
      *         dimensions if the image is not tiled (or is mono-tiled).
@@ -337,14 +371,23 @@ abstract class AbstractIIOImageReader {
                               final Set<ReaderHint> hints) throws IOException {
         BufferedImage image;
 
+        final Dimension fullSize = new Dimension(
+                iioReader.getWidth(0), iioReader.getHeight(0));
+        final ReductionFactor subsamplingRF =
+                getSubsamplingReductionFactor(ops, orientation, hints);
+
         Crop crop = (Crop) ops.getFirst(Crop.class);
         if (crop != null && !hints.contains(ReaderHint.IGNORE_CROP)) {
-            final Dimension fullSize = new Dimension(
-                    iioReader.getWidth(0), iioReader.getHeight(0));
-            image = tileAwareRead(0, crop.getRectangle(fullSize), hints);
+            image = tileAwareRead(0, crop.getRectangle(fullSize),
+                    subsamplingRF, hints);
+        } else if (subsamplingRF.factor > 0) {
+            final ImageReadParam param = iioReader.getDefaultReadParam();
+            setSourceSubsampling(param, subsamplingRF);
+            image = iioReader.read(0, param);
         } else {
             image = iioReader.read(0);
         }
+        reductionFactor.factor = subsamplingRF.factor;
 
         if (image == null) {
             throw new UnsupportedSourceFormatException(iioReader.getFormatName());
@@ -353,6 +396,24 @@ abstract class AbstractIIOImageReader {
         return image;
     }
 
+    /**
+     * Reads a region of the image at the given index, subsampled by the given
+     * factor, with no other processing.
+     *
+     * @param imageIndex  Index of the image to read.
+     * @param region      Region of the full-resolution image to read.
+     * @param subsampling Factor by which to subsample the region.
+     * @return            Region of the image.
+     */
+    public BufferedImage readRegion(int imageIndex,
+                                    Rectangle region,
+                                    ReductionFactor subsampling) throws IOException {
+        final ImageReadParam param = iioReader.getDefaultReadParam();
+        param.setSourceRegion(region.toAWTRectangle());
+        setSourceSubsampling(param, subsampling);
+        return iioReader.read(imageIndex, param);
+    }
+
     /**
      * Reads the smallest image that can fulfill the given crop and scale from
      * a multi-resolution image.
@@ -372,8 +433,7 @@ abstract class AbstractIIOImageReader {
             final ScaleConstraint scaleConstraint,
             final ReductionFactor reductionFactor,
             final Set<ReaderHint> hints) throws IOException {
-        final Dimension fullSize = new Dimension(
-                iioReader.getWidth(0), iioReader.getHeight(0));
+        final Dimension fullSize = getSize(0);
         final Rectangle regionRect = crop.getRectangle(
                 fullSize, new ReductionFactor(), scaleConstraint);
         BufferedImage bestImage = null;
@@ -385,19 +445,11 @@ abstract class AbstractIIOImageReader {
                     bestImage.getWidth(), bestImage.getHeight());
         } else {
             // Pyramidal TIFFs will have > 1 image, each with half the
-            // dimensions of the previous one. The boolean parameter tells
-            // getNumImages() whether to scan for images, which seems to be
-            // necessary for at least some files, but is slower. If it is
-            // false, and getNumImages() can't find anything, it will return -1.
-            int numImages = iioReader.getNumImages(false);
-            if (numImages > 1) {
-                getLogger().trace("Detected {} subimage(s)", numImages);
-            } else if (numImages == -1) {
-                numImages = iioReader.getNumImages(true);
-                if (numImages > 1) {
-                    getLogger().trace("Scan revealed {} subimage(s)", numImages);
-                }
-            }
+            // dimensions of the previous one. (Subclasses may override
+            // getNumImages() and getSize() to avoid scanning the file for
+            // them.)
+            final int numImages = getNumImages();
+            getLogger().trace("Detected {} subimage(s)", numImages);
             // At this point, we know how many images are available.
             if (numImages == 1) {
                 bestImage = tileAwareRead(0, regionRect, hints);
@@ -408,8 +460,9 @@ abstract class AbstractIIOImageReader {
                 // Loop through the reduced images from smallest to largest to
                 // find the first one that can supply the requested scale.
                 for (int i = numImages - 1; i >= 0; i--) {
-                    final int subimageWidth = iioReader.getWidth(i);
-                    final int subimageHeight = iioReader.getHeight(i);
+                    final Dimension subimageSize = getSize(i);
+                    final int subimageWidth = subimageSize.intWidth();
+                    final int subimageHeight = subimageSize.intHeight();
 
                     final double reducedScale =
                             (double) subimageWidth / fullSize.width();
@@ -438,6 +491,91 @@ abstract class AbstractIIOImageReader {
         return bestImage;
     }
 
+    /**
+     * <p>Returns the reduction factor by which a mono-resolution image can be
+     * subsampled as it is being decoded (see {@link
+     * ImageReadParam#setSourceSubsampling}) while still being able to fulfill
+     * the scale in the given operation list. Subsampling skips whole source
+     * rows and columns, so this can be a great deal cheaper than reading the
+     * full-resolution region and scaling it down afterwards.</p>
+     *
+     * <p>If {@link Key#PROCESSOR_IMAGEIO_SUBSAMPLE_PRESERVE_QUALITY} is
+     * {@literal true}, the returned factor will leave the image at least
+     * twice the size of the target, which leaves enough data for the
+     * resampling filter in the post-processing step to work with.</p>
+     *
+     * @param ops         Operation list.
+     * @param orientation Orientation of the source image data.
+     * @param hints       Reader hints. May be {@literal null}.
+     * @return            Reduction factor, which will be {@literal 0} if the
+     *                    image should not be subsampled.
+     */
+    public ReductionFactor getSubsamplingReductionFactor(
+            final OperationList ops,
+            final Orientation orientation,
+            final Set<ReaderHint> hints) throws IOException {
+        final Configuration config = Configuration.getInstance();
+        final ReductionFactor rf = new ReductionFactor();
+        final Scale scale = (Scale) ops.getFirst(Scale.class);
+        final ScaleConstraint scaleConstraint = ops.getScaleConstraint();
+
+        if (!config.getBoolean(Key.PROCESSOR_IMAGEIO_SUBSAMPLE, true) ||
+                scale == null || !scale.hasEffect()) {
+            return rf;
+        }
+        // The scale's dimensions are relative to the oriented image, which
+        // the region dimensions are not.
+        if (Orientation.ROTATE_90.equals(orientation) ||
+                Orientation.ROTATE_270.equals(orientation)) {
+            return rf;
+        }
+
+        final Dimension fullSize = new Dimension(
+                iioReader.getWidth(0), iioReader.getHeight(0));
+        Crop crop = (Crop) ops.getFirst(Crop.class);
+        if (crop == null ||
+                (hints != null && hints.contains(ReaderHint.IGNORE_CROP))) {
+            crop = new Crop();
+            crop.setFull(true);
+        }
+        final Rectangle regionRect = crop.getRectangle(
+                fullSize, new ReductionFactor(), scaleConstraint);
+        final double margin = config.getBoolean(
+                Key.PROCESSOR_IMAGEIO_SUBSAMPLE_PRESERVE_QUALITY, true) ?
+                2 : 1;
+
+        // Find the largest factor that still fits, and that leaves at least
+        // one pixel in each dimension.
+        final int maxFactor = (int) Math.floor(Math.log(Math.min(
+                regionRect.width(), regionRect.height())) / Math.log(2));
+        for (int factor = maxFactor; factor > 0; factor--) {
+            final double reducedScale = new ReductionFactor(factor).getScale();
+            if (fits(regionRect.size(), scale, scaleConstraint,
+                    reducedScale / margin)) {
+                rf.factor = factor;
+                getLogger().debug("getSubsamplingReductionFactor(): " +
+                                "subsampling {}x{} region by {}x " +
+                                "({}x reduction factor)",
+                        regionRect.intWidth(), regionRect.intHeight(),
+                        1 << factor, factor);
+                break;
+            }
+        }
+        return rf;
+    }
+
+    /**
+     * Configures the given instance to skip rows and columns according to the
+     * given reduction factor.
+     */
+    static void setSourceSubsampling(ImageReadParam param,
+                                     ReductionFactor rf) {
+        if (rf.factor > 0) {
+            final int period = 1 << rf.factor;
+            param.setSourceSubsampling(period, period, 0, 0);
+        }
+    }
+
     /**
      * <p>Returns an image for the requested source area by reading the tiles
      * (or strips) of the source image and joining them into a single image.</p>
@@ -460,6 +598,19 @@ abstract class AbstractIIOImageReader {
     private BufferedImage tileAwareRead(final int imageIndex,
                                         final Rectangle region,
                                         final Set<ReaderHint> hints) throws IOException {
+        return tileAwareRead(imageIndex, region, new ReductionFactor(), hints);
+    }
+
+    /**
+     * Variant of {@link #tileAwareRead(int, Rectangle, Set)} that also
+     * subsamples the region.
+     *
+     * @param subsamplingRF Reduction factor by which to subsample the region.
+     */
+    private BufferedImage tileAwareRead(final int imageIndex,
+                                        final Rectangle region,
+                                        final ReductionFactor subsamplingRF,
+                                        final Set<ReaderHint> hints) throws IOException {
         final Dimension imageSize = getSize(imageIndex);
         final Dimension tileSize = getTileSize(imageIndex);
 
@@ -485,6 +636,7 @@ abstract class AbstractIIOImageReader {
         hints.add(ReaderHint.ALREADY_CROPPED);
         final ImageReadParam param = iioReader.getDefaultReadParam();
         param.setSourceRegion(region.toAWTRectangle());
+        setSourceSubsampling(param, subsamplingRF);
 
         return iioReader.read(imageIndex, param);
     }
@@ -601,8 +753,9 @@ abstract class AbstractIIOImageReader {
                 // Loop through the reduced images from smallest to largest to
                 // find the first one that can supply the requested scale.
                 for (int i = numImages - 1; i >= 0; i--) {
-                    final int subimageWidth = iioReader.getWidth(i);
-                    final int subimageHeight = iioReader.getHeight(i);
+                    final Dimension subimageSize = getSize(i);
+                    final int subimageWidth = subimageSize.intWidth();
+                    final int subimageHeight = subimageSize.intHeight();
 
                     final double reducedScale =
                             (double) subimageWidth / fullSize.width();
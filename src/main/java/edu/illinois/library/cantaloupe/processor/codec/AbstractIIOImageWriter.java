@@ -20,6 +20,13 @@ import java.util.List;
 abstract class AbstractIIOImageWriter {
 
     javax.imageio.ImageWriter iioWriter;
+
+    /**
+     * Key of the {@link IIOPluginPool} to which {@link #iioWriter} will be
+     * returned by {@link #dispose()}.
+     */
+    private String iioWriterPoolKey;
+
     Encode encode;
     Metadata sourceMetadata;
 
@@ -46,17 +53,24 @@ abstract class AbstractIIOImageWriter {
     }
 
     private void createWriter() {
-        this.iioWriter = negotiateImageWriter();
+        dispose();
+        iioWriterPoolKey = IIOPluginPool.key(encode.getFormat(),
+                getPreferredIIOImplementations());
+        iioWriter = IIOPluginPool.writers().borrow(iioWriterPoolKey);
+        if (iioWriter == null) {
+            iioWriter = negotiateImageWriter();
+        }
 
         getLogger().debug("Using {}", iioWriter.getClass().getName());
     }
 
     /**
-     * Should be called when the instance is no longer needed.
+     * Should be called when the instance is no longer needed. The ImageIO
+     * writer is returned to the {@link IIOPluginPool}.
      */
     public void dispose() {
         if (iioWriter != null) {
-            iioWriter.dispose();
+            IIOPluginPool.writers().release(iioWriterPoolKey, iioWriter);
             iioWriter = null;
         }
     }
@@ -178,4 +192,33 @@ abstract class AbstractIIOImageWriter {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Writes the given image sequence to the given output stream. This
+     * implementation throws an {@link UnsupportedOperationException} and must
+     * be overridden by writers that support streaming image sequences.
+     *
+     * @param sequence      Image sequence to write.
+     * @param outputStream  Stream to write the image to
+     */
+    public void write(StreamingImageSequence sequence,
+                      OutputStream outputStream) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Writes the given images as a multi-image file in which every image is
+     * tiled. This implementation throws an {@link
+     * UnsupportedOperationException} and must be overridden by writers that
+     * support tiled multi-image files.
+     *
+     * @param images       Images to write.
+     * @param tileSize     Width and height of the tiles.
+     * @param outputStream Stream to write the images to.
+     */
+    public void writeTiled(List<? extends RenderedImage> images,
+                           int tileSize,
+                           OutputStream outputStream) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
 }
@@ -99,4 +99,21 @@ final class GIFImageReader extends AbstractIIOImageReader
         return seq;
     }
 
+    /**
+     * Frames are decoded sequentially, which the Image I/O GIF reader does
+     * without rescanning the stream.
+     */
+    @Override
+    public StreamingImageSequence streamSequence() throws IOException {
+        final int count = getNumImages();
+        return new StreamingImageSequence() {
+            private int index;
+
+            @Override
+            public BufferedImage next() throws IOException {
+                return (index < count) ? iioReader.read(index++) : null;
+            }
+        };
+    }
+
 }
@@ -19,6 +19,7 @@ import java.awt.image.renderable.ParameterBlock;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 
 /**
  * GIF image writer using ImageIO, capable of writing both Java 2D
@@ -165,15 +166,35 @@ final class GIFImageWriter extends AbstractIIOImageWriter
             iioWriter.write(iioImage);
             os.flush(); // http://stackoverflow.com/a/14489406
         } finally {
-            iioWriter.dispose();
+            dispose();
         }
     }
 
     @Override
     public void write(BufferedImageSequence sequence,
                       OutputStream outputStream) throws IOException {
+        final Iterator<BufferedImage> it = sequence.iterator();
+        write(() -> it.hasNext() ? it.next() : null, outputStream);
+    }
+
+    /**
+     * Writes each image as soon as it is supplied, so that only one of them
+     * needs to be in memory at a time.
+     *
+     * @param sequence     Image sequence to write.
+     * @param outputStream Stream to write the images to.
+     * @throws IllegalArgumentException if the sequence is empty.
+     */
+    @Override
+    public void write(StreamingImageSequence sequence,
+                      OutputStream outputStream) throws IOException {
+        BufferedImage image = sequence.next();
+        if (image == null) {
+            throw new IllegalArgumentException("Empty sequence");
+        }
+
         final ImageWriteParam writeParam = iioWriter.getDefaultWriteParam();
-        final IIOMetadata metadata = getMetadata(writeParam, sequence.get(0));
+        final IIOMetadata metadata = getMetadata(writeParam, image);
 
         String metaFormatName = metadata.getNativeMetadataFormatName();
 
@@ -188,14 +209,14 @@ final class GIFImageWriter extends AbstractIIOImageWriter
 
             iioWriter.prepareWriteSequence(null);
 
-            for (BufferedImage image : sequence) {
+            do {
                 final IIOImage iioImage = new IIOImage(image, null, metadata);
                 iioWriter.writeToSequence(iioImage, writeParam);
-            }
+            } while ((image = sequence.next()) != null);
             iioWriter.endWriteSequence();
             os.flush();
         } finally {
-            iioWriter.dispose();
+            dispose();
         }
     }
 
@@ -0,0 +1,132 @@
+package edu.illinois.library.cantaloupe.processor.codec;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.function.Consumer;
+
+/**
+ * <p>Bounded pools of idle {@link javax.imageio.ImageReader ImageIO readers}
+ * and {@link javax.imageio.ImageWriter writers}, keyed by format and
+ * implementation preference.</p>
+ *
+ * <p>Obtaining a new ImageIO reader or writer involves looking up all of the
+ * plugins registered for a format, instantiating one of each, and (for some
+ * of them) allocating native codec state, only to discard all but one of
+ * them. {@link AbstractIIOImageReader} and {@link AbstractIIOImageWriter}
+ * instead borrow instances from here and, when they are disposed, {@link
+ * javax.imageio.ImageReader#reset() reset} and return them, so that
+ * negotiation only happens when a pool is empty.</p>
+ *
+ * <p>Instances that don't fit in their pool are {@link
+ * javax.imageio.ImageReader#dispose() disposed}.</p>
+ *
+ * @param <T> Reader or writer type.
+ * @since 4.1
+ */
+final class IIOPluginPool<T> {
+
+    /**
+     * Maximum number of idle instances per key. Beyond the number of requests
+     * being processed concurrently, more would just retain memory.
+     */
+    static final int MAX_POOL_SIZE =
+            Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private static final IIOPluginPool<javax.imageio.ImageReader> READERS =
+            new IIOPluginPool<>(javax.imageio.ImageReader::reset,
+                    javax.imageio.ImageReader::dispose);
+
+    private static final IIOPluginPool<javax.imageio.ImageWriter> WRITERS =
+            new IIOPluginPool<>(javax.imageio.ImageWriter::reset,
+                    javax.imageio.ImageWriter::dispose);
+
+    private final ConcurrentMap<String, Deque<T>> pools =
+            new ConcurrentHashMap<>();
+    private final Consumer<T> resetter;
+    private final Consumer<T> disposer;
+
+    /**
+     * @return Shared pool of readers.
+     */
+    static IIOPluginPool<javax.imageio.ImageReader> readers() {
+        return READERS;
+    }
+
+    /**
+     * @return Shared pool of writers.
+     */
+    static IIOPluginPool<javax.imageio.ImageWriter> writers() {
+        return WRITERS;
+    }
+
+    /**
+     * @param format          Format name.
+     * @param preferredImpls  Preferred implementation class names, in order
+     *                        of preference.
+     * @return                Key of the pool from which to borrow instances
+     *                        that would be negotiated given the arguments.
+     */
+    static String key(Object format, String[] preferredImpls) {
+        return format + ":" + String.join(",", preferredImpls);
+    }
+
+    IIOPluginPool(Consumer<T> resetter, Consumer<T> disposer) {
+        this.resetter = resetter;
+        this.disposer = disposer;
+    }
+
+    /**
+     * @param key Pool key.
+     * @return    Idle instance, or {@literal null} if there are none.
+     */
+    T borrow(String key) {
+        final Deque<T> pool = pools.get(key);
+        return (pool != null) ? pool.pollFirst() : null;
+    }
+
+    /**
+     * Disposes of all idle instances.
+     */
+    void clear() {
+        for (Deque<T> pool : pools.values()) {
+            T instance;
+            while ((instance = pool.pollFirst()) != null) {
+                disposer.accept(instance);
+            }
+        }
+    }
+
+    /**
+     * Resets the given instance and returns it to the pool with the given
+     * key, or disposes of it if the pool is full or it can't be reset.
+     *
+     * @param key      Pool key.
+     * @param instance Instance that is no longer in use.
+     */
+    void release(String key, T instance) {
+        try {
+            resetter.accept(instance);
+        } catch (RuntimeException e) {
+            disposer.accept(instance);
+            return;
+        }
+        // The most recently used instance is borrowed first.
+        final Deque<T> pool = pools.computeIfAbsent(key,
+                k -> new LinkedBlockingDeque<>(MAX_POOL_SIZE));
+        if (!pool.offerFirst(instance)) {
+            disposer.accept(instance);
+        }
+    }
+
+    /**
+     * @param key Pool key.
+     * @return    Number of idle instances in the pool with the given key.
+     */
+    int size(String key) {
+        final Deque<T> pool = pools.get(key);
+        return (pool != null) ? pool.size() : 0;
+    }
+
+}
@@ -4,6 +4,7 @@ import edu.illinois.library.cantaloupe.image.Compression;
 import edu.illinois.library.cantaloupe.image.Dimension;
 import edu.illinois.library.cantaloupe.image.Metadata;
 import edu.illinois.library.cantaloupe.image.Orientation;
+import edu.illinois.library.cantaloupe.image.Rectangle;
 import edu.illinois.library.cantaloupe.operation.OperationList;
 import edu.illinois.library.cantaloupe.operation.ReductionFactor;
 import edu.illinois.library.cantaloupe.source.StreamFactory;
@@ -70,6 +71,36 @@ public interface ImageReader {
      */
     Dimension getSize(int imageIndex) throws IOException;
 
+    /**
+     * Returns the reduction factor by which the image can be subsampled
+     * while it is being decoded while still being able to fulfill the scale
+     * in the given operation list.
+     *
+     * @param opList      Operation list.
+     * @param orientation Orientation of the source image data.
+     * @param hints       Reader hints. May be {@literal null}.
+     * @return            Reduction factor, which will be {@literal 0} if the
+     *                    image should not, or cannot, be subsampled.
+     * @since 4.1
+     */
+    default ReductionFactor getSubsamplingReductionFactor(
+            OperationList opList,
+            Orientation orientation,
+            Set<ReaderHint> hints) throws IOException {
+        return new ReductionFactor();
+    }
+
+    /**
+     * @return Height of the blocks in which the image at the given index is
+     *         stored: the tile height of a tiled image, the number of rows
+     *         per strip of a striped one, or otherwise the full image
+     *         height. This is the smallest band that {@link #readRegion}
+     *         can read without decoding more than it returns.
+     * @throws IOException if there is an error reading the height.
+     * @since 4.1
+     */
+    int getStripHeight(int imageIndex) throws IOException;
+
     /**
      * @return Size of the tiles in the image at the given index, or the full
      *         image dimensions if the image is not tiled.
@@ -94,6 +125,21 @@ public interface ImageReader {
                        ReductionFactor reductionFactor,
                        Set<ReaderHint> hints) throws IOException;
 
+    /**
+     * Reads a region of the image at the given index, subsampled by the given
+     * factor, with no other processing. This enables large images to be read
+     * incrementally, in bands.
+     *
+     * @param imageIndex  Index of the image to read.
+     * @param region      Region of the full-resolution image to read.
+     * @param subsampling Factor by which to subsample the region.
+     * @throws IOException if there is an error reading the image.
+     * @since 4.1
+     */
+    BufferedImage readRegion(int imageIndex,
+                             Rectangle region,
+                             ReductionFactor subsampling) throws IOException;
+
     /**
      * Reads the region of the image corresponding to the given arguments.
      *
@@ -117,6 +163,46 @@ public interface ImageReader {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Returns a sequence that reads its images one at a time, as they are
+     * requested. Unlike with {@link #readSequence()}, only one image is in
+     * memory at a time. The instance must not be used for anything else
+     * until the sequence has been exhausted.
+     *
+     * @throws IOException if there is an error reading the sequence.
+     * @throws UnsupportedOperationException if the reader does not support
+     *         reading sequences.
+     * @since 4.1
+     */
+    default StreamingImageSequence streamSequence() throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * <p>Returns the compressed data of a tile as a standalone JPEG stream,
+     * without decoding it. This is only possible for certain JPEG-compressed
+     * tiled images.</p>
+     *
+     * <p>Only tiles that lie entirely within the bounds of the image are
+     * supported, as the compressed data of edge tiles may include
+     * padding.</p>
+     *
+     * <p>This default implementation returns {@literal null}.</p>
+     *
+     * @param imageIndex Index of the image containing the tile.
+     * @param tileX      Column of the tile.
+     * @param tileY      Row of the tile.
+     * @return           JPEG data, or {@literal null} if the tile can't be
+     *                   read this way.
+     * @throws IOException if there is an error reading the tile.
+     * @since 4.1
+     */
+    default byte[] readTileAsJPEG(int imageIndex,
+                                  int tileX,
+                                  int tileY) throws IOException {
+        return null;
+    }
+
     /**
      * Sets the source to a file.
      */
@@ -6,6 +6,7 @@ import edu.illinois.library.cantaloupe.operation.Encode;
 import java.awt.image.RenderedImage;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.List;
 
 /**
  * <p>Wraps a {@link javax.imageio.ImageWriter}.</p>
@@ -48,4 +49,29 @@ public interface ImageWriter {
     void write(BufferedImageSequence sequence,
                OutputStream outputStream) throws IOException;
 
+    /**
+     * Writes the given image sequence to the given output stream, one image
+     * at a time as they are supplied by the sequence.
+     *
+     * @param sequence     Image sequence to write.
+     * @param outputStream Stream to write the image to.
+     * @since 4.1
+     */
+    void write(StreamingImageSequence sequence,
+               OutputStream outputStream) throws IOException;
+
+    /**
+     * Writes the given images as a multi-image file in which every image is
+     * tiled. The images are requested one tile at a time, in row-major order,
+     * so they may compute their pixels on demand.
+     *
+     * @param images       Images to write.
+     * @param tileSize     Width and height of the tiles.
+     * @param outputStream Stream to write the images to.
+     * @since 4.1
+     */
+    void writeTiled(List<? extends RenderedImage> images,
+                    int tileSize,
+                    OutputStream outputStream) throws IOException;
+
 }
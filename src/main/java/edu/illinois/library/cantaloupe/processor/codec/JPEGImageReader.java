@@ -138,7 +138,10 @@ final class JPEGImageReader extends AbstractIIOImageReader
         Dimension fullSize = new Dimension(
                 iioReader.getWidth(0),
                 iioReader.getHeight(0));
-        image = readRegion(crop.getRectangle(fullSize), hints);
+        final ReductionFactor subsamplingRF =
+                getSubsamplingReductionFactor(ops, orientation, hints);
+        image = readRegion(crop.getRectangle(fullSize), subsamplingRF, hints);
+        reductionFactor.factor = subsamplingRF.factor;
 
         if (image == null) {
             throw new UnsupportedSourceFormatException(iioReader.getFormatName());
@@ -147,7 +150,14 @@ final class JPEGImageReader extends AbstractIIOImageReader
         return image;
     }
 
+    /**
+     * @param region        Region to read.
+     * @param subsamplingRF Reduction factor by which to subsample the region.
+     * @param hints         Will be populated with information returned from
+     *                      the reader.
+     */
     private BufferedImage readRegion(final Rectangle region,
+                                     final ReductionFactor subsamplingRF,
                                      final Set<ReaderHint> hints) throws IOException {
         final Dimension imageSize = getSize(0);
 
@@ -159,6 +169,7 @@ final class JPEGImageReader extends AbstractIIOImageReader
         hints.add(ReaderHint.ALREADY_CROPPED);
         final ImageReadParam param = iioReader.getDefaultReadParam();
         param.setSourceRegion(region.toAWTRectangle());
+        setSourceSubsampling(param, subsamplingRF);
 
         BufferedImage image;
 
@@ -154,8 +154,7 @@ final class JPEGImageWriter extends AbstractIIOImageWriter
         } else if (image instanceof PlanarImage) {
             write((PlanarImage) image, outputStream);
         } else {
-            throw new IllegalArgumentException(
-                    "image must be either a BufferedImage or PlanarImage.");
+            writeRendered(image, outputStream);
         }
     }
 
@@ -179,7 +178,35 @@ final class JPEGImageWriter extends AbstractIIOImageWriter
             iioWriter.setOutput(os);
             iioWriter.write(null, iioImage, writeParam);
         } finally {
-            iioWriter.dispose();
+            dispose();
+        }
+    }
+
+    /**
+     * Writes any other kind of {@link RenderedImage}, such as one whose
+     * pixels are computed as the writer asks for them, to the given output
+     * stream. Unlike the other variants, this one does not remove alpha; the
+     * image must not have any.
+     *
+     * @param image        Image to write
+     * @param outputStream Stream to write the image to
+     */
+    private void writeRendered(RenderedImage image,
+                               OutputStream outputStream) throws IOException {
+        if (image.getColorModel().hasAlpha()) {
+            throw new IllegalArgumentException(
+                    "JPEG does not support alpha.");
+        }
+        final ImageWriteParam writeParam = getWriteParam();
+        final IIOMetadata metadata = getMetadata(writeParam, image);
+        final IIOImage iioImage = new IIOImage(image, null, metadata);
+
+        try (ImageOutputStream os =
+                     ImageIO.createImageOutputStream(outputStream)) {
+            iioWriter.setOutput(os);
+            iioWriter.write(null, iioImage, writeParam);
+        } finally {
+            dispose();
         }
     }
 
@@ -216,7 +243,7 @@ final class JPEGImageWriter extends AbstractIIOImageWriter
             iioWriter.setOutput(os);
             iioWriter.write(null, iioImage, writeParam);
         } finally {
-            iioWriter.dispose();
+            dispose();
         }
 
     }
@@ -0,0 +1,1386 @@
+package edu.illinois.library.cantaloupe.processor.codec;
+
+import edu.illinois.library.cantaloupe.image.Dimension;
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.Rectangle;
+import edu.illinois.library.cantaloupe.operation.Crop;
+import edu.illinois.library.cantaloupe.operation.Encode;
+import edu.illinois.library.cantaloupe.operation.Operation;
+import edu.illinois.library.cantaloupe.operation.OperationList;
+import edu.illinois.library.cantaloupe.operation.Rotate;
+import edu.illinois.library.cantaloupe.operation.Transpose;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Crops, rotates by multiples of 90 degrees, and mirrors baseline JPEGs
+ * without decoding them to pixels, in the manner of {@literal jpegtran}.</p>
+ *
+ * <p>The entropy-coded data is decoded to quantized DCT coefficients, whose
+ * blocks are rearranged (and, for rotations and mirroring, transposed and/or
+ * sign-flipped) and then re-encoded with optimized Huffman tables. There is
+ * no generation loss, and none of the cost of the inverse and forward DCTs,
+ * color conversion, or chroma resampling.</p>
+ *
+ * <p>This only works when the operations line up with the MCU grid: the
+ * crop origin must fall on an MCU boundary, as must any right or bottom edge
+ * of the cropped region that becomes a left or top edge in the output.
+ * Only sequential Huffman-coded JPEGs with 8-bit samples and one or three
+ * components, all in a single scan, are supported.</p>
+ *
+ * <p>APP0 (JFIF), APP2 (ICC profile), and APP14 (Adobe) segments are
+ * retained; all other metadata is discarded.</p>
+ *
+ * @since 4.1
+ */
+public final class JPEGTransformer {
+
+    /**
+     * Spatial transform, expressed as a mapping from output coordinates to
+     * input coordinates.
+     */
+    static final class Transform {
+
+        /**
+         * Whether output x and y correspond to input y and x.
+         */
+        final boolean transpose;
+
+        /**
+         * Whether the input x axis is reversed.
+         */
+        final boolean flipX;
+
+        /**
+         * Whether the input y axis is reversed.
+         */
+        final boolean flipY;
+
+        Transform(boolean transpose, boolean flipX, boolean flipY) {
+            this.transpose = transpose;
+            this.flipX = flipX;
+            this.flipY = flipY;
+        }
+
+        /**
+         * @param degrees Clockwise rotation, which must be a multiple of 90.
+         */
+        static Transform forRotation(int degrees) {
+            switch (((degrees % 360) + 360) % 360) {
+                case 90:
+                    return new Transform(true, false, true);
+                case 180:
+                    return new Transform(false, true, true);
+                case 270:
+                    return new Transform(true, true, false);
+                default:
+                    return new Transform(false, false, false);
+            }
+        }
+
+        /**
+         * @return Transform equivalent to applying the instance and then the
+         *         given transform.
+         */
+        Transform then(Transform next) {
+            // Treating each transform as a signed permutation matrix that
+            // maps output axes to input axes, the result is their product.
+            final int[] m1 = toMatrix(), m2 = next.toMatrix();
+            final int[] m = new int[] {
+                    m1[0] * m2[0] + m1[1] * m2[2],
+                    m1[0] * m2[1] + m1[1] * m2[3],
+                    m1[2] * m2[0] + m1[3] * m2[2],
+                    m1[2] * m2[1] + m1[3] * m2[3] };
+            final boolean transpose = (m[0] == 0);
+            return new Transform(transpose,
+                    (transpose ? m[1] : m[0]) < 0,
+                    (transpose ? m[2] : m[3]) < 0);
+        }
+
+        private int[] toMatrix() {
+            final int sx = flipX ? -1 : 1, sy = flipY ? -1 : 1;
+            return transpose ?
+                    new int[] { 0, sx, sy, 0 } :
+                    new int[] { sx, 0, 0, sy };
+        }
+
+    }
+
+    /**
+     * Region to crop and transform to apply to it.
+     */
+    private static final class Plan {
+        final Rectangle region;
+        final Transform transform;
+
+        Plan(Rectangle region, Transform transform) {
+            this.region = region;
+            this.transform = transform;
+        }
+    }
+
+    private static final class Component {
+        int id, h, v, tq;
+        int dcTable, acTable;
+
+        /**
+         * Quantized coefficients of the blocks within the cropped region, in
+         * natural (not zigzag) order.
+         */
+        short[] coefficients;
+
+        /**
+         * Size of {@link #coefficients} in blocks.
+         */
+        int blocksWide, blocksHigh;
+
+        /**
+         * Position of {@link #coefficients} in the component's block grid.
+         */
+        int blockX0, blockY0;
+    }
+
+    /**
+     * Huffman table usable for decoding (Annex F.2.2.3 of ITU T.81).
+     */
+    private static final class DecodingTable {
+        final int[] maxCode = new int[18];
+        final int[] valPtr = new int[17];
+        final int[] minCode = new int[17];
+        final int[] values;
+
+        DecodingTable(int[] bits, int[] values) {
+            this.values = values;
+            int code = 0, k = 0;
+            for (int l = 1; l <= 16; l++) {
+                if (bits[l] == 0) {
+                    maxCode[l] = -1;
+                } else {
+                    valPtr[l] = k;
+                    minCode[l] = code;
+                    code += bits[l];
+                    k += bits[l];
+                    maxCode[l] = code - 1;
+                }
+                code <<= 1;
+            }
+            maxCode[17] = Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Huffman table usable for encoding.
+     */
+    private static final class EncodingTable {
+        final int[] bits;
+        final int[] values;
+        final int[] codes = new int[256];
+        final int[] sizes = new int[256];
+
+        EncodingTable(int[] bits, int[] values) {
+            this.bits = bits;
+            this.values = values;
+            int code = 0, k = 0;
+            for (int l = 1; l <= 16; l++) {
+                for (int i = 0; i < bits[l]; i++) {
+                    codes[values[k]] = code;
+                    sizes[values[k]] = l;
+                    code++;
+                    k++;
+                }
+                code <<= 1;
+            }
+        }
+    }
+
+    /**
+     * Reads bits from entropy-coded data.
+     */
+    private static final class BitReader {
+        private final byte[] data;
+        private int pos;
+        private int buffer, bitCount;
+
+        BitReader(byte[] data, int pos) {
+            this.data = data;
+            this.pos = pos;
+        }
+
+        int readBit() throws IOException {
+            if (bitCount == 0) {
+                if (pos >= data.length) {
+                    throw new IOException("Unexpected end of data");
+                }
+                int b = data[pos] & 0xff;
+                if (b == 0xff) {
+                    final int next = (pos + 1 < data.length) ?
+                            data[pos + 1] & 0xff : -1;
+                    if (next != 0) {
+                        throw new IOException("Unexpected marker in " +
+                                "entropy-coded data");
+                    }
+                    pos += 2;
+                } else {
+                    pos++;
+                }
+                buffer = b;
+                bitCount = 8;
+            }
+            bitCount--;
+            return (buffer >> bitCount) & 1;
+        }
+
+        int readBits(int n) throws IOException {
+            int value = 0;
+            for (int i = 0; i < n; i++) {
+                value = (value << 1) | readBit();
+            }
+            return value;
+        }
+
+        int decode(DecodingTable table) throws IOException {
+            int code = readBit();
+            int l = 1;
+            while (code > table.maxCode[l]) {
+                code = (code << 1) | readBit();
+                if (++l > 16) {
+                    throw new IOException("Invalid Huffman code");
+                }
+            }
+            return table.values[table.valPtr[l] + code - table.minCode[l]];
+        }
+
+        /**
+         * Discards any remaining bits in the current byte and consumes the
+         * expected restart marker.
+         */
+        void readRestartMarker(int expected) throws IOException {
+            bitCount = 0;
+            while (pos < data.length && (data[pos] & 0xff) == 0xff &&
+                    pos + 1 < data.length && (data[pos + 1] & 0xff) == 0xff) {
+                pos++;
+            }
+            if (pos + 1 >= data.length || (data[pos] & 0xff) != 0xff ||
+                    (data[pos + 1] & 0xff) != 0xd0 + expected) {
+                throw new IOException("Missing restart marker");
+            }
+            pos += 2;
+        }
+
+        int position() {
+            return pos;
+        }
+    }
+
+    /**
+     * Writes entropy-coded data.
+     */
+    private static final class BitWriter {
+        private final OutputStream os;
+        private int buffer, bitCount;
+
+        BitWriter(OutputStream os) {
+            this.os = os;
+        }
+
+        void write(int bits, int length) throws IOException {
+            for (int i = length - 1; i >= 0; i--) {
+                buffer = (buffer << 1) | ((bits >> i) & 1);
+                if (++bitCount == 8) {
+                    os.write(buffer);
+                    if (buffer == 0xff) {
+                        os.write(0);
+                    }
+                    buffer = bitCount = 0;
+                }
+            }
+        }
+
+        /**
+         * Pads the last byte with 1 bits.
+         */
+        void flush() throws IOException {
+            if (bitCount > 0) {
+                write((1 << (8 - bitCount)) - 1, 8 - bitCount);
+            }
+        }
+    }
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(JPEGTransformer.class);
+
+    /**
+     * Natural-order index of each zigzag-order coefficient.
+     */
+    private static final int[] NATURAL_ORDER = {
+            0,  1,  8, 16,  9,  2,  3, 10,
+            17, 24, 32, 25, 18, 11,  4,  5,
+            12, 19, 26, 33, 40, 48, 41, 34,
+            27, 20, 13,  6,  7, 14, 21, 28,
+            35, 42, 49, 56, 57, 50, 43, 36,
+            29, 22, 15, 23, 30, 37, 44, 51,
+            58, 59, 52, 45, 38, 31, 39, 46,
+            53, 60, 61, 54, 47, 55, 62, 63 };
+
+    private static final int SOI  = 0xd8;
+    private static final int EOI  = 0xd9;
+    private static final int SOS  = 0xda;
+    private static final int DQT  = 0xdb;
+    private static final int DRI  = 0xdd;
+    private static final int DHT  = 0xc4;
+    private static final int SOF0 = 0xc0;
+    private static final int SOF1 = 0xc1;
+    private static final int APP0  = 0xe0;
+    private static final int APP2  = 0xe2;
+    private static final int APP14 = 0xee;
+
+    /**
+     * JFIF APP0 segment (version 1.01, no density, no thumbnail). This
+     * replaces any source JFIF segment, whose thumbnail would otherwise not
+     * match the transformed image.
+     */
+    private static final byte[] JFIF_APP0_SEGMENT = new byte[] {
+            (byte) 0xff, (byte) 0xe0, 0x00, 0x10,
+            'J', 'F', 'I', 'F', 0x00, 0x01, 0x01,
+            0x00, 0x00, 0x01, 0x00, 0x01, 0x00, 0x00 };
+
+    private final byte[] data;
+
+    // Parsed by readHeaders().
+    private boolean hasJFIFSegment;
+    private final List<byte[]> retainedSegments = new ArrayList<>();
+    private final int[][] quantTables = new int[4][];
+    private final int[] quantTablePrecisions = new int[4];
+    private final DecodingTable[] dcTables = new DecodingTable[4];
+    private final DecodingTable[] acTables = new DecodingTable[4];
+    private int frameMarker;
+    private int width, height;
+    private Component[] components;
+    private int maxH, maxV;
+    private int restartInterval;
+    private int scanStart;
+
+    /**
+     * @param ops      Operation list.
+     * @param fullSize Full size of the source image.
+     * @return         Whether the given operation list consists only of
+     *                 operations that can be carried out by {@link
+     *                 #transform}. Whether they can actually be carried out
+     *                 also depends on the image.
+     */
+    public static boolean canTransform(OperationList ops,
+                                       Dimension fullSize) {
+        return getPlan(ops, fullSize) != null;
+    }
+
+    /**
+     * @param ops      Operation list.
+     * @param fullSize Full size of the source image.
+     * @param mcuSize  MCU size of the source image, as returned by {@link
+     *                 #readMCUSize(InputStream)}.
+     * @return         Whether the given operation list can be carried out
+     *                 by {@link #transform} on an image with the given MCU
+     *                 size. This can be checked before the image is read.
+     */
+    public static boolean canTransform(OperationList ops,
+                                       Dimension fullSize,
+                                       Dimension mcuSize) {
+        final Plan plan = getPlan(ops, fullSize);
+        return plan != null && isAligned(
+                plan.region.intX(), plan.region.intY(),
+                plan.region.intWidth(), plan.region.intHeight(),
+                plan.transform, mcuSize.intWidth(), mcuSize.intHeight());
+    }
+
+    /**
+     * Reads the MCU size of a JPEG image from its frame header, which is
+     * much cheaper than reading the whole image.
+     *
+     * @param inputStream Stream positioned at the start of the image. It is
+     *                    not closed.
+     * @return            MCU size, or {@literal null} if the image is not
+     *                    supported by {@link #transform}.
+     */
+    public static Dimension readMCUSize(InputStream inputStream)
+            throws IOException {
+        final DataInputStream is = new DataInputStream(
+                new BufferedInputStream(inputStream));
+        try {
+            if (is.readUnsignedByte() != 0xff ||
+                    is.readUnsignedByte() != SOI) {
+                return null;
+            }
+            while (true) {
+                if (is.readUnsignedByte() != 0xff) {
+                    return null;
+                }
+                // Skip fill bytes.
+                int marker;
+                do {
+                    marker = is.readUnsignedByte();
+                } while (marker == 0xff);
+                if (marker == SOI || marker == EOI || marker == SOS ||
+                        (marker >= 0xd0 && marker <= 0xd7)) {
+                    return null;
+                }
+                final int length = is.readUnsignedShort();
+                if (length < 2) {
+                    return null;
+                }
+                final byte[] segment = new byte[length - 2];
+                is.readFully(segment);
+                if (marker == SOF0 || marker == SOF1) {
+                    return getMCUSize(segment);
+                } else if (marker >= 0xc0 && marker <= 0xcf &&
+                        marker != DHT && marker != 0xc8 && marker != 0xcc) {
+                    return null;
+                }
+            }
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param frameHeader Contents of an {@literal SOF0} or {@literal SOF1}
+     *                    segment, excluding the marker and length.
+     * @return            MCU size, or {@literal null} if the frame is not
+     *                    supported.
+     */
+    private static Dimension getMCUSize(byte[] frameHeader) {
+        if (frameHeader.length < 6) {
+            return null;
+        }
+        final int precision = frameHeader[0] & 0xff;
+        final int numComponents = frameHeader[5] & 0xff;
+        if (precision != 8 || (numComponents != 1 && numComponents != 3) ||
+                frameHeader.length < 6 + 3 * numComponents) {
+            return null;
+        }
+        if (numComponents == 1) {
+            // Sampling factors are meaningless in a non-interleaved scan.
+            return new Dimension(8, 8);
+        }
+        int maxH = 1, maxV = 1;
+        for (int i = 0; i < numComponents; i++) {
+            final int h = (frameHeader[7 + 3 * i] >> 4) & 0x0f;
+            final int v = frameHeader[7 + 3 * i] & 0x0f;
+            if (h < 1 || h > 4 || v < 1 || v > 4) {
+                return null;
+            }
+            maxH = Math.max(maxH, h);
+            maxV = Math.max(maxV, v);
+        }
+        return new Dimension(8 * maxH, 8 * maxV);
+    }
+
+    /**
+     * @return Whether the crop origin falls on the MCU grid, as do the right
+     *         and bottom edges of the region if they are going to become
+     *         left or top edges, as the padding in the partial MCUs along
+     *         them would otherwise end up inside the image.
+     */
+    private static boolean isAligned(int x, int y,
+                                     int regionWidth, int regionHeight,
+                                     Transform transform,
+                                     int mcuWidth, int mcuHeight) {
+        return x % mcuWidth == 0 && y % mcuHeight == 0 &&
+                (!transform.flipX || regionWidth % mcuWidth == 0) &&
+                (!transform.flipY || regionHeight % mcuHeight == 0);
+    }
+
+    /**
+     * @return Region to crop (or the full image) and transform to apply to
+     *         it, or {@literal null} if the operation list contains anything
+     *         else or has no effect.
+     */
+    private static Plan getPlan(OperationList ops, Dimension fullSize) {
+        if (!Format.JPG.equals(ops.getOutputFormat()) ||
+                ops.getScaleConstraint().hasEffect()) {
+            return null;
+        }
+        Rectangle region = new Rectangle(0, 0,
+                fullSize.intWidth(), fullSize.intHeight());
+        Transform transform = new Transform(false, false, false);
+        boolean isCropped = false, isTransformed = false;
+
+        for (Operation op : ops) {
+            if (op instanceof Encode || !op.hasEffect(fullSize, ops)) {
+                continue;
+            } else if (op instanceof Crop && !isTransformed) {
+                region = ((Crop) op).getRectangle(fullSize);
+                isCropped = true;
+            } else if (op instanceof Transpose) {
+                transform = transform.then(Transpose.HORIZONTAL.equals(op) ?
+                        new Transform(false, true, false) :
+                        new Transform(false, false, true));
+                isTransformed = true;
+            } else if (op instanceof Rotate) {
+                final double degrees = ((Rotate) op).getDegrees();
+                if (degrees % 90 != 0) {
+                    return null;
+                }
+                transform = transform.then(
+                        Transform.forRotation((int) degrees));
+                isTransformed = true;
+            } else {
+                return null;
+            }
+        }
+        if ((!isCropped && !isTransformed) ||
+                region.intWidth() < 1 || region.intHeight() < 1 ||
+                region.x() != region.intX() || region.y() != region.intY() ||
+                region.width() != region.intWidth() ||
+                region.height() != region.intHeight()) {
+            return null;
+        }
+        return new Plan(region, transform);
+    }
+
+    /**
+     * @param data Complete JPEG data.
+     */
+    public JPEGTransformer(byte[] data) {
+        this.data = data;
+    }
+
+    /**
+     * Carries out the given operation list, if possible, and writes the
+     * resulting JPEG to the given output stream. Nothing is written if it
+     * is not possible.
+     *
+     * @param ops          Operation list.
+     * @param fullSize     Full size of the source image.
+     * @param outputStream Output stream to write to.
+     * @return             Whether the operation list was carried out.
+     * @throws IOException if there is an error writing to the output stream.
+     */
+    public boolean transform(OperationList ops,
+                             Dimension fullSize,
+                             OutputStream outputStream) throws IOException {
+        final Plan plan = getPlan(ops, fullSize);
+        if (plan == null) {
+            return false;
+        }
+        return transform(plan.region.intX(), plan.region.intY(),
+                plan.region.intWidth(), plan.region.intHeight(),
+                plan.transform, outputStream);
+    }
+
+    /**
+     * @param x            Left edge of the region to crop.
+     * @param y            Top edge of the region to crop.
+     * @param regionWidth  Width of the region to crop.
+     * @param regionHeight Height of the region to crop.
+     * @param transform    Transform to apply to the cropped region.
+     * @param outputStream Output stream to write to.
+     * @return             Whether the transform was carried out.
+     */
+    boolean transform(int x, int y, int regionWidth, int regionHeight,
+                      Transform transform,
+                      OutputStream outputStream) throws IOException {
+        try {
+            if (!readHeaders()) {
+                return false;
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("transform(): unable to parse: {}", e.getMessage());
+            return false;
+        }
+
+        final int mcuWidth = 8 * maxH, mcuHeight = 8 * maxV;
+        if (x < 0 || y < 0 ||
+                x + regionWidth > width || y + regionHeight > height ||
+                !isAligned(x, y, regionWidth, regionHeight, transform,
+                        mcuWidth, mcuHeight)) {
+            LOGGER.debug("transform(): region {},{}/{}x{} is not aligned " +
+                            "to the {}x{} MCU grid",
+                    x, y, regionWidth, regionHeight, mcuWidth, mcuHeight);
+            return false;
+        }
+
+        // Allocate the coefficients of the blocks within the region.
+        final int mcuX0 = x / mcuWidth, mcuY0 = y / mcuHeight;
+        final int mcuX1 = ceilDiv(x + regionWidth, mcuWidth);
+        final int mcuY1 = ceilDiv(y + regionHeight, mcuHeight);
+        for (Component comp : components) {
+            comp.blockX0 = mcuX0 * comp.h;
+            comp.blockY0 = mcuY0 * comp.v;
+            comp.blocksWide = (mcuX1 - mcuX0) * comp.h;
+            comp.blocksHigh = (mcuY1 - mcuY0) * comp.v;
+            comp.coefficients =
+                    new short[comp.blocksWide * comp.blocksHigh * 64];
+        }
+
+        try {
+            decodeScan();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("transform(): unable to decode: {}", e.getMessage());
+            return false;
+        }
+
+        final OutputStream os = new BufferedOutputStream(outputStream);
+        writeImage(os, regionWidth, regionHeight, transform);
+        os.flush();
+        return true;
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    /////////////////////////////// reading ////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @return Whether the image is supported.
+     */
+    private boolean readHeaders() throws IOException {
+        if (data.length < 4 || (data[0] & 0xff) != 0xff ||
+                (data[1] & 0xff) != SOI) {
+            return false;
+        }
+        int pos = 2;
+        while (pos < data.length) {
+            if ((data[pos] & 0xff) != 0xff) {
+                throw new IOException("Expected a marker at " + pos);
+            }
+            // Skip fill bytes.
+            while ((data[pos + 1] & 0xff) == 0xff) {
+                pos++;
+            }
+            final int marker = data[pos + 1] & 0xff;
+            pos += 2;
+            if (marker == SOI || marker == EOI ||
+                    (marker >= 0xd0 && marker <= 0xd7)) {
+                return false;
+            }
+            final int length = readUnsignedShort(pos);
+            final int segmentStart = pos + 2;
+            final int segmentEnd = pos + length;
+
+            switch (marker) {
+                case SOF0:
+                case SOF1:
+                    frameMarker = marker;
+                    if (!readFrameHeader(segmentStart)) {
+                        return false;
+                    }
+                    break;
+                case DHT:
+                    readHuffmanTables(segmentStart, segmentEnd);
+                    break;
+                case DQT:
+                    readQuantizationTables(segmentStart, segmentEnd);
+                    break;
+                case DRI:
+                    restartInterval = readUnsignedShort(segmentStart);
+                    break;
+                case SOS:
+                    return readScanHeader(segmentStart, segmentEnd);
+                case APP0:
+                    if (startsWith(segmentStart, "JFIF\0")) {
+                        hasJFIFSegment = true;
+                    }
+                    break;
+                case APP2:
+                    if (startsWith(segmentStart, "ICC_PROFILE\0")) {
+                        retainedSegments.add(Arrays.copyOfRange(
+                                data, pos - 2, segmentEnd));
+                    }
+                    break;
+                case APP14:
+                    if (startsWith(segmentStart, "Adobe")) {
+                        retainedSegments.add(Arrays.copyOfRange(
+                                data, pos - 2, segmentEnd));
+                    }
+                    break;
+                default:
+                    if (marker >= 0xc0 && marker <= 0xcf &&
+                            marker != 0xc4 && marker != 0xc8 &&
+                            marker != 0xcc) {
+                        // Progressive, lossless, hierarchical, or arithmetic
+                        // coded.
+                        return false;
+                    } else if (marker == 0xdc) { // DNL
+                        return false;
+                    }
+                    break;
+            }
+            pos = segmentEnd;
+        }
+        return false;
+    }
+
+    private boolean readFrameHeader(int pos) {
+        final int precision = data[pos] & 0xff;
+        height = readUnsignedShort(pos + 1);
+        width = readUnsignedShort(pos + 3);
+        final int numComponents = data[pos + 5] & 0xff;
+        if (precision != 8 || width == 0 || height == 0 ||
+                (numComponents != 1 && numComponents != 3)) {
+            return false;
+        }
+        components = new Component[numComponents];
+        pos += 6;
+        for (int i = 0; i < numComponents; i++) {
+            Component comp = new Component();
+            comp.id = data[pos] & 0xff;
+            comp.h = (data[pos + 1] >> 4) & 0x0f;
+            comp.v = data[pos + 1] & 0x0f;
+            comp.tq = data[pos + 2] & 0x0f;
+            if (comp.h < 1 || comp.h > 4 || comp.v < 1 || comp.v > 4) {
+                return false;
+            }
+            components[i] = comp;
+            pos += 3;
+        }
+        if (numComponents == 1) {
+            // Sampling factors are meaningless in a non-interleaved scan.
+            components[0].h = components[0].v = 1;
+        }
+        maxH = maxV = 1;
+        for (Component comp : components) {
+            maxH = Math.max(maxH, comp.h);
+            maxV = Math.max(maxV, comp.v);
+        }
+        return true;
+    }
+
+    private void readHuffmanTables(int pos, int end) {
+        while (pos < end) {
+            final int tc = (data[pos] >> 4) & 0x0f;
+            final int th = data[pos] & 0x03;
+            pos++;
+            final int[] bits = new int[17];
+            int count = 0;
+            for (int i = 1; i <= 16; i++) {
+                bits[i] = data[pos++] & 0xff;
+                count += bits[i];
+            }
+            final int[] values = new int[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = data[pos++] & 0xff;
+            }
+            final DecodingTable table = new DecodingTable(bits, values);
+            if (tc == 0) {
+                dcTables[th] = table;
+            } else {
+                acTables[th] = table;
+            }
+        }
+    }
+
+    private void readQuantizationTables(int pos, int end) {
+        while (pos < end) {
+            final int pq = (data[pos] >> 4) & 0x0f;
+            final int tq = data[pos] & 0x03;
+            pos++;
+            final int[] table = new int[64];
+            for (int k = 0; k < 64; k++) {
+                if (pq == 0) {
+                    table[NATURAL_ORDER[k]] = data[pos++] & 0xff;
+                } else {
+                    table[NATURAL_ORDER[k]] = readUnsignedShort(pos);
+                    pos += 2;
+                }
+            }
+            quantTables[tq] = table;
+            quantTablePrecisions[tq] = pq;
+        }
+    }
+
+    /**
+     * @return Whether the scan contains all of the components.
+     */
+    private boolean readScanHeader(int pos, int end) {
+        if (components == null) {
+            return false;
+        }
+        final int numComponents = data[pos] & 0xff;
+        if (numComponents != components.length) {
+            return false;
+        }
+        pos++;
+        for (int i = 0; i < numComponents; i++) {
+            final int id = data[pos] & 0xff;
+            if (components[i].id != id) {
+                return false;
+            }
+            components[i].dcTable = (data[pos + 1] >> 4) & 0x03;
+            components[i].acTable = data[pos + 1] & 0x03;
+            if (dcTables[components[i].dcTable] == null ||
+                    acTables[components[i].acTable] == null ||
+                    quantTables[components[i].tq] == null) {
+                return false;
+            }
+            pos += 2;
+        }
+        final int ss = data[pos] & 0xff;
+        final int se = data[pos + 1] & 0xff;
+        final int ahal = data[pos + 2] & 0xff;
+        if (ss != 0 || se != 63 || ahal != 0) {
+            return false;
+        }
+        scanStart = end;
+        return true;
+    }
+
+    private boolean startsWith(int pos, String prefix) {
+        final byte[] bytes = prefix.getBytes(StandardCharsets.US_ASCII);
+        if (pos + bytes.length > data.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (data[pos + i] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int readUnsignedShort(int pos) {
+        return ((data[pos] & 0xff) << 8) | (data[pos + 1] & 0xff);
+    }
+
+    /**
+     * Decodes the scan, retaining the coefficients of the blocks within each
+     * component's block window.
+     */
+    private void decodeScan() throws IOException {
+        final BitReader reader = new BitReader(data, scanStart);
+        final int[] predictors = new int[components.length];
+        final short[] scratch = new short[64];
+
+        if (components.length == 1) {
+            final Component comp = components[0];
+            final int blocksAcross = ceilDiv(width, 8);
+            final int blocksDown = ceilDiv(height, 8);
+            int mcuCount = 0;
+            for (int by = 0; by < blocksDown; by++) {
+                for (int bx = 0; bx < blocksAcross; bx++) {
+                    if (restartInterval > 0 && mcuCount > 0 &&
+                            mcuCount % restartInterval == 0) {
+                        reader.readRestartMarker(
+                                (mcuCount / restartInterval - 1) % 8);
+                        predictors[0] = 0;
+                    }
+                    decodeBlock(reader, comp, predictors, 0, bx, by, scratch);
+                    mcuCount++;
+                }
+            }
+        } else {
+            final int mcusAcross = ceilDiv(width, 8 * maxH);
+            final int mcusDown = ceilDiv(height, 8 * maxV);
+            int mcuCount = 0;
+            for (int my = 0; my < mcusDown; my++) {
+                for (int mx = 0; mx < mcusAcross; mx++) {
+                    if (restartInterval > 0 && mcuCount > 0 &&
+                            mcuCount % restartInterval == 0) {
+                        reader.readRestartMarker(
+                                (mcuCount / restartInterval - 1) % 8);
+                        Arrays.fill(predictors, 0);
+                    }
+                    for (int c = 0; c < components.length; c++) {
+                        final Component comp = components[c];
+                        for (int v = 0; v < comp.v; v++) {
+                            for (int h = 0; h < comp.h; h++) {
+                                decodeBlock(reader, comp, predictors, c,
+                                        mx * comp.h + h, my * comp.v + v,
+                                        scratch);
+                            }
+                        }
+                    }
+                    mcuCount++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes a block, storing it if it lies within the component's block
+     * window.
+     */
+    private void decodeBlock(BitReader reader,
+                             Component comp,
+                             int[] predictors,
+                             int componentIndex,
+                             int blockX,
+                             int blockY,
+                             short[] scratch) throws IOException {
+        final int wx = blockX - comp.blockX0;
+        final int wy = blockY - comp.blockY0;
+        final boolean isRetained = (wx >= 0 && wx < comp.blocksWide &&
+                wy >= 0 && wy < comp.blocksHigh);
+        final short[] block;
+        final int offset;
+        if (isRetained) {
+            block = comp.coefficients;
+            offset = (wy * comp.blocksWide + wx) * 64;
+        } else {
+            block = scratch;
+            offset = 0;
+        }
+
+        final int t = reader.decode(dcTables[comp.dcTable]);
+        final int diff = (t == 0) ? 0 : extend(reader.readBits(t), t);
+        predictors[componentIndex] += diff;
+        block[offset] = (short) predictors[componentIndex];
+
+        final DecodingTable acTable = acTables[comp.acTable];
+        for (int k = 1; k < 64; k++) {
+            final int rs = reader.decode(acTable);
+            final int r = rs >> 4, s = rs & 0x0f;
+            if (s == 0) {
+                if (r == 15) {
+                    k += 15;
+                    continue;
+                }
+                break;
+            }
+            k += r;
+            if (k > 63) {
+                throw new IOException("Invalid AC coefficient index");
+            }
+            block[offset + NATURAL_ORDER[k]] =
+                    (short) extend(reader.readBits(s), s);
+        }
+    }
+
+    private static int extend(int value, int size) {
+        return (value < (1 << (size - 1))) ?
+                value - (1 << size) + 1 : value;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    /////////////////////////////// writing ////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Copies the coefficients of the block at the given position in the
+     * output component's block grid into the given array, transformed.
+     */
+    private static void getOutputBlock(Component comp,
+                                       Transform transform,
+                                       int outBlockX,
+                                       int outBlockY,
+                                       int[] block) {
+        int sx, sy;
+        if (transform.transpose) {
+            sx = outBlockY;
+            sy = outBlockX;
+        } else {
+            sx = outBlockX;
+            sy = outBlockY;
+        }
+        if (transform.flipX) {
+            sx = comp.blocksWide - 1 - sx;
+        }
+        if (transform.flipY) {
+            sy = comp.blocksHigh - 1 - sy;
+        }
+        if (sx < 0 || sy < 0 ||
+                sx >= comp.blocksWide || sy >= comp.blocksHigh) {
+            Arrays.fill(block, 0);
+            return;
+        }
+        final short[] coefs = comp.coefficients;
+        final int offset = (sy * comp.blocksWide + sx) * 64;
+        // A horizontal flip negates the odd horizontal frequencies and a
+        // vertical flip the odd vertical ones; a transposition swaps them.
+        for (int u = 0; u < 8; u++) {         // output vertical frequency
+            for (int w = 0; w < 8; w++) {     // output horizontal frequency
+                int value;
+                int xFreq, yFreq;             // input frequencies
+                if (transform.transpose) {
+                    value = coefs[offset + w * 8 + u];
+                    xFreq = u;
+                    yFreq = w;
+                } else {
+                    value = coefs[offset + u * 8 + w];
+                    xFreq = w;
+                    yFreq = u;
+                }
+                if ((transform.flipX && (xFreq & 1) == 1) ^
+                        (transform.flipY && (yFreq & 1) == 1)) {
+                    value = -value;
+                }
+                block[u * 8 + w] = value;
+            }
+        }
+    }
+
+    /**
+     * Invokes the given visitor with each block of the output image, in
+     * scan order.
+     */
+    private interface BlockVisitor {
+        void visit(int componentIndex, int[] block) throws IOException;
+    }
+
+    private void visitOutputBlocks(int outWidth,
+                                   int outHeight,
+                                   Transform transform,
+                                   BlockVisitor visitor) throws IOException {
+        final int[] block = new int[64];
+        if (components.length == 1) {
+            final Component comp = components[0];
+            final int blocksAcross = ceilDiv(outWidth, 8);
+            final int blocksDown = ceilDiv(outHeight, 8);
+            for (int by = 0; by < blocksDown; by++) {
+                for (int bx = 0; bx < blocksAcross; bx++) {
+                    getOutputBlock(comp, transform, bx, by, block);
+                    visitor.visit(0, block);
+                }
+            }
+        } else {
+            final int outMaxH = transform.transpose ? maxV : maxH;
+            final int outMaxV = transform.transpose ? maxH : maxV;
+            final int mcusAcross = ceilDiv(outWidth, 8 * outMaxH);
+            final int mcusDown = ceilDiv(outHeight, 8 * outMaxV);
+            for (int my = 0; my < mcusDown; my++) {
+                for (int mx = 0; mx < mcusAcross; mx++) {
+                    for (int c = 0; c < components.length; c++) {
+                        final Component comp = components[c];
+                        final int h = transform.transpose ? comp.v : comp.h;
+                        final int v = transform.transpose ? comp.h : comp.v;
+                        for (int by = 0; by < v; by++) {
+                            for (int bx = 0; bx < h; bx++) {
+                                getOutputBlock(comp, transform,
+                                        mx * h + bx, my * v + by, block);
+                                visitor.visit(c, block);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeImage(OutputStream os,
+                            int regionWidth,
+                            int regionHeight,
+                            Transform transform) throws IOException {
+        final int outWidth = transform.transpose ? regionHeight : regionWidth;
+        final int outHeight = transform.transpose ? regionWidth : regionHeight;
+
+        // First pass: gather symbol frequencies for the Huffman tables.
+        final long[][] dcFreqs = new long[4][257];
+        final long[][] acFreqs = new long[4][257];
+        final int[] predictors = new int[components.length];
+        visitOutputBlocks(outWidth, outHeight, transform, (c, block) -> {
+            final Component comp = components[c];
+            final int diff = block[0] - predictors[c];
+            predictors[c] = block[0];
+            dcFreqs[comp.dcTable][bitLength(diff)]++;
+            int run = 0;
+            for (int k = 1; k < 64; k++) {
+                final int value = block[NATURAL_ORDER[k]];
+                if (value == 0) {
+                    run++;
+                } else {
+                    while (run > 15) {
+                        acFreqs[comp.acTable][0xf0]++;
+                        run -= 16;
+                    }
+                    acFreqs[comp.acTable][(run << 4) | bitLength(value)]++;
+                    run = 0;
+                }
+            }
+            if (run > 0) {
+                acFreqs[comp.acTable][0]++;
+            }
+        });
+
+        final EncodingTable[] dcEncTables = new EncodingTable[4];
+        final EncodingTable[] acEncTables = new EncodingTable[4];
+        for (Component comp : components) {
+            if (dcEncTables[comp.dcTable] == null) {
+                dcEncTables[comp.dcTable] =
+                        generateOptimalTable(dcFreqs[comp.dcTable]);
+            }
+            if (acEncTables[comp.acTable] == null) {
+                acEncTables[comp.acTable] =
+                        generateOptimalTable(acFreqs[comp.acTable]);
+            }
+        }
+
+        // Headers
+        os.write(0xff);
+        os.write(SOI);
+        if (hasJFIFSegment) {
+            os.write(JFIF_APP0_SEGMENT);
+        }
+        for (byte[] segment : retainedSegments) {
+            os.write(segment);
+        }
+        writeQuantizationTables(os, transform.transpose);
+        writeFrameHeader(os, outWidth, outHeight, transform.transpose);
+        for (int i = 0; i < 4; i++) {
+            if (dcEncTables[i] != null) {
+                writeHuffmanTable(os, 0, i, dcEncTables[i]);
+            }
+            if (acEncTables[i] != null) {
+                writeHuffmanTable(os, 1, i, acEncTables[i]);
+            }
+        }
+        writeScanHeader(os);
+
+        // Second pass: encode.
+        final BitWriter writer = new BitWriter(os);
+        Arrays.fill(predictors, 0);
+        visitOutputBlocks(outWidth, outHeight, transform, (c, block) -> {
+            final Component comp = components[c];
+            final EncodingTable dcTable = dcEncTables[comp.dcTable];
+            final EncodingTable acTable = acEncTables[comp.acTable];
+
+            final int diff = block[0] - predictors[c];
+            predictors[c] = block[0];
+            final int dcSize = bitLength(diff);
+            writer.write(dcTable.codes[dcSize], dcTable.sizes[dcSize]);
+            if (dcSize > 0) {
+                writer.write(diff < 0 ? diff - 1 : diff, dcSize);
+            }
+            int run = 0;
+            for (int k = 1; k < 64; k++) {
+                final int value = block[NATURAL_ORDER[k]];
+                if (value == 0) {
+                    run++;
+                } else {
+                    while (run > 15) {
+                        writer.write(acTable.codes[0xf0], acTable.sizes[0xf0]);
+                        run -= 16;
+                    }
+                    final int size = bitLength(value);
+                    final int symbol = (run << 4) | size;
+                    writer.write(acTable.codes[symbol], acTable.sizes[symbol]);
+                    writer.write(value < 0 ? value - 1 : value, size);
+                    run = 0;
+                }
+            }
+            if (run > 0) {
+                writer.write(acTable.codes[0], acTable.sizes[0]);
+            }
+        });
+        writer.flush();
+
+        os.write(0xff);
+        os.write(EOI);
+    }
+
+    /**
+     * @return Number of bits needed to represent the magnitude of the given
+     *         value.
+     */
+    private static int bitLength(int value) {
+        return 32 - Integer.numberOfLeadingZeros(Math.abs(value));
+    }
+
+    /**
+     * Generates an optimal Huffman table for the given symbol frequencies,
+     * per section K.2 of ITU T.81.
+     *
+     * @param freqs Frequency of each symbol, of length 257. The last element
+     *              is reserved.
+     */
+    private static EncodingTable generateOptimalTable(long[] freqs) {
+        final long[] freq = Arrays.copyOf(freqs, 257);
+        boolean isEmpty = true;
+        for (int i = 0; i < 256; i++) {
+            if (freq[i] > 0) {
+                isEmpty = false;
+                break;
+            }
+        }
+        if (isEmpty) {
+            // Decoders may not accept an empty table.
+            freq[0] = 1;
+        }
+        // Reserve one code point so that no code consists of all 1 bits.
+        freq[256] = 1;
+
+        final int[] codeSize = new int[257];
+        final int[] others = new int[257];
+        Arrays.fill(others, -1);
+
+        while (true) {
+            // Find the two least frequent symbols, preferring the higher
+            // index in the event of a tie.
+            int c1 = -1, c2 = -1;
+            long v = Long.MAX_VALUE;
+            for (int i = 0; i <= 256; i++) {
+                if (freq[i] != 0 && freq[i] <= v) {
+                    v = freq[i];
+                    c1 = i;
+                }
+            }
+            v = Long.MAX_VALUE;
+            for (int i = 0; i <= 256; i++) {
+                if (freq[i] != 0 && freq[i] <= v && i != c1) {
+                    v = freq[i];
+                    c2 = i;
+                }
+            }
+            if (c2 < 0) {
+                break;
+            }
+            freq[c1] += freq[c2];
+            freq[c2] = 0;
+
+            codeSize[c1]++;
+            while (others[c1] >= 0) {
+                c1 = others[c1];
+                codeSize[c1]++;
+            }
+            others[c1] = c2;
+            codeSize[c2]++;
+            while (others[c2] >= 0) {
+                c2 = others[c2];
+                codeSize[c2]++;
+            }
+        }
+
+        final int[] bits = new int[33];
+        for (int i = 0; i <= 256; i++) {
+            if (codeSize[i] > 0) {
+                bits[codeSize[i]]++;
+            }
+        }
+        // Limit code lengths to 16 bits (section K.3).
+        for (int i = 32; i > 16; i--) {
+            while (bits[i] > 0) {
+                int j = i - 2;
+                while (bits[j] == 0) {
+                    j--;
+                }
+                bits[i] -= 2;
+                bits[i - 1]++;
+                bits[j + 1] += 2;
+                bits[j]--;
+            }
+        }
+        // Remove the reserved code point from the longest code length.
+        int i = 16;
+        while (bits[i] == 0) {
+            i--;
+        }
+        bits[i]--;
+
+        final int[] tableBits = Arrays.copyOf(bits, 17);
+        int count = 0;
+        for (int l = 1; l <= 16; l++) {
+            count += tableBits[l];
+        }
+        final int[] values = new int[count];
+        int p = 0;
+        for (int size = 1; size <= 32 && p < count; size++) {
+            for (int symbol = 0; symbol < 256 && p < count; symbol++) {
+                if (codeSize[symbol] == size) {
+                    values[p++] = symbol;
+                }
+            }
+        }
+        return new EncodingTable(tableBits, values);
+    }
+
+    private void writeQuantizationTables(OutputStream os,
+                                         boolean transpose) throws IOException {
+        for (int tq = 0; tq < 4; tq++) {
+            final int[] table = quantTables[tq];
+            if (table == null) {
+                continue;
+            }
+            final int pq = quantTablePrecisions[tq];
+            final int length = 2 + 1 + 64 * (pq + 1);
+            os.write(0xff);
+            os.write(DQT);
+            os.write(length >> 8);
+            os.write(length & 0xff);
+            os.write((pq << 4) | tq);
+            for (int k = 0; k < 64; k++) {
+                int index = NATURAL_ORDER[k];
+                if (transpose) {
+                    index = (index % 8) * 8 + index / 8;
+                }
+                if (pq == 0) {
+                    os.write(table[index]);
+                } else {
+                    os.write(table[index] >> 8);
+                    os.write(table[index] & 0xff);
+                }
+            }
+        }
+    }
+
+    private void writeFrameHeader(OutputStream os,
+                                  int outWidth,
+                                  int outHeight,
+                                  boolean transpose) throws IOException {
+        final int length = 8 + 3 * components.length;
+        os.write(0xff);
+        os.write(frameMarker);
+        os.write(length >> 8);
+        os.write(length & 0xff);
+        os.write(8);
+        os.write(outHeight >> 8);
+        os.write(outHeight & 0xff);
+        os.write(outWidth >> 8);
+        os.write(outWidth & 0xff);
+        os.write(components.length);
+        for (Component comp : components) {
+            final int h = transpose ? comp.v : comp.h;
+            final int v = transpose ? comp.h : comp.v;
+            os.write(comp.id);
+            os.write((h << 4) | v);
+            os.write(comp.tq);
+        }
+    }
+
+    private static void writeHuffmanTable(OutputStream os,
+                                          int tableClass,
+                                          int tableId,
+                                          EncodingTable table) throws IOException {
+        final int length = 2 + 1 + 16 + table.values.length;
+        os.write(0xff);
+        os.write(DHT);
+        os.write(length >> 8);
+        os.write(length & 0xff);
+        os.write((tableClass << 4) | tableId);
+        for (int l = 1; l <= 16; l++) {
+            os.write(table.bits[l]);
+        }
+        for (int value : table.values) {
+            os.write(value);
+        }
+    }
+
+    private void writeScanHeader(OutputStream os) throws IOException {
+        final int length = 6 + 2 * components.length;
+        os.write(0xff);
+        os.write(SOS);
+        os.write(length >> 8);
+        os.write(length & 0xff);
+        os.write(components.length);
+        for (Component comp : components) {
+            os.write(comp.id);
+            os.write((comp.dcTable << 4) | comp.acTable);
+        }
+        os.write(0);
+        os.write(63);
+        os.write(0);
+    }
+
+}
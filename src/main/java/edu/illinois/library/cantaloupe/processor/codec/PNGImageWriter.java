@@ -1,6 +1,7 @@
 package edu.illinois.library.cantaloupe.processor.codec;
 
 import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.NodeList;
@@ -18,8 +19,12 @@ import java.io.OutputStream;
 import java.util.List;
 
 /**
- * PNG image writer using Image I/O, capable of writing both Java 2D
- * {@link BufferedImage}s and JAI {@link PlanarImage}s as PNGs.
+ * <p>PNG image writer using Image I/O, capable of writing both Java 2D
+ * {@link BufferedImage}s and JAI {@link PlanarImage}s as PNGs.</p>
+ *
+ * <p>When {@link Key#PROCESSOR_PNG_PARALLEL_ENCODING} is enabled, images
+ * that {@link ParallelPNGEncoder} supports are written by it instead of by
+ * Image I/O.</p>
  *
  * @see <a href="http://libpng.org/pub/png/spec/1.2/PNG-Contents.html">
  *     PNG Specification, Version 1.2</a>
@@ -30,6 +35,8 @@ final class PNGImageWriter extends AbstractIIOImageWriter
     private static final Logger LOGGER =
             LoggerFactory.getLogger(PNGImageWriter.class);
 
+    private static final int DEFAULT_COMPRESSION_LEVEL = 6;
+
     static final String IMAGEIO_PLUGIN_CONFIG_KEY =
             "processor.imageio.png.writer";
 
@@ -105,6 +112,17 @@ final class PNGImageWriter extends AbstractIIOImageWriter
     @Override
     public void write(RenderedImage image,
                       OutputStream outputStream) throws IOException {
+        final Configuration config = Configuration.getInstance();
+        if (config.getBoolean(Key.PROCESSOR_PNG_PARALLEL_ENCODING, true) &&
+                ParallelPNGEncoder.canEncode(image)) {
+            try {
+                writeInParallel(image, outputStream);
+            } finally {
+                dispose();
+            }
+            return;
+        }
+
         final IIOMetadata metadata = getMetadata(
                 iioWriter.getDefaultWriteParam(), image);
         final IIOImage iioImage = new IIOImage(image, null, metadata);
@@ -114,8 +132,41 @@ final class PNGImageWriter extends AbstractIIOImageWriter
             iioWriter.setOutput(os);
             iioWriter.write(iioImage);
         } finally {
-            iioWriter.dispose();
+            dispose();
+        }
+    }
+
+    private void writeInParallel(RenderedImage image,
+                                 OutputStream outputStream) throws IOException {
+        final Configuration config = Configuration.getInstance();
+        final int level = config.getInt(Key.PROCESSOR_PNG_COMPRESSION_LEVEL,
+                DEFAULT_COMPRESSION_LEVEL);
+        ParallelPNGEncoder.Filter filter;
+        try {
+            filter = ParallelPNGEncoder.Filter.valueOf(config.getString(
+                    Key.PROCESSOR_PNG_FILTER, "adaptive").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Unrecognized value for {}; using adaptive",
+                    Key.PROCESSOR_PNG_FILTER);
+            filter = ParallelPNGEncoder.Filter.ADAPTIVE;
+        }
+
+        final ParallelPNGEncoder encoder = new ParallelPNGEncoder(
+                Math.max(0, Math.min(9, level)), filter);
+        if (sourceMetadata != null) {
+            if (sourceMetadata instanceof PNGMetadata) {
+                for (IIOMetadataNode node :
+                        ((PNGMetadata) sourceMetadata).getNativeMetadata()) {
+                    encoder.addTextEntry(node.getAttribute("keyword"),
+                            node.getAttribute("value"));
+                }
+            }
+            final String xmp = sourceMetadata.getXMP();
+            if (xmp != null) {
+                encoder.setXMP(xmp);
+            }
         }
+        encoder.encode(image, outputStream);
     }
 
 }
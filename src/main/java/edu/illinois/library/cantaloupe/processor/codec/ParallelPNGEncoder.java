@@ -0,0 +1,634 @@
+package edu.illinois.library.cantaloupe.processor.codec;
+
+import edu.illinois.library.cantaloupe.async.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Rectangle;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * <p>PNG encoder that filters and compresses bands of scanlines in parallel,
+ * in the manner of {@literal pigz}.</p>
+ *
+ * <p>The image is divided into chunks of scanlines, each of which is
+ * filtered and deflated by a separate task into a raw deflate stream ending
+ * in a sync flush, and written as its own {@literal IDAT} chunk. Each task
+ * primes its deflater with the last 32 KB of the preceding chunk's filtered
+ * data, which it re-filters itself, so that compression is nearly as good as
+ * it would be with a single stream. The concatenated streams form a valid
+ * zlib stream whose Adler-32 checksum is combined from those of the
+ * chunks.</p>
+ *
+ * <p>Only 8- and 16-bit gray, gray+alpha, sRGB, and sRGB+alpha images with
+ * non-premultiplied alpha are supported; see {@link #canEncode}.</p>
+ *
+ * @see <a href="https://www.w3.org/TR/PNG/">PNG Specification</a>
+ * @see <a href="https://zlib.net/pigz/">pigz</a>
+ * @since 4.1
+ */
+final class ParallelPNGEncoder {
+
+    /**
+     * Scanline filter strategy.
+     */
+    enum Filter {
+
+        NONE(0), SUB(1), UP(2), AVERAGE(3), PAETH(4),
+
+        /**
+         * Chooses, for each scanline, the filter that minimizes the sum of
+         * the absolute values of the filtered bytes.
+         */
+        ADAPTIVE(-1);
+
+        private final int type;
+
+        Filter(int type) {
+            this.type = type;
+        }
+
+    }
+
+    /**
+     * Result of compressing a chunk.
+     */
+    private static final class CompressedChunk {
+
+        /**
+         * Complete {@literal IDAT} chunk.
+         */
+        byte[] idat;
+
+        /**
+         * Adler-32 checksum of the uncompressed (filtered) data.
+         */
+        long adler;
+
+        /**
+         * Length of the uncompressed (filtered) data.
+         */
+        long length;
+
+    }
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(ParallelPNGEncoder.class);
+
+    private static final byte[] SIGNATURE = new byte[] {
+            (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n' };
+
+    /**
+     * Target size of the uncompressed data in each chunk. Smaller chunks
+     * parallelize better but compress slightly worse.
+     */
+    static final int CHUNK_SIZE = 256 * 1024;
+
+    /**
+     * Size of the deflate window, and so of the dictionaries.
+     */
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private static final int PARALLELISM =
+            Runtime.getRuntime().availableProcessors();
+
+    private final int compressionLevel;
+    private final Filter filter;
+    private final List<String[]> textEntries = new ArrayList<>();
+    private String xmp;
+
+    // Image properties, set by encode().
+    private int width, height, numBands, bitDepth, bytesPerPixel, rowBytes;
+
+    /**
+     * @param image Image to encode.
+     * @return      Whether the instance can encode the given image.
+     */
+    static boolean canEncode(RenderedImage image) {
+        final ColorModel cm = image.getColorModel();
+        final SampleModel sm = image.getSampleModel();
+        if (cm == null || cm instanceof IndexColorModel ||
+                cm.isAlphaPremultiplied()) {
+            return false;
+        }
+        final ColorSpace cs = cm.getColorSpace();
+        final int numColorComponents = cm.getNumColorComponents();
+        if (!(numColorComponents == 3 && cs.isCS_sRGB()) &&
+                !(numColorComponents == 1 && cs.getType() == ColorSpace.TYPE_GRAY)) {
+            return false;
+        }
+        final int numBands = sm.getNumBands();
+        if (numBands != numColorComponents + (cm.hasAlpha() ? 1 : 0)) {
+            return false;
+        }
+        final int sampleSize = sm.getSampleSize(0);
+        if (sampleSize != 8 && sampleSize != 16) {
+            return false;
+        }
+        for (int b = 1; b < numBands; b++) {
+            if (sm.getSampleSize(b) != sampleSize) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param compressionLevel Deflate compression level (0-9).
+     * @param filter           Scanline filter strategy.
+     */
+    ParallelPNGEncoder(int compressionLevel, Filter filter) {
+        if (compressionLevel < 0 || compressionLevel > 9) {
+            throw new IllegalArgumentException(
+                    "Compression level must be between 0 and 9");
+        }
+        this.compressionLevel = compressionLevel;
+        this.filter = filter;
+    }
+
+    /**
+     * Adds a {@literal tEXt} chunk to write.
+     */
+    void addTextEntry(String keyword, String value) {
+        textEntries.add(new String[] { keyword, value });
+    }
+
+    /**
+     * Sets XMP to write in an {@literal iTXt} chunk.
+     */
+    void setXMP(String xmp) {
+        this.xmp = xmp;
+    }
+
+    /**
+     * @param image        Image to encode, which must be {@link #canEncode
+     *                     supported}.
+     * @param outputStream Stream to write the PNG to.
+     */
+    void encode(RenderedImage image,
+                OutputStream outputStream) throws IOException {
+        final SampleModel sm = image.getSampleModel();
+        width = image.getWidth();
+        height = image.getHeight();
+        numBands = sm.getNumBands();
+        bitDepth = sm.getSampleSize(0);
+        bytesPerPixel = numBands * bitDepth / 8;
+        rowBytes = width * bytesPerPixel;
+
+        outputStream.write(SIGNATURE);
+        writeHeader(outputStream);
+        writeMetadata(outputStream);
+        writeImageData(image, outputStream);
+        writeChunk(outputStream, "IEND", new byte[0]);
+        outputStream.flush();
+    }
+
+    private void writeHeader(OutputStream os) throws IOException {
+        final int colorType;
+        switch (numBands) {
+            case 1:
+                colorType = 0; // gray
+                break;
+            case 2:
+                colorType = 4; // gray + alpha
+                break;
+            case 3:
+                colorType = 2; // RGB
+                break;
+            default:
+                colorType = 6; // RGBA
+                break;
+        }
+        final byte[] data = new byte[13];
+        putInt(data, 0, width);
+        putInt(data, 4, height);
+        data[8] = (byte) bitDepth;
+        data[9] = (byte) colorType;
+        // Compression method, filter method, and interlace method are all 0.
+        writeChunk(os, "IHDR", data);
+    }
+
+    private void writeMetadata(OutputStream os) throws IOException {
+        for (String[] entry : textEntries) {
+            final ByteArrayOutputStream data = new ByteArrayOutputStream();
+            data.write(entry[0].getBytes(StandardCharsets.ISO_8859_1));
+            data.write(0);
+            data.write(entry[1].getBytes(StandardCharsets.ISO_8859_1));
+            writeChunk(os, "tEXt", data.toByteArray());
+        }
+        if (xmp != null) {
+            final ByteArrayOutputStream data = new ByteArrayOutputStream();
+            data.write("XML:com.adobe.xmp".getBytes(StandardCharsets.ISO_8859_1));
+            // Null separator, compression flag, compression method, empty
+            // language tag, and empty translated keyword.
+            data.write(new byte[] { 0, 0, 0, 0, 0 });
+            data.write(xmp.getBytes(StandardCharsets.UTF_8));
+            writeChunk(os, "iTXt", data.toByteArray());
+        }
+    }
+
+    /**
+     * Writes the image data as a sequence of {@literal IDAT} chunks.
+     */
+    private void writeImageData(RenderedImage image,
+                                OutputStream os) throws IOException {
+        final int rowsPerChunk = Math.max(1, CHUNK_SIZE / (rowBytes + 1));
+        final int numChunks = (height + rowsPerChunk - 1) / rowsPerChunk;
+        // Number of preceding rows needed to fill a dictionary.
+        final int dictionaryRows =
+                (DICTIONARY_SIZE + rowBytes) / (rowBytes + 1);
+
+        // zlib header (RFC 1950)
+        final int cmf = 0x78; // deflate with a 32K window
+        final int flevel = (compressionLevel < 2) ? 0 :
+                (compressionLevel < 6) ? 1 : (compressionLevel == 6) ? 2 : 3;
+        int flg = flevel << 6;
+        flg += 31 - ((cmf << 8) + flg) % 31;
+        writeChunk(os, "IDAT", new byte[] { (byte) cmf, (byte) flg });
+
+        final Deque<Future<?>> futures = new ArrayDeque<>();
+        long adler = 1;
+        byte[] previousRows = new byte[0];
+
+        for (int i = 0; i < numChunks; i++) {
+            final int startRow = i * rowsPerChunk;
+            final int endRow = Math.min(height, startRow + rowsPerChunk);
+            final int contextRows = Math.min(startRow, dictionaryRows + 1);
+
+            // Rows are read sequentially, as RenderedImages in general aren't
+            // thread-safe, and then filtered and compressed in parallel.
+            final byte[] rows = new byte[(contextRows + endRow - startRow) * rowBytes];
+            System.arraycopy(previousRows,
+                    previousRows.length - contextRows * rowBytes,
+                    rows, 0, contextRows * rowBytes);
+            readRows(image, startRow, endRow, rows, contextRows * rowBytes);
+            previousRows = rows;
+
+            final boolean isLast = (i == numChunks - 1);
+            if (numChunks == 1) {
+                final CompressedChunk chunk =
+                        compress(rows, contextRows, startRow, true);
+                os.write(chunk.idat);
+                adler = chunk.adler;
+            } else {
+                futures.add(ThreadPool.getInstance().submit(
+                        () -> compress(rows, contextRows, startRow, isLast)));
+                // Chunks are written in order as they complete, with no more
+                // than PARALLELISM of them in flight.
+                while (futures.size() >= PARALLELISM ||
+                        (isLast && !futures.isEmpty())) {
+                    final CompressedChunk chunk = await(futures.removeFirst());
+                    os.write(chunk.idat);
+                    adler = combineAdler32(adler, chunk.adler, chunk.length);
+                }
+            }
+        }
+        final byte[] trailer = new byte[4];
+        putInt(trailer, 0, (int) adler);
+        writeChunk(os, "IDAT", trailer);
+
+        LOGGER.debug("writeImageData(): wrote {} chunks of {} rows",
+                numChunks, rowsPerChunk);
+    }
+
+    private static CompressedChunk await(Future<?> future) throws IOException {
+        try {
+            return (CompressedChunk) future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Reads rows of samples from the given image, in PNG sample order and
+     * byte order, into the given array.
+     */
+    private void readRows(RenderedImage image, int startRow, int endRow,
+                          byte[] rows, int offset) {
+        final Raster raster;
+        final int minX = image.getMinX(), minY = image.getMinY();
+        if (image instanceof BufferedImage) {
+            raster = ((BufferedImage) image).getRaster();
+        } else {
+            raster = image.getData(new Rectangle(
+                    minX, minY + startRow, width, endRow - startRow));
+        }
+
+        final SampleModel sm = raster.getSampleModel();
+        final DataBuffer db = raster.getDataBuffer();
+        if (bitDepth == 8 && sm instanceof PixelInterleavedSampleModel &&
+                db instanceof DataBufferByte) {
+            // Fast path for the most common case, copying straight from the
+            // backing array.
+            final PixelInterleavedSampleModel csm =
+                    (PixelInterleavedSampleModel) sm;
+            final byte[] data = ((DataBufferByte) db).getData();
+            final int pixelStride = csm.getPixelStride();
+            final int scanlineStride = csm.getScanlineStride();
+            final int[] bandOffsets = csm.getBandOffsets();
+            final int x0 = raster.getMinX() - raster.getSampleModelTranslateX();
+            int pos = offset;
+            for (int y = startRow; y < endRow; y++) {
+                final int y0 = minY + y - raster.getSampleModelTranslateY();
+                int base = db.getOffset() + y0 * scanlineStride +
+                        x0 * pixelStride;
+                for (int x = 0; x < width; x++) {
+                    for (int b = 0; b < numBands; b++) {
+                        rows[pos++] = data[base + bandOffsets[b]];
+                    }
+                    base += pixelStride;
+                }
+            }
+        } else {
+            final int[] samples = new int[width * numBands];
+            int pos = offset;
+            for (int y = startRow; y < endRow; y++) {
+                raster.getPixels(raster.getMinX(), minY + y, width, 1,
+                        samples);
+                if (bitDepth == 8) {
+                    for (int sample : samples) {
+                        rows[pos++] = (byte) sample;
+                    }
+                } else {
+                    for (int sample : samples) {
+                        rows[pos++] = (byte) (sample >> 8);
+                        rows[pos++] = (byte) sample;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Filters and compresses a chunk of rows.
+     *
+     * @param rows        Raw rows, of which the first {@literal contextRows}
+     *                    belong to the preceding chunk.
+     * @param contextRows Number of rows preceding the chunk's rows.
+     * @param startRow    Index of the chunk's first row within the image.
+     * @param isLast      Whether this is the last chunk.
+     */
+    private CompressedChunk compress(byte[] rows, int contextRows,
+                                     int startRow, boolean isLast) {
+        final int numRows = rows.length / rowBytes;
+        final int filteredRowBytes = rowBytes + 1;
+
+        // Filter all rows but the first context row, which only serves as the
+        // previous row of the second (unless it is the first row of the
+        // image).
+        final int firstFilteredRow = (startRow - contextRows == 0) ? 0 : 1;
+        final byte[] filtered =
+                new byte[(numRows - firstFilteredRow) * filteredRowBytes];
+        final byte[] zeroRow = new byte[rowBytes];
+        final byte[][] scratch = new byte[5][filteredRowBytes];
+        int pos = 0;
+        for (int r = firstFilteredRow; r < numRows; r++) {
+            if (r == 0) {
+                filterRow(rows, 0, zeroRow, 0, filtered, pos, scratch);
+            } else {
+                filterRow(rows, r * rowBytes, rows, (r - 1) * rowBytes,
+                        filtered, pos, scratch);
+            }
+            pos += filteredRowBytes;
+        }
+
+        final int dataOffset = (contextRows - firstFilteredRow) * filteredRowBytes;
+        final int dataLength = filtered.length - dataOffset;
+
+        final Deflater deflater = new Deflater(compressionLevel, true);
+        final ByteArrayOutputStream idat = new ByteArrayOutputStream(
+                dataLength / 2 + 64);
+        try {
+            if (filter != Filter.NONE) {
+                deflater.setStrategy(Deflater.FILTERED);
+            }
+            if (dataOffset > 0) {
+                final int dictionaryLength = Math.min(dataOffset, DICTIONARY_SIZE);
+                deflater.setDictionary(filtered,
+                        dataOffset - dictionaryLength, dictionaryLength);
+            }
+            deflater.setInput(filtered, dataOffset, dataLength);
+
+            // Leave room for the chunk length and type.
+            idat.write(new byte[8], 0, 8);
+            final byte[] buffer = new byte[64 * 1024];
+            if (isLast) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    final int n = deflater.deflate(buffer);
+                    idat.write(buffer, 0, n);
+                }
+            } else {
+                // A sync flush ends the stream on a byte boundary without
+                // marking its last block as final, so that the next chunk's
+                // stream can be appended to it. (The first call may only
+                // apply the strategy, consuming no input.)
+                int n;
+                do {
+                    n = deflater.deflate(buffer, 0, buffer.length,
+                            Deflater.SYNC_FLUSH);
+                    idat.write(buffer, 0, n);
+                } while (n == buffer.length || !deflater.needsInput());
+            }
+        } finally {
+            deflater.end();
+        }
+
+        final CompressedChunk chunk = new CompressedChunk();
+        final byte[] bytes = idat.toByteArray();
+        final int length = bytes.length - 8;
+        putInt(bytes, 0, length);
+        bytes[4] = 'I';
+        bytes[5] = 'D';
+        bytes[6] = 'A';
+        bytes[7] = 'T';
+        final CRC32 crc = new CRC32();
+        crc.update(bytes, 4, length + 4);
+        chunk.idat = Arrays.copyOf(bytes, bytes.length + 4);
+        putInt(chunk.idat, bytes.length, (int) crc.getValue());
+
+        final Adler32 adler = new Adler32();
+        adler.update(filtered, dataOffset, dataLength);
+        chunk.adler = adler.getValue();
+        chunk.length = dataLength;
+        return chunk;
+    }
+
+    /**
+     * Writes a filtered row, preceded by its filter type, into the given
+     * array.
+     */
+    private void filterRow(byte[] row, int rowOffset,
+                           byte[] prev, int prevOffset,
+                           byte[] out, int outOffset,
+                           byte[][] scratch) {
+        if (filter != Filter.ADAPTIVE) {
+            applyFilter(filter.type, row, rowOffset, prev, prevOffset,
+                    out, outOffset);
+            return;
+        }
+        long bestSum = Long.MAX_VALUE;
+        int bestType = 0;
+        for (int type = 0; type < 5; type++) {
+            final byte[] candidate = scratch[type];
+            applyFilter(type, row, rowOffset, prev, prevOffset, candidate, 0);
+            long sum = 0;
+            for (int i = 1; i < candidate.length; i++) {
+                sum += Math.abs(candidate[i]);
+            }
+            if (sum < bestSum) {
+                bestSum = sum;
+                bestType = type;
+            }
+        }
+        System.arraycopy(scratch[bestType], 0, out, outOffset,
+                scratch[bestType].length);
+    }
+
+    private void applyFilter(int type,
+                             byte[] row, int rowOffset,
+                             byte[] prev, int prevOffset,
+                             byte[] out, int outOffset) {
+        final int bpp = bytesPerPixel;
+        final int length = rowBytes;
+        final int r = rowOffset, p = prevOffset;
+        out[outOffset++] = (byte) type;
+        // The bytes of the first pixel have no left neighbor, so they are
+        // handled separately to keep the inner loops free of branches.
+        switch (type) {
+            case 0:
+                System.arraycopy(row, r, out, outOffset, length);
+                break;
+            case 1:
+                System.arraycopy(row, r, out, outOffset, bpp);
+                for (int i = bpp; i < length; i++) {
+                    out[outOffset + i] = (byte) (row[r + i] - row[r + i - bpp]);
+                }
+                break;
+            case 2:
+                for (int i = 0; i < length; i++) {
+                    out[outOffset + i] = (byte) (row[r + i] - prev[p + i]);
+                }
+                break;
+            case 3:
+                for (int i = 0; i < bpp; i++) {
+                    out[outOffset + i] =
+                            (byte) (row[r + i] - ((prev[p + i] & 0xff) >> 1));
+                }
+                for (int i = bpp; i < length; i++) {
+                    final int a = row[r + i - bpp] & 0xff;
+                    final int b = prev[p + i] & 0xff;
+                    out[outOffset + i] = (byte) (row[r + i] - ((a + b) >> 1));
+                }
+                break;
+            default:
+                // With no left neighbors, the Paeth predictor is the upper
+                // neighbor.
+                for (int i = 0; i < bpp; i++) {
+                    out[outOffset + i] = (byte) (row[r + i] - prev[p + i]);
+                }
+                for (int i = bpp; i < length; i++) {
+                    final int a = row[r + i - bpp] & 0xff;
+                    final int b = prev[p + i] & 0xff;
+                    final int c = prev[p + i - bpp] & 0xff;
+                    out[outOffset + i] = (byte) (row[r + i] - paeth(a, b, c));
+                }
+                break;
+        }
+    }
+
+    private static int paeth(int a, int b, int c) {
+        final int p = a + b - c;
+        final int pa = Math.abs(p - a);
+        final int pb = Math.abs(p - b);
+        final int pc = Math.abs(p - c);
+        if (pa <= pb && pa <= pc) {
+            return a;
+        } else if (pb <= pc) {
+            return b;
+        }
+        return c;
+    }
+
+    /**
+     * @return Adler-32 checksum of the concatenation of two sequences, given
+     *         their checksums and the length of the second one. (This is
+     *         {@literal adler32_combine()} from zlib.)
+     */
+    static long combineAdler32(long adler1, long adler2, long length2) {
+        final long base = 65521;
+        final long rem = length2 % base;
+        long sum1 = adler1 & 0xffff;
+        long sum2 = (rem * sum1) % base;
+        sum1 += (adler2 & 0xffff) + base - 1;
+        sum2 += ((adler1 >> 16) & 0xffff) + ((adler2 >> 16) & 0xffff) +
+                base - rem;
+        if (sum1 >= base) {
+            sum1 -= base;
+        }
+        if (sum1 >= base) {
+            sum1 -= base;
+        }
+        if (sum2 >= (base << 1)) {
+            sum2 -= (base << 1);
+        }
+        if (sum2 >= base) {
+            sum2 -= base;
+        }
+        return (sum2 << 16) | sum1;
+    }
+
+    private static void writeChunk(OutputStream os,
+                                   String type,
+                                   byte[] data) throws IOException {
+        final byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        final byte[] header = new byte[4];
+        putInt(header, 0, data.length);
+        os.write(header);
+        os.write(typeBytes);
+        os.write(data);
+        final CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        final byte[] trailer = new byte[4];
+        putInt(trailer, 0, (int) crc.getValue());
+        os.write(trailer);
+    }
+
+    private static void putInt(byte[] array, int offset, int value) {
+        array[offset] = (byte) (value >>> 24);
+        array[offset + 1] = (byte) (value >>> 16);
+        array[offset + 2] = (byte) (value >>> 8);
+        array[offset + 3] = (byte) value;
+    }
+
+}
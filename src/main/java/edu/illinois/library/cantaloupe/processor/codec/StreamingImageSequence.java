@@ -0,0 +1,25 @@
+package edu.illinois.library.cantaloupe.processor.codec;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Sequence of images in temporal order that supplies its images one at a
+ * time, so that long sequences, such as the frames of large animated GIFs,
+ * can be read, processed, and written without all of them being in memory at
+ * once. Contrast with {@link BufferedImageSequence}.
+ *
+ * @since 4.1
+ */
+@FunctionalInterface
+public interface StreamingImageSequence {
+
+    /**
+     * @return Next image in the sequence, or {@literal null} if there are no
+     *         more, in which case all subsequent invocations will also return
+     *         {@literal null}.
+     * @throws IOException if there is an error reading the image.
+     */
+    BufferedImage next() throws IOException;
+
+}
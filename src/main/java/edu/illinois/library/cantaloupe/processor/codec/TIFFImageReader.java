@@ -2,6 +2,7 @@ package edu.illinois.library.cantaloupe.processor.codec;
 
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.image.Compression;
+import edu.illinois.library.cantaloupe.image.Dimension;
 import edu.illinois.library.cantaloupe.image.Metadata;
 import edu.illinois.library.cantaloupe.operation.Crop;
 import edu.illinois.library.cantaloupe.image.Format;
@@ -11,6 +12,9 @@ import edu.illinois.library.cantaloupe.operation.Scale;
 import edu.illinois.library.cantaloupe.operation.ReductionFactor;
 import edu.illinois.library.cantaloupe.processor.UnsupportedSourceFormatException;
 import edu.illinois.library.cantaloupe.util.SystemUtils;
+import it.geosolutions.imageio.plugins.tiff.BaselineTIFFTagSet;
+import it.geosolutions.imageio.plugins.tiff.TIFFDirectory;
+import it.geosolutions.imageio.plugins.tiff.TIFFField;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.NodeList;
@@ -18,9 +22,19 @@ import org.w3c.dom.NodeList;
 import javax.imageio.metadata.IIOMetadata;
 import javax.imageio.metadata.IIOMetadataNode;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Set;
 
+/**
+ * <p>Reader for TIFF images, including tiled multi-resolution (pyramidal)
+ * ones.</p>
+ *
+ * <p>The dimensions and tile layout of the images in a file are obtained from
+ * a {@link TIFFStructure}, which, when the source is a file, is shared with
+ * other readers of the same version of the same file.</p>
+ */
 final class TIFFImageReader extends AbstractIIOImageReader
         implements ImageReader {
 
@@ -30,11 +44,40 @@ final class TIFFImageReader extends AbstractIIOImageReader
     static final String IMAGEIO_PLUGIN_CONFIG_KEY =
             "processor.imageio.tif.reader";
 
+    /**
+     * JFIF APP0 segment (version 1.01, no density, no thumbnail), which
+     * tells decoders that three-component data is YCbCr.
+     */
+    private static final byte[] JFIF_APP0_SEGMENT = new byte[] {
+            (byte) 0xff, (byte) 0xe0, 0x00, 0x10,
+            'J', 'F', 'I', 'F', 0x00, 0x01, 0x01,
+            0x00, 0x00, 0x01, 0x00, 0x01, 0x00, 0x00 };
+
+    /**
+     * Adobe APP14 segment with a color transform of 0, which tells decoders
+     * that three-component data is RGB.
+     */
+    private static final byte[] ADOBE_APP14_SEGMENT = new byte[] {
+            (byte) 0xff, (byte) 0xee, 0x00, 0x0e,
+            'A', 'd', 'o', 'b', 'e', 0x00, 0x64,
+            0x00, 0x00, 0x00, 0x00, 0x00 };
+
     static {
         // See: https://github.com/geosolutions-it/imageio-ext/wiki/TIFF-plugin
         System.setProperty("it.geosolutions.codec.tiff.lazy", "true");
     }
 
+    /**
+     * Set by {@link #getStructure()} and cleared by {@link #dispose()}.
+     */
+    private TIFFStructure structure;
+
+    @Override
+    public void dispose() {
+        structure = null;
+        super.dispose();
+    }
+
     @Override
     String[] getApplicationPreferredIIOImplementations() {
         // The GeoSolutions TIFF reader supports BigTIFF among other
@@ -103,17 +146,120 @@ final class TIFFImageReader extends AbstractIIOImageReader
         return new TIFFMetadata(metadata, metadataFormat);
     }
 
+    @Override
+    public int getNumImages() throws IOException {
+        return getStructure().getNumImages();
+    }
+
     @Override
     public int getNumResolutions() throws IOException {
         return getNumImages();
     }
 
+    @Override
+    public Dimension getSize(int imageIndex) throws IOException {
+        return getStructure().getSize(imageIndex);
+    }
+
+    /**
+     * @return Structure of the source image, which is obtained from the
+     *         {@link TIFFStructure#getCache() cache} if possible, and read
+     *         from the source image (and cached) otherwise.
+     */
+    TIFFStructure getStructure() throws IOException {
+        if (structure != null) {
+            return structure;
+        }
+        TIFFStructure.Key key = null;
+        if (source instanceof Path) {
+            key = TIFFStructure.Key.of((Path) source);
+            structure = TIFFStructure.getCache().get(key);
+            if (structure != null) {
+                LOGGER.trace("getStructure(): hit for {}", key);
+                return structure;
+            }
+        }
+
+        final int numImages = super.getNumImages();
+        final Dimension[] sizes = new Dimension[numImages];
+        final Dimension[] tileSizes = new Dimension[numImages];
+        for (int i = 0; i < numImages; i++) {
+            sizes[i] = super.getSize(i);
+            tileSizes[i] = super.getTileSize(i);
+        }
+        structure = new TIFFStructure(sizes, tileSizes);
+
+        if (key != null) {
+            LOGGER.trace("getStructure(): caching {}", key);
+            TIFFStructure.getCache().put(key, structure);
+        }
+        return structure;
+    }
+
+    @Override
+    public Dimension getTileSize(int imageIndex) throws IOException {
+        return getStructure().getTileSize(imageIndex);
+    }
+
     @Override
     String getUserPreferredIIOImplementation() {
         Configuration config = Configuration.getInstance();
         return config.getString(IMAGEIO_PLUGIN_CONFIG_KEY);
     }
 
+    /**
+     * @return Value of the given field, or the given default value if the
+     *         directory doesn't contain it.
+     */
+    private static long getFieldValue(TIFFDirectory dir,
+                                      int tagNumber,
+                                      long defaultValue) {
+        final TIFFField field = dir.getTIFFField(tagNumber);
+        return (field != null) ? field.getAsLong(0) : defaultValue;
+    }
+
+    /**
+     * Joins the given abbreviated JPEG table specification and abbreviated
+     * JPEG image (each of which begins with an SOI marker, as in a TIFF's
+     * {@literal JPEGTables} field and tile data) into a single, standalone
+     * JPEG stream.
+     *
+     * @param tables Table specification. May be {@literal null}.
+     * @param image  Image data.
+     * @param isRGB  Whether the image data is RGB rather than YCbCr or
+     *               grayscale.
+     * @return       JPEG stream.
+     * @throws IOException if either argument is not a JPEG stream.
+     */
+    static byte[] spliceJPEGTables(byte[] tables,
+                                   byte[] image,
+                                   boolean isRGB) throws IOException {
+        if (!isSOI(image) || (tables != null && !isSOI(tables))) {
+            throw new IOException("Missing SOI marker");
+        }
+        final ByteArrayOutputStream os = new ByteArrayOutputStream(
+                image.length + ((tables != null) ? tables.length : 0) + 32);
+        os.write(image, 0, 2);
+        os.write(isRGB ? ADOBE_APP14_SEGMENT : JFIF_APP0_SEGMENT);
+        if (tables != null) {
+            // Omit the tables' SOI and EOI markers.
+            int length = tables.length - 2;
+            if (length >= 2 &&
+                    (tables[tables.length - 2] & 0xff) == 0xff &&
+                    (tables[tables.length - 1] & 0xff) == 0xd9) {
+                length -= 2;
+            }
+            os.write(tables, 2, length);
+        }
+        os.write(image, 2, image.length - 2);
+        return os.toByteArray();
+    }
+
+    private static boolean isSOI(byte[] data) {
+        return data.length >= 2 &&
+                (data[0] & 0xff) == 0xff && (data[1] & 0xff) == 0xd8;
+    }
+
     /**
      * <p>Override that is both multi-resolution- and tile-aware.</p>
      *
@@ -162,4 +308,96 @@ final class TIFFImageReader extends AbstractIIOImageReader
         return image;
     }
 
+    /**
+     * <p>Override that supports tiled images with a {@literal Compression} of
+     * {@literal 7} (JPEG) and chunky 8-bit grayscale, RGB, or YCbCr samples.
+     * The tile data is read from the file, spliced with the contents of the
+     * {@literal JPEGTables} field, and returned without being decoded.</p>
+     *
+     * <p>This is only supported by the GeoSolutions ImageIO plugin.</p>
+     */
+    @Override
+    public byte[] readTileAsJPEG(int imageIndex,
+                                 int tileX,
+                                 int tileY) throws IOException {
+        if (!(iioReader instanceof it.geosolutions.imageioimpl.plugins.tiff.TIFFImageReader)) {
+            return null;
+        }
+        final TIFFDirectory dir = TIFFDirectory.createFromMetadata(
+                iioReader.getImageMetadata(imageIndex));
+
+        final long compression = getFieldValue(dir,
+                BaselineTIFFTagSet.TAG_COMPRESSION, 1);
+        final long photometric = getFieldValue(dir,
+                BaselineTIFFTagSet.TAG_PHOTOMETRIC_INTERPRETATION, -1);
+        final long samplesPerPixel = getFieldValue(dir,
+                BaselineTIFFTagSet.TAG_SAMPLES_PER_PIXEL, 1);
+        final long bitsPerSample = getFieldValue(dir,
+                BaselineTIFFTagSet.TAG_BITS_PER_SAMPLE, 1);
+        final long planarConfig = getFieldValue(dir,
+                BaselineTIFFTagSet.TAG_PLANAR_CONFIGURATION,
+                BaselineTIFFTagSet.PLANAR_CONFIGURATION_CHUNKY);
+        final long tileWidth = getFieldValue(dir,
+                BaselineTIFFTagSet.TAG_TILE_WIDTH, 0);
+        final long tileHeight = getFieldValue(dir,
+                BaselineTIFFTagSet.TAG_TILE_LENGTH, 0);
+        final TIFFField offsetsField =
+                dir.getTIFFField(BaselineTIFFTagSet.TAG_TILE_OFFSETS);
+        final TIFFField byteCountsField =
+                dir.getTIFFField(BaselineTIFFTagSet.TAG_TILE_BYTE_COUNTS);
+
+        final boolean isGray = (samplesPerPixel == 1 && photometric ==
+                BaselineTIFFTagSet.PHOTOMETRIC_INTERPRETATION_BLACK_IS_ZERO);
+        final boolean isColor = (samplesPerPixel == 3 && (photometric ==
+                BaselineTIFFTagSet.PHOTOMETRIC_INTERPRETATION_RGB ||
+                photometric == BaselineTIFFTagSet.PHOTOMETRIC_INTERPRETATION_Y_CB_CR));
+        if (compression != BaselineTIFFTagSet.COMPRESSION_JPEG ||
+                (!isGray && !isColor) ||
+                bitsPerSample != 8 ||
+                planarConfig != BaselineTIFFTagSet.PLANAR_CONFIGURATION_CHUNKY ||
+                tileWidth <= 0 || tileHeight <= 0 ||
+                offsetsField == null || byteCountsField == null) {
+            return null;
+        }
+
+        final Dimension size = getSize(imageIndex);
+        if (tileX < 0 || tileY < 0 ||
+                (tileX + 1) * tileWidth > size.intWidth() ||
+                (tileY + 1) * tileHeight > size.intHeight()) {
+            return null;
+        }
+        final int tilesAcross =
+                (int) ((size.intWidth() + tileWidth - 1) / tileWidth);
+        final int tileIndex = tileY * tilesAcross + tileX;
+        if (tileIndex >= offsetsField.getCount() ||
+                tileIndex >= byteCountsField.getCount()) {
+            return null;
+        }
+        final long offset = offsetsField.getAsLong(tileIndex);
+        final long byteCount = byteCountsField.getAsLong(tileIndex);
+        if (byteCount <= 0 || byteCount > Integer.MAX_VALUE) {
+            return null;
+        }
+
+        final byte[] data = new byte[(int) byteCount];
+        final long initialPosition = inputStream.getStreamPosition();
+        try {
+            inputStream.seek(offset);
+            inputStream.readFully(data);
+        } finally {
+            inputStream.seek(initialPosition);
+        }
+
+        final TIFFField tablesField =
+                dir.getTIFFField(BaselineTIFFTagSet.TAG_JPEG_TABLES);
+        final byte[] tables = (tablesField != null) ?
+                tablesField.getAsBytes() : null;
+        final boolean isRGB = (photometric ==
+                BaselineTIFFTagSet.PHOTOMETRIC_INTERPRETATION_RGB);
+
+        LOGGER.debug("readTileAsJPEG(): read tile {},{} of image {} " +
+                        "({} bytes)", tileX, tileY, imageIndex, byteCount);
+        return spliceJPEGTables(tables, data, isRGB);
+    }
+
 }
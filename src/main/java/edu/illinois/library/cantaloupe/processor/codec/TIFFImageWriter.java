@@ -23,6 +23,8 @@ import java.awt.image.RenderedImage;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * TIFF image writer using ImageIO, capable of taking both Java 2D
@@ -41,6 +43,12 @@ final class TIFFImageWriter extends AbstractIIOImageWriter
     static final String IMAGEIO_PLUGIN_CONFIG_KEY =
             "processor.imageio.tif.writer";
 
+    /**
+     * Width and height of the tiles in images written by {@link
+     * #write(BufferedImageSequence, OutputStream)}.
+     */
+    static final int PYRAMID_TILE_SIZE = 512;
+
     /**
      * No-op.
      *
@@ -193,6 +201,55 @@ final class TIFFImageWriter extends AbstractIIOImageWriter
         return writeParam;
     }
 
+    /**
+     * Writes the given sequence as a multi-image TIFF in which every image is
+     * tiled. If each image is half the size of the one before it, the result
+     * is a pyramidal TIFF.
+     *
+     * @param sequence     Images to write.
+     * @param outputStream Stream to write the images to.
+     */
+    @Override
+    public void write(BufferedImageSequence sequence,
+                      OutputStream outputStream) throws IOException {
+        final List<BufferedImage> images = new ArrayList<>(sequence.length());
+        sequence.forEach(images::add);
+        writeTiled(images, PYRAMID_TILE_SIZE, outputStream);
+    }
+
+    /**
+     * Writes the given images as a multi-image TIFF in which every image is
+     * tiled. If each image is half the size of the one before it, the result
+     * is a pyramidal TIFF.
+     *
+     * @param images       Images to write.
+     * @param tileSize     Width and height of the tiles.
+     * @param outputStream Stream to write the images to.
+     */
+    @Override
+    public void writeTiled(List<? extends RenderedImage> images,
+                           int tileSize,
+                           OutputStream outputStream) throws IOException {
+        final ImageWriteParam writeParam = getWriteParam();
+        writeParam.setTilingMode(ImageWriteParam.MODE_EXPLICIT);
+        writeParam.setTiling(tileSize, tileSize, 0, 0);
+
+        try (ImageOutputStream os =
+                     ImageIO.createImageOutputStream(outputStream)) {
+            iioWriter.setOutput(os);
+            iioWriter.prepareWriteSequence(null);
+            for (RenderedImage image : images) {
+                final IIOMetadata metadata = getMetadata(writeParam, image);
+                iioWriter.writeToSequence(
+                        new IIOImage(image, null, metadata), writeParam);
+            }
+            iioWriter.endWriteSequence();
+            os.flush();
+        } finally {
+            dispose();
+        }
+    }
+
     /**
      * Writes the given image to the given output stream.
      *
@@ -212,7 +269,7 @@ final class TIFFImageWriter extends AbstractIIOImageWriter
             iioWriter.write(metadata, iioImage, writeParam);
             os.flush(); // http://stackoverflow.com/a/14489406
         } finally {
-            iioWriter.dispose();
+            dispose();
         }
     }
 
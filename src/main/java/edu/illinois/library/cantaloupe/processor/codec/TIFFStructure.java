@@ -0,0 +1,131 @@
+package edu.illinois.library.cantaloupe.processor.codec;
+
+import edu.illinois.library.cantaloupe.image.Dimension;
+import edu.illinois.library.cantaloupe.util.ObjectCache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>Dimensions and tile layout of each of the images (e.g. the resolution
+ * levels of a pyramid) in a TIFF file.</p>
+ *
+ * <p>Obtaining these from a new ImageIO reader requires it to walk and parse
+ * the whole IFD chain, which for large pyramidal TIFFs can cost as much as
+ * decoding a tile. Instances are therefore cached in a bounded heap cache,
+ * keyed by the file's path and version (last-modified time and size), so
+ * that readers of the same file can skip straight to the image they
+ * need.</p>
+ *
+ * @since 4.1
+ */
+final class TIFFStructure {
+
+    /**
+     * Identifies a particular version of a file.
+     */
+    static final class Key {
+
+        private final Path file;
+        private final long lastModified;
+        private final long size;
+
+        /**
+         * @param file File to get a key for.
+         * @return     Key corresponding to the current version of the file.
+         */
+        static Key of(Path file) throws IOException {
+            return new Key(file,
+                    Files.getLastModifiedTime(file).toMillis(),
+                    Files.size(file));
+        }
+
+        private Key(Path file, long lastModified, long size) {
+            this.file = file;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            } else if (obj instanceof Key) {
+                Key other = (Key) obj;
+                return file.equals(other.file) &&
+                        lastModified == other.lastModified &&
+                        size == other.size;
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(file, lastModified, size);
+        }
+
+        @Override
+        public String toString() {
+            return file + " (" + size + " bytes; last modified " +
+                    lastModified + ")";
+        }
+
+    }
+
+    /**
+     * Instances are small (a few dozen bytes per image) so this can afford
+     * to be fairly generous.
+     */
+    private static final int MAX_CACHED_STRUCTURES = 2000;
+
+    private static final ObjectCache<Key, TIFFStructure> CACHE =
+            new ObjectCache<>(MAX_CACHED_STRUCTURES);
+
+    private final Dimension[] sizes;
+    private final Dimension[] tileSizes;
+
+    /**
+     * @return Shared cache of instances.
+     */
+    static ObjectCache<Key, TIFFStructure> getCache() {
+        return CACHE;
+    }
+
+    /**
+     * @param sizes     Size of each image in the file.
+     * @param tileSizes Tile size of each image in the file, as returned by
+     *                  {@link ImageReader#getTileSize(int)}.
+     */
+    TIFFStructure(Dimension[] sizes, Dimension[] tileSizes) {
+        if (sizes.length != tileSizes.length) {
+            throw new IllegalArgumentException(
+                    "Arguments must be of equal length");
+        }
+        this.sizes = Arrays.copyOf(sizes, sizes.length);
+        this.tileSizes = Arrays.copyOf(tileSizes, tileSizes.length);
+    }
+
+    int getNumImages() {
+        return sizes.length;
+    }
+
+    /**
+     * @return New instance, which may be modified.
+     * @throws IndexOutOfBoundsException if the index is out of bounds.
+     */
+    Dimension getSize(int imageIndex) {
+        return new Dimension(sizes[imageIndex]);
+    }
+
+    /**
+     * @return New instance, which may be modified.
+     * @throws IndexOutOfBoundsException if the index is out of bounds.
+     */
+    Dimension getTileSize(int imageIndex) {
+        return new Dimension(tileSizes[imageIndex]);
+    }
+
+}
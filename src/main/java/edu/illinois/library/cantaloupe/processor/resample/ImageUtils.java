@@ -6,6 +6,8 @@
  */
 package edu.illinois.library.cantaloupe.processor.resample;
 
+import edu.illinois.library.cantaloupe.processor.BufferPool;
+
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.Raster;
@@ -211,7 +213,7 @@ class ImageUtils {
     }
 
     static BufferedImage convert(BufferedImage src, int bufImgType) {
-        BufferedImage img = new BufferedImage(src.getWidth(), src.getHeight(), bufImgType);
+        BufferedImage img = BufferPool.newImage(src.getWidth(), src.getHeight(), bufImgType);
         Graphics2D g2d = img.createGraphics();
         g2d.drawImage(src, 0, 0, null);
         g2d.dispose();
@@ -7,6 +7,7 @@
 package edu.illinois.library.cantaloupe.processor.resample;
 
 import edu.illinois.library.cantaloupe.async.ThreadPool;
+import edu.illinois.library.cantaloupe.processor.BufferPool;
 
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBuffer;
@@ -20,27 +21,27 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class ResampleOp extends AdvancedResizeOp {
 
-    private static class SubSamplingData {
+    static class SubSamplingData {
 
         /**
          * Individual - per row or per column - number of contributions.
          */
-        private final int[] arrN;
+        final int[] arrN;
 
         /**
          * 2D: [width or height][contrib]
          */
-        private final int[] arrPixel;
+        final int[] arrPixel;
 
         /**
          * 2D: [width or height][contrib]
          */
-        private final float[] arrWeight;
+        final float[] arrWeight;
 
         /**
          * Primary index length for the arrPixel and arrWeight arrays.
          */
-        private final int numContributors;
+        final int numContributors;
 
         private SubSamplingData(int[] arrN, int[] arrPixel, float[] arrWeight,
                                 int numContributors) {
@@ -71,9 +72,9 @@ public class ResampleOp extends AdvancedResizeOp {
      */
     private ResampleFilter filter = ResampleFilters.getLanczos3Filter();
 
-    private static SubSamplingData createSubSampling(ResampleFilter filter,
-                                                     int srcSize,
-                                                     int dstSize) {
+    static SubSamplingData createSubSampling(ResampleFilter filter,
+                                             int srcSize,
+                                             int dstSize) {
         float scale = (float) dstSize / (float) srcSize;
         int[] arrN = new int[dstSize];
         int numContributors;
@@ -226,52 +227,93 @@ public class ResampleOp extends AdvancedResizeOp {
         this.srcWidth = srcImage.getWidth();
         this.srcHeight = srcImage.getHeight();
 
-        byte[][] workPixels = new byte[srcHeight][dstWidth * numChannels];
+        final long outLength = (long) dstWidth * dstHeight * numChannels;
+        if (outLength > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Error doing rescale. " +
+                    "Target size " + dstWidth + "x" + dstHeight +
+                    " is too large.");
+        }
 
-        // Pre-calculate sub-sampling
-        horizontalSubsamplingData = createSubSampling(filter, srcWidth, dstWidth);
-        verticalSubsamplingData = createSubSampling(filter, srcHeight, dstHeight);
+        // The work rows and the output buffer are borrowed from the pool
+        // rather than allocated, as for large images they add up to enough
+        // garbage to be expensive to collect. They are returned only once
+        // all of the workers have finished with them.
+        final BufferPool pool = BufferPool.getInstance();
+        final byte[][] workPixels = new byte[srcHeight][];
+        byte[] outPixels = null;
+        boolean isWorkDone = false;
+        try {
+            for (int y = 0; y < srcHeight; y++) {
+                workPixels[y] = pool.borrowBytes(dstWidth * numChannels);
+            }
 
-        final ThreadPool threadPool = ThreadPool.getInstance();
-        final CountDownLatch inputLatch = new CountDownLatch(THREAD_COUNT - 1);
-        final BufferedImage scrImgCopy = srcImage;
-        final byte[][] workPixelsCopy = workPixels;
+            // Pre-calculate sub-sampling
+            horizontalSubsamplingData = createSubSampling(filter, srcWidth, dstWidth);
+            verticalSubsamplingData = createSubSampling(filter, srcHeight, dstHeight);
+
+            final ThreadPool threadPool = ThreadPool.getInstance();
+            final CountDownLatch inputLatch = new CountDownLatch(THREAD_COUNT - 1);
+            final BufferedImage scrImgCopy = srcImage;
+
+            for (int i = 1; i < THREAD_COUNT; i++) {
+                final int finalI = i;
+                threadPool.submit(() -> {
+                    try {
+                        horizontalFromSrcToWork(scrImgCopy, workPixels, finalI,
+                                THREAD_COUNT);
+                    } finally {
+                        inputLatch.countDown();
+                    }
+                });
+            }
+            try {
+                horizontalFromSrcToWork(scrImgCopy, workPixels, 0, THREAD_COUNT);
+            } finally {
+                waitOnLatch(inputLatch);
+            }
 
-        for (int i = 1; i < THREAD_COUNT; i++) {
-            final int finalI = i;
-            threadPool.submit(() -> {
-                horizontalFromSrcToWork(scrImgCopy, workPixelsCopy, finalI,
-                        THREAD_COUNT);
-                inputLatch.countDown();
-            });
-        }
-        horizontalFromSrcToWork(scrImgCopy, workPixelsCopy, 0, THREAD_COUNT);
-        waitOnLatch(inputLatch);
-
-        final CountDownLatch outputLatch = new CountDownLatch(THREAD_COUNT - 1);
-        byte[] outPixels = new byte[dstWidth * dstHeight * numChannels];
-
-        // Apply filter to sample vertically from Work to Dst.
-        final byte[] outPixelsCopy = outPixels;
-        for (int i = 1; i < THREAD_COUNT; i++) {
-            final int finalI = i;
-            threadPool.submit(() -> {
-                verticalFromWorkToDst(workPixelsCopy, outPixelsCopy, finalI,
-                        THREAD_COUNT);
-                outputLatch.countDown();
-            });
+            final CountDownLatch outputLatch = new CountDownLatch(THREAD_COUNT - 1);
+            outPixels = pool.borrowBytes((int) outLength);
+
+            // Apply filter to sample vertically from Work to Dst.
+            final byte[] outPixelsCopy = outPixels;
+            for (int i = 1; i < THREAD_COUNT; i++) {
+                final int finalI = i;
+                threadPool.submit(() -> {
+                    try {
+                        verticalFromWorkToDst(workPixels, outPixelsCopy, finalI,
+                                THREAD_COUNT);
+                    } finally {
+                        outputLatch.countDown();
+                    }
+                });
+            }
+            try {
+                verticalFromWorkToDst(workPixels, outPixelsCopy, 0, THREAD_COUNT);
+            } finally {
+                waitOnLatch(outputLatch);
+            }
+            isWorkDone = true;
+        } finally {
+            // If waiting on a latch was interrupted, workers may still be
+            // using the buffers, so they are left to the garbage collector.
+            if (isWorkDone || !Thread.currentThread().isInterrupted()) {
+                for (byte[] row : workPixels) {
+                    pool.release(row);
+                }
+                if (!isWorkDone) {
+                    pool.release(outPixels);
+                }
+            }
         }
-        verticalFromWorkToDst(workPixelsCopy, outPixelsCopy, 0, THREAD_COUNT);
-        waitOnLatch(outputLatch);
 
-        //noinspection UnusedAssignment
-        workPixels = null; // free memory
         BufferedImage out;
         if (destImage != null && dstWidth == destImage.getWidth() &&
                 dstHeight == destImage.getHeight()) {
             out = destImage;
             int nrDestChannels = ImageUtils.numberOfChannels(destImage);
             if (nrDestChannels != numChannels) {
+                pool.release(outPixels);
                 String errorMgs = String.format("Destination image must be " +
                                 "compatible width source image. Source image had %d " +
                                 "channels destination image had %d channels",
@@ -279,11 +321,12 @@ public class ResampleOp extends AdvancedResizeOp {
                 throw new RuntimeException(errorMgs);
             }
         } else {
-            out = new BufferedImage(dstWidth, dstHeight,
+            out = BufferPool.newImage(dstWidth, dstHeight,
                     getResultBufferedImageType(srcImage));
         }
 
         ImageUtils.setBGRPixels(outPixels, out, 0, 0, dstWidth, dstHeight);
+        pool.release(outPixels);
 
         assert multipleInvocationLock.decrementAndGet() == 0 :
                 "Multiple concurrent invocations detected";
@@ -450,7 +493,7 @@ public class ResampleOp extends AdvancedResizeOp {
         }
     }
 
-    private byte toByte(float f) {
+    static byte toByte(float f) {
         if (f < 0) {
             return 0;
         }
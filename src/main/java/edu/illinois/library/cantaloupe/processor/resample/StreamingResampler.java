@@ -0,0 +1,275 @@
+package edu.illinois.library.cantaloupe.processor.resample;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * <p>Variant of {@link ResampleOp} that resamples an image a band of rows at
+ * a time, for images that are too large to hold in memory all at once. Given
+ * the same filter, it produces the same output as {@link ResampleOp}.</p>
+ *
+ * <p>Source rows are resampled horizontally as they are {@link
+ * #addRows(BufferedImage, int) added} and retained in a rolling window, from
+ * which output rows are {@link #resampleRows(int, int) resampled
+ * vertically}. The window only has to hold the rows that the filter needs in
+ * order to produce the output rows currently being requested, so memory use
+ * is proportional to the width of the image and not to its height.</p>
+ *
+ * <p>Output rows should be requested in top-to-bottom order; otherwise,
+ * source rows that have already been discarded will have to be added
+ * again.</p>
+ *
+ * <p>Instances are not thread-safe.</p>
+ *
+ * @since 4.1
+ */
+public final class StreamingResampler {
+
+    private final int srcWidth, srcHeight;
+    private final int dstWidth, dstHeight;
+
+    private final ResampleOp.SubSamplingData horizontalSubsamplingData;
+    private final ResampleOp.SubSamplingData verticalSubsamplingData;
+
+    /**
+     * Set by the first invocation of {@link #addRows}.
+     */
+    private int numChannels;
+
+    /**
+     * Horizontally resampled rows. Row {@link #windowStart} is at offset 0.
+     */
+    private byte[] window = new byte[0];
+
+    /**
+     * Index of the first source row in the window.
+     */
+    private int windowStart;
+
+    /**
+     * Index of the source row after the last one in the window.
+     */
+    private int windowEnd;
+
+    /**
+     * @param srcWidth  Width of the source image.
+     * @param srcHeight Height of the source image.
+     * @param dstWidth  Width of the resampled image.
+     * @param dstHeight Height of the resampled image.
+     * @param filter    Filter to resample with.
+     */
+    public StreamingResampler(int srcWidth, int srcHeight,
+                              int dstWidth, int dstHeight,
+                              ResampleFilter filter) {
+        if (dstWidth < 3 || dstHeight < 3) {
+            throw new IllegalArgumentException("Target size was " +
+                    dstWidth + "x" + dstHeight + " but must be at least 3x3.");
+        }
+        this.srcWidth = srcWidth;
+        this.srcHeight = srcHeight;
+        this.dstWidth = dstWidth;
+        this.dstHeight = dstHeight;
+        this.horizontalSubsamplingData =
+                ResampleOp.createSubSampling(filter, srcWidth, dstWidth);
+        this.verticalSubsamplingData =
+                ResampleOp.createSubSampling(filter, srcHeight, dstHeight);
+    }
+
+    /**
+     * @param dstStartRow First output row.
+     * @param dstEndRow   Output row after the last one.
+     * @return            Index of the first source row needed to produce the
+     *                    given range of output rows.
+     */
+    public int getStartSourceRow(int dstStartRow, int dstEndRow) {
+        int min = srcHeight - 1;
+        for (int y = dstStartRow; y < dstEndRow; y++) {
+            final int offset = y * verticalSubsamplingData.numContributors;
+            for (int k = 0; k < verticalSubsamplingData.arrN[y]; k++) {
+                if (verticalSubsamplingData.arrWeight[offset + k] != 0f) {
+                    min = Math.min(min,
+                            verticalSubsamplingData.arrPixel[offset + k]);
+                }
+            }
+        }
+        return min;
+    }
+
+    /**
+     * @param dstStartRow First output row.
+     * @param dstEndRow   Output row after the last one.
+     * @return            Index of the source row after the last one needed to
+     *                    produce the given range of output rows.
+     */
+    public int getEndSourceRow(int dstStartRow, int dstEndRow) {
+        int max = 0;
+        for (int y = dstStartRow; y < dstEndRow; y++) {
+            final int offset = y * verticalSubsamplingData.numContributors;
+            for (int k = 0; k < verticalSubsamplingData.arrN[y]; k++) {
+                if (verticalSubsamplingData.arrWeight[offset + k] != 0f) {
+                    max = Math.max(max,
+                            verticalSubsamplingData.arrPixel[offset + k]);
+                }
+            }
+        }
+        return max + 1;
+    }
+
+    /**
+     * @return Index of the first source row in the window.
+     */
+    public int getWindowStart() {
+        return windowStart;
+    }
+
+    /**
+     * @return Index of the source row after the last one that has been
+     *         added.
+     */
+    public int getWindowEnd() {
+        return windowEnd;
+    }
+
+    /**
+     * Discards all source rows preceding the given one from the window.
+     *
+     * @param srcRow Index of the first source row to retain.
+     */
+    public void discardRowsBefore(int srcRow) {
+        if (srcRow <= windowStart) {
+            return;
+        }
+        final int stride = dstWidth * numChannels;
+        if (srcRow >= windowEnd) {
+            windowStart = windowEnd = srcRow;
+            return;
+        }
+        final int numDiscarded = srcRow - windowStart;
+        System.arraycopy(window, numDiscarded * stride, window, 0,
+                (windowEnd - srcRow) * stride);
+        windowStart = srcRow;
+    }
+
+    /**
+     * Resamples the given band of source rows horizontally and appends them
+     * to the window.
+     *
+     * @param band        Band of rows from the source image, of the full
+     *                    source width.
+     * @param startSrcRow Index of the first row of the band within the source
+     *                    image. If this is not equal to {@link
+     *                    #getWindowEnd()}, the window is emptied first.
+     */
+    public void addRows(BufferedImage band, int startSrcRow) {
+        if (band.getType() == BufferedImage.TYPE_BYTE_BINARY ||
+                band.getType() == BufferedImage.TYPE_BYTE_INDEXED ||
+                band.getType() == BufferedImage.TYPE_CUSTOM) {
+            band = ImageUtils.convert(band, band.getColorModel().hasAlpha() ?
+                    BufferedImage.TYPE_4BYTE_ABGR : BufferedImage.TYPE_3BYTE_BGR);
+        }
+        if (numChannels == 0) {
+            numChannels = ImageUtils.numberOfChannels(band);
+        }
+        if (startSrcRow != windowEnd) {
+            windowStart = windowEnd = startSrcRow;
+        }
+
+        final int numRows = band.getHeight();
+        final int stride = dstWidth * numChannels;
+        final int required = (windowEnd - windowStart + numRows) * stride;
+        if (window.length < required) {
+            final byte[] newWindow = new byte[required];
+            System.arraycopy(window, 0, newWindow, 0,
+                    (windowEnd - windowStart) * stride);
+            window = newWindow;
+        }
+
+        final int[] tempPixels = new int[srcWidth];
+        final byte[] srcPixels = new byte[srcWidth * numChannels];
+        for (int k = 0; k < numRows; k++) {
+            ImageUtils.readPixelsBGR(band, k, srcWidth, srcPixels, tempPixels);
+            final int rowOffset = (windowEnd - windowStart) * stride;
+
+            for (int i = 0; i < dstWidth; i++) {
+                final int max = horizontalSubsamplingData.arrN[i];
+                int index = i * horizontalSubsamplingData.numContributors;
+                for (int c = 0; c < numChannels; c++) {
+                    float sample = 0f;
+                    int idx = index;
+                    for (int j = 0; j < max; j++) {
+                        final int pixelIndex =
+                                horizontalSubsamplingData.arrPixel[idx] * numChannels;
+                        sample += (srcPixels[pixelIndex + c] & 0xff) *
+                                horizontalSubsamplingData.arrWeight[idx];
+                        idx++;
+                    }
+                    window[rowOffset + i * numChannels + c] =
+                            ResampleOp.toByte(sample);
+                }
+            }
+            windowEnd++;
+        }
+    }
+
+    /**
+     * Resamples the given range of output rows vertically from the window,
+     * which must contain all of the rows reported by {@link
+     * #getStartSourceRow(int, int)} and {@link #getEndSourceRow(int, int)}.
+     *
+     * @param dstStartRow First output row.
+     * @param dstEndRow   Output row after the last one.
+     * @return            New image containing the given rows.
+     * @throws IllegalStateException if the window does not contain all of the
+     *         needed source rows.
+     */
+    public BufferedImage resampleRows(int dstStartRow, int dstEndRow) {
+        if (getStartSourceRow(dstStartRow, dstEndRow) < windowStart ||
+                getEndSourceRow(dstStartRow, dstEndRow) > windowEnd) {
+            throw new IllegalStateException("The window (rows " +
+                    windowStart + "-" + windowEnd + ") does not contain " +
+                    "all of the source rows needed for output rows " +
+                    dstStartRow + "-" + dstEndRow);
+        }
+        final int numRows = dstEndRow - dstStartRow;
+        final int stride = dstWidth * numChannels;
+        final byte[] outPixels = new byte[numRows * stride];
+
+        for (int y = dstStartRow; y < dstEndRow; y++) {
+            final int offset = y * verticalSubsamplingData.numContributors;
+            final int max = verticalSubsamplingData.arrN[y];
+            final int outOffset = (y - dstStartRow) * stride;
+
+            for (int x = 0; x < stride; x++) {
+                float sample = 0f;
+                for (int j = 0; j < max; j++) {
+                    final float weight =
+                            verticalSubsamplingData.arrWeight[offset + j];
+                    if (weight == 0f) {
+                        continue;
+                    }
+                    final int srcRow =
+                            verticalSubsamplingData.arrPixel[offset + j];
+                    sample += (window[(srcRow - windowStart) * stride + x] & 0xff) *
+                            weight;
+                }
+                outPixels[outOffset + x] = ResampleOp.toByte(sample);
+            }
+        }
+
+        final BufferedImage out = new BufferedImage(dstWidth, numRows,
+                getResultBufferedImageType());
+        ImageUtils.setBGRPixels(outPixels, out, 0, 0, dstWidth, numRows);
+        return out;
+    }
+
+    private int getResultBufferedImageType() {
+        switch (numChannels) {
+            case 3:
+                return BufferedImage.TYPE_3BYTE_BGR;
+            case 4:
+                return BufferedImage.TYPE_4BYTE_ABGR;
+            default:
+                return BufferedImage.TYPE_BYTE_GRAY;
+        }
+    }
+
+}
@@ -16,6 +16,8 @@ import edu.illinois.library.cantaloupe.image.ScaleConstraint;
 import edu.illinois.library.cantaloupe.script.DelegateProxy;
 import edu.illinois.library.cantaloupe.script.DelegateProxyService;
 import edu.illinois.library.cantaloupe.script.DisabledException;
+import edu.illinois.library.cantaloupe.source.Source;
+import edu.illinois.library.cantaloupe.status.Metrics;
 import edu.illinois.library.cantaloupe.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -235,7 +237,10 @@ public abstract class AbstractResource {
     protected final boolean authorize() throws IOException, ResourceException {
         final Authorizer authorizer =
                 new AuthorizerFactory().newAuthorizer(getDelegateProxy());
+        final long start = System.nanoTime();
         final AuthInfo info = authorizer.authorize();
+        Metrics.getInstance().recordSince(
+                Metrics.Stage.AUTHORIZATION, null, start);
 
         if (info != null) {
             final int code = info.getResponseStatus();
@@ -270,6 +275,40 @@ public abstract class AbstractResource {
         return true;
     }
 
+    /**
+     * Invokes {@link Source#checkAccess()}, recording how long it takes in
+     * {@link Metrics}.
+     *
+     * @since 4.1
+     */
+    protected final void checkAccess(Source source) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            source.checkAccess();
+        } finally {
+            Metrics.getInstance().recordSince(
+                    Metrics.Stage.SOURCE_CHECK_ACCESS,
+                    source.getClass().getSimpleName(), start);
+        }
+    }
+
+    /**
+     * Invokes {@link Source#getFormat()}, recording how long it takes in
+     * {@link Metrics}.
+     *
+     * @since 4.1
+     */
+    protected final Format getSourceFormat(Source source) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return source.getFormat();
+        } finally {
+            Metrics.getInstance().recordSince(
+                    Metrics.Stage.SOURCE_FORMAT_DETECTION,
+                    source.getClass().getSimpleName(), start);
+        }
+    }
+
     /**
      * @return User agent's IP address, respecting the {@literal
      *         X-Forwarded-For} request header, if present.
@@ -319,6 +358,29 @@ public abstract class AbstractResource {
         return delegateProxy;
     }
 
+    /**
+     * For use by resources that operate on more than one image.
+     *
+     * @param identifier Identifier of an image.
+     * @return           New instance whose context is that of the current
+     *                   request, except with the given identifier. May be
+     *                   {@literal null}.
+     */
+    protected final DelegateProxy newDelegateProxy(Identifier identifier) {
+        if (DelegateProxyService.isEnabled()) {
+            final RequestContext context = new RequestContext();
+            context.toMap().putAll(requestContext.toMap());
+            context.setIdentifier(identifier);
+            try {
+                return DelegateProxyService.getInstance()
+                        .newDelegateProxy(context);
+            } catch (DisabledException e) {
+                LOGGER.debug("newDelegateProxy(): {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
     /**
      * Returns the decoded identifier path component of the URI. (This may not
      * be the identifier that the client supplies or sees; for that, use {@link
@@ -0,0 +1,236 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * <p>Output stream that decouples a resource, writing to it in blocking
+ * fashion on a worker thread, from the response output stream, to which it
+ * writes in non-blocking mode as a {@link WriteListener} whenever the
+ * container reports that the client is ready for more.</p>
+ *
+ * <p>Written bytes are gathered into chunks that are queued between the two.
+ * The queue is bounded, so a writer that gets ahead of a slow client blocks
+ * (on its own thread) rather than buffering the whole response. When the
+ * stream is {@link #close() closed} and the queue has been drained, the
+ * {@link AsyncContext} is completed.</p>
+ *
+ * @since 4.1
+ */
+final class AsyncResponseOutputStream extends ServletOutputStream
+        implements WriteListener {
+
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Max number of chunks (and so, along with {@link #CHUNK_SIZE}, bytes)
+     * that may be waiting to be written to the client.
+     */
+    static final int MAX_QUEUED_CHUNKS = 16;
+
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream responseOutputStream;
+
+    /**
+     * Chunks waiting to be written to the client. Guarded by {@literal
+     * this}.
+     */
+    private final Deque<byte[]> chunks = new ArrayDeque<>();
+
+    /**
+     * Chunk currently being filled by the writer. Only accessed by the
+     * writer thread.
+     */
+    private byte[] buffer = new byte[CHUNK_SIZE];
+    private int count;
+
+    /**
+     * Whether any chunk has been queued, after which the response can no
+     * longer be reset. Only accessed by the writer thread.
+     */
+    private boolean isCommitted;
+
+    private boolean isClosed, isComplete;
+    private Throwable error;
+
+    /**
+     * @param asyncContext         Context of the request.
+     * @param responseOutputStream Output stream of the response, which will
+     *                             be put into non-blocking mode.
+     */
+    AsyncResponseOutputStream(AsyncContext asyncContext,
+                              ServletOutputStream responseOutputStream) {
+        this.asyncContext = asyncContext;
+        this.responseOutputStream = responseOutputStream;
+        responseOutputStream.setWriteListener(this);
+    }
+
+    /* Writer side */
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == buffer.length) {
+            enqueueBuffer();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (count == buffer.length) {
+                enqueueBuffer();
+            }
+            final int n = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (count > 0) {
+            enqueueBuffer();
+        }
+    }
+
+    /**
+     * Queues any remaining bytes and marks the stream as finished, so that
+     * the async context will be completed once they have been written. Must
+     * be called, even if nothing was written.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (isClosed) {
+                return;
+            }
+        }
+        try {
+            flush();
+        } finally {
+            synchronized (this) {
+                isClosed = true;
+            }
+            drain();
+        }
+    }
+
+    /**
+     * @return Whether any bytes have been handed off to the client, in which
+     *         case the status, headers, and written content can no longer
+     *         be changed.
+     */
+    boolean isCommitted() {
+        return isCommitted;
+    }
+
+    /**
+     * Discards any bytes that have been written but not yet handed off to
+     * the client.
+     *
+     * @throws IllegalStateException if the stream is {@link #isCommitted()
+     *                               committed}.
+     */
+    void resetBuffer() {
+        if (isCommitted) {
+            throw new IllegalStateException("Response is committed");
+        }
+        count = 0;
+    }
+
+    /**
+     * The writer may always write; it will block if it gets too far ahead.
+     */
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+        throw new IllegalStateException("Not supported");
+    }
+
+    private void enqueueBuffer() throws IOException {
+        final byte[] chunk = (count == buffer.length) ?
+                buffer : Arrays.copyOf(buffer, count);
+        buffer = new byte[CHUNK_SIZE];
+        count = 0;
+        isCommitted = true;
+        synchronized (this) {
+            while (chunks.size() >= MAX_QUEUED_CHUNKS && error == null) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+            if (error != null) {
+                throw new IOException(error.getMessage(), error);
+            }
+            if (isClosed) {
+                throw new IOException("Stream is closed");
+            }
+            chunks.add(chunk);
+        }
+        drain();
+    }
+
+    /* Container side */
+
+    @Override
+    public void onWritePossible() throws IOException {
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        synchronized (this) {
+            error = t;
+            chunks.clear();
+            notifyAll();
+            if (isComplete) {
+                return;
+            }
+            isComplete = true;
+        }
+        asyncContext.complete();
+    }
+
+    /**
+     * Writes queued chunks to the client for as long as it can accept them
+     * without blocking. When it can't, the container will invoke {@link
+     * #onWritePossible()} once it can.
+     */
+    private synchronized void drain() throws IOException {
+        if (isComplete || error != null) {
+            return;
+        }
+        while (responseOutputStream.isReady()) {
+            final byte[] chunk = chunks.poll();
+            if (chunk == null) {
+                if (isClosed) {
+                    isComplete = true;
+                    asyncContext.complete();
+                }
+                return;
+            }
+            // Wake up the writer, if it was waiting for room.
+            notifyAll();
+            // The container may hold onto the array until the write has
+            // completed, which is why chunks are never reused.
+            responseOutputStream.write(chunk);
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Satisfiable byte range of a representation, parsed from a {@literal Range}
+ * request header as described in RFC 7233.
+ *
+ * @since 4.1
+ */
+final class ByteRange {
+
+    /**
+     * Requests for more ranges than this are served in full, as they are
+     * more likely to be abusive than useful.
+     */
+    static final int MAX_RANGES = 32;
+
+    private static final String UNIT_PREFIX = "bytes=";
+
+    private final long start, end;
+
+    /**
+     * @param header Value of a {@literal Range} header.
+     * @param length Length of the representation.
+     * @return       Satisfiable ranges in the order requested, or an empty
+     *               list if none of them are satisfiable.
+     * @throws IllegalArgumentException if the header is malformed, uses a
+     *         unit other than bytes, or contains too many ranges, in which
+     *         case it should be ignored.
+     */
+    static List<ByteRange> parse(String header, long length) {
+        if (!header.startsWith(UNIT_PREFIX)) {
+            throw new IllegalArgumentException("Unsupported range unit");
+        }
+        final String[] specs = header.substring(UNIT_PREFIX.length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            throw new IllegalArgumentException("Too many ranges");
+        }
+        final List<ByteRange> ranges = new ArrayList<>(specs.length);
+        for (String spec : specs) {
+            spec = spec.trim();
+            final int dashIndex = spec.indexOf('-');
+            if (dashIndex < 0) {
+                throw new IllegalArgumentException("Invalid range: " + spec);
+            }
+            final String first = spec.substring(0, dashIndex).trim();
+            final String last  = spec.substring(dashIndex + 1).trim();
+            try {
+                if (first.isEmpty()) {
+                    // Suffix range, e.g. "-500" for the last 500 bytes.
+                    final long suffixLength = Long.parseLong(last);
+                    if (suffixLength < 0) {
+                        throw new IllegalArgumentException("Invalid range: " + spec);
+                    }
+                    if (suffixLength > 0 && length > 0) {
+                        ranges.add(new ByteRange(
+                                Math.max(0, length - suffixLength), length - 1));
+                    }
+                } else {
+                    final long start = Long.parseLong(first);
+                    final long end = last.isEmpty() ?
+                            length - 1 : Long.parseLong(last);
+                    if (start < 0 || end < start) {
+                        throw new IllegalArgumentException("Invalid range: " + spec);
+                    }
+                    if (start < length) {
+                        ranges.add(new ByteRange(start, Math.min(end, length - 1)));
+                    }
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid range: " + spec, e);
+            }
+        }
+        return Collections.unmodifiableList(ranges);
+    }
+
+    private ByteRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * @return Index of the last byte in the range, inclusive.
+     */
+    long getEnd() {
+        return end;
+    }
+
+    long getLength() {
+        return end - start + 1;
+    }
+
+    long getStart() {
+        return start;
+    }
+
+    /**
+     * @param totalLength Length of the whole representation.
+     * @return            Value for a {@literal Content-Range} header.
+     */
+    String toContentRange(long totalLength) {
+        return "bytes " + start + "-" + end + "/" + totalLength;
+    }
+
+    @Override
+    public String toString() {
+        return start + "-" + end;
+    }
+
+}
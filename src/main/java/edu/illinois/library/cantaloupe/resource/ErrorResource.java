@@ -7,6 +7,7 @@ import edu.illinois.library.cantaloupe.http.Status;
 import edu.illinois.library.cantaloupe.operation.IllegalScaleException;
 import edu.illinois.library.cantaloupe.operation.IllegalSizeException;
 import edu.illinois.library.cantaloupe.operation.ValidationException;
+import edu.illinois.library.cantaloupe.processor.AdmissionRejectedException;
 import edu.illinois.library.cantaloupe.processor.UnsupportedOutputFormatException;
 import edu.illinois.library.cantaloupe.processor.UnsupportedSourceFormatException;
 import org.slf4j.Logger;
@@ -25,7 +26,7 @@ import java.util.Map;
 /**
  * Translates a {@link Throwable} to an HTTP 4xx or 5xx-level response.
  */
-class ErrorResource extends AbstractResource {
+public class ErrorResource extends AbstractResource {
 
     private static final Logger LOGGER =
             LoggerFactory.getLogger(ErrorResource.class);
@@ -78,6 +79,10 @@ class ErrorResource extends AbstractResource {
 
         getResponse().setStatus(status.getCode());
         getResponse().setHeader("Cache-Control", "no-cache, must-revalidate");
+        if (error instanceof AdmissionRejectedException) {
+            getResponse().setHeader("Retry-After", Integer.toString(
+                    ((AdmissionRejectedException) error).getRetryAfter()));
+        }
         getResponse().setHeader("Content-Type", mediaType + ";charset=UTF-8");
 
         new VelocityRepresentation(template, templateVars)
@@ -95,7 +100,11 @@ class ErrorResource extends AbstractResource {
         }
     }
 
-    private Status toStatus(Throwable t) {
+    /**
+     * @param t Error that occurred while handling a request.
+     * @return  Response status corresponding to the given error.
+     */
+    public static Status toStatus(Throwable t) {
         Status status;
 
         if (t instanceof ResourceException) {
@@ -114,6 +123,8 @@ class ErrorResource extends AbstractResource {
             status = Status.NOT_FOUND;
         } else if (t instanceof UnsupportedSourceFormatException) {
             status = Status.NOT_IMPLEMENTED;
+        } else if (t instanceof AdmissionRejectedException) {
+            status = Status.SERVICE_UNAVAILABLE;
         } else {
             status = Status.INTERNAL_SERVER_ERROR;
         }
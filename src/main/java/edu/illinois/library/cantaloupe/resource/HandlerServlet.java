@@ -1,27 +1,161 @@
 package edu.illinois.library.cantaloupe.resource;
 
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.http.Method;
 import edu.illinois.library.cantaloupe.http.Status;
 import edu.illinois.library.cantaloupe.util.Stopwatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Front-controller Servlet that handles all requests.
+ * <p>Front-controller Servlet that handles all requests.</p>
+ *
+ * <p>If {@link Key#HTTP_ASYNC_ENABLED} is {@literal true}, requests are
+ * handled asynchronously: each is handed off to a dedicated worker pool of
+ * up to {@link Key#HTTP_ASYNC_MAX_THREADS} threads, and the container's
+ * thread is released immediately. Resources write their responses to an
+ * {@link AsyncResponseOutputStream}, which feeds them to the client in
+ * non-blocking fashion, so that container threads are never blocked on
+ * source I/O, delegate method invocations, processing, or slow clients.</p>
+ *
+ * <p>Requests that arrive while all workers are busy wait in a queue of up
+ * to {@link Key#HTTP_ASYNC_MAX_QUEUED_REQUESTS} requests. Beyond that, they
+ * are rejected with a {@link Status#SERVICE_UNAVAILABLE} status.</p>
  */
 public class HandlerServlet extends HttpServlet {
 
+    /**
+     * Passes a {@link AsyncResponseOutputStream} to resources in place of
+     * the response output stream.
+     */
+    private static final class AsyncResponseWrapper
+            extends HttpServletResponseWrapper {
+
+        private final AsyncResponseOutputStream outputStream;
+        private PrintWriter writer;
+
+        AsyncResponseWrapper(HttpServletResponse response,
+                             AsyncResponseOutputStream outputStream) {
+            super(response);
+            this.outputStream = outputStream;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            outputStream.flush();
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return outputStream;
+        }
+
+        /**
+         * The wrapped response is not committed until the output stream
+         * hands off its first chunk, so it must be asked instead.
+         */
+        @Override
+        public boolean isCommitted() {
+            return outputStream.isCommitted() || super.isCommitted();
+        }
+
+        @Override
+        public void reset() {
+            resetBuffer();
+            super.reset();
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (isCommitted()) {
+                throw new IllegalStateException("Response is committed");
+            }
+            // Any characters buffered by the writer are discarded along
+            // with it.
+            writer = null;
+            outputStream.resetBuffer();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(
+                        outputStream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+    }
+
     private static final Logger LOGGER =
             LoggerFactory.getLogger(HandlerServlet.class);
 
+    private static final int DEFAULT_ASYNC_MAX_QUEUED_REQUESTS = 1000;
+    private static final int DEFAULT_ASYNC_MAX_THREADS = 200;
+
+    /**
+     * Runs asynchronous requests. {@literal null} when requests are handled
+     * synchronously.
+     */
+    private ExecutorService asyncExecutor;
+
+    @Override
+    public void init() {
+        final Configuration config = Configuration.getInstance();
+        if (config.getBoolean(Key.HTTP_ASYNC_ENABLED, false)) {
+            final int maxThreads = Math.max(1, config.getInt(
+                    Key.HTTP_ASYNC_MAX_THREADS, DEFAULT_ASYNC_MAX_THREADS));
+            final int maxQueuedRequests = Math.max(1, config.getInt(
+                    Key.HTTP_ASYNC_MAX_QUEUED_REQUESTS,
+                    DEFAULT_ASYNC_MAX_QUEUED_REQUESTS));
+            final AtomicInteger threadCount = new AtomicInteger();
+            // Requests in excess of the queue capacity are rejected, rather
+            // than piling up without limit while the workers are busy.
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(maxQueuedRequests), runnable -> {
+                        Thread thread = new Thread(runnable);
+                        thread.setName("request-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            asyncExecutor = executor;
+            LOGGER.info("Handling requests asynchronously with up to {} " +
+                    "worker threads and {} queued requests",
+                    maxThreads, maxQueuedRequests);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdownNow();
+        }
+    }
+
     @Override
     protected void doDelete(HttpServletRequest request,
                             HttpServletResponse response) {
@@ -60,6 +194,58 @@ public class HandlerServlet extends HttpServlet {
 
     private void handle(HttpServletRequest request,
                         HttpServletResponse response) {
+        if (asyncExecutor != null && request.isAsyncSupported()) {
+            handleAsync(request, response);
+        } else {
+            handleSync(request, response);
+        }
+    }
+
+    /**
+     * Hands the request off to the {@link #asyncExecutor} and returns
+     * immediately.
+     */
+    private void handleAsync(HttpServletRequest request,
+                             HttpServletResponse response) {
+        final AsyncContext asyncContext = request.startAsync();
+        // The resource will finish in its own time; it doesn't have to
+        // finish any sooner than a synchronous one would.
+        asyncContext.setTimeout(0);
+        try {
+            final AsyncResponseOutputStream outputStream =
+                    new AsyncResponseOutputStream(asyncContext,
+                            response.getOutputStream());
+            final HttpServletResponse wrappedResponse =
+                    new AsyncResponseWrapper(response, outputStream);
+            asyncExecutor.execute(() -> {
+                try {
+                    handleSync(request, wrappedResponse);
+                    wrappedResponse.flushBuffer();
+                } catch (IOException e) {
+                    LOGGER.debug("handleAsync(): {}", e.getMessage());
+                } finally {
+                    try {
+                        outputStream.close();
+                    } catch (IOException e) {
+                        LOGGER.debug("handleAsync(): {}", e.getMessage());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Either the queue is full or the servlet is being destroyed.
+            LOGGER.warn("handleAsync(): rejected {} {}",
+                    request.getMethod(), request.getRequestURI());
+            response.setStatus(Status.SERVICE_UNAVAILABLE.getCode());
+            asyncContext.complete();
+        } catch (IOException e) {
+            LOGGER.error("handleAsync(): {}", e.getMessage());
+            response.setStatus(Status.SERVICE_UNAVAILABLE.getCode());
+            asyncContext.complete();
+        }
+    }
+
+    private void handleSync(HttpServletRequest request,
+                            HttpServletResponse response) {
         final Stopwatch requestClock = new Stopwatch();
 
         final String path = getContextRelativePath(
@@ -74,7 +260,7 @@ public class HandlerServlet extends HttpServlet {
                         "No route for path: " + path);
             }
 
-            resource = route.getResource().getDeclaredConstructor().newInstance();
+            resource = route.newResource();
             resource.setPathArguments(route.getPathArguments());
             resource.setRequest(new Request(request));
             resource.setResponse(response);
@@ -139,6 +325,16 @@ public class HandlerServlet extends HttpServlet {
     private void handleError(HttpServletRequest request,
                              HttpServletResponse response,
                              Throwable t) {
+        if (response.isCommitted()) {
+            // Some of the response has already been sent, so appending an
+            // error body would only corrupt it.
+            LOGGER.debug("handleError(): response is already committed; " +
+                    "not writing an error body for: {}", t.getMessage());
+            return;
+        }
+        // Discard anything that was written before the error.
+        response.resetBuffer();
+
         // Try to use an ErrorResource, which will render an HTML template.
         ErrorResource resource = new ErrorResource(t);
         try {
@@ -2,10 +2,13 @@ package edu.illinois.library.cantaloupe.resource;
 
 import edu.illinois.library.cantaloupe.cache.CacheFacade;
 import edu.illinois.library.cantaloupe.cache.DerivativeCache;
+import edu.illinois.library.cantaloupe.cache.MeteredOutputStream;
 import edu.illinois.library.cantaloupe.image.Dimension;
 import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Info;
 import edu.illinois.library.cantaloupe.operation.OperationList;
+import edu.illinois.library.cantaloupe.processor.AdmissionController;
+import edu.illinois.library.cantaloupe.processor.AdmissionRejectedException;
 import edu.illinois.library.cantaloupe.processor.FileProcessor;
 import edu.illinois.library.cantaloupe.processor.Processor;
 import edu.illinois.library.cantaloupe.processor.ProcessorException;
@@ -33,6 +36,7 @@ public class ImageRepresentation implements Representation {
             LoggerFactory.getLogger(ImageRepresentation.class);
 
     private boolean bypassCache;
+    private boolean isKnownToBeUncached;
     private Info imageInfo;
     private OperationList opList;
     private Processor processor;
@@ -54,6 +58,37 @@ public class ImageRepresentation implements Representation {
         this.bypassCache = bypassCache;
     }
 
+    /**
+     * Tells the instance that the derivative cache has already been found
+     * not to contain the image, so that it doesn't look it up again, which
+     * would also record a second miss in the cache statistics.
+     *
+     * @since 4.1
+     */
+    public void setKnownToBeUncached(boolean isKnownToBeUncached) {
+        this.isKnownToBeUncached = isKnownToBeUncached;
+    }
+
+    /**
+     * @return File containing exactly what {@link #write(OutputStream)} would
+     *         write&mdash;either the source image, if the operations have no
+     *         effect and the processor reads from a file, or an image in the
+     *         derivative cache&mdash;or {@literal null} if the image has to be
+     *         streamed or processed. A file can be served in response to
+     *         byte-range requests.
+     * @since 4.1
+     */
+    public Path getFile() throws IOException {
+        if (processor instanceof FileProcessor &&
+                ((FileProcessor) processor).getSourceFile() != null &&
+                !opList.hasEffect(imageInfo.getSize(), imageInfo.getSourceFormat())) {
+            return ((FileProcessor) processor).getSourceFile();
+        } else if (!bypassCache && !isKnownToBeUncached) {
+            return new CacheFacade().getDerivativeImageFile(opList);
+        }
+        return null;
+    }
+
     /**
      * Writes the image requested in the constructor to the given output
      * stream, either retrieving it from the derivative cache, or getting it
@@ -78,24 +113,27 @@ public class ImageRepresentation implements Representation {
         }
 
         // A derivative cache is available, so try to copy the image from the
-        // cache to the response.
+        // cache to the response, unless it is already known not to be there.
         final DerivativeCache cache = cacheFacade.getDerivativeCache();
-        try (InputStream cacheIS = cache.newDerivativeImageInputStream(opList)) {
-            if (cacheIS != null) {
-                // The image is available, so write it to the response.
-                final Stopwatch watch = new Stopwatch();
-                IOUtils.copy(cacheIS, responseOS);
-
-                LOGGER.debug("Streamed from {} in {}: {}",
-                        cache.getClass().getSimpleName(), watch, opList);
+        if (!isKnownToBeUncached) {
+            try (InputStream cacheIS =
+                         cacheFacade.newDerivativeImageInputStream(opList)) {
+                if (cacheIS != null) {
+                    // The image is available, so write it to the response.
+                    final Stopwatch watch = new Stopwatch();
+                    IOUtils.copy(cacheIS, responseOS);
+
+                    LOGGER.debug("Streamed from {} in {}: {}",
+                            cache.getClass().getSimpleName(), watch, opList);
+                    return;
+                }
+            } catch (IOException e) {
+                LOGGER.error("Failed to read from {}: {}",
+                        cache.getClass().getSimpleName(), e.getMessage(), e);
+                // It may still be possible to fulfill the request.
+                copyOrProcess(responseOS);
                 return;
             }
-        } catch (IOException e) {
-            LOGGER.error("Failed to read from {}: {}",
-                    cache.getClass().getSimpleName(), e.getMessage(), e);
-            // It may still be possible to fulfill the request.
-            copyOrProcess(responseOS);
-            return;
         }
 
         // At this point, a derivative cache is available, but it doesn't
@@ -110,12 +148,18 @@ public class ImageRepresentation implements Representation {
         // closed, its wrapped streams' close() methods will have been called
         // twice, so it's important that these two streams' close() methods can
         // deal with being called twice.
-        try (OutputStream cacheOS =
+        try (MeteredOutputStream cacheOS =
                      cacheFacade.newDerivativeImageOutputStream(opList)) {
             OutputStream teeOS = new TeeOutputStream(responseOS, cacheOS);
             LOGGER.debug("Writing to the response & derivative " +
                     "cache simultaneously");
             copyOrProcess(teeOS);
+            cacheOS.setCompletelyWritten(true);
+        } catch (AdmissionRejectedException e) {
+            // Nothing has been written to the cache, and trying again would
+            // only be rejected again.
+            cacheFacade.purge(opList);
+            throw e;
         } catch (Throwable t) {
             // The cached image has been incompletely written and is corrupt,
             // so it must be purged.
@@ -129,7 +173,8 @@ public class ImageRepresentation implements Representation {
     /**
      * If {@link #opList} {@link OperationList#hasEffect(Dimension, Format) has
      * no effect}, streams the image from its source. Otherwise, invokes
-     * {@link Processor#process}. The output is either the response output
+     * {@link Processor#process} after being admitted by the {@link
+     * AdmissionController}. The output is either the response output
      * stream, or a tee stream that writes to the response and cache
      * pseudo-simultaneously.
      *
@@ -141,7 +186,13 @@ public class ImageRepresentation implements Representation {
         if (!opList.hasEffect(imageInfo.getSize(), imageInfo.getSourceFormat())) {
             copyFromSource(responseOS);
         } else {
-            try {
+            // Only requests that are actually processed are subject to
+            // admission control.
+            final Dimension resultingSize =
+                    opList.getResultingSize(imageInfo.getSize());
+            try (AdmissionController.Permit permit =
+                         AdmissionController.getInstance().acquire(processor,
+                                 (long) resultingSize.intWidth() * resultingSize.intHeight())) {
                 process(responseOS);
             } catch (ProcessorException e) {
                 throw new IOException(e.getMessage(), e);
@@ -8,14 +8,25 @@ import edu.illinois.library.cantaloupe.image.Info;
 import edu.illinois.library.cantaloupe.http.Reference;
 import edu.illinois.library.cantaloupe.image.ScaleConstraint;
 import edu.illinois.library.cantaloupe.processor.Processor;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
@@ -92,6 +103,235 @@ public abstract class PublicResource extends AbstractResource {
         }
     }
 
+    /**
+     * @param content Representation content.
+     * @return        Strong entity tag, including quotes, uniquely
+     *                identifying the given content.
+     */
+    protected static String newEntityTag(byte[] content) {
+        return "\"" + DigestUtils.sha1Hex(content) + "\"";
+    }
+
+    /**
+     * @param key String that identifies the content of a representation,
+     *            such as an {@link
+     *            edu.illinois.library.cantaloupe.operation.OperationList}
+     *            string combined with the source image {@link Info}, but
+     *            not necessarily its exact bytes, which may also depend on
+     *            e.g. the encoder configuration.
+     * @return    Weak entity tag, including quotes and the {@literal W/}
+     *            prefix, derived from the given key.
+     */
+    protected static String newWeakEntityTag(String key) {
+        return "W/\"" + DigestUtils.sha1Hex(key) + "\"";
+    }
+
+    /**
+     * @param ifNoneMatch Value of an {@literal If-None-Match} header.
+     * @param entityTag   Entity tag of the current representation.
+     * @return            Whether the header matches the entity tag using the
+     *                    weak comparison required by RFC 7232 section 3.2.
+     */
+    static boolean matchesIfNoneMatch(String ifNoneMatch, String entityTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        final String opaqueTag = stripWeakIndicator(entityTag);
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .anyMatch(tag -> "*".equals(tag) ||
+                        stripWeakIndicator(tag).equals(opaqueTag));
+    }
+
+    /**
+     * @param ifRange   Value of an {@literal If-Range} header.
+     * @param entityTag Entity tag of the current representation, or
+     *                  {@literal null}.
+     * @return          Whether the header matches the entity tag using the
+     *                  strong comparison required by RFC 7233 section 3.2,
+     *                  which a weak entity tag never satisfies.
+     */
+    static boolean matchesIfRange(String ifRange, String entityTag) {
+        return entityTag != null &&
+                !entityTag.startsWith("W/") &&
+                entityTag.equals(ifRange);
+    }
+
+    private static String stripWeakIndicator(String entityTag) {
+        return entityTag.startsWith("W/") ? entityTag.substring(2) : entityTag;
+    }
+
+    /**
+     * <p>Sets the {@literal ETag} response header to the given entity tag. If
+     * the request is a revalidation whose {@literal If-None-Match} header
+     * matches it, also sets the response status to {@literal 304 Not
+     * Modified}.</p>
+     *
+     * <p>This should be invoked as early as possible&mdash;ideally before
+     * the source or processor has been accessed&mdash;so that revalidations
+     * are cheap.</p>
+     *
+     * @param entityTag Entity tag of the representation that would be sent
+     *                  in response to the request.
+     * @return          Whether the response status was set to {@literal 304},
+     *                  in which case the caller must not write a
+     *                  representation.
+     */
+    protected final boolean respondIfNotModified(String entityTag) {
+        getResponse().setHeader("ETag", entityTag);
+        final String ifNoneMatch = getRequest().getHeaders()
+                .getFirstValue("If-None-Match");
+        if (matchesIfNoneMatch(ifNoneMatch, entityTag)) {
+            getResponse().setStatus(304);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Writes the given representation, which must be small enough to
+     * buffer in memory, with an entity tag computed from its content; or,
+     * if the request is a matching revalidation, responds with {@literal 304
+     * Not Modified} without writing it.
+     *
+     * @see #respondIfNotModified(String)
+     */
+    protected final void writeWithEntityTag(Representation representation)
+            throws IOException {
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        representation.write(os);
+        final byte[] content = os.toByteArray();
+        if (!respondIfNotModified(newEntityTag(content))) {
+            getResponse().getOutputStream().write(content);
+        }
+    }
+
+    /**
+     * <p>Writes the given file, which must contain the complete
+     * representation, honoring any {@literal Range} header in the request:</p>
+     *
+     * <ul>
+     *     <li>A single satisfiable range is sent with status {@literal 206}
+     *     and a {@literal Content-Range} header.</li>
+     *     <li>Multiple satisfiable ranges are sent with status {@literal 206}
+     *     as a {@literal multipart/byteranges} entity, each part having the
+     *     {@literal Content-Type} that was set on the response before this
+     *     method was invoked.</li>
+     *     <li>If no range is satisfiable, the response status is {@literal
+     *     416}.</li>
+     *     <li>If the header is absent or malformed, or an {@literal If-Range}
+     *     header does not strongly match the {@literal ETag} of the response
+     *     (which a weak one never does), the whole file is sent.</li>
+     * </ul>
+     *
+     * <p>Ranges are read from the file at their positions, so the bytes that
+     * are skipped over are never read.</p>
+     *
+     * @param file File to write.
+     * @return     Whether the file was written. If it no longer exists&mdash;
+     *             for example, because it was purged from the derivative
+     *             cache after it was looked up&mdash;nothing is written, and
+     *             the caller must write the representation some other way.
+     */
+    protected final boolean writeWithRanges(Path file) throws IOException {
+        final FileChannel channel;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            LOGGER.debug("writeWithRanges(): {} no longer exists", file);
+            return false;
+        }
+        getResponse().setHeader("Accept-Ranges", "bytes");
+
+        try {
+            final long length = channel.size();
+            final List<ByteRange> ranges = getRequestedRanges(length);
+            final OutputStream os = getResponse().getOutputStream();
+
+            if (ranges == null) {
+                getResponse().setHeader("Content-Length", Long.toString(length));
+                transfer(channel, 0, length, os);
+            } else if (ranges.isEmpty()) {
+                getResponse().setStatus(416);
+                getResponse().setHeader("Content-Range", "bytes */" + length);
+            } else if (ranges.size() == 1) {
+                final ByteRange range = ranges.get(0);
+                getResponse().setStatus(206);
+                getResponse().setHeader("Content-Range",
+                        range.toContentRange(length));
+                getResponse().setHeader("Content-Length",
+                        Long.toString(range.getLength()));
+                transfer(channel, range.getStart(), range.getLength(), os);
+            } else {
+                final String contentType =
+                        getResponse().getHeader("Content-Type");
+                final String boundary =
+                        UUID.randomUUID().toString().replace("-", "");
+                getResponse().setStatus(206);
+                getResponse().setHeader("Content-Type",
+                        "multipart/byteranges; boundary=" + boundary);
+                for (ByteRange range : ranges) {
+                    String partHeader = "\r\n--" + boundary + "\r\n";
+                    if (contentType != null) {
+                        partHeader += "Content-Type: " + contentType + "\r\n";
+                    }
+                    partHeader += "Content-Range: " +
+                            range.toContentRange(length) + "\r\n\r\n";
+                    os.write(partHeader.getBytes(StandardCharsets.US_ASCII));
+                    transfer(channel, range.getStart(), range.getLength(), os);
+                }
+                os.write(("\r\n--" + boundary + "--\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+            }
+        } finally {
+            channel.close();
+        }
+        return true;
+    }
+
+    /**
+     * @param length Length of the representation.
+     * @return       Satisfiable ranges requested by the client; an empty list
+     *               if none are satisfiable; or {@literal null} if the whole
+     *               representation should be sent.
+     */
+    private List<ByteRange> getRequestedRanges(long length) {
+        final String rangeHeader = getRequest().getHeaders()
+                .getFirstValue("Range");
+        if (rangeHeader == null) {
+            return null;
+        }
+        final String ifRange = getRequest().getHeaders()
+                .getFirstValue("If-Range");
+        if (ifRange != null &&
+                !matchesIfRange(ifRange, getResponse().getHeader("ETag"))) {
+            return null;
+        }
+        try {
+            return ByteRange.parse(rangeHeader, length);
+        } catch (IllegalArgumentException e) {
+            LOGGER.debug("getRequestedRanges(): ignoring {}: {}",
+                    rangeHeader, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void transfer(FileChannel channel,
+                                 long position,
+                                 long count,
+                                 OutputStream os) throws IOException {
+        final WritableByteChannel target = Channels.newChannel(os);
+        while (count > 0) {
+            final long transferred =
+                    channel.transferTo(position, count, target);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+            count -= transferred;
+        }
+    }
+
     /**
      * <p>Returns the info for the source image corresponding to the
      * given identifier as efficiently as possible.</p>
@@ -1,15 +1,22 @@
 package edu.illinois.library.cantaloupe.resource;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Supplier;
 
 /**
- * Associates a URI path pattern with an {@link AbstractResource}
- * implementation.
+ * <p>Associates a URI path pattern with an {@link AbstractResource}
+ * implementation.</p>
+ *
+ * <p>Patterns are compiled into a tree of path segments, which is walked
+ * once per request, so that resolution is proportional to the number of
+ * segments in the path rather than the number of routes. Resources are
+ * instantiated by precomputed {@link Supplier suppliers} rather than
+ * reflectively.</p>
  */
 public final class Route {
 
@@ -20,70 +27,294 @@ public final class Route {
     public static final String HEALTH_PATH = "/health";
     public static final String IIIF_1_PATH = "/iiif/1";
     public static final String IIIF_2_PATH = "/iiif/2";
+    public static final String INFOS_PATH = "/tasks/infos";
+    public static final String METRICS_PATH = "/metrics";
     public static final String STATUS_PATH = "/status";
     public static final String TASKS_PATH = "/tasks";
 
     /**
-     * N.B.: the LinkedHashMap preserves order as each mapping will be checked
-     * sequentially and the first match used.
+     * Kinds of non-literal path segments, all of which must be non-empty.
+     * Their matched contents are considered the URI path arguments.
      */
-    private static final Map<Pattern,Class<? extends AbstractResource>> MAPPINGS =
-            new LinkedHashMap<>();
+    private enum Wildcard {
 
-    private Class<? extends AbstractResource> resource;
-    private final List<String> pathArguments = new ArrayList<>();
+        /**
+         * Any segment. One argument.
+         */
+        ANY,
 
-    static {
-        // N.B.: some of these regexes have groups, which are considered the
-        // URI path arguments.
-        MAPPINGS.put(Pattern.compile("\\A\\z"),
-                LandingResource.class);
-        MAPPINGS.put(Pattern.compile("^/$"),
-                LandingResource.class);
-        MAPPINGS.put(Pattern.compile("/$"),
-                TrailingSlashRemovingResource.class);
+        /**
+         * Any segment not containing a period. One argument.
+         */
+        ANY_WITHOUT_PERIOD,
+
+        /**
+         * Any segment ending in a period followed by a lowercase alphanumeric
+         * extension. Two arguments: the part before the last period, and the
+         * extension.
+         */
+        ANY_WITH_EXTENSION,
+
+        /**
+         * Like {@link #ANY_WITH_EXTENSION}, but containing only one period.
+         */
+        ANY_WITHOUT_PERIOD_WITH_EXTENSION;
+
+        /**
+         * @param segment   Path segment.
+         * @param arguments List to which to add any arguments if the segment
+         *                  matches.
+         * @return          Whether the segment matches.
+         */
+        boolean match(String segment, List<String> arguments) {
+            if (segment.isEmpty()) {
+                return false;
+            }
+            final int period = segment.lastIndexOf('.');
+            switch (this) {
+                case ANY:
+                    arguments.add(segment);
+                    return true;
+                case ANY_WITHOUT_PERIOD:
+                    if (period >= 0) {
+                        return false;
+                    }
+                    arguments.add(segment);
+                    return true;
+                case ANY_WITHOUT_PERIOD_WITH_EXTENSION:
+                    if (segment.indexOf('.') != period) {
+                        return false;
+                    }
+                    // fall through
+                default:
+                    if (period < 1 || !isExtension(segment, period + 1)) {
+                        return false;
+                    }
+                    arguments.add(segment.substring(0, period));
+                    arguments.add(segment.substring(period + 1));
+                    return true;
+            }
+        }
+
+        private static boolean isExtension(String segment, int fromIndex) {
+            if (fromIndex >= segment.length()) {
+                return false;
+            }
+            for (int i = fromIndex; i < segment.length(); i++) {
+                final char c = segment.charAt(i);
+                if ((c < 'a' || c > 'z') && (c < '0' || c > '9')) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    /**
+     * Resource class and a means of instantiating it.
+     */
+    private static final class Target {
+
+        private final Class<? extends AbstractResource> resourceClass;
+        private final Supplier<? extends AbstractResource> factory;
+
+        private <T extends AbstractResource> Target(Class<T> resourceClass,
+                                                    Supplier<T> factory) {
+            this.resourceClass = resourceClass;
+            this.factory = factory;
+        }
+
+    }
+
+    /**
+     * Node in the tree of path segments. Literal children take precedence
+     * over wildcard children, which are tried in {@link Wildcard} order.
+     */
+    private static final class Node {
+
+        private final Map<String,Node> literals = new HashMap<>();
+        private final Map<Wildcard,Node> wildcards =
+                new EnumMap<>(Wildcard.class);
+        private Target target;
+
+        Node literal(String segment) {
+            return literals.computeIfAbsent(segment, s -> new Node());
+        }
 
+        Node wildcard(Wildcard wildcard) {
+            return wildcards.computeIfAbsent(wildcard, w -> new Node());
+        }
+
+        /**
+         * @param segments  Path segments.
+         * @param index     Index of the segment to match against the
+         *                  children of the instance.
+         * @param arguments List to which to add path arguments. Upon failure,
+         *                  it is left as it was found.
+         * @return          Matching target, or {@literal null}.
+         */
+        Target match(List<String> segments, int index, List<String> arguments) {
+            if (index == segments.size()) {
+                return target;
+            }
+            final String segment = segments.get(index);
+            final Node literal = literals.get(segment);
+            if (literal != null) {
+                final Target match = literal.match(segments, index + 1, arguments);
+                if (match != null) {
+                    return match;
+                }
+            }
+            for (Map.Entry<Wildcard,Node> entry : wildcards.entrySet()) {
+                final int numArguments = arguments.size();
+                if (entry.getKey().match(segment, arguments)) {
+                    final Target match = entry.getValue().match(
+                            segments, index + 1, arguments);
+                    if (match != null) {
+                        return match;
+                    }
+                    arguments.subList(numArguments, arguments.size()).clear();
+                }
+            }
+            return null;
+        }
+
+    }
+
+    private static final Target LANDING_TARGET =
+            new Target(LandingResource.class, LandingResource::new);
+
+    private static final Target TRAILING_SLASH_TARGET =
+            new Target(TrailingSlashRemovingResource.class,
+                    TrailingSlashRemovingResource::new);
+
+    private static final Node ROOT = new Node();
+
+    private final Target target;
+    private final List<String> pathArguments;
+
+    static {
         // Control Panel routes
-        MAPPINGS.put(Pattern.compile("^" + ADMIN_CONFIG_PATH + "$"),
-                edu.illinois.library.cantaloupe.resource.admin.ConfigurationResource.class);
-        MAPPINGS.put(Pattern.compile("^" + ADMIN_PATH + "$"),
-                edu.illinois.library.cantaloupe.resource.admin.AdminResource.class);
-        MAPPINGS.put(Pattern.compile("^" + ADMIN_STATUS_PATH + "$"),
-                edu.illinois.library.cantaloupe.resource.admin.StatusResource.class);
+        map(ADMIN_CONFIG_PATH,
+                edu.illinois.library.cantaloupe.resource.admin.ConfigurationResource.class,
+                edu.illinois.library.cantaloupe.resource.admin.ConfigurationResource::new);
+        map(ADMIN_PATH,
+                edu.illinois.library.cantaloupe.resource.admin.AdminResource.class,
+                edu.illinois.library.cantaloupe.resource.admin.AdminResource::new);
+        map(ADMIN_STATUS_PATH,
+                edu.illinois.library.cantaloupe.resource.admin.StatusResource.class,
+                edu.illinois.library.cantaloupe.resource.admin.StatusResource::new);
 
         // API routes
-        MAPPINGS.put(Pattern.compile("^" + CONFIGURATION_PATH + "$"),
-                edu.illinois.library.cantaloupe.resource.api.ConfigurationResource.class);
-        MAPPINGS.put(Pattern.compile("^" + HEALTH_PATH + "$"),
-                edu.illinois.library.cantaloupe.resource.api.HealthResource.class);
-        MAPPINGS.put(Pattern.compile("^" + STATUS_PATH + "$"),
-                edu.illinois.library.cantaloupe.resource.api.StatusResource.class);
-        MAPPINGS.put(Pattern.compile("^" + TASKS_PATH + "$"),
-                edu.illinois.library.cantaloupe.resource.api.TasksResource.class);
-        MAPPINGS.put(Pattern.compile("^" + TASKS_PATH + "/([^/]+)$"),
-                edu.illinois.library.cantaloupe.resource.api.TaskResource.class);
+        map(CONFIGURATION_PATH,
+                edu.illinois.library.cantaloupe.resource.api.ConfigurationResource.class,
+                edu.illinois.library.cantaloupe.resource.api.ConfigurationResource::new);
+        map(HEALTH_PATH,
+                edu.illinois.library.cantaloupe.resource.api.HealthResource.class,
+                edu.illinois.library.cantaloupe.resource.api.HealthResource::new);
+        map(METRICS_PATH,
+                edu.illinois.library.cantaloupe.resource.api.MetricsResource.class,
+                edu.illinois.library.cantaloupe.resource.api.MetricsResource::new);
+        map(STATUS_PATH,
+                edu.illinois.library.cantaloupe.resource.api.StatusResource.class,
+                edu.illinois.library.cantaloupe.resource.api.StatusResource::new);
+        map(TASKS_PATH,
+                edu.illinois.library.cantaloupe.resource.api.TasksResource.class,
+                edu.illinois.library.cantaloupe.resource.api.TasksResource::new);
+        map(TASKS_PATH,
+                edu.illinois.library.cantaloupe.resource.api.InfosResource.class,
+                edu.illinois.library.cantaloupe.resource.api.InfosResource::new,
+                "infos");
+        map(TASKS_PATH,
+                edu.illinois.library.cantaloupe.resource.api.TaskResource.class,
+                edu.illinois.library.cantaloupe.resource.api.TaskResource::new,
+                Wildcard.ANY);
 
         // IIIF Image API v2 routes
-        MAPPINGS.put(Pattern.compile("^" + IIIF_2_PATH + "$"),
-                edu.illinois.library.cantaloupe.resource.iiif.v2.LandingResource.class);
-        MAPPINGS.put(Pattern.compile("^" + IIIF_2_PATH + "/([^/]+)/info\\.json$"),
-                edu.illinois.library.cantaloupe.resource.iiif.v2.InformationResource.class);
-        MAPPINGS.put(Pattern.compile("^" + IIIF_2_PATH + "/([^/]+)$"),
-                edu.illinois.library.cantaloupe.resource.iiif.v2.IdentifierResource.class);
-        MAPPINGS.put(Pattern.compile("^" + IIIF_2_PATH + "/([^/]+)/([^/]+)/([^/]+)/([^/]+)/([^/]+)\\.([a-z0-9]+)$"),
-                edu.illinois.library.cantaloupe.resource.iiif.v2.ImageResource.class);
+        map(IIIF_2_PATH,
+                edu.illinois.library.cantaloupe.resource.iiif.v2.LandingResource.class,
+                edu.illinois.library.cantaloupe.resource.iiif.v2.LandingResource::new);
+        map(IIIF_2_PATH,
+                edu.illinois.library.cantaloupe.resource.iiif.v2.InformationResource.class,
+                edu.illinois.library.cantaloupe.resource.iiif.v2.InformationResource::new,
+                Wildcard.ANY, "info.json");
+        map(IIIF_2_PATH,
+                edu.illinois.library.cantaloupe.resource.iiif.v2.IdentifierResource.class,
+                edu.illinois.library.cantaloupe.resource.iiif.v2.IdentifierResource::new,
+                Wildcard.ANY);
+        map(IIIF_2_PATH,
+                edu.illinois.library.cantaloupe.resource.iiif.v2.ImageResource.class,
+                edu.illinois.library.cantaloupe.resource.iiif.v2.ImageResource::new,
+                Wildcard.ANY, Wildcard.ANY, Wildcard.ANY, Wildcard.ANY,
+                Wildcard.ANY_WITH_EXTENSION);
 
         // IIIF Image API v1 routes
-        MAPPINGS.put(Pattern.compile("^" + IIIF_1_PATH + "$"),
-                edu.illinois.library.cantaloupe.resource.iiif.v1.LandingResource.class);
-        MAPPINGS.put(Pattern.compile("^" + IIIF_1_PATH + "/([^/]+)/info\\.json$"),
-                edu.illinois.library.cantaloupe.resource.iiif.v1.InformationResource.class);
-        MAPPINGS.put(Pattern.compile("^" + IIIF_1_PATH + "/([^/]+)$"),
-                edu.illinois.library.cantaloupe.resource.iiif.v1.IdentifierResource.class);
-        MAPPINGS.put(Pattern.compile("^" + IIIF_1_PATH + "/([^/]+)/([^/]+)/([^/]+)/([^/]+)/([^/.]+)$"),
-                edu.illinois.library.cantaloupe.resource.iiif.v1.ImageResource.class);
-        MAPPINGS.put(Pattern.compile("^" + IIIF_1_PATH + "/([^/]+)/([^/]+)/([^/]+)/([^/]+)/([^/.]+)\\.([a-z0-9]+)$"),
-                edu.illinois.library.cantaloupe.resource.iiif.v1.ImageResource.class);
+        map(IIIF_1_PATH,
+                edu.illinois.library.cantaloupe.resource.iiif.v1.LandingResource.class,
+                edu.illinois.library.cantaloupe.resource.iiif.v1.LandingResource::new);
+        map(IIIF_1_PATH,
+                edu.illinois.library.cantaloupe.resource.iiif.v1.InformationResource.class,
+                edu.illinois.library.cantaloupe.resource.iiif.v1.InformationResource::new,
+                Wildcard.ANY, "info.json");
+        map(IIIF_1_PATH,
+                edu.illinois.library.cantaloupe.resource.iiif.v1.IdentifierResource.class,
+                edu.illinois.library.cantaloupe.resource.iiif.v1.IdentifierResource::new,
+                Wildcard.ANY);
+        map(IIIF_1_PATH,
+                edu.illinois.library.cantaloupe.resource.iiif.v1.ImageResource.class,
+                edu.illinois.library.cantaloupe.resource.iiif.v1.ImageResource::new,
+                Wildcard.ANY, Wildcard.ANY, Wildcard.ANY, Wildcard.ANY,
+                Wildcard.ANY_WITHOUT_PERIOD);
+        map(IIIF_1_PATH,
+                edu.illinois.library.cantaloupe.resource.iiif.v1.ImageResource.class,
+                edu.illinois.library.cantaloupe.resource.iiif.v1.ImageResource::new,
+                Wildcard.ANY, Wildcard.ANY, Wildcard.ANY, Wildcard.ANY,
+                Wildcard.ANY_WITHOUT_PERIOD_WITH_EXTENSION);
+    }
+
+    /**
+     * Adds a route to the tree.
+     *
+     * @param prefix   Literal path prefix.
+     * @param resource Resource class.
+     * @param factory  Supplier of instances of the resource class.
+     * @param segments Segments following the prefix: either {@link String}
+     *                 literals or {@link Wildcard}s.
+     */
+    private static <T extends AbstractResource> void map(String prefix,
+                                                         Class<T> resource,
+                                                         Supplier<T> factory,
+                                                         Object... segments) {
+        Node node = ROOT;
+        for (String segment : split(prefix)) {
+            node = node.literal(segment);
+        }
+        for (Object segment : segments) {
+            node = (segment instanceof Wildcard) ?
+                    node.wildcard((Wildcard) segment) :
+                    node.literal((String) segment);
+        }
+        if (node.target != null) {
+            throw new IllegalStateException("Duplicate route: " + prefix);
+        }
+        node.target = new Target(resource, factory);
+    }
+
+    /**
+     * @param path Path beginning with a slash.
+     * @return     Segments of the given path, which may be empty strings.
+     */
+    private static List<String> split(String path) {
+        final List<String> segments = new ArrayList<>(8);
+        int start = 1;
+        int end;
+        while ((end = path.indexOf('/', start)) >= 0) {
+            segments.add(path.substring(start, end));
+            start = end + 1;
+        }
+        segments.add(path.substring(start));
+        return segments;
     }
 
     /**
@@ -92,19 +323,21 @@ public final class Route {
      *             there is no match.
      */
     static Route forPath(String path) {
-        for (Pattern pattern : MAPPINGS.keySet()) {
-            final Route route = new Route();
-            route.setResource(MAPPINGS.get(pattern));
-
-            final Matcher matcher = pattern.matcher(path);
-            if (matcher.find()) {
-                for (int i = 1; i <= matcher.groupCount(); i++) {
-                    route.getPathArguments().add(matcher.group(i));
-                }
-                return route;
-            }
+        if (path.isEmpty() || "/".equals(path)) {
+            return new Route(LANDING_TARGET, Collections.emptyList());
+        } else if (path.endsWith("/")) {
+            return new Route(TRAILING_SLASH_TARGET, Collections.emptyList());
+        } else if (path.charAt(0) != '/') {
+            return null;
         }
-        return null;
+        final List<String> arguments = new ArrayList<>(6);
+        final Target target = ROOT.match(split(path), 0, arguments);
+        return (target != null) ? new Route(target, arguments) : null;
+    }
+
+    private Route(Target target, List<String> pathArguments) {
+        this.target = target;
+        this.pathArguments = Collections.unmodifiableList(pathArguments);
     }
 
     /**
@@ -122,11 +355,14 @@ public final class Route {
      * @return Resource the instance "connects" to.
      */
     Class<? extends AbstractResource> getResource() {
-        return resource;
+        return target.resourceClass;
     }
 
-    void setResource(Class<? extends AbstractResource> resource) {
-        this.resource = resource;
+    /**
+     * @return New instance of the resource the instance "connects" to.
+     */
+    AbstractResource newResource() {
+        return target.factory.get();
     }
 
 }
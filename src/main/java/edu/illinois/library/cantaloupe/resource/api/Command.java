@@ -32,10 +32,22 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
                 value = PurgeInvalidFromCacheCommand.class),
         @JsonSubTypes.Type(
                 name = "PurgeItemFromCache",
-                value = PurgeItemFromCacheCommand.class)
+                value = PurgeItemFromCacheCommand.class),
+        @JsonSubTypes.Type(
+                name = "SeedCache",
+                value = SeedCacheCommand.class)
 })
 abstract class Command {
 
+    /**
+     * @return Progress of the command while it is running, for inclusion in
+     *         the representation of its {@link APITask}, or {@literal null}
+     *         if it doesn't report any.
+     */
+    Object getProgress() {
+        return null;
+    }
+
     abstract String getVerb();
 
 }
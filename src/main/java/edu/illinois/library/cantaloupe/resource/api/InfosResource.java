@@ -0,0 +1,228 @@
+package edu.illinois.library.cantaloupe.resource.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.illinois.library.cantaloupe.cache.CacheFacade;
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.http.Method;
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.image.Info;
+import edu.illinois.library.cantaloupe.image.MediaType;
+import edu.illinois.library.cantaloupe.processor.Processor;
+import edu.illinois.library.cantaloupe.processor.ProcessorConnector;
+import edu.illinois.library.cantaloupe.processor.ProcessorFactory;
+import edu.illinois.library.cantaloupe.resource.ErrorResource;
+import edu.illinois.library.cantaloupe.resource.IllegalClientArgumentException;
+import edu.illinois.library.cantaloupe.resource.JacksonRepresentation;
+import edu.illinois.library.cantaloupe.source.Source;
+import edu.illinois.library.cantaloupe.source.SourceFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Provides the {@link Info}s of many images in one request, for clients,
+ * like manifest generators, that would otherwise have to issue an
+ * information request for each one.</p>
+ *
+ * <p>Accepts a JSON object in the request entity with an {@literal
+ * identifiers} key whose value is an array of up to {@link
+ * #MAX_IDENTIFIERS} identifiers, and responds with a JSON object in which
+ * each identifier is a key whose value is either the corresponding info, or
+ * an object with {@literal status} and {@literal error} keys describing why
+ * it could not be obtained.</p>
+ *
+ * <p>Infos that are present in the info or derivative cache are resolved in
+ * one pass. The rest are read in parallel, by a thread pool that is shared by
+ * all requests so that the number of sources and processors in use at once
+ * is bounded.</p>
+ *
+ * @since 4.1
+ */
+public class InfosResource extends AbstractAPIResource {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(InfosResource.class);
+
+    static final int MAX_IDENTIFIERS = 1000;
+
+    private static final int MAX_THREADS = 16;
+
+    private static final Method[] SUPPORTED_METHODS =
+            new Method[] { Method.OPTIONS, Method.POST };
+
+    private static ExecutorService executor;
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            final AtomicInteger threadCount = new AtomicInteger();
+            final ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                    MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable,
+                                "info-reader-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return executor;
+    }
+
+    private static Map<String,Object> newErrorMap(Throwable t) {
+        final Map<String,Object> map = new LinkedHashMap<>();
+        map.put("status", ErrorResource.toStatus(t).getCode());
+        map.put("error", t.getMessage());
+        return map;
+    }
+
+    @Override
+    public Method[] getSupportedMethods() {
+        return SUPPORTED_METHODS;
+    }
+
+    @Override
+    public void doPOST() throws Exception {
+        final Set<String> identifiers = readIdentifiers();
+        final CacheFacade cacheFacade = new CacheFacade();
+        final Map<String,Object> results = new LinkedHashMap<>();
+        final Map<String,Future<Info>> futures = new LinkedHashMap<>();
+
+        for (String value : identifiers) {
+            final Identifier identifier = new Identifier(value);
+            Info info = null;
+            if (!isResolvingFirst()) {
+                try {
+                    info = cacheFacade.getInfo(identifier);
+                } catch (IOException e) {
+                    // It will be read instead.
+                    LOGGER.error("doPOST(): {}", e.getMessage());
+                }
+            }
+            if (info != null) {
+                info.setIdentifier(identifier);
+                results.put(value, info);
+            } else {
+                // Holds the result's place in the request order.
+                results.put(value, null);
+                futures.put(value, getExecutor().submit(
+                        () -> readInfo(identifier)));
+            }
+        }
+        LOGGER.debug("doPOST(): {} cached; reading {}",
+                identifiers.size() - futures.size(), futures.size());
+
+        for (Map.Entry<String,Future<Info>> entry : futures.entrySet()) {
+            try {
+                results.put(entry.getKey(), entry.getValue().get());
+            } catch (ExecutionException e) {
+                results.put(entry.getKey(), newErrorMap(e.getCause()));
+            }
+        }
+
+        getResponse().setHeader("Content-Type",
+                "application/json;charset=UTF-8");
+        new JacksonRepresentation(results)
+                .write(getResponse().getOutputStream());
+    }
+
+    private boolean isResolvingFirst() {
+        return Configuration.getInstance().
+                getBoolean(Key.CACHE_SERVER_RESOLVE_FIRST, true);
+    }
+
+    /**
+     * Reads the info of a single image in the manner of an information
+     * request.
+     */
+    private Info readInfo(Identifier identifier) throws Exception {
+        final Source source = new SourceFactory().newSource(
+                identifier, newDelegateProxy(identifier));
+        final CacheFacade cacheFacade = new CacheFacade();
+
+        final Path sourceImage = cacheFacade.getSourceCacheFile(identifier);
+        if (sourceImage == null || isResolvingFirst()) {
+            checkAccess(source);
+        }
+
+        Format format = Format.UNKNOWN;
+        if (!isResolvingFirst() && sourceImage != null) {
+            List<MediaType> mediaTypes = MediaType.detectMediaTypes(sourceImage);
+            if (!mediaTypes.isEmpty()) {
+                format = mediaTypes.get(0).toFormat();
+            }
+        } else {
+            format = getSourceFormat(source);
+        }
+
+        try (Processor processor = new ProcessorFactory().newProcessor(format)) {
+            final Future<Path> tempFileFuture = new ProcessorConnector()
+                    .connect(source, processor, identifier, format);
+            try {
+                final Info info = cacheFacade.getOrReadInfo(identifier, processor);
+                info.setIdentifier(identifier);
+                return info;
+            } finally {
+                if (tempFileFuture != null) {
+                    Path tempFile = tempFileFuture.get();
+                    if (tempFile != null) {
+                        Files.deleteIfExists(tempFile);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Distinct identifiers in the request entity, in request order.
+     * @throws IllegalClientArgumentException if the entity is invalid.
+     */
+    private Set<String> readIdentifiers() throws IOException {
+        final JsonNode root;
+        try {
+            root = new ObjectMapper().readTree(getRequest().getInputStream());
+        } catch (JsonProcessingException e) {
+            throw new IllegalClientArgumentException(e.getMessage(), e);
+        }
+        // N.B.: root will be null if the entity is empty.
+        final JsonNode array = (root != null) ?
+                root.path("identifiers") : null;
+        if (array == null || !array.isArray() || array.size() < 1) {
+            throw new IllegalClientArgumentException(
+                    "The request entity must contain an array of identifiers.");
+        } else if (array.size() > MAX_IDENTIFIERS) {
+            throw new IllegalClientArgumentException(
+                    "No more than " + MAX_IDENTIFIERS +
+                    " identifiers may be requested at once.");
+        }
+        final Set<String> identifiers = new LinkedHashSet<>();
+        for (JsonNode node : array) {
+            if (!node.isTextual() || node.asText().isEmpty()) {
+                throw new IllegalClientArgumentException(
+                        "Identifiers must be non-empty strings.");
+            }
+            identifiers.add(node.asText());
+        }
+        return identifiers;
+    }
+
+}
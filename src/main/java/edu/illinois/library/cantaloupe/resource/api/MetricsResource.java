@@ -0,0 +1,37 @@
+package edu.illinois.library.cantaloupe.resource.api;
+
+import edu.illinois.library.cantaloupe.http.Method;
+import edu.illinois.library.cantaloupe.resource.StringRepresentation;
+import edu.illinois.library.cantaloupe.status.Metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Provides the latencies recorded in {@link Metrics} via the HTTP API, in
+ * the Prometheus text exposition format.
+ *
+ * @since 4.1
+ */
+public class MetricsResource extends AbstractAPIResource {
+
+    private static final Method[] SUPPORTED_METHODS =
+            new Method[] { Method.GET, Method.OPTIONS };
+
+    @Override
+    public Method[] getSupportedMethods() {
+        return SUPPORTED_METHODS;
+    }
+
+    @Override
+    public void doGET() throws IOException {
+        final StringWriter writer = new StringWriter();
+        Metrics.getInstance().writePrometheus(writer);
+
+        getResponse().setHeader("Content-Type",
+                "text/plain; version=0.0.4; charset=UTF-8");
+        new StringRepresentation(writer.toString())
+                .write(getResponse().getOutputStream());
+    }
+
+}
@@ -0,0 +1,189 @@
+package edu.illinois.library.cantaloupe.resource.api;
+
+import edu.illinois.library.cantaloupe.async.ThreadPool;
+import edu.illinois.library.cantaloupe.cache.CacheFacade;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.resource.iiif.v2.CacheSeeder;
+import edu.illinois.library.cantaloupe.resource.iiif.v2.OutputFormat;
+import edu.illinois.library.cantaloupe.resource.iiif.v2.Quality;
+import edu.illinois.library.cantaloupe.source.SourceFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * <p>Pre-renders the tiles and sizes of some images into the derivative
+ * cache using a {@link CacheSeeder}, so that the first clients to view them
+ * don't have to wait for them to be processed.</p>
+ *
+ * <p>The images are specified either by an array of {@literal identifiers},
+ * or by an identifier {@literal prefix}, which is only supported by some
+ * sources (see {@link SourceFactory#listIdentifiers(String)}).</p>
+ *
+ * <p>A few images are seeded at a time, in low-priority threads. Derivatives
+ * that are already cached are skipped, so a task that was interrupted or
+ * that partially failed can be resumed by submitting it again.</p>
+ */
+final class SeedCacheCommand<T> extends Command implements Callable<T> {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(SeedCacheCommand.class);
+
+    private static final int DEFAULT_CONCURRENCY = 2;
+
+    private int concurrency = DEFAULT_CONCURRENCY;
+    private List<String> identifiers;
+    private OutputFormat outputFormat = OutputFormat.JPG;
+    private String prefix;
+    private Quality quality = Quality.DEFAULT;
+    private volatile int numImages;
+    private volatile CacheSeeder seeder;
+
+    @Override
+    public T call() throws Exception {
+        if (!new CacheFacade().isDerivativeCacheAvailable()) {
+            throw new IllegalStateException(
+                    "There is no derivative cache to seed.");
+        }
+        final List<Identifier> identifiers = getIdentifiersToSeed();
+        final Queue<Identifier> queue = new ConcurrentLinkedQueue<>(identifiers);
+        numImages = identifiers.size();
+        seeder = new CacheSeeder(quality, outputFormat);
+
+        // Each worker seeds one image at a time until there are none left.
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < Math.min(concurrency, numImages); i++) {
+            futures.add(ThreadPool.getInstance().submit(() -> {
+                Identifier identifier;
+                while (!Thread.currentThread().isInterrupted() &&
+                        (identifier = queue.poll()) != null) {
+                    try {
+                        seeder.seed(identifier);
+                    } catch (Exception e) {
+                        LOGGER.warn("call(): failed to seed {}: {}",
+                                identifier, e.getMessage());
+                    }
+                }
+                return null;
+            }, ThreadPool.Priority.LOW));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw e;
+        }
+
+        if (seeder.getNumImagesFailed() > 0) {
+            throw new IOException(seeder.getNumImagesFailed() + " of " +
+                    numImages + " images could not be seeded. Check the " +
+                    "application log for details, and resubmit the task " +
+                    "to try again.");
+        }
+        return null;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public String getFormat() {
+        return outputFormat.name().toLowerCase();
+    }
+
+    public List<String> getIdentifiers() {
+        return identifiers;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    @Override
+    Map<String,Object> getProgress() {
+        final CacheSeeder seeder = this.seeder;
+        if (seeder == null) {
+            return null;
+        }
+        final Map<String,Object> progress = new LinkedHashMap<>();
+        progress.put("images", numImages);
+        progress.put("images_seeded", seeder.getNumImagesSeeded());
+        progress.put("images_failed", seeder.getNumImagesFailed());
+        progress.put("derivatives_rendered", seeder.getNumDerivativesRendered());
+        progress.put("derivatives_skipped", seeder.getNumDerivativesSkipped());
+        return progress;
+    }
+
+    public String getQuality() {
+        return quality.name().toLowerCase();
+    }
+
+    @Override
+    String getVerb() {
+        return "SeedCache";
+    }
+
+    /**
+     * @return Distinct identifiers of the images to seed, either from {@link
+     *         #getIdentifiers()} or listed from {@link #getPrefix()}.
+     * @throws IllegalArgumentException if neither is set.
+     */
+    private List<Identifier> getIdentifiersToSeed() throws Exception {
+        if (identifiers != null && !identifiers.isEmpty()) {
+            final LinkedHashSet<Identifier> set = new LinkedHashSet<>();
+            identifiers.forEach(id -> set.add(new Identifier(id)));
+            return new ArrayList<>(set);
+        } else if (prefix != null) {
+            return new SourceFactory().listIdentifiers(prefix);
+        }
+        throw new IllegalArgumentException(
+                "Either identifiers or a prefix must be specified.");
+    }
+
+    /**
+     * @param concurrency Maximum number of images to seed at once.
+     */
+    public void setConcurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException(
+                    "Concurrency must be greater than zero.");
+        }
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * @param format IIIF Image API 2.x format of the derivatives to render.
+     */
+    public void setFormat(String format) {
+        this.outputFormat = OutputFormat.valueOf(format.toUpperCase());
+    }
+
+    public void setIdentifiers(List<String> identifiers) {
+        this.identifiers = identifiers;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * @param quality IIIF Image API 2.x quality of the derivatives to render.
+     */
+    public void setQuality(String quality) {
+        this.quality = Quality.valueOf(quality.toUpperCase());
+    }
+
+}
@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -75,23 +76,30 @@ public class ImageResource extends IIIF1Resource {
         final Identifier identifier = getIdentifier();
         final CacheFacade cacheFacade = new CacheFacade();
 
-        // If we don't need to resolve first, and are using a cache, see if we
-        // can pluck an info from it. This will be more efficient than getting
-        // it from a source.
+        // If we don't need to resolve first, and are using a cache:
+        // 1. If the request is a revalidation of the representation that
+        //    would be derived from the cached info, respond with 304 without
+        //    touching the source.
+        // 2. Otherwise, see if we can pluck an info from it. This will be
+        //    more efficient than getting it from a source.
         Format sourceFormat = Format.UNKNOWN;
         if (!isResolvingFirst()) {
+            Info info = null;
             try {
-                Info info = cacheFacade.getInfo(identifier);
-                if (info != null) {
-                    Format infoFormat = info.getSourceFormat();
-                    if (infoFormat != null) {
-                        sourceFormat = infoFormat;
-                    }
-                }
+                info = cacheFacade.getInfo(identifier);
             } catch (IOException e) {
                 // Don't rethrow -- it's still possible to service the request.
                 LOGGER.error(e.getMessage());
             }
+            if (info != null) {
+                if (respondIfNotModified(info)) {
+                    return;
+                }
+                Format infoFormat = info.getSourceFormat();
+                if (infoFormat != null) {
+                    sourceFormat = infoFormat;
+                }
+            }
         }
 
         final Source source = new SourceFactory().newSource(
@@ -103,7 +111,7 @@ public class ImageResource extends IIIF1Resource {
         final Path sourceImage = cacheFacade.getSourceCacheFile(identifier);
         if (sourceImage == null || isResolvingFirst()) {
             try {
-                source.checkAccess();
+                checkAccess(source);
             } catch (NoSuchFileException e) { // this needs to be rethrown!
                 if (config.getBoolean(Key.CACHE_SERVER_PURGE_MISSING, false)) {
                     // If the image was not found, purge it from the cache.
@@ -125,7 +133,7 @@ public class ImageResource extends IIIF1Resource {
                     sourceFormat = mediaTypes.get(0).toFormat();
                 }
             } else {
-                sourceFormat = source.getFormat();
+                sourceFormat = getSourceFormat(source);
             }
         }
 
@@ -133,8 +141,9 @@ public class ImageResource extends IIIF1Resource {
         try (final Processor processor =
                      new ProcessorFactory().newProcessor(sourceFormat)) {
             // Connect it to the source.
-            tempFileFuture = new ProcessorConnector().connect(
-                    source, processor, identifier, sourceFormat);
+            final ProcessorConnector connector = new ProcessorConnector();
+            tempFileFuture = connector.connect(
+                    source, processor, identifier, sourceFormat, true);
 
             final Set<Format> availableOutputFormats =
                     processor.getAvailableOutputFormats();
@@ -160,6 +169,10 @@ public class ImageResource extends IIIF1Resource {
             ops.applyNonEndpointMutations(info, getDelegateProxy());
             ops.freeze();
 
+            if (respondIfNotModified(getEntityTag(ops, info))) {
+                return;
+            }
+
             processor.validate(ops, fullSize);
 
             // Find out whether the processor supports the source format by
@@ -179,8 +192,27 @@ public class ImageResource extends IIIF1Resource {
 
             addHeaders(processor, ops.getOutputFormat(), disposition);
 
-            new ImageRepresentation(info, processor, ops, isBypassingCache())
-                    .write(getResponse().getOutputStream());
+            // An image that needs processing can be processed more
+            // efficiently from a pyramidal derivative of the source image, if
+            // there is one, but one that doesn't must be copied from the
+            // source image itself.
+            if (ops.hasEffect(info.getSize(), info.getSourceFormat())) {
+                connector.connectToPyramid(processor);
+            }
+
+            // If the image is available in a file, serve it from there, so
+            // that byte-range requests can be honored.
+            final ImageRepresentation representation = new ImageRepresentation(
+                    info, processor, ops, isBypassingCache());
+            final Path file = representation.getFile();
+            if (file == null || !writeWithRanges(file)) {
+                if (file != null) {
+                    // The file vanished, e.g. it was purged from the cache,
+                    // so don't look for it again.
+                    representation.setKnownToBeUncached(true);
+                }
+                representation.write(getResponse().getOutputStream());
+            }
 
             // Notify the health checker of a successful response -- after the
             // response has been written successfully, obviously.
@@ -205,6 +237,46 @@ public class ImageResource extends IIIF1Resource {
                 String.format("<%s>;rel=\"profile\";", complianceLevel.getUri()));
     }
 
+    /**
+     * @return Weak entity tag of the image that would be derived from the
+     *         given source image by the given operations. It is weak because
+     *         the exact bytes of the image also depend on things that it
+     *         doesn't account for, like the encoder configuration and the
+     *         processor.
+     */
+    private static String getEntityTag(OperationList ops, Info info)
+            throws IOException {
+        return newWeakEntityTag(ops.toString() + "\n" + info.toJSON());
+    }
+
+    /**
+     * Responds with {@literal 304 Not Modified} if the request is a
+     * revalidation of the representation that would be derived from the
+     * given cached info, without accessing the source. If the URI contains
+     * no format extension, the output format is negotiated against the
+     * output formats of a processor that is instantiated but not connected.
+     *
+     * @param info Cached info of the requested image.
+     * @return     Whether the response status was set to {@literal 304}.
+     */
+    private boolean respondIfNotModified(Info info) throws Exception {
+        if (getRequest().getHeaders().getFirstValue("If-None-Match") == null) {
+            return false;
+        }
+        final OperationList ops;
+        if (getPathArguments().size() > 5) {
+            ops = getOperationList(Collections.emptySet());
+        } else {
+            try (final Processor processor =
+                         new ProcessorFactory().newProcessor(info.getSourceFormat())) {
+                ops = getOperationList(processor.getAvailableOutputFormats());
+            }
+        }
+        ops.setScaleConstraint(getScaleConstraint());
+        ops.applyNonEndpointMutations(info, getDelegateProxy());
+        return respondIfNotModified(getEntityTag(ops, info));
+    }
+
     private OperationList getOperationList(Set<Format> availableOutputFormats) {
         final List<String> args = getPathArguments();
 
@@ -90,8 +90,8 @@ public class InformationResource extends IIIF1Resource {
                                         info.getNumResolutions(),
                                         getScaleConstraint());
                         addHeaders(imageInfo);
-                        newRepresentation(imageInfo)
-                                .write(getResponse().getOutputStream());
+                        writeWithEntityTag(newRepresentation(imageInfo));
+                        return;
                     }
                 }
             } catch (IOException e) {
@@ -109,7 +109,7 @@ public class InformationResource extends IIIF1Resource {
         final Path sourceImage = cacheFacade.getSourceCacheFile(identifier);
         if (sourceImage == null || isResolvingFirst()) {
             try {
-                source.checkAccess();
+                checkAccess(source);
             } catch (NoSuchFileException e) { // this needs to be rethrown!
                 if (config.getBoolean(Key.CACHE_SERVER_PURGE_MISSING, false)) {
                     // If the image was not found, purge it from the cache.
@@ -131,7 +131,7 @@ public class InformationResource extends IIIF1Resource {
                 format = mediaTypes.get(0).toFormat();
             }
         } else {
-            format = source.getFormat();
+            format = getSourceFormat(source);
         }
 
         // Obtain an instance of the processor assigned to that format.
@@ -150,7 +150,7 @@ public class InformationResource extends IIIF1Resource {
                     getScaleConstraint());
 
             addHeaders(imageInfo);
-            newRepresentation(imageInfo).write(getResponse().getOutputStream());
+            writeWithEntityTag(newRepresentation(imageInfo));
         }
     }
 
@@ -0,0 +1,362 @@
+package edu.illinois.library.cantaloupe.resource.iiif.v2;
+
+import edu.illinois.library.cantaloupe.cache.CacheFacade;
+import edu.illinois.library.cantaloupe.cache.MeteredOutputStream;
+import edu.illinois.library.cantaloupe.image.Dimension;
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.image.Info;
+import edu.illinois.library.cantaloupe.image.ScaleConstraint;
+import edu.illinois.library.cantaloupe.operation.OperationList;
+import edu.illinois.library.cantaloupe.operation.ValidationException;
+import edu.illinois.library.cantaloupe.processor.AdmissionController;
+import edu.illinois.library.cantaloupe.processor.AdmissionRejectedException;
+import edu.illinois.library.cantaloupe.processor.Processor;
+import edu.illinois.library.cantaloupe.processor.ProcessorConnector;
+import edu.illinois.library.cantaloupe.processor.ProcessorException;
+import edu.illinois.library.cantaloupe.processor.ProcessorFactory;
+import edu.illinois.library.cantaloupe.processor.UnsupportedOutputFormatException;
+import edu.illinois.library.cantaloupe.resource.RequestContext;
+import edu.illinois.library.cantaloupe.script.DelegateProxy;
+import edu.illinois.library.cantaloupe.script.DelegateProxyService;
+import edu.illinois.library.cantaloupe.script.DisabledException;
+import edu.illinois.library.cantaloupe.source.Source;
+import edu.illinois.library.cantaloupe.source.SourceFactory;
+import edu.illinois.library.cantaloupe.util.Stopwatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Renders the images that a IIIF Image API 2.x client would request in
+ * order to display an image&mdash;its tiles at every scale factor and its
+ * {@literal sizes}, as advertised in its information response&mdash;into the
+ * derivative cache, so that the first client to display it doesn't have to
+ * wait for them to be processed.</p>
+ *
+ * <p>Images that are already present in the cache are skipped, so seeding
+ * an image again resumes where an earlier attempt left off.</p>
+ *
+ * <p>Instances keep running counts of their work, and are thread-safe.</p>
+ *
+ * @since 4.1
+ */
+public final class CacheSeeder {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(CacheSeeder.class);
+
+    /**
+     * Number of times an image will be resubmitted to the {@link
+     * AdmissionController} after having been rejected by it before giving
+     * up.
+     */
+    private static final int MAX_ADMISSION_ATTEMPTS = 10;
+
+    private final Quality quality;
+    private final OutputFormat outputFormat;
+    private final ScaleConstraint scaleConstraint;
+
+    private final AtomicLong numImagesFailed = new AtomicLong();
+    private final AtomicLong numImagesSeeded = new AtomicLong();
+    private final AtomicLong numDerivativesRendered = new AtomicLong();
+    private final AtomicLong numDerivativesSkipped = new AtomicLong();
+
+    /**
+     * @param quality      Quality of the images to render.
+     * @param outputFormat Format of the images to render.
+     */
+    public CacheSeeder(Quality quality, OutputFormat outputFormat) {
+        this(quality, outputFormat, null);
+    }
+
+    /**
+     * @param quality         Quality of the images to render.
+     * @param outputFormat    Format of the images to render.
+     * @param scaleConstraint Scale constraint of the identifiers that clients
+     *                        will request, in the same form as {@link
+     *                        edu.illinois.library.cantaloupe.resource.AbstractResource#getScaleConstraint()}.
+     *                        May be {@literal null}.
+     */
+    public CacheSeeder(Quality quality,
+                       OutputFormat outputFormat,
+                       ScaleConstraint scaleConstraint) {
+        this.quality = quality;
+        this.outputFormat = outputFormat;
+        this.scaleConstraint = scaleConstraint;
+    }
+
+    /**
+     * @return Number of derivative images rendered into the cache.
+     */
+    public long getNumDerivativesRendered() {
+        return numDerivativesRendered.get();
+    }
+
+    /**
+     * @return Number of derivative images that were already cached, or that
+     *         did not need to be cached because they would be served
+     *         directly from the source image.
+     */
+    public long getNumDerivativesSkipped() {
+        return numDerivativesSkipped.get();
+    }
+
+    /**
+     * @return Number of source images that could not be seeded.
+     */
+    public long getNumImagesFailed() {
+        return numImagesFailed.get();
+    }
+
+    /**
+     * @return Number of source images that have been completely seeded.
+     */
+    public long getNumImagesSeeded() {
+        return numImagesSeeded.get();
+    }
+
+    /**
+     * <p>Renders all of the tiles and sizes of the given image that are not
+     * already cached.</p>
+     *
+     * <p>The source image is accessed, and a processor is obtained for it,
+     * only once, and both are used for all of its derivatives.</p>
+     *
+     * @param identifier Identifier of the source image.
+     * @throws IllegalStateException if there is no derivative cache.
+     * @throws Exception if the image cannot be seeded. Anything that has been
+     *         cached by then will remain cached.
+     */
+    public void seed(Identifier identifier) throws Exception {
+        try {
+            seedImage(identifier);
+            numImagesSeeded.incrementAndGet();
+        } catch (Exception e) {
+            numImagesFailed.incrementAndGet();
+            throw e;
+        }
+    }
+
+    private void seedImage(Identifier identifier) throws Exception {
+        final CacheFacade cacheFacade = new CacheFacade();
+        if (!cacheFacade.isDerivativeCacheAvailable()) {
+            throw new IllegalStateException(
+                    "There is no derivative cache to seed.");
+        }
+
+        final Stopwatch watch = new Stopwatch();
+        final DelegateProxy proxy = newDelegateProxy(identifier);
+        final Source source = new SourceFactory().newSource(identifier, proxy);
+        source.checkAccess();
+        final Format sourceFormat = source.getFormat();
+
+        try (Processor processor =
+                     new ProcessorFactory().newProcessor(sourceFormat)) {
+            final ProcessorConnector connector = new ProcessorConnector();
+            final Future<Path> tempFileFuture = connector.connect(
+                    source, processor, identifier, sourceFormat, true);
+            try {
+                if (!processor.getAvailableOutputFormats()
+                        .contains(outputFormat.toFormat())) {
+                    throw new UnsupportedOutputFormatException(
+                            processor, outputFormat.toFormat());
+                }
+                final Info info = cacheFacade.getOrReadInfo(identifier, processor);
+                // Only derivatives that need processing are rendered, so
+                // they can all be rendered from the pyramid, if there is one.
+                connector.connectToPyramid(processor);
+                int count = 0;
+                for (Parameters params : getParameters(identifier, info, processor)) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedIOException(
+                                "Interrupted while seeding " + identifier);
+                    }
+                    seedDerivative(params, info, processor, proxy, cacheFacade);
+                    count++;
+                }
+                LOGGER.debug("seed(): seeded {} derivatives of {} in {}",
+                        count, identifier, watch);
+            } finally {
+                if (tempFileFuture != null) {
+                    Path tempFile = tempFileFuture.get();
+                    if (tempFile != null) {
+                        Files.deleteIfExists(tempFile);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Parameters of every tile at every scale factor, and of every
+     *         size, in the information response of the given image, in the
+     *         form in which a typical client would request them.
+     */
+    List<Parameters> getParameters(Identifier identifier,
+                                   Info info,
+                                   Processor processor) {
+        final ImageInfoFactory factory = new ImageInfoFactory(
+                processor.getSupportedFeatures(),
+                processor.getSupportedIIIF2Qualities(),
+                processor.getAvailableOutputFormats());
+        final ImageInfo<String,Object> imageInfo =
+                factory.newImageInfo(null, info, 0, scaleConstraint);
+
+        final int fullWidth = (int) imageInfo.get("width");
+        final int fullHeight = (int) imageInfo.get("height");
+        final Set<Parameters> paramsSet = new LinkedHashSet<>();
+
+        @SuppressWarnings("unchecked")
+        final List<ImageInfo.Tile> tiles =
+                (List<ImageInfo.Tile>) imageInfo.get("tiles");
+        for (ImageInfo.Tile tile : tiles) {
+            for (int scaleFactor : tile.scaleFactors) {
+                final int regionWidth = tile.width * scaleFactor;
+                final int regionHeight = tile.height * scaleFactor;
+
+                if (regionWidth >= fullWidth && regionHeight >= fullHeight) {
+                    // The whole image fits in one tile.
+                    final int width = (int) Math.ceil(fullWidth / (double) scaleFactor);
+                    paramsSet.add(newParameters(identifier, "full",
+                            (width == fullWidth) ? "full" : width + ","));
+                    continue;
+                }
+                for (int y = 0; y < fullHeight; y += regionHeight) {
+                    for (int x = 0; x < fullWidth; x += regionWidth) {
+                        final int w = Math.min(regionWidth, fullWidth - x);
+                        final int h = Math.min(regionHeight, fullHeight - y);
+                        final int width = (int) Math.ceil(w / (double) scaleFactor);
+                        paramsSet.add(newParameters(identifier,
+                                x + "," + y + "," + w + "," + h, width + ","));
+                    }
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        final List<ImageInfo.Size> sizes =
+                (List<ImageInfo.Size>) imageInfo.get("sizes");
+        for (ImageInfo.Size size : sizes) {
+            paramsSet.add(newParameters(identifier, "full",
+                    (size.width == fullWidth) ? "full" : size.width + ","));
+        }
+        return new ArrayList<>(paramsSet);
+    }
+
+    private Parameters newParameters(Identifier identifier,
+                                     String region,
+                                     String size) {
+        return new Parameters(identifier, region, size, "0",
+                quality.name().toLowerCase(),
+                outputFormat.name().toLowerCase());
+    }
+
+    /**
+     * Renders the image described by the given parameters into the derivative
+     * cache, in the same way that {@link ImageResource} would, so that it
+     * will be found under the same key.
+     */
+    private void seedDerivative(Parameters params,
+                                Info info,
+                                Processor processor,
+                                DelegateProxy proxy,
+                                CacheFacade cacheFacade) throws Exception {
+        final OperationList ops = params.toOperationList();
+        ops.setScaleConstraint(scaleConstraint);
+        ops.applyNonEndpointMutations(info, proxy);
+        ops.freeze();
+
+        if (!ops.hasEffect(info.getSize(), info.getSourceFormat()) ||
+                isCached(ops, cacheFacade)) {
+            numDerivativesSkipped.incrementAndGet();
+            return;
+        }
+        try {
+            processor.validate(ops, info.getSize());
+        } catch (ValidationException e) {
+            // e.g. the size exceeds max_pixels, in which case it couldn't be
+            // requested either.
+            LOGGER.debug("seedDerivative(): skipping {}: {}",
+                    params, e.getMessage());
+            numDerivativesSkipped.incrementAndGet();
+            return;
+        }
+
+        final Dimension resultingSize = ops.getResultingSize(info.getSize());
+        final long pixels =
+                (long) resultingSize.intWidth() * resultingSize.intHeight();
+        for (int attempt = 1; ; attempt++) {
+            try (AdmissionController.Permit permit =
+                         AdmissionController.getInstance().acquire(processor, pixels)) {
+                render(ops, info, processor, cacheFacade);
+                numDerivativesRendered.incrementAndGet();
+                return;
+            } catch (AdmissionRejectedException e) {
+                // Requests from clients take precedence, so wait for them.
+                if (attempt >= MAX_ADMISSION_ATTEMPTS) {
+                    throw e;
+                }
+                LOGGER.debug("seedDerivative(): {}; retrying in {} seconds",
+                        e.getMessage(), e.getRetryAfter());
+                Thread.sleep(1000L * Math.max(1, e.getRetryAfter()));
+            }
+        }
+    }
+
+    private void render(OperationList ops,
+                        Info info,
+                        Processor processor,
+                        CacheFacade cacheFacade) throws IOException {
+        try (MeteredOutputStream os =
+                     cacheFacade.newDerivativeImageOutputStream(ops)) {
+            processor.process(ops, info, os);
+            os.setCompletelyWritten(true);
+        } catch (IOException | RuntimeException e) {
+            // The cached image has been incompletely written and is corrupt,
+            // so it must be purged.
+            cacheFacade.purge(ops);
+            throw e;
+        } catch (ProcessorException e) {
+            cacheFacade.purge(ops);
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private static boolean isCached(OperationList ops,
+                                    CacheFacade cacheFacade) throws IOException {
+        try (InputStream is = cacheFacade.newDerivativeImageInputStream(ops)) {
+            return (is != null);
+        }
+    }
+
+    /**
+     * @return New instance whose context contains only the identifier, as
+     *         there is no request. May be {@literal null}.
+     */
+    private static DelegateProxy newDelegateProxy(Identifier identifier) {
+        if (DelegateProxyService.isEnabled()) {
+            final RequestContext context = new RequestContext();
+            context.setIdentifier(identifier);
+            try {
+                return DelegateProxyService.getInstance()
+                        .newDelegateProxy(context);
+            } catch (DisabledException e) {
+                LOGGER.debug("newDelegateProxy(): {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+}
@@ -82,27 +82,56 @@ public class ImageResource extends IIIF2Resource {
                 ops.getIdentifier(), ops.getOutputFormat());
 
         Format sourceFormat = Format.UNKNOWN;
+        boolean isOpsMutated = false;
+        boolean isKnownToBeUncached = false;
 
         // If we don't need to resolve first, and are using a cache:
-        // 1. If the cache contains an image matching the request, skip all the
+        // 1. If the request is a revalidation of the representation that
+        //    would be derived from the cached info, respond with 304 without
+        //    touching the source or processor.
+        // 2. If the cache contains an image matching the request, skip all the
         //    setup and just return the cached image.
-        // 2. Otherwise, if the cache contains a relevant info, get it to avoid
+        // 3. Otherwise, if the cache contains a relevant info, get it to avoid
         //    having to get it from a source later.
         if (!isResolvingFirst()) {
             final Info info = cacheFacade.getInfo(identifier);
             if (info != null) {
                 ops.setScaleConstraint(getScaleConstraint());
                 ops.applyNonEndpointMutations(info, getDelegateProxy());
+                isOpsMutated = true;
 
+                if (respondIfNotModified(getEntityTag(ops, info))) {
+                    return;
+                }
+
+                Path cacheFile = null;
                 InputStream cacheStream = null;
                 try {
-                    cacheStream = cacheFacade.newDerivativeImageInputStream(ops);
+                    // A cached file can be served in response to byte-range
+                    // requests, so prefer it over a stream.
+                    cacheFile = cacheFacade.getDerivativeImageFile(ops);
+                    if (cacheFile == null) {
+                        cacheStream = cacheFacade.newDerivativeImageInputStream(ops);
+                        // Don't look it up (and record a miss) again later.
+                        isKnownToBeUncached = (cacheStream == null);
+                    }
                 } catch (IOException e) {
                     // Don't rethrow -- it's still possible to service the
                     // request.
                     LOGGER.error(e.getMessage());
                 }
 
+                if (cacheFile != null) {
+                    addHeaders(params, disposition,
+                            params.getOutputFormat().toFormat().getPreferredMediaType().toString());
+
+                    if (writeWithRanges(cacheFile)) {
+                        return;
+                    }
+                    // The file was purged after it was looked up, so fall
+                    // back to processing.
+                    isKnownToBeUncached = true;
+                }
                 if (cacheStream != null) {
                     addHeaders(params, disposition,
                             params.getOutputFormat().toFormat().getPreferredMediaType().toString());
@@ -128,7 +157,7 @@ public class ImageResource extends IIIF2Resource {
         final Path sourceImage = cacheFacade.getSourceCacheFile(identifier);
         if (sourceImage == null || isResolvingFirst()) {
             try {
-                source.checkAccess();
+                checkAccess(source);
             } catch (NoSuchFileException e) { // this needs to be rethrown!
                 if (config.getBoolean(Key.CACHE_SERVER_PURGE_MISSING, false)) {
                     // If the image was not found, purge it from the cache.
@@ -150,7 +179,7 @@ public class ImageResource extends IIIF2Resource {
                     sourceFormat = mediaTypes.get(0).toFormat();
                 }
             } else {
-                sourceFormat = source.getFormat();
+                sourceFormat = getSourceFormat(source);
             }
         }
 
@@ -158,8 +187,9 @@ public class ImageResource extends IIIF2Resource {
         try (final Processor processor =
                      new ProcessorFactory().newProcessor(sourceFormat)) {
             // Connect it to the source.
-            tempFileFuture = new ProcessorConnector().connect(
-                    source, processor, identifier, sourceFormat);
+            final ProcessorConnector connector = new ProcessorConnector();
+            tempFileFuture = connector.connect(
+                    source, processor, identifier, sourceFormat, true);
 
             final Info info = getOrReadInfo(ops.getIdentifier(), processor);
             Dimension fullSize;
@@ -171,10 +201,18 @@ public class ImageResource extends IIIF2Resource {
 
             getRequestContext().setOperationList(ops, fullSize);
 
-            ops.setScaleConstraint(getScaleConstraint());
-            ops.applyNonEndpointMutations(info, getDelegateProxy());
+            // The mutations may already have been applied above, and
+            // applying them again would e.g. add a second overlay.
+            if (!isOpsMutated) {
+                ops.setScaleConstraint(getScaleConstraint());
+                ops.applyNonEndpointMutations(info, getDelegateProxy());
+            }
             ops.freeze();
 
+            if (respondIfNotModified(getEntityTag(ops, info))) {
+                return;
+            }
+
             processor.validate(ops, fullSize);
 
             final Dimension resultingSize = ops.getResultingSize(info.getSize());
@@ -199,8 +237,28 @@ public class ImageResource extends IIIF2Resource {
             addHeaders(params, disposition,
                     params.getOutputFormat().toFormat().getPreferredMediaType().toString());
 
-            new ImageRepresentation(info, processor, ops, isBypassingCache())
-                    .write(getResponse().getOutputStream());
+            // An image that needs processing can be processed more
+            // efficiently from a pyramidal derivative of the source image, if
+            // there is one, but one that doesn't must be copied from the
+            // source image itself.
+            if (ops.hasEffect(info.getSize(), info.getSourceFormat())) {
+                connector.connectToPyramid(processor);
+            }
+
+            // If the image is available in a file, serve it from there, so
+            // that byte-range requests can be honored.
+            final ImageRepresentation representation = new ImageRepresentation(
+                    info, processor, ops, isBypassingCache());
+            representation.setKnownToBeUncached(isKnownToBeUncached);
+            final Path file = representation.getFile();
+            if (file == null || !writeWithRanges(file)) {
+                if (file != null) {
+                    // The file vanished, e.g. it was purged from the cache,
+                    // so don't look for it again.
+                    representation.setKnownToBeUncached(true);
+                }
+                representation.write(getResponse().getOutputStream());
+            }
 
             // Notify the health checker of a successful response -- after the
             // response has been written successfully, obviously.
@@ -225,6 +283,18 @@ public class ImageResource extends IIIF2Resource {
                 Route.IIIF_2_PATH, paramsStr));
     }
 
+    /**
+     * @return Weak entity tag of the image that would be derived from the
+     *         given source image by the given operations. It is weak because
+     *         the exact bytes of the image also depend on things that it
+     *         doesn't account for, like the encoder configuration and the
+     *         processor.
+     */
+    private static String getEntityTag(OperationList ops, Info info)
+            throws IOException {
+        return newWeakEntityTag(ops.toString() + "\n" + info.toJSON());
+    }
+
     private void validateSize(Dimension resultingSize,
                               Dimension virtualSize,
                               Processor processor) throws SizeRestrictedException {
@@ -1,11 +1,14 @@
 package edu.illinois.library.cantaloupe.resource.iiif.v2;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
 
 import edu.illinois.library.cantaloupe.cache.CacheFacade;
+import edu.illinois.library.cantaloupe.cache.InfoResponseCache;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.http.Method;
@@ -67,9 +70,12 @@ public class InformationResource extends IIIF2Resource {
         final CacheFacade cacheFacade = new CacheFacade();
 
         // If we don't need to resolve first, and are using a cache, and the
-        // cache contains an info matching the request, skip all the setup and
-        // just return the cached info.
+        // cache contains a response or info matching the request, skip all
+        // the setup and just return the cached response or info.
         if (!isResolvingFirst()) {
+            if (writeCachedResponse(identifier)) {
+                return;
+            }
             try {
                 Info info = cacheFacade.getInfo(identifier);
                 if (info != null) {
@@ -80,8 +86,7 @@ public class InformationResource extends IIIF2Resource {
                         final Processor processor = new ProcessorFactory().
                                 newProcessor(format);
                         addHeaders();
-                        newRepresentation(info, processor)
-                                .write(getResponse().getOutputStream());
+                        write(identifier, info, processor);
                         return;
                     }
                 }
@@ -100,7 +105,7 @@ public class InformationResource extends IIIF2Resource {
         final Path sourceImage = cacheFacade.getSourceCacheFile(identifier);
         if (sourceImage == null || isResolvingFirst()) {
             try {
-                source.checkAccess();
+                checkAccess(source);
             } catch (NoSuchFileException e) { // this needs to be rethrown!
                 if (config.getBoolean(Key.CACHE_SERVER_PURGE_MISSING, false)) {
                     // If the image was not found, purge it from the cache.
@@ -110,6 +115,11 @@ public class InformationResource extends IIIF2Resource {
             }
         }
 
+        // If we have just resolved, the response cache can be consulted.
+        if (isResolvingFirst() && writeCachedResponse(identifier)) {
+            return;
+        }
+
         // Get the format of the source image.
         // If we are not resolving first, and there is a hit in the source
         // cache, read the format from the source-cached-file, as we will
@@ -122,7 +132,7 @@ public class InformationResource extends IIIF2Resource {
                 format = mediaTypes.get(0).toFormat();
             }
         } else {
-            format = source.getFormat();
+            format = getSourceFormat(source);
         }
 
         // Obtain an instance of the processor assigned to that format.
@@ -134,8 +144,7 @@ public class InformationResource extends IIIF2Resource {
             final Info info = getOrReadInfo(identifier, processor);
 
             addHeaders();
-            newRepresentation(info, processor)
-                    .write(getResponse().getOutputStream());
+            write(identifier, info, processor);
         }
     }
 
@@ -167,6 +176,81 @@ public class InformationResource extends IIIF2Resource {
         return mediaType + ";charset=UTF-8";
     }
 
+    /**
+     * Writes the response for the given info and, if the {@link
+     * InfoResponseCache} is in use, caches it.
+     */
+    private void write(Identifier identifier,
+                       Info info,
+                       Processor processor) throws IOException {
+        if (isUsingResponseCache()) {
+            final ByteArrayOutputStream os = new ByteArrayOutputStream();
+            newRepresentation(info, processor).write(os);
+            write(InfoResponseCache.getInstance().put(
+                    identifier, getResponseCacheVariant(), os.toByteArray()));
+        } else {
+            writeWithEntityTag(newRepresentation(info, processor));
+        }
+    }
+
+    /**
+     * Writes the given cached response, compressed if it is available that
+     * way and the client accepts it.
+     */
+    private void write(InfoResponseCache.Entry entry) throws IOException {
+        byte[] content = entry.getContent();
+        String entityTag = entry.getEntityTag();
+        if (entry.getGzippedContent() != null) {
+            // Whether or not this response is compressed, another one for the
+            // same URI may be, so shared caches must key on the header.
+            addVaryField("Accept-Encoding");
+        }
+        if (entry.getGzippedContent() != null && isGzipAccepted()) {
+            content = entry.getGzippedContent();
+            entityTag = entry.getGzippedEntityTag();
+            getResponse().setHeader("Content-Encoding", "gzip");
+        }
+        if (!respondIfNotModified(entityTag)) {
+            getResponse().getOutputStream().write(content);
+        }
+    }
+
+    /**
+     * Adds the given field to the {@literal Vary} response header, unless it
+     * is already present.
+     */
+    private void addVaryField(String field) {
+        final String vary = getResponse().getHeader("Vary");
+        if (vary == null || vary.isEmpty()) {
+            getResponse().setHeader("Vary", field);
+        } else if (Arrays.stream(vary.split(","))
+                .map(String::trim)
+                .noneMatch(field::equalsIgnoreCase)) {
+            getResponse().setHeader("Vary", vary + ", " + field);
+        }
+    }
+
+    /**
+     * Writes a response from the {@link InfoResponseCache}, if it is in use
+     * and contains one matching the request.
+     *
+     * @return Whether a response was written.
+     */
+    private boolean writeCachedResponse(Identifier identifier)
+            throws IOException {
+        if (!isUsingResponseCache()) {
+            return false;
+        }
+        final InfoResponseCache.Entry entry = InfoResponseCache.getInstance()
+                .get(identifier, getResponseCacheVariant());
+        if (entry == null) {
+            return false;
+        }
+        addHeaders();
+        write(entry);
+        return true;
+    }
+
     private JacksonRepresentation newRepresentation(Info info,
                                                     Processor processor) {
         final ImageInfoFactory factory = new ImageInfoFactory(
@@ -180,6 +264,52 @@ public class InformationResource extends IIIF2Resource {
         return new JacksonRepresentation(imageInfo);
     }
 
+    /**
+     * @return Everything other than the identifier that the response entity
+     *         depends on, for use as an {@link InfoResponseCache} variant.
+     *         (The image URI covers the base URI and the reverse proxy
+     *         headers.)
+     */
+    private String getResponseCacheVariant() {
+        return String.join("|", "2", getImageURI(),
+                Integer.toString(getPageIndex()),
+                String.valueOf(getScaleConstraint()));
+    }
+
+    /**
+     * @return Whether the {@literal Accept-Encoding} request header accepts
+     *         {@literal gzip}.
+     */
+    private boolean isGzipAccepted() {
+        final String header = getRequest().getHeaders()
+                .getFirstValue("Accept-Encoding");
+        if (header == null) {
+            return false;
+        }
+        for (String coding : header.split(",")) {
+            final String[] parts = coding.split(";");
+            if (!"gzip".equalsIgnoreCase(parts[0].trim())) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                final String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isUsingResponseCache() {
+        return InfoResponseCache.isEnabled() && !isBypassingCache();
+    }
+
     private boolean isResolvingFirst() {
         return Configuration.getInstance().
                 getBoolean(Key.CACHE_SERVER_RESOLVE_FIRST, true);
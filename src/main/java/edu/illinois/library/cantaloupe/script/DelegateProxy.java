@@ -3,6 +3,7 @@ package edu.illinois.library.cantaloupe.script;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.resource.RequestContext;
+import edu.illinois.library.cantaloupe.status.Metrics;
 import edu.illinois.library.cantaloupe.util.Stopwatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -359,6 +360,7 @@ public final class DelegateProxy {
                 methodName, argsList);
 
         final Stopwatch watch = new Stopwatch();
+        final long start = System.nanoTime();
         try {
             final Object retval = ((Invocable) scriptEngine).invokeMethod(
                     delegate, methodName, args);
@@ -371,6 +373,11 @@ public final class DelegateProxy {
         } catch (NoSuchMethodException e) {
             throw new ScriptException(e);
         } finally {
+            // Failed invocations take time too.
+            if (!RUBY_REQUEST_CONTEXT_SETTER.equals(methodName)) {
+                Metrics.getInstance().recordSince(
+                        Metrics.Stage.DELEGATE_METHOD, methodName, start);
+            }
             lock.unlock(stamp);
         }
     }
@@ -17,7 +17,10 @@ import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * <p>Provides access to source content located on a locally attached
@@ -49,6 +52,53 @@ class FilesystemSource extends AbstractSource
      */
     private Path path;
 
+    /**
+     * @param prefix Identifier prefix.
+     * @return       Identifiers of all of the files under {@link
+     *               Key#FILESYSTEMSOURCE_PATH_PREFIX} whose identifiers begin
+     *               with the given prefix, in lexical order.
+     * @throws UnsupportedOperationException if BasicLookupStrategy is not in
+     *         use, as there is no way to enumerate the pathnames that a
+     *         delegate method might return.
+     * @see SourceFactory#listIdentifiers(String)
+     */
+    static List<Identifier> listIdentifiers(String prefix) throws IOException {
+        if (!LookupStrategy.BASIC.equals(
+                LookupStrategy.from(Key.FILESYSTEMSOURCE_LOOKUP_STRATEGY))) {
+            throw new UnsupportedOperationException(
+                    "Identifiers can only be listed when using " +
+                    "BasicLookupStrategy.");
+        } else if (prefix.contains("..")) {
+            throw new IllegalArgumentException("Illegal prefix: " + prefix);
+        }
+        final Configuration config = Configuration.getInstance();
+        final String pathPrefix =
+                config.getString(Key.FILESYSTEMSOURCE_PATH_PREFIX, "");
+        final String pathSuffix =
+                config.getString(Key.FILESYSTEMSOURCE_PATH_SUFFIX, "");
+
+        // Start walking at the deepest directory that the prefix implies.
+        final Path start = Paths.get(pathPrefix + prefix.substring(
+                0, prefix.lastIndexOf(UNIX_PATH_SEPARATOR) + 1));
+        if (!Files.isDirectory(start)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> paths = Files.walk(start)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .map(Path::toString)
+                    .filter(p -> p.startsWith(pathPrefix) &&
+                            p.endsWith(pathSuffix) &&
+                            p.length() > pathPrefix.length() + pathSuffix.length())
+                    .map(p -> p.substring(pathPrefix.length(),
+                            p.length() - pathSuffix.length()))
+                    .filter(id -> id.startsWith(prefix))
+                    .sorted()
+                    .map(Identifier::new)
+                    .collect(Collectors.toList());
+        }
+    }
+
     @Override
     public void checkAccess() throws IOException {
         final Path path = getPath();
@@ -13,6 +13,7 @@ import javax.script.ScriptException;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static edu.illinois.library.cantaloupe.source.SourceFactory.SelectionStrategy.DELEGATE_SCRIPT;
@@ -57,6 +58,29 @@ public final class SourceFactory {
                 new S3Source()));
     }
 
+    /**
+     * <p>Lists the identifiers of the images that begin with the given
+     * prefix, for tasks that operate on many images.</p>
+     *
+     * <p>Most sources have no way of doing this, so it is only supported when
+     * the {@link SelectionStrategy#STATIC static} source is {@link
+     * FilesystemSource} using BasicLookupStrategy.</p>
+     *
+     * @param prefix Identifier prefix.
+     * @return       Identifiers in lexical order.
+     * @throws UnsupportedOperationException if identifiers cannot be listed.
+     * @since 4.1
+     */
+    public List<Identifier> listIdentifiers(String prefix) throws Exception {
+        if (SelectionStrategy.STATIC.equals(getSelectionStrategy()) &&
+                newSource(new Identifier(prefix), null) instanceof FilesystemSource) {
+            return FilesystemSource.listIdentifiers(prefix);
+        }
+        throw new UnsupportedOperationException(
+                "Identifiers can only be listed when using a static " +
+                FilesystemSource.class.getSimpleName() + ".");
+    }
+
     /**
      * <p>If {@link Key#SOURCE_STATIC} is not set, uses a delegate method to
      * return an instance of a source for the given identifier. Otherwise,
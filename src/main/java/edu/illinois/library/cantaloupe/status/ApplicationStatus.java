@@ -1,8 +1,13 @@
 package edu.illinois.library.cantaloupe.status;
 
 import edu.illinois.library.cantaloupe.Application;
+import edu.illinois.library.cantaloupe.cache.Cache;
+import edu.illinois.library.cantaloupe.cache.CacheFactory;
+import edu.illinois.library.cantaloupe.cache.CacheStatistics;
 import edu.illinois.library.cantaloupe.cache.InfoCache;
 import edu.illinois.library.cantaloupe.cache.InfoService;
+import edu.illinois.library.cantaloupe.processor.AdmissionController;
+import edu.illinois.library.cantaloupe.processor.BufferPool;
 import edu.illinois.library.cantaloupe.script.DelegateProxy;
 import edu.illinois.library.cantaloupe.script.InvocationCache;
 
@@ -21,6 +26,58 @@ public final class ApplicationStatus {
         return Application.getVersion();
     }
 
+    /**
+     * @return Number of requests currently being processed, as tracked by
+     *         the {@link AdmissionController}.
+     */
+    public int getAdmissionActiveCount() {
+        return AdmissionController.getInstance().getActiveCount();
+    }
+
+    /**
+     * @return Number of requests currently waiting to be processed.
+     */
+    public int getAdmissionQueueDepth() {
+        return AdmissionController.getInstance().getQueueDepth();
+    }
+
+    /**
+     * @return Number of requests that have been rejected because the
+     *         processor that would have processed them was too busy.
+     */
+    public long getAdmissionRejectedCount() {
+        return AdmissionController.getInstance().getRejectedCount();
+    }
+
+    /**
+     * @return Ratio of {@link BufferPool} borrow requests that were satisfied
+     *         by a pooled buffer.
+     */
+    public double getBufferPoolHitRate() {
+        return BufferPool.getInstance().getHitRate();
+    }
+
+    /**
+     * @return Max number of bytes the {@link BufferPool} will retain.
+     */
+    public long getBufferPoolMaxSize() {
+        return BufferPool.getInstance().getMaxRetainedBytes();
+    }
+
+    /**
+     * @return Number of bytes currently retained by the {@link BufferPool}.
+     */
+    public long getBufferPoolSize() {
+        return BufferPool.getInstance().getRetainedBytes();
+    }
+
+    /**
+     * @return Derivative cache in use, or {@literal null} if none.
+     */
+    public Cache getDerivativeCache() {
+        return CacheFactory.getDerivativeCache();
+    }
+
     /**
      * @return Max delegate method invocation cache size.
      */
@@ -53,6 +110,21 @@ public final class ApplicationStatus {
         return infoCache.size();
     }
 
+    /**
+     * @return Statistics of the {@link InfoCache}.
+     */
+    public CacheStatistics getInfoCacheStatistics() {
+        InfoCache infoCache = InfoService.getInstance().getInfoCache();
+        return infoCache.getStatistics();
+    }
+
+    /**
+     * @return Source cache in use, or {@literal null} if none.
+     */
+    public Cache getSourceCache() {
+        return CacheFactory.getSourceCache();
+    }
+
     /**
      * @return Free VM heap in bytes.
      */
@@ -101,6 +173,21 @@ public final class ApplicationStatus {
         section.put("version", getApplicationVersion());
         status.put("application", section);
 
+        // Admission control
+        section = new LinkedHashMap<>();
+        section.put("active", getAdmissionActiveCount());
+        section.put("queued", getAdmissionQueueDepth());
+        section.put("rejected", getAdmissionRejectedCount());
+        section.put("processors", AdmissionController.getInstance().toMap());
+        status.put("admission", section);
+
+        // Buffer pool
+        section = new LinkedHashMap<>();
+        section.put("size", getBufferPoolSize());
+        section.put("maxSize", getBufferPoolMaxSize());
+        section.put("hitRate", getBufferPoolHitRate());
+        status.put("bufferPool", section);
+
         // DMIC
         section = new LinkedHashMap<>();
         section.put("size", getDMICSize());
@@ -111,8 +198,15 @@ public final class ApplicationStatus {
         section = new LinkedHashMap<>();
         section.put("size", getInfoCacheSize());
         section.put("maxSize", getInfoCacheMaxSize());
+        section.put("statistics", getInfoCacheStatistics().toMap());
         status.put("infoCache", section);
 
+        // Derivative cache
+        status.put("derivativeCache", toMap(getDerivativeCache()));
+
+        // Source cache
+        status.put("sourceCache", toMap(getSourceCache()));
+
         // Memory
         section = new LinkedHashMap<>();
         section.put("usedHeapBytes", getVMTotalHeap() - getVMFreeHeap());
@@ -126,4 +220,18 @@ public final class ApplicationStatus {
         return status;
     }
 
+    /**
+     * @return Map of the implementation and statistics of the given cache,
+     *         or {@literal null} if it is {@literal null}.
+     */
+    private static Map<String,Object> toMap(Cache cache) {
+        if (cache == null) {
+            return null;
+        }
+        final Map<String,Object> section = new LinkedHashMap<>();
+        section.put("implementation", cache.getClass().getSimpleName());
+        section.put("statistics", cache.getStatistics().toMap());
+        return section;
+    }
+
 }
@@ -0,0 +1,102 @@
+package edu.illinois.library.cantaloupe.status;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Distribution of durations, counted in fixed buckets whose bounds are
+ * those of {@link #BUCKET_BOUNDS}, plus an unbounded one.</p>
+ *
+ * <p>Recording a duration is lock-free and allocation-free, so it is cheap
+ * enough to do many times per request. The price is that the distribution
+ * is only as fine-grained as the buckets.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @since 4.1
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Inclusive upper bounds of all but the last bucket, in nanoseconds.
+     */
+    static final long[] BUCKET_BOUNDS = {
+            TimeUnit.MICROSECONDS.toNanos(100),
+            TimeUnit.MICROSECONDS.toNanos(250),
+            TimeUnit.MICROSECONDS.toNanos(500),
+            TimeUnit.MILLISECONDS.toNanos(1),
+            TimeUnit.MICROSECONDS.toNanos(2500),
+            TimeUnit.MILLISECONDS.toNanos(5),
+            TimeUnit.MILLISECONDS.toNanos(10),
+            TimeUnit.MILLISECONDS.toNanos(25),
+            TimeUnit.MILLISECONDS.toNanos(50),
+            TimeUnit.MILLISECONDS.toNanos(100),
+            TimeUnit.MILLISECONDS.toNanos(250),
+            TimeUnit.MILLISECONDS.toNanos(500),
+            TimeUnit.SECONDS.toNanos(1),
+            TimeUnit.MILLISECONDS.toNanos(2500),
+            TimeUnit.SECONDS.toNanos(5),
+            TimeUnit.SECONDS.toNanos(10),
+            TimeUnit.SECONDS.toNanos(30) };
+
+    private final LongAdder[] counts = new LongAdder[BUCKET_BOUNDS.length + 1];
+    private final LongAdder sum = new LongAdder();
+
+    LatencyHistogram() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return Number of durations recorded in each bucket or any of the ones
+     *         before it, in bucket order. The last element is the total
+     *         count.
+     */
+    long[] getCumulativeCounts() {
+        final long[] cumulative = new long[counts.length];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += counts[i].sum();
+            cumulative[i] = total;
+        }
+        return cumulative;
+    }
+
+    /**
+     * @return Number of recorded durations.
+     */
+    public long getCount() {
+        long total = 0;
+        for (LongAdder count : counts) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    /**
+     * @return Sum of all recorded durations in nanoseconds.
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * @param nanos Duration in nanoseconds. Negative values, which can only
+     *              arise from a misuse of {@link System#nanoTime()}, are
+     *              ignored.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        int index = Arrays.binarySearch(BUCKET_BOUNDS, nanos);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        counts[index].increment();
+        sum.add(nanos);
+    }
+
+}
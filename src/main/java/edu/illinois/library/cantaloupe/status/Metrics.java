@@ -0,0 +1,218 @@
+package edu.illinois.library.cantaloupe.status;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>Records how long each stage of request handling takes, in a {@link
+ * LatencyHistogram} for each combination of {@link Stage} and label value
+ * (such as the name of the processor, source, or cache involved), and
+ * exports them in the Prometheus text exposition format.</p>
+ *
+ * <p>Typical usage:</p>
+ *
+ * <pre>final long start = System.nanoTime();
+ * // do something
+ * Metrics.getInstance().recordSince(Metrics.Stage.DECODE, processorName, start);</pre>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @see <a href="https://prometheus.io/docs/instrumenting/exposition_formats/">
+ *     Exposition formats</a>
+ * @since 4.1
+ */
+public final class Metrics {
+
+    /**
+     * Stage of request handling. Each one is exported as a separate
+     * histogram.
+     */
+    public enum Stage {
+
+        AUTHORIZATION("authorization", null,
+                "Time spent authorizing requests."),
+        DELEGATE_METHOD("delegate_method", "method",
+                "Time spent in delegate method invocations, by method."),
+        SOURCE_CHECK_ACCESS("source_check_access", "source",
+                "Time spent checking access to source images, by source."),
+        SOURCE_FORMAT_DETECTION("source_format_detection", "source",
+                "Time spent detecting the format of source images, by source."),
+        INFO_CACHE_LOOKUP("info_cache_lookup", "cache",
+                "Time spent looking up image infos in caches, by cache."),
+        INFO_READ("info_read", "processor",
+                "Time spent reading image infos from source images, by processor."),
+        DECODE("decode", "processor",
+                "Time spent decoding source images, by processor."),
+        POST_PROCESS("post_process", "step",
+                "Time spent in Java 2D post-processing steps, by step."),
+        ENCODE("encode", "format",
+                "Time spent encoding derivative images, by format."),
+        CACHE_READ("cache_read", "cache",
+                "Time spent reading derivative images from the derivative cache, by cache."),
+        CACHE_WRITE("cache_write", "cache",
+                "Time spent writing derivative images to the derivative cache, by cache.");
+
+        private final String key, labelName, help;
+
+        Stage(String key, String labelName, String help) {
+            this.key = key;
+            this.labelName = labelName;
+            this.help = help;
+        }
+
+        /**
+         * @return Name of the label whose values distinguish the histograms
+         *         of the stage, or {@literal null} if it has only one.
+         */
+        public String getLabelName() {
+            return labelName;
+        }
+
+        /**
+         * @return Name of the metric in the exposition format.
+         */
+        public String getMetricName() {
+            return METRIC_NAME_PREFIX + key + "_seconds";
+        }
+
+    }
+
+    private static final String METRIC_NAME_PREFIX = "cantaloupe_";
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private static volatile Metrics instance;
+
+    private final Map<Stage, ConcurrentMap<String,LatencyHistogram>> histograms =
+            new EnumMap<>(Stage.class);
+
+    /**
+     * For testing only.
+     */
+    static synchronized void clearInstance() {
+        instance = null;
+    }
+
+    /**
+     * @return Shared instance.
+     */
+    public static Metrics getInstance() {
+        Metrics metrics = instance;
+        if (metrics == null) {
+            synchronized (Metrics.class) {
+                metrics = instance;
+                if (metrics == null) {
+                    metrics = new Metrics();
+                    instance = metrics;
+                }
+            }
+        }
+        return metrics;
+    }
+
+    private static String escapeLabelValue(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n");
+    }
+
+    private static String formatBound(long nanos) {
+        return BigDecimal.valueOf(nanos).movePointLeft(9)
+                .stripTrailingZeros().toPlainString();
+    }
+
+    private Metrics() {
+        for (Stage stage : Stage.values()) {
+            histograms.put(stage, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * @param stage      Stage.
+     * @param labelValue Label value, or {@literal null} if the stage has no
+     *                   label.
+     * @return           Histogram of the given stage and label value, or
+     *                   {@literal null} if nothing has been recorded in it.
+     */
+    public LatencyHistogram getHistogram(Stage stage, String labelValue) {
+        return histograms.get(stage).get(normalize(labelValue));
+    }
+
+    private static String normalize(String labelValue) {
+        return (labelValue != null) ? labelValue : "";
+    }
+
+    /**
+     * @param stage      Stage.
+     * @param labelValue Label value, such as the simple class name of the
+     *                   processor, source, or cache involved. May be
+     *                   {@literal null}.
+     * @param nanos      Duration in nanoseconds.
+     */
+    public void record(Stage stage, String labelValue, long nanos) {
+        histograms.get(stage)
+                .computeIfAbsent(normalize(labelValue),
+                        k -> new LatencyHistogram())
+                .record(nanos);
+    }
+
+    /**
+     * Records the time elapsed since the given start time.
+     *
+     * @param stage      Stage.
+     * @param labelValue Label value, such as the simple class name of the
+     *                   processor, source, or cache involved. May be
+     *                   {@literal null}.
+     * @param startNanos Return value of {@link System#nanoTime()} at the
+     *                   start of the stage.
+     */
+    public void recordSince(Stage stage, String labelValue, long startNanos) {
+        record(stage, labelValue, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Writes all of the histograms that have anything recorded in them in the
+     * Prometheus text exposition format, version 0.0.4.
+     */
+    public void writePrometheus(Writer writer) throws IOException {
+        for (Stage stage : Stage.values()) {
+            final Map<String,LatencyHistogram> stageHistograms =
+                    new TreeMap<>(histograms.get(stage));
+            if (stageHistograms.isEmpty()) {
+                continue;
+            }
+            final String name = stage.getMetricName();
+            writer.write("# HELP " + name + " " + stage.help + "\n");
+            writer.write("# TYPE " + name + " histogram\n");
+
+            for (Map.Entry<String,LatencyHistogram> entry :
+                    stageHistograms.entrySet()) {
+                final String label = (stage.labelName != null) ?
+                        stage.labelName + "=\"" +
+                                escapeLabelValue(entry.getKey()) + "\"" : "";
+                final String labelPrefix = label.isEmpty() ? "" : label + ",";
+                final String labels = label.isEmpty() ? "" : "{" + label + "}";
+
+                final LatencyHistogram histogram = entry.getValue();
+                final long[] counts = histogram.getCumulativeCounts();
+                for (int i = 0; i < counts.length; i++) {
+                    final String bound = (i < LatencyHistogram.BUCKET_BOUNDS.length) ?
+                            formatBound(LatencyHistogram.BUCKET_BOUNDS[i]) : "+Inf";
+                    writer.write(name + "_bucket{" + labelPrefix +
+                            "le=\"" + bound + "\"} " + counts[i] + "\n");
+                }
+                writer.write(name + "_sum" + labels + " " +
+                        histogram.getSum() / NANOS_PER_SECOND + "\n");
+                writer.write(name + "_count" + labels + " " +
+                        counts[counts.length - 1] + "\n");
+            }
+        }
+    }
+
+}
@@ -2,9 +2,15 @@ package edu.illinois.library.cantaloupe.util;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
 /**
- * Size-bounded heap cache.
+ * Size- or weight-bounded heap cache.
  */
 public final class ObjectCache<K, V> {
 
@@ -21,6 +27,32 @@ public final class ObjectCache<K, V> {
         store = Caffeine.newBuilder().maximumSize(maxSize).build();
     }
 
+    /**
+     * Creates an instance in which the total weight of the values, as
+     * computed by the given weigher, may not exceed the given maximum.
+     *
+     * @param maxWeight        Maximum total weight.
+     * @param weigher          Computes the weight of a value, which must not
+     *                         change while it is in the cache.
+     * @param removalListener  Notified of every entry that is evicted,
+     *                         invalidated, or replaced, so that it may
+     *                         release any resources held by the value. It is
+     *                         invoked on the thread that caused the removal,
+     *                         so it should be quick.
+     */
+    public ObjectCache(long maxWeight,
+                       ToIntFunction<V> weigher,
+                       BiConsumer<K, V> removalListener) {
+        this.maxSize = maxWeight;
+        store = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((K key, V value) -> weigher.applyAsInt(value))
+                .executor(Runnable::run)
+                .removalListener((K key, V value, RemovalCause cause) ->
+                        removalListener.accept(key, value))
+                .build();
+    }
+
     public void cleanUp() {
         store.cleanUp();
     }
@@ -29,6 +61,24 @@ public final class ObjectCache<K, V> {
         return store.getIfPresent(key);
     }
 
+    /**
+     * Returns the value of the given key, computing and caching it first if
+     * it is not present. Concurrent calls for the same key wait on a single
+     * computation, which should therefore be fairly quick.
+     *
+     * @param key    Key.
+     * @param loader Computes the value of a key. Any exception it throws is
+     *               propagated to the caller.
+     * @return       Cached or computed value.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return store.get(key, loader);
+    }
+
+    /**
+     * @return Maximum number of entries, or maximum total weight if the
+     *         instance was created with a weigher.
+     */
     public long maxSize() {
         return maxSize;
     }
@@ -49,6 +99,13 @@ public final class ObjectCache<K, V> {
         store.invalidateAll();
     }
 
+    /**
+     * Removes all entries whose keys satisfy the given predicate.
+     */
+    public void removeAll(Predicate<? super K> predicate) {
+        store.asMap().keySet().removeIf(predicate);
+    }
+
     public long size() {
         return store.estimatedSize();
     }
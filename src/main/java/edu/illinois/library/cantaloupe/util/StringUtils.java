@@ -146,6 +146,36 @@ public final class StringUtils {
         return str;
     }
 
+    /**
+     * Parses a human-readable byte size such as {@literal 500}, {@literal
+     * 2.5M}, {@literal 256MB}, or {@literal 2G} into a number of bytes. Unit
+     * suffixes are powers of 1024.
+     *
+     * @param humanSize Size string.
+     * @return          Number of bytes.
+     * @throws NumberFormatException if the argument cannot be parsed.
+     */
+    public static long toByteSize(String humanSize) {
+        final String numberStr = humanSize.replaceAll("[^\\d.]", "");
+        final double number = Double.parseDouble(numberStr);
+        short exponent;
+
+        if (humanSize.endsWith("K") || humanSize.endsWith("KB")) {
+            exponent = 1;
+        } else if (humanSize.endsWith("M") || humanSize.endsWith("MB")) {
+            exponent = 2;
+        } else if (humanSize.endsWith("G") || humanSize.endsWith("GB")) {
+            exponent = 3;
+        } else if (humanSize.endsWith("T") || humanSize.endsWith("TB")) {
+            exponent = 4;
+        } else if (humanSize.endsWith("P") || humanSize.endsWith("PB")) { // you never know
+            exponent = 5;
+        } else {
+            exponent = 0;
+        }
+        return Math.round(number * Math.pow(1024, exponent));
+    }
+
     /**
      * Strips any enclosing tags or other content around the {@literal rdf:RDF}
      * element within an RDF/XML XMP string.
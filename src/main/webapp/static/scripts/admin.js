@@ -245,6 +245,7 @@ var StatusUpdater = function() {
     this.update = function() {
         var memoryStatusSection = $('#cl-status-memory');
         var cacheStatusSection = $('#cl-status-internal-caches');
+        var cacheStatisticsSection = $('#cl-status-cache-statistics');
         var vmStatusSection = $('#cl-status-vm');
         var tasksSection = $('#cl-tasks');
 
@@ -291,6 +292,44 @@ var StatusUpdater = function() {
                 cacheStatusSection.find('tr:nth-child(4) > td:last-child')
                     .text(data.delegateMethodInvocationCache.maxSize);
 
+                // Cache Statistics section
+                var caches = [
+                    ['Info Cache', data.infoCache],
+                    ['Derivative Cache', data.derivativeCache],
+                    ['Source Cache', data.sourceCache]
+                ];
+                var windows = [
+                    ['lastMinute', 'Last minute'],
+                    ['last15Minutes', 'Last 15 minutes'],
+                    ['lastHour', 'Last hour'],
+                    ['total', 'Since startup']
+                ];
+                var statsBody = cacheStatisticsSection.find('tbody');
+                statsBody.empty();
+                caches.forEach(function(c) {
+                    if (!c[1] || !c[1].statistics) {
+                        return;
+                    }
+                    var name = c[1].implementation ?
+                        c[0] + ' (' + c[1].implementation + ')' : c[0];
+                    windows.forEach(function(w, i) {
+                        var s = c[1].statistics[w[0]];
+                        statsBody.append('<tr>' +
+                            '<td>' + (i === 0 ? name : '') + '</td>' +
+                            '<td>' + w[1] + '</td>' +
+                            '<td>' + s.hits + '</td>' +
+                            '<td>' + s.misses + '</td>' +
+                            '<td>' + (s.hitRatio * 100).toFixed(1) + '%</td>' +
+                            '<td>' + s.puts + '</td>' +
+                            '<td>' + s.evictions + '</td>' +
+                            '<td>' + (s.bytesRead / 1048576).toFixed(1) + ' MB</td>' +
+                            '<td>' + (s.bytesWritten / 1048576).toFixed(1) + ' MB</td>' +
+                            '<td>' + s.meanReadMsec.toFixed(1) + ' ms</td>' +
+                            '<td>' + s.meanWriteMsec.toFixed(1) + ' ms</td>' +
+                            '</tr>');
+                    });
+                });
+
                 // Tasks section
                 if (data.tasks) {
                     var tasks = data.tasks // display the last 10
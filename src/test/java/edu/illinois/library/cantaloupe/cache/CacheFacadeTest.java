@@ -139,6 +139,20 @@ public class CacheFacadeTest extends BaseTest {
         assertNull(instance.getSourceCacheFile(identifier));
     }
 
+    @Test
+    public void testGetSourceCacheFileRecordsStatistics() throws Exception {
+        Identifier identifier = new Identifier("cats");
+        CacheStatistics statistics =
+                CacheFactory.getSourceCache().getStatistics();
+        long misses = statistics.getCounts(CacheStatistics.Window.TOTAL)
+                .getMisses();
+
+        instance.getSourceCacheFile(identifier);
+
+        assertEquals(misses + 1, statistics
+                .getCounts(CacheStatistics.Window.TOTAL).getMisses());
+    }
+
     @Test
     public void testGetSourceCacheFileWithInvalidSourceCache()
             throws Exception {
@@ -189,6 +203,42 @@ public class CacheFacadeTest extends BaseTest {
         }
     }
 
+    @Test
+    public void testNewDerivativeImageInputStreamRecordsStatistics()
+            throws Exception {
+        enableDerivativeCache();
+        OperationList opList = new OperationList(new Identifier("jpg"));
+        CacheStatistics statistics =
+                instance.getDerivativeCache().getStatistics();
+        CacheStatistics.Counts before =
+                statistics.getCounts(CacheStatistics.Window.TOTAL);
+
+        try (InputStream is = instance.newDerivativeImageInputStream(opList)) {
+            assertNull(is);
+        }
+        try (MeteredOutputStream os =
+                     instance.newDerivativeImageOutputStream(opList)) {
+            Files.copy(TestUtil.getImage("jpg"), os);
+            os.setCompletelyWritten(true);
+        }
+        try (InputStream is = instance.newDerivativeImageInputStream(opList)) {
+            while (is.read() != -1) {
+                // read it all
+            }
+        }
+
+        final long size = Files.size(TestUtil.getImage("jpg"));
+        CacheStatistics.Counts after =
+                statistics.getCounts(CacheStatistics.Window.TOTAL);
+        assertEquals(1, after.getHits() - before.getHits());
+        assertEquals(1, after.getMisses() - before.getMisses());
+        assertEquals(1, after.getPuts() - before.getPuts());
+        assertEquals(2, after.getReads() - before.getReads());
+        assertEquals(1, after.getWrites() - before.getWrites());
+        assertEquals(size, after.getBytesRead() - before.getBytesRead());
+        assertEquals(size, after.getBytesWritten() - before.getBytesWritten());
+    }
+
     @Test
     public void testNewDerivativeImageInputStreamWhenDerivativeCacheIsDisabled()
             throws Exception {
@@ -201,6 +251,27 @@ public class CacheFacadeTest extends BaseTest {
 
     /* newDerivativeImageOutputStream() */
 
+    @Test
+    public void testNewDerivativeImageOutputStreamDoesNotRecordIncompleteWrites()
+            throws Exception {
+        enableDerivativeCache();
+        OperationList opList = new OperationList(new Identifier("jpg"));
+        CacheStatistics statistics =
+                instance.getDerivativeCache().getStatistics();
+        CacheStatistics.Counts before =
+                statistics.getCounts(CacheStatistics.Window.TOTAL);
+
+        try (MeteredOutputStream os =
+                     instance.newDerivativeImageOutputStream(opList)) {
+            os.write(new byte[] { 1, 2, 3 });
+        }
+
+        CacheStatistics.Counts after =
+                statistics.getCounts(CacheStatistics.Window.TOTAL);
+        assertEquals(0, after.getPuts() - before.getPuts());
+        assertEquals(0, after.getWrites() - before.getWrites());
+    }
+
     @Test
     public void testNewDerivativeImageOutputStreamWhenDerivativeCacheIsEnabled()
             throws Exception {
@@ -0,0 +1,157 @@
+package edu.illinois.library.cantaloupe.cache;
+
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class CacheStatisticsTest extends BaseTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private final AtomicLong clock = new AtomicLong();
+    private CacheStatistics instance;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        clock.set(System.currentTimeMillis());
+        instance = new CacheStatistics(clock::get);
+    }
+
+    /**
+     * @return Cache that does not override {@link Cache#getStatistics()}.
+     */
+    private static Cache newCache() {
+        return new Cache() {
+            @Override
+            public void purge() {}
+
+            @Override
+            public void purge(Identifier identifier) {}
+
+            @Override
+            public void purgeInvalid() {}
+        };
+    }
+
+    /* forCache() */
+
+    @Test
+    public void testForCacheReturnsTheSameInstanceForTheSameCache() {
+        Cache cache = newCache();
+        CacheStatistics statistics = cache.getStatistics();
+        statistics.recordHit();
+        assertSame(statistics, cache.getStatistics());
+        assertEquals(1, cache.getStatistics()
+                .getCounts(CacheStatistics.Window.TOTAL).getHits());
+    }
+
+    @Test
+    public void testForCacheReturnsDifferentInstancesForDifferentCaches() {
+        assertNotSame(newCache().getStatistics(), newCache().getStatistics());
+    }
+
+    /* getCounts() */
+
+    @Test
+    public void testGetCountsWithNothingRecorded() {
+        CacheStatistics.Counts counts =
+                instance.getCounts(CacheStatistics.Window.TOTAL);
+        assertEquals(0, counts.getHits());
+        assertEquals(0, counts.getHitRatio(), 0.00001);
+        assertEquals(0, counts.getMeanReadMsec(), 0.00001);
+        assertEquals(0, counts.getMeanWriteMsec(), 0.00001);
+    }
+
+    @Test
+    public void testGetCounts() {
+        instance.recordHit();
+        instance.recordHit();
+        instance.recordHit();
+        instance.recordMiss();
+        instance.recordPut();
+        instance.recordEvictions(5);
+        instance.recordRead(100, TimeUnit.MILLISECONDS.toNanos(2));
+        instance.recordRead(300, TimeUnit.MILLISECONDS.toNanos(4));
+        instance.recordWrite(50, TimeUnit.MILLISECONDS.toNanos(10));
+
+        CacheStatistics.Counts counts =
+                instance.getCounts(CacheStatistics.Window.TOTAL);
+        assertEquals(3, counts.getHits());
+        assertEquals(1, counts.getMisses());
+        assertEquals(0.75, counts.getHitRatio(), 0.00001);
+        assertEquals(1, counts.getPuts());
+        assertEquals(5, counts.getEvictions());
+        assertEquals(2, counts.getReads());
+        assertEquals(400, counts.getBytesRead());
+        assertEquals(3, counts.getMeanReadMsec(), 0.00001);
+        assertEquals(1, counts.getWrites());
+        assertEquals(50, counts.getBytesWritten());
+        assertEquals(10, counts.getMeanWriteMsec(), 0.00001);
+    }
+
+    @Test
+    public void testGetCountsWithRollingWindows() {
+        instance.recordHit();
+        clock.addAndGet(10 * MINUTE);
+        instance.recordHit();
+        clock.addAndGet(10 * MINUTE);
+        instance.recordHit();
+
+        assertEquals(1, instance.getCounts(
+                CacheStatistics.Window.LAST_MINUTE).getHits());
+        assertEquals(2, instance.getCounts(
+                CacheStatistics.Window.LAST_15_MINUTES).getHits());
+        assertEquals(3, instance.getCounts(
+                CacheStatistics.Window.LAST_HOUR).getHits());
+        assertEquals(3, instance.getCounts(
+                CacheStatistics.Window.TOTAL).getHits());
+
+        clock.addAndGet(50 * MINUTE);
+        assertEquals(0, instance.getCounts(
+                CacheStatistics.Window.LAST_15_MINUTES).getHits());
+        assertEquals(1, instance.getCounts(
+                CacheStatistics.Window.LAST_HOUR).getHits());
+        assertEquals(3, instance.getCounts(
+                CacheStatistics.Window.TOTAL).getHits());
+    }
+
+    @Test
+    public void testGetCountsRecyclesSlots() {
+        instance.recordMiss();
+        clock.addAndGet(60 * MINUTE);
+        instance.recordHit();
+
+        CacheStatistics.Counts counts =
+                instance.getCounts(CacheStatistics.Window.LAST_HOUR);
+        assertEquals(1, counts.getHits());
+        assertEquals(0, counts.getMisses());
+        assertEquals(1, instance.getCounts(
+                CacheStatistics.Window.TOTAL).getMisses());
+    }
+
+    /* toMap() */
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testToMap() {
+        instance.recordHit();
+
+        Map<String,Object> map = instance.toMap();
+        assertEquals(CacheStatistics.Window.values().length, map.size());
+        Map<String,Object> total = (Map<String,Object>) map.get("total");
+        assertEquals(1L, total.get("hits"));
+        assertEquals(1.0, total.get("hitRatio"));
+        assertTrue(map.containsKey("lastMinute"));
+        assertTrue(map.containsKey("last15Minutes"));
+        assertTrue(map.containsKey("lastHour"));
+    }
+
+}
@@ -166,6 +166,33 @@ public class FilesystemCacheTest extends AbstractCacheTest {
         assertEquals(expected, infoTempFile(identifier));
     }
 
+    @Test
+    public void testPyramidalImageFile() {
+        final String pathname = Configuration.getInstance().
+                getString(Key.FILESYSTEMCACHE_PATHNAME);
+        final Identifier identifier = new Identifier("cats_~!@#$%^&*()");
+        final Path expected = Paths.get(
+                pathname,
+                "source",
+                FilesystemCache.hashedPathFragment(identifier.toString()),
+                StringUtils.filesystemSafe(identifier.toString()) + ".ptif");
+        assertEquals(expected, pyramidalImageFile(identifier));
+    }
+
+    @Test
+    public void testPyramidalImageTempFile() {
+        final String pathname = Configuration.getInstance().
+                getString(Key.FILESYSTEMCACHE_PATHNAME);
+        final Identifier identifier = new Identifier("cats_~!@#$%^&*()");
+        final Path expected = Paths.get(
+                pathname,
+                "source",
+                FilesystemCache.hashedPathFragment(identifier.toString()),
+                StringUtils.filesystemSafe(identifier.toString()) + ".ptif"
+                        + FilesystemCache.tempFileSuffix());
+        assertEquals(expected, pyramidalImageTempFile(identifier));
+    }
+
     @Test
     public void testSourceImageFile() {
         final String pathname = Configuration.getInstance().
@@ -308,6 +335,38 @@ public class FilesystemCacheTest extends AbstractCacheTest {
         assertRecursiveFileCount(fixturePath, 3);
     }
 
+    /* getDerivativeImageFile(OperationList) */
+
+    @Test
+    public void testGetDerivativeImageFile() throws Exception {
+        OperationList ops = new OperationList(new Identifier("cats"));
+        assertNull(instance.getDerivativeImageFile(ops));
+
+        createEmptyFile(derivativeImageFile(ops));
+        assertEquals(derivativeImageFile(ops),
+                instance.getDerivativeImageFile(ops));
+    }
+
+    @Test
+    public void testGetDerivativeImageFileWithNonzeroTTL() throws Exception {
+        Configuration.getInstance().setProperty(Key.DERIVATIVE_CACHE_TTL, 1);
+
+        OperationList ops = new OperationList(new Identifier("cats"));
+        Path cacheFile = derivativeImageFile(ops);
+        createEmptyFile(cacheFile);
+        assertNotNull(instance.getDerivativeImageFile(ops));
+
+        Thread.sleep(1100);
+
+        assertNull(instance.getDerivativeImageFile(ops));
+
+        Thread.sleep(1000);
+
+        assertFalse(Files.exists(cacheFile));
+    }
+
+    /* getDerivativeImageFiles(Identifier) */
+
     @Test
     public void testGetDerivativeImageFiles() throws Exception {
         Identifier identifier = new Identifier("dogs");
@@ -377,6 +436,50 @@ public class FilesystemCacheTest extends AbstractCacheTest {
         }).run();
     }
 
+    /* getPyramidalImageFile(Identifier) */
+
+    @Test
+    public void testGetPyramidalImageFile() throws Exception {
+        Identifier identifier = new Identifier("cats");
+        assertNull(instance.getPyramidalImageFile(identifier));
+
+        createEmptyFile(pyramidalImageFile(identifier));
+        assertEquals(pyramidalImageFile(identifier),
+                instance.getPyramidalImageFile(identifier));
+    }
+
+    @Test
+    public void testGetPyramidalImageFileWithNonzeroTTL() throws Exception {
+        Configuration.getInstance().setProperty(Key.SOURCE_CACHE_TTL, 1);
+
+        Identifier identifier = new Identifier("cats");
+        Path cacheFile = pyramidalImageFile(identifier);
+        createEmptyFile(cacheFile);
+        assertNotNull(instance.getPyramidalImageFile(identifier));
+
+        Thread.sleep(1100);
+
+        assertNull(instance.getPyramidalImageFile(identifier));
+
+        Thread.sleep(1000);
+
+        assertFalse(Files.exists(cacheFile));
+    }
+
+    /* newPyramidalImageOutputStream(Identifier) */
+
+    @Test
+    public void testNewPyramidalImageOutputStream() throws Exception {
+        Identifier identifier = new Identifier("cats");
+        try (OutputStream os =
+                     instance.newPyramidalImageOutputStream(identifier)) {
+            Files.copy(TestUtil.getImage("tif"), os);
+            assertNull(instance.getPyramidalImageFile(identifier));
+        }
+        assertNotNull(instance.getPyramidalImageFile(identifier));
+        assertNull(instance.getSourceImageFile(identifier));
+    }
+
     /* newSourceImageOutputStream(Identifier) */
 
     @Test
@@ -450,6 +553,10 @@ public class FilesystemCacheTest extends AbstractCacheTest {
         Path sourceImageFile = sourceImageFile(ops.getIdentifier());
         createEmptyFile(sourceImageFile);
 
+        // create a new pyramidal image
+        Path pyramidalImageFile = pyramidalImageFile(ops.getIdentifier());
+        createEmptyFile(pyramidalImageFile);
+
         // create a new derivative image
         Path derivativeImageFile = derivativeImageFile(ops);
         createEmptyFile(derivativeImageFile);
@@ -471,7 +578,7 @@ public class FilesystemCacheTest extends AbstractCacheTest {
         infoFile = infoFile(ops.getIdentifier());
         createEmptyFile(infoFile);
 
-        assertRecursiveFileCount(sourceImagePath, 2);
+        assertRecursiveFileCount(sourceImagePath, 3);
         assertRecursiveFileCount(derivativeImagePath, 2);
         assertRecursiveFileCount(infoPath, 2);
         instance.purge(id1);
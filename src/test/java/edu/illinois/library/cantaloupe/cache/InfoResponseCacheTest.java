@@ -0,0 +1,142 @@
+package edu.illinois.library.cantaloupe.cache;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class InfoResponseCacheTest extends BaseTest {
+
+    private static final byte[] CONTENT =
+            "{\"width\":64,\"height\":56}".getBytes(StandardCharsets.UTF_8);
+
+    private InfoResponseCache instance;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+
+        InfoResponseCache.clearInstance();
+        instance = InfoResponseCache.getInstance();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        super.tearDown();
+        InfoResponseCache.clearInstance();
+    }
+
+    /* get() */
+
+    @Test
+    public void testGetWithHit() {
+        final Identifier identifier = new Identifier("jpg");
+        instance.put(identifier, "variant", CONTENT);
+
+        InfoResponseCache.Entry entry = instance.get(identifier, "variant");
+        assertArrayEquals(CONTENT, entry.getContent());
+    }
+
+    @Test
+    public void testGetWithMiss() {
+        assertNull(instance.get(new Identifier("jpg"), "variant"));
+    }
+
+    @Test
+    public void testGetWithDifferentVariant() {
+        final Identifier identifier = new Identifier("jpg");
+        instance.put(identifier, "variant1", CONTENT);
+
+        assertNull(instance.get(identifier, "variant2"));
+    }
+
+    /* isEnabled() */
+
+    @Test
+    public void testIsEnabled() {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.INFO_RESPONSE_CACHE_ENABLED, true);
+        assertTrue(InfoResponseCache.isEnabled());
+        config.setProperty(Key.INFO_RESPONSE_CACHE_ENABLED, false);
+        assertFalse(InfoResponseCache.isEnabled());
+    }
+
+    /* purge() */
+
+    @Test
+    public void testPurge() {
+        instance.put(new Identifier("jpg"), "variant", CONTENT);
+        instance.put(new Identifier("png"), "variant", CONTENT);
+
+        instance.purge();
+        assertEquals(0, instance.size());
+    }
+
+    /* purge(Identifier) */
+
+    @Test
+    public void testPurgeWithIdentifier() {
+        final Identifier identifier = new Identifier("jpg");
+        instance.put(identifier, "variant1", CONTENT);
+        instance.put(identifier, "variant2", CONTENT);
+        instance.put(new Identifier("png"), "variant1", CONTENT);
+
+        instance.purge(identifier);
+        assertNull(instance.get(identifier, "variant1"));
+        assertNull(instance.get(identifier, "variant2"));
+        assertNotNull(instance.get(new Identifier("png"), "variant1"));
+    }
+
+    @Test
+    public void testPurgeObjectCacheAlsoPurgesResponses() {
+        final Identifier identifier = new Identifier("jpg");
+        instance.put(identifier, "variant", CONTENT);
+
+        InfoService.getInstance().purgeObjectCache();
+        assertNull(instance.get(identifier, "variant"));
+    }
+
+    /* put() */
+
+    @Test
+    public void testPutWithGzipEnabled() throws Exception {
+        Configuration.getInstance().setProperty(Key.INFO_RESPONSE_CACHE_GZIP, true);
+
+        InfoResponseCache.Entry entry =
+                instance.put(new Identifier("jpg"), "variant", CONTENT);
+        try (InputStream is = new GZIPInputStream(
+                new ByteArrayInputStream(entry.getGzippedContent()))) {
+            assertArrayEquals(CONTENT, IOUtils.toByteArray(is));
+        }
+        assertNotEquals(entry.getEntityTag(), entry.getGzippedEntityTag());
+    }
+
+    @Test
+    public void testPutWithGzipDisabled() {
+        Configuration.getInstance().setProperty(Key.INFO_RESPONSE_CACHE_GZIP, false);
+
+        InfoResponseCache.Entry entry =
+                instance.put(new Identifier("jpg"), "variant", CONTENT);
+        assertNull(entry.getGzippedContent());
+        assertNull(entry.getGzippedEntityTag());
+    }
+
+    @Test
+    public void testPutSetsEntityTag() {
+        InfoResponseCache.Entry entry =
+                instance.put(new Identifier("jpg"), "variant", CONTENT);
+        assertTrue(entry.getEntityTag().matches("\"[0-9a-f]{40}\""));
+    }
+
+}
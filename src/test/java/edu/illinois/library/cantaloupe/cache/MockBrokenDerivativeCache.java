@@ -10,6 +10,8 @@ import java.io.OutputStream;
 
 public class MockBrokenDerivativeCache implements DerivativeCache {
 
+    private final CacheStatistics statistics = new CacheStatistics();
+
     @Override
     public Info getImageInfo(Identifier identifier) throws IOException {
         throw new IOException("I'm broken");
@@ -25,6 +27,11 @@ public class MockBrokenDerivativeCache implements DerivativeCache {
         throw new IOException("I'm broken");
     }
 
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
     @Override
     public void purge() throws IOException {
         throw new IOException("I'm broken");
@@ -8,6 +8,8 @@ import java.nio.file.Path;
 
 public class MockBrokenSourceCache implements SourceCache {
 
+    private final CacheStatistics statistics = new CacheStatistics();
+
     @Override
     public Path getSourceImageFile(Identifier identifier) throws IOException {
         throw new IOException("I'm broken");
@@ -18,6 +20,11 @@ public class MockBrokenSourceCache implements SourceCache {
         throw new IOException("I'm broken");
     }
 
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
     @Override
     public void purge() throws IOException {
         throw new IOException("I'm broken");
@@ -12,6 +12,7 @@ import java.nio.file.Path;
 
 class MockCache implements DerivativeCache, SourceCache {
 
+    private final CacheStatistics statistics = new CacheStatistics();
     private boolean initializeCalled = false;
     private boolean shutdownCalled = false;
 
@@ -20,6 +21,11 @@ class MockCache implements DerivativeCache, SourceCache {
         return null;
     }
 
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
     @Override
     public Path getSourceImageFile(Identifier identifier) throws IOException {
         return null;
@@ -82,6 +82,14 @@ public class MediaTypeTest {
         }
     }
 
+    @Test
+    public void testDetectMediaTypesWithByteArrayOfUnrecognizedSignature()
+            throws Exception {
+        byte[] bytes = Files.readAllBytes(TestUtil.getImage("txt"));
+        assertEquals(Arrays.asList(new MediaType("text/plain")),
+                MediaType.detectMediaTypes(bytes));
+    }
+
     /* detectMediaTypes(Path) */
 
     @Test
@@ -132,6 +140,17 @@ public class MediaTypeTest {
         }
     }
 
+    @Test
+    public void testDetectMediaTypesWithInputStreamResetsStream()
+            throws Exception {
+        Path file = files.get(Format.JPG);
+        try (InputStream is = new BufferedInputStream(Files.newInputStream(file))) {
+            MediaType.detectMediaTypes(is);
+            assertEquals(0xff, is.read());
+            assertEquals(0xd8, is.read());
+        }
+    }
+
     @Test
     public void testFromContentType() {
         assertEquals(new MediaType("image/jp2"),
@@ -0,0 +1,67 @@
+package edu.illinois.library.cantaloupe.image;
+
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import edu.illinois.library.cantaloupe.test.TestUtil;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SignatureDetectorTest extends BaseTest {
+
+    private static Format detect(String fixtureName) throws Exception {
+        byte[] bytes = Files.readAllBytes(TestUtil.getImage(fixtureName));
+        bytes = Arrays.copyOf(bytes,
+                Math.min(bytes.length, SignatureDetector.HEADER_LENGTH));
+        return SignatureDetector.detect(bytes, bytes.length);
+    }
+
+    @Test
+    public void testDetectWithAllFormats() throws Exception {
+        for (Format format : Format.values()) {
+            if (Format.UNKNOWN.equals(format)) {
+                continue;
+            }
+            assertEquals(format, detect(format.name().toLowerCase()));
+        }
+    }
+
+    @Test
+    public void testDetectWithBigTIFF() throws Exception {
+        assertEquals(Format.TIF,
+                detect("tif-rgb-1res-64x56x8-tiled-uncompressed-bigtiff.tif"));
+    }
+
+    @Test
+    public void testDetectWithJPX() throws Exception {
+        assertNull(detect("jpx-6res-rgba-64x56x8-monotiled-lossy.jpx"));
+    }
+
+    @Test
+    public void testDetectWithUnrecognizedSignature() throws Exception {
+        assertNull(detect("txt"));
+    }
+
+    @Test
+    public void testDetectWithTruncatedSignature() {
+        byte[] bytes = new byte[] { (byte) 0x89, 'P', 'N', 'G' };
+        assertNull(SignatureDetector.detect(bytes, bytes.length));
+    }
+
+    @Test
+    public void testDetectRespectsLength() {
+        byte[] bytes = "GIF89a".getBytes(StandardCharsets.US_ASCII);
+        assertNull(SignatureDetector.detect(bytes, 3));
+    }
+
+    @Test
+    public void testDetectWithTextStartingWithBM() {
+        byte[] bytes = "BMW motorcycles are fast"
+                .getBytes(StandardCharsets.US_ASCII);
+        assertNull(SignatureDetector.detect(bytes, bytes.length));
+    }
+
+}
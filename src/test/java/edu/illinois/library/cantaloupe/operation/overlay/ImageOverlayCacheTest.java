@@ -45,6 +45,20 @@ public class ImageOverlayCacheTest extends BaseTest {
         assertEquals(5439, bytes.length);
     }
 
+    @Test
+    public void testPutAndGetCachesImage() throws IOException {
+        URI uri = TestUtil.getImage("jpg").toUri();
+        assertSame(instance.putAndGet(uri), instance.putAndGet(uri));
+    }
+
+    @Test
+    public void testPutAndGetWithImageLargerThanMaxSize() throws IOException {
+        instance = new ImageOverlayCache(1024);
+        URI uri = TestUtil.getImage("jpg").toUri();
+        byte[] bytes = instance.putAndGet(uri);
+        assertEquals(5439, bytes.length);
+    }
+
     @Test
     public void testPutAndGetWithMissingFileURI() {
         try {
@@ -0,0 +1,87 @@
+package edu.illinois.library.cantaloupe.perf.image;
+
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import edu.illinois.library.cantaloupe.image.MediaType;
+import edu.illinois.library.cantaloupe.image.MediaTypeTest;
+import edu.illinois.library.cantaloupe.test.TestUtil;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.AutoDetectParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static edu.illinois.library.cantaloupe.test.PerformanceTestConstants.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = WARMUP_ITERATIONS,
+        time = WARMUP_TIME)
+@Measurement(iterations = MEASUREMENT_ITERATIONS,
+        time = MEASUREMENT_TIME)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = { "-server", "-Xms128M", "-Xmx128M", "-Dcantaloupe.config=memory" })
+public class MediaTypePerformance extends MediaTypeTest {
+
+    private byte[] jpegBytes;
+
+    @Setup
+    public void setUpBenchmark() throws Exception {
+        beforeClass();
+        setUp();
+        jpegBytes = Files.readAllBytes(TestUtil.getImage("jpg"));
+    }
+
+    /**
+     * Detects a JPEG the way {@link MediaType} did before it had its own
+     * signature detector, for comparison with {@link
+     * #detectJPEGWithSignatureDetector()}.
+     */
+    @Benchmark
+    public Object detectJPEGWithAutoDetectParser() throws Exception {
+        try (TikaInputStream is = TikaInputStream.get(jpegBytes)) {
+            return new AutoDetectParser().getDetector().detect(
+                    is, new Metadata());
+        }
+    }
+
+    @Benchmark
+    public Object detectJPEGWithSignatureDetector() throws Exception {
+        return MediaType.detectMediaTypes(jpegBytes);
+    }
+
+    @Benchmark
+    @Override
+    public void testDetectMediaTypesWithByteArray() throws Exception {
+        super.testDetectMediaTypesWithByteArray();
+    }
+
+    @Benchmark
+    @Override
+    public void testDetectMediaTypesWithByteArrayOfUnrecognizedSignature()
+            throws Exception {
+        super.testDetectMediaTypesWithByteArrayOfUnrecognizedSignature();
+    }
+
+    @Benchmark
+    @Override
+    public void testDetectMediaTypesWithPath() throws Exception {
+        super.testDetectMediaTypesWithPath();
+    }
+
+    @Benchmark
+    @Override
+    public void testDetectMediaTypesWithInputStream() throws Exception {
+        super.testDetectMediaTypesWithInputStream();
+    }
+
+}
@@ -1,8 +1,18 @@
 package edu.illinois.library.cantaloupe.perf.processor.codec;
 
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.processor.codec.ImageReader;
+import edu.illinois.library.cantaloupe.processor.codec.ImageReaderFactory;
 import edu.illinois.library.cantaloupe.processor.codec.JPEGImageReaderTest;
+import edu.illinois.library.cantaloupe.test.TestUtil;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -27,10 +37,13 @@ import static edu.illinois.library.cantaloupe.test.PerformanceTestConstants.*;
 @Fork(value = 1, jvmArgs = { "-server", "-Xms128M", "-Xmx128M", "-Dcantaloupe.config=memory" })
 public class JPEGImageReaderPerformance extends JPEGImageReaderTest {
 
+    private Path fixture;
+
     @Setup
     @Override
     public void setUp() throws Exception {
         super.setUp();
+        fixture = TestUtil.getImage("jpg");
     }
 
     @TearDown
@@ -39,6 +52,45 @@ public class JPEGImageReaderPerformance extends JPEGImageReaderTest {
         super.tearDown();
     }
 
+    /**
+     * Reads the size of an image with a reader that borrows its ImageIO
+     * reader from the pool, for comparison with {@link
+     * #readSizeWithNegotiatedIIOReader()}.
+     */
+    @Benchmark
+    public Object readSizeWithPooledIIOReader() throws Exception {
+        ImageReader reader = new ImageReaderFactory().newImageReader(
+                fixture, Format.JPG);
+        try {
+            return reader.getSize(0);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * Reads the size of an image the way readers did before they were
+     * pooled: by instantiating all of the ImageIO readers registered for
+     * the format and using the first one.
+     */
+    @Benchmark
+    public Object readSizeWithNegotiatedIIOReader() throws Exception {
+        final Iterator<javax.imageio.ImageReader> it =
+                ImageIO.getImageReadersByMIMEType("image/jpeg");
+        final List<javax.imageio.ImageReader> iioReaders = new ArrayList<>();
+        while (it.hasNext()) {
+            iioReaders.add(it.next());
+        }
+        final javax.imageio.ImageReader iioReader = iioReaders.get(0);
+        try (ImageInputStream is =
+                     ImageIO.createImageInputStream(fixture.toFile())) {
+            iioReader.setInput(is, false, true);
+            return iioReader.getWidth(0) * iioReader.getHeight(0);
+        } finally {
+            iioReader.dispose();
+        }
+    }
+
     @Benchmark
     @Override
     public void testGetCompression() throws Exception {
@@ -0,0 +1,88 @@
+package edu.illinois.library.cantaloupe.perf.processor.codec;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import edu.illinois.library.cantaloupe.processor.codec.ParallelPNGEncoderTest;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+
+import static edu.illinois.library.cantaloupe.test.PerformanceTestConstants.*;
+
+/**
+ * Compares the parallel PNG encoder with the Image I/O PNG writer that {@link
+ * PNGImageWriterPerformance} exercises, on an image large enough to be
+ * divided into many chunks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = WARMUP_ITERATIONS,
+        time = WARMUP_TIME)
+@Measurement(iterations = MEASUREMENT_ITERATIONS,
+        time = MEASUREMENT_TIME)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = { "-server", "-Xms512M", "-Xmx512M", "-Dcantaloupe.config=memory" })
+public class ParallelPNGEncoderPerformance extends ParallelPNGEncoderTest {
+
+    private BufferedImage largeImage;
+
+    @Setup
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        largeImage = newImage(3000, 2000, BufferedImage.TYPE_3BYTE_BGR);
+    }
+
+    @TearDown
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    @Benchmark
+    public void encodeLargeImageWithImageIO() throws Exception {
+        ImageIO.write(largeImage, "PNG", new NullOutputStream());
+    }
+
+    @Benchmark
+    public void encodeLargeImageInParallel() throws Exception {
+        encodeInParallel(largeImage, new NullOutputStream());
+    }
+
+    @Benchmark
+    @Override
+    public void testEncodeWithAllFilters() throws Exception {
+        super.testEncodeWithAllFilters();
+    }
+
+    @Benchmark
+    @Override
+    public void testEncodeWith16BitRGBAImage() throws Exception {
+        super.testEncodeWith16BitRGBAImage();
+    }
+
+    @Benchmark
+    @Override
+    public void testEncodeWithMultipleChunks() throws Exception {
+        super.testEncodeWithMultipleChunks();
+    }
+
+    @Benchmark
+    @Override
+    public void testEncodeWithMetadata() throws Exception {
+        super.testEncodeWithMetadata();
+    }
+
+}
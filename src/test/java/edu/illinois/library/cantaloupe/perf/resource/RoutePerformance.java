@@ -0,0 +1,52 @@
+package edu.illinois.library.cantaloupe.perf.resource;
+
+import java.util.concurrent.TimeUnit;
+
+import edu.illinois.library.cantaloupe.resource.RouteTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static edu.illinois.library.cantaloupe.test.PerformanceTestConstants.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = WARMUP_ITERATIONS,
+        time = WARMUP_TIME)
+@Measurement(iterations = MEASUREMENT_ITERATIONS,
+        time = MEASUREMENT_TIME)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = { "-server", "-Xms128M", "-Xmx128M", "-Dcantaloupe.config=memory" })
+public class RoutePerformance extends RouteTest {
+
+    @Setup
+    public void setUpBenchmark() throws Exception {
+        setUp();
+    }
+
+    @Benchmark
+    @Override
+    public void testForPath() {
+        super.testForPath();
+    }
+
+    @Benchmark
+    @Override
+    public void testForPathWithIIIF2ImagePathContainingMultiplePeriods() {
+        super.testForPathWithIIIF2ImagePathContainingMultiplePeriods();
+    }
+
+    @Benchmark
+    @Override
+    public void testNewResource() {
+        super.testNewResource();
+    }
+
+}
@@ -0,0 +1,174 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class AdmissionControllerTest extends BaseTest {
+
+    private AdmissionController instance;
+    private Processor processor;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.PROCESSOR_ADMISSION_ENABLED, true);
+        config.setProperty(Key.PROCESSOR_ADMISSION_MAX_CONCURRENT, 1);
+        config.setProperty(Key.PROCESSOR_ADMISSION_MAX_PIXELS, 0);
+        config.setProperty(Key.PROCESSOR_ADMISSION_MAX_QUEUED, 0);
+        config.setProperty(Key.PROCESSOR_ADMISSION_QUEUE_TIMEOUT, 1);
+        config.setProperty(Key.PROCESSOR_ADMISSION_RETRY_AFTER, 7);
+
+        AdmissionController.clearInstance();
+        instance = AdmissionController.getInstance();
+        processor = new Java2dProcessor();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        super.tearDown();
+        processor.close();
+        AdmissionController.clearInstance();
+    }
+
+    /* acquire() */
+
+    @Test
+    public void testAcquireWhenDisabled() throws Exception {
+        Configuration.getInstance()
+                .setProperty(Key.PROCESSOR_ADMISSION_ENABLED, false);
+        try (AdmissionController.Permit permit1 = instance.acquire(processor, 100);
+             AdmissionController.Permit permit2 = instance.acquire(processor, 100)) {
+            assertEquals(0, instance.getActiveCount());
+        }
+    }
+
+    @Test
+    public void testAcquireWithinLimits() throws Exception {
+        try (AdmissionController.Permit permit = instance.acquire(processor, 100)) {
+            assertEquals(1, instance.getActiveCount());
+        }
+        assertEquals(0, instance.getActiveCount());
+    }
+
+    @Test
+    public void testAcquireWithFullQueue() throws Exception {
+        try (AdmissionController.Permit permit = instance.acquire(processor, 100)) {
+            instance.acquire(processor, 100);
+            fail("Expected exception");
+        } catch (AdmissionRejectedException e) {
+            assertEquals(7, e.getRetryAfter());
+            assertEquals(1, instance.getRejectedCount());
+        }
+        // Once the first permit is closed, there is room again.
+        instance.acquire(processor, 100).close();
+    }
+
+    @Test
+    public void testAcquireTimesOutInQueue() throws Exception {
+        Configuration.getInstance()
+                .setProperty(Key.PROCESSOR_ADMISSION_MAX_QUEUED, 1);
+        final long start = System.currentTimeMillis();
+        try (AdmissionController.Permit permit = instance.acquire(processor, 100)) {
+            instance.acquire(processor, 100);
+            fail("Expected exception");
+        } catch (AdmissionRejectedException e) {
+            assertTrue(System.currentTimeMillis() - start >= 1000);
+            assertEquals(0, instance.getQueueDepth());
+        }
+    }
+
+    @Test
+    public void testAcquireWaitsForRelease() throws Exception {
+        Configuration.getInstance()
+                .setProperty(Key.PROCESSOR_ADMISSION_MAX_QUEUED, 1);
+        final AdmissionController.Permit permit = instance.acquire(processor, 100);
+        final Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException ignore) {
+            }
+            permit.close();
+        });
+        releaser.start();
+
+        try (AdmissionController.Permit permit2 = instance.acquire(processor, 100)) {
+            assertEquals(1, instance.getActiveCount());
+        }
+        releaser.join();
+    }
+
+    @Test
+    public void testAcquireWithPixelLimit() throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.PROCESSOR_ADMISSION_MAX_CONCURRENT, 10);
+        config.setProperty(Key.PROCESSOR_ADMISSION_MAX_PIXELS, 100);
+
+        try (AdmissionController.Permit permit = instance.acquire(processor, 60)) {
+            try {
+                instance.acquire(processor, 60);
+                fail("Expected exception");
+            } catch (AdmissionRejectedException e) {
+                // good
+            }
+            instance.acquire(processor, 40).close();
+        }
+    }
+
+    @Test
+    public void testAcquireWithImageLargerThanPixelLimit() throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.PROCESSOR_ADMISSION_MAX_CONCURRENT, 10);
+        config.setProperty(Key.PROCESSOR_ADMISSION_MAX_PIXELS, 100);
+
+        // Alone, it is admitted...
+        try (AdmissionController.Permit permit = instance.acquire(processor, 1000)) {
+            // ...but nothing else is alongside it.
+            instance.acquire(processor, 1);
+            fail("Expected exception");
+        } catch (AdmissionRejectedException e) {
+            // good
+        }
+    }
+
+    @Test
+    public void testAcquireWithProcessorSpecificLimit() throws Exception {
+        Configuration.getInstance().setProperty(
+                "processor.admission.Java2dProcessor.max_concurrent", 2);
+        try (AdmissionController.Permit permit1 = instance.acquire(processor, 100);
+             AdmissionController.Permit permit2 = instance.acquire(processor, 100)) {
+            assertEquals(2, instance.getActiveCount());
+        }
+    }
+
+    /* Permit.close() */
+
+    @Test
+    public void testPermitCloseIsIdempotent() throws Exception {
+        AdmissionController.Permit permit = instance.acquire(processor, 100);
+        permit.close();
+        permit.close();
+        assertEquals(0, instance.getActiveCount());
+    }
+
+    /* toMap() */
+
+    @Test
+    public void testToMap() throws Exception {
+        instance.acquire(processor, 100).close();
+        Map<String,Map<String,Object>> map = instance.toMap();
+        assertEquals(1, map.size());
+        assertEquals(0, map.get("Java2dProcessor").get("active"));
+        assertEquals(1, map.get("Java2dProcessor").get("maxConcurrent"));
+    }
+
+}
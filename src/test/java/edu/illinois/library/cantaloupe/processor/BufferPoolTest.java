@@ -0,0 +1,144 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+import static org.junit.Assert.*;
+
+public class BufferPoolTest extends BaseTest {
+
+    private static final int LENGTH = BufferPool.MIN_POOLED_LENGTH * 2;
+
+    private BufferPool instance;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        instance = new BufferPool(1024 * 1024 * 16);
+    }
+
+    @Test
+    public void testCapacityForWithSmallLength() {
+        assertEquals(100, BufferPool.capacityFor(100));
+    }
+
+    @Test
+    public void testCapacityForWithPoolableLength() {
+        final int base = BufferPool.MIN_POOLED_LENGTH;
+        assertEquals(base, BufferPool.capacityFor(base));
+        assertEquals(base + base / 4, BufferPool.capacityFor(base + 1));
+        assertEquals(base * 2, BufferPool.capacityFor(base * 2 - 1));
+    }
+
+    @Test
+    public void testBorrowBytesReturnsArrayOfAtLeastRequestedLength() {
+        assertTrue(instance.borrowBytes(LENGTH + 5).length >= LENGTH + 5);
+        assertEquals(10, instance.borrowBytes(10).length);
+    }
+
+    @Test
+    public void testBorrowBytesReusesReleasedArray() {
+        byte[] array = instance.borrowBytes(LENGTH);
+        instance.release(array);
+        assertEquals(LENGTH, instance.getRetainedBytes());
+
+        assertSame(array, instance.borrowBytes(LENGTH));
+        assertEquals(0, instance.getRetainedBytes());
+        assertEquals(1, instance.getHitCount());
+        assertEquals(1, instance.getMissCount());
+        assertEquals(0.5, instance.getHitRate(), 0.00001);
+    }
+
+    @Test
+    public void testBorrowIntsReusesReleasedArray() {
+        int[] array = instance.borrowInts(LENGTH);
+        instance.release(array);
+        assertEquals(LENGTH * 4, instance.getRetainedBytes());
+        assertSame(array, instance.borrowInts(LENGTH));
+    }
+
+    @Test
+    public void testReleaseRespectsMaxRetainedBytes() {
+        instance = new BufferPool(LENGTH);
+        instance.release(instance.borrowBytes(LENGTH));
+        instance.release(instance.borrowBytes(LENGTH));
+        instance.release(new byte[LENGTH]);
+        assertEquals(LENGTH, instance.getRetainedBytes());
+    }
+
+    @Test
+    public void testReleaseWithZeroMaxRetainedBytes() {
+        instance = new BufferPool(0);
+        instance.release(instance.borrowBytes(LENGTH));
+        assertEquals(0, instance.getRetainedBytes());
+    }
+
+    @Test
+    public void testReleaseIgnoresUnclassedArrays() {
+        instance.release(new byte[LENGTH + 1]);
+        instance.release(new byte[10]);
+        assertEquals(0, instance.getRetainedBytes());
+    }
+
+    @Test
+    public void testNewImageWithoutLease() {
+        BufferedImage image = BufferPool.newImage(
+                512, 512, BufferedImage.TYPE_3BYTE_BGR);
+        assertEquals(512, image.getWidth());
+        assertEquals(BufferedImage.TYPE_3BYTE_BGR, image.getType());
+    }
+
+    @Test
+    public void testNewImageWithLease() {
+        final int size = 512 * 512 * 4;
+        try (BufferPool.Lease lease = instance.newLease()) {
+            BufferedImage image = instance.newImage(
+                    512, 512, BufferedImage.TYPE_4BYTE_ABGR, lease);
+            assertEquals(512, image.getWidth());
+            assertEquals(512, image.getHeight());
+            assertEquals(BufferedImage.TYPE_4BYTE_ABGR, image.getType());
+            assertEquals(0, image.getRGB(100, 100));
+            assertEquals(size,
+                    ((DataBufferByte) image.getRaster().getDataBuffer()).getSize());
+            assertEquals(0, instance.getRetainedBytes());
+        }
+        assertEquals(size, instance.getRetainedBytes());
+    }
+
+    @Test
+    public void testNewImageWithLeaseClearsReusedBuffers() {
+        try (BufferPool.Lease lease = instance.newLease()) {
+            BufferedImage image = instance.newImage(
+                    512, 512, BufferedImage.TYPE_INT_RGB, lease);
+            image.setRGB(100, 100, 0xff0000);
+        }
+        try (BufferPool.Lease lease = instance.newLease()) {
+            BufferedImage image = instance.newImage(
+                    512, 512, BufferedImage.TYPE_INT_RGB, lease);
+            assertEquals(1, instance.getHitCount());
+            assertEquals(0xff000000, image.getRGB(100, 100));
+        }
+    }
+
+    @Test
+    public void testNewImageWithLeaseAndUnsupportedType() {
+        try (BufferPool.Lease lease = instance.newLease()) {
+            BufferedImage image = instance.newImage(
+                    512, 512, BufferedImage.TYPE_USHORT_GRAY, lease);
+            assertEquals(BufferedImage.TYPE_USHORT_GRAY, image.getType());
+        }
+        assertEquals(0, instance.getRetainedBytes());
+    }
+
+    @Test
+    public void testPurge() {
+        instance.release(instance.borrowBytes(LENGTH));
+        instance.purge();
+        assertEquals(0, instance.getRetainedBytes());
+    }
+
+}
@@ -0,0 +1,108 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.operation.overlay.ImageOverlay;
+import edu.illinois.library.cantaloupe.operation.overlay.Position;
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import edu.illinois.library.cantaloupe.test.TestUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URI;
+
+import static org.junit.Assert.*;
+
+public class DecodedOverlayCacheTest extends BaseTest {
+
+    private DecodedOverlayCache instance;
+
+    private static ImageOverlay newOverlay(String fixture) throws IOException {
+        return new ImageOverlay(TestUtil.getImage(fixture).toUri(),
+                Position.REPEAT, 0);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        instance = new DecodedOverlayCache(16 * 1024 * 1024);
+    }
+
+    /* getImage() */
+
+    @Test
+    public void testGetImage() throws Exception {
+        BufferedImage image = instance.getImage(newOverlay("png-rgba-64x56x8.png"));
+        assertEquals(64, image.getWidth());
+        assertEquals(56, image.getHeight());
+        assertEquals(BufferedImage.TYPE_INT_ARGB_PRE, image.getType());
+    }
+
+    @Test
+    public void testGetImageCachesImage() throws Exception {
+        ImageOverlay overlay = newOverlay("png-rgba-64x56x8.png");
+        assertSame(instance.getImage(overlay), instance.getImage(overlay));
+    }
+
+    @Test
+    public void testGetImageWhenDisabled() throws Exception {
+        instance = new DecodedOverlayCache(0);
+        ImageOverlay overlay = newOverlay("png-rgba-64x56x8.png");
+        assertNotSame(instance.getImage(overlay), instance.getImage(overlay));
+    }
+
+    @Test(expected = IOException.class)
+    public void testGetImageWithMissingImage() throws Exception {
+        instance.getImage(new ImageOverlay(
+                new URI("file:///bla/bla/bogus"), Position.REPEAT, 0));
+    }
+
+    /* getRepeatedLayer() */
+
+    @Test
+    public void testGetRepeatedLayer() throws Exception {
+        ImageOverlay overlay = newOverlay("png-rgba-64x56x8.png");
+        BufferedImage layer = instance.getRepeatedLayer(overlay, 200, 150);
+        assertEquals(200, layer.getWidth());
+        assertEquals(150, layer.getHeight());
+        assertSame(layer, instance.getRepeatedLayer(overlay, 200, 150));
+        assertNotSame(layer, instance.getRepeatedLayer(overlay, 150, 200));
+    }
+
+    @Test
+    public void testGetRepeatedLayerTilesFromCenter() throws Exception {
+        ImageOverlay overlay = newOverlay("png-rgba-64x56x8.png");
+        BufferedImage tile = instance.getImage(overlay);
+        BufferedImage layer = instance.getRepeatedLayer(overlay, 200, 150);
+        // A tile starts at the center.
+        assertEquals(tile.getRGB(0, 0), layer.getRGB(100, 75));
+        assertEquals(tile.getRGB(10, 20), layer.getRGB(110, 95));
+        assertEquals(tile.getRGB(10, 20), layer.getRGB(110 - 64, 95 - 56));
+    }
+
+    @Test
+    public void testGetRepeatedLayerWithLayerTooLargeToCache()
+            throws Exception {
+        instance = new DecodedOverlayCache(1024 * 1024);
+        ImageOverlay overlay = newOverlay("png-rgba-64x56x8.png");
+        assertNull(instance.getRepeatedLayer(overlay, 1000, 1000));
+    }
+
+    @Test
+    public void testGetRepeatedLayerWhenDisabled() throws Exception {
+        instance = new DecodedOverlayCache(0);
+        ImageOverlay overlay = newOverlay("png-rgba-64x56x8.png");
+        assertNull(instance.getRepeatedLayer(overlay, 200, 150));
+    }
+
+    /* purge() */
+
+    @Test
+    public void testPurge() throws Exception {
+        ImageOverlay overlay = newOverlay("png-rgba-64x56x8.png");
+        BufferedImage image = instance.getImage(overlay);
+        instance.purge();
+        assertNotSame(image, instance.getImage(overlay));
+    }
+
+}
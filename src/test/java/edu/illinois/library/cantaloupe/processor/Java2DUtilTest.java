@@ -1,5 +1,7 @@
 package edu.illinois.library.cantaloupe.processor;
 
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.image.Dimension;
 import edu.illinois.library.cantaloupe.image.Orientation;
 import edu.illinois.library.cantaloupe.image.Rectangle;
@@ -186,6 +188,43 @@ public class Java2DUtilTest extends BaseTest {
         assertRGBA(pixel, 0, 0, 0, 255);
     }
 
+    @Test
+    public void testApplyOverlayWithRepeatingImageOverlay() throws Exception {
+        final BufferedImage baseImage = newColorImage(8, false);
+
+        // fill it with white
+        Graphics2D g2d = baseImage.createGraphics();
+        g2d.setColor(Color.WHITE.toColor());
+        g2d.fillRect(0, 0, baseImage.getWidth(), baseImage.getHeight());
+        g2d.dispose();
+
+        // create an Overlay
+        final ImageOverlay overlay = new ImageOverlay(
+                TestUtil.getImage("png-rgb-1x1x8.png").toUri(),
+                Position.REPEAT, 0);
+
+        // apply it
+        Java2DUtil.applyOverlay(baseImage, overlay);
+
+        // assert that it was tiled across the whole image
+        assertRGBA(baseImage.getRGB(0, 0), 0, 0, 0, 255);
+        assertRGBA(baseImage.getRGB(
+                baseImage.getWidth() - 1, baseImage.getHeight() - 1),
+                0, 0, 0, 255);
+    }
+
+    @Test
+    public void testApplyOverlayWithRepeatingImageOverlayAndCachingDisabled()
+            throws Exception {
+        Configuration.getInstance().setProperty(Key.OVERLAY_CACHE_MAX_SIZE, "0");
+        DecodedOverlayCache.clearInstance();
+        try {
+            testApplyOverlayWithRepeatingImageOverlay();
+        } finally {
+            DecodedOverlayCache.clearInstance();
+        }
+    }
+
     @Test
     public void testApplyOverlayWithMissingImageOverlay() throws Exception {
         final BufferedImage baseImage = newColorImage(8, false);
@@ -237,6 +276,50 @@ public class Java2DUtilTest extends BaseTest {
         assertTrue(blue > 240);
     }
 
+    @Test
+    public void testApplyOverlayWithStringOverlayBackground() {
+        final BufferedImage baseImage = newColorImage(200, 100, 8, false);
+
+        // fill it with white
+        Graphics2D g2d = baseImage.createGraphics();
+        g2d.setColor(Color.WHITE.toColor());
+        g2d.fillRect(0, 0, baseImage.getWidth(), baseImage.getHeight());
+        g2d.dispose();
+
+        final StringOverlay overlay = new StringOverlay(
+                "X", Position.TOP_LEFT, 0,
+                new Font("SansSerif", Font.PLAIN, 12), 11,
+                Color.WHITE, Color.BLACK, Color.WHITE, 0f);
+
+        Java2DUtil.applyOverlay(baseImage, overlay);
+
+        // The corner of the background box is black...
+        assertRGBA(baseImage.getRGB(1, 1), 0, 0, 0, 255);
+        // and the rest of the image is untouched.
+        assertRGBA(baseImage.getRGB(199, 99), 255, 255, 255, 255);
+    }
+
+    @Test
+    public void testApplyOverlayWithStringOverlayTooLargeToFit() {
+        final BufferedImage baseImage = newColorImage(8, false);
+
+        // fill it with white
+        Graphics2D g2d = baseImage.createGraphics();
+        g2d.setColor(Color.WHITE.toColor());
+        g2d.fillRect(0, 0, baseImage.getWidth(), baseImage.getHeight());
+        g2d.dispose();
+
+        final StringOverlay overlay = new StringOverlay(
+                "This string is much too long to fit", Position.TOP_LEFT, 0,
+                new Font("SansSerif", Font.PLAIN, 12), 11,
+                Color.WHITE, Color.BLACK, Color.WHITE, 0f);
+
+        Java2DUtil.applyOverlay(baseImage, overlay);
+
+        // assert that it wasn't applied
+        assertRGBA(baseImage.getRGB(1, 1), 255, 255, 255, 255);
+    }
+
     /* convertIndexedTo8BitARGB() */
 
     @Test
@@ -1,9 +1,15 @@
 package edu.illinois.library.cantaloupe.processor;
 
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.image.Dimension;
 import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Info;
+import edu.illinois.library.cantaloupe.operation.Crop;
 import edu.illinois.library.cantaloupe.operation.Encode;
 import edu.illinois.library.cantaloupe.operation.OperationList;
+import edu.illinois.library.cantaloupe.operation.Rotate;
+import edu.illinois.library.cantaloupe.operation.Scale;
 import edu.illinois.library.cantaloupe.processor.codec.ImageReader;
 import edu.illinois.library.cantaloupe.processor.codec.ImageReaderFactory;
 import edu.illinois.library.cantaloupe.resource.iiif.ProcessorFeature;
@@ -11,6 +17,8 @@ import edu.illinois.library.cantaloupe.test.TestUtil;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.nio.file.Path;
@@ -85,4 +93,181 @@ public class Java2dProcessorTest extends ImageIOProcessorTest {
         }
     }
 
+    @Test
+    public void testProcessWithAnimatedGIFAboveStreamingThreshold()
+            throws Exception {
+        Configuration.getInstance().setProperty(
+                Key.PROCESSOR_IMAGEIO_STREAMING_THRESHOLD, "1");
+
+        Path image = TestUtil.getImage("gif-animated-looping.gif");
+        OperationList ops = new OperationList(
+                new Scale(0.5), new Encode(Format.GIF));
+        Info info = Info.builder()
+                .withSize(136, 200)
+                .withFormat(Format.GIF)
+                .build();
+
+        instance.setSourceFile(image);
+        instance.setSourceFormat(Format.GIF);
+
+        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            instance.process(ops, info, os);
+
+            try (ByteArrayInputStream is = new ByteArrayInputStream(os.toByteArray())) {
+                ImageReader reader = null;
+                try {
+                    reader = new ImageReaderFactory().newImageReader(is, Format.GIF);
+                    assertEquals(2, reader.getNumImages());
+                    assertEquals(new Dimension(68, 100), reader.getSize(0));
+                } finally {
+                    if (reader != null) {
+                        reader.dispose();
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testProcessWithPassthroughTile() throws Exception {
+        final Path fixture = TestUtil.getImage("tif-rgb-1res-64x56x8-tiled-jpeg.tif");
+        final byte[] expected;
+        ImageReader reader = new ImageReaderFactory().newImageReader(
+                fixture, Format.TIF);
+        try {
+            expected = reader.readTileAsJPEG(0, 1, 1);
+        } finally {
+            reader.dispose();
+        }
+        assertNotNull(expected);
+        assertArrayEquals(expected, processTile(fixture));
+    }
+
+    @Test
+    public void testProcessWithPassthroughTileDisabled() throws Exception {
+        Configuration.getInstance().setProperty(
+                Key.PROCESSOR_IMAGEIO_TILE_PASSTHROUGH, false);
+        final Path fixture = TestUtil.getImage("tif-rgb-1res-64x56x8-tiled-jpeg.tif");
+        final byte[] expected;
+        ImageReader reader = new ImageReaderFactory().newImageReader(
+                fixture, Format.TIF);
+        try {
+            expected = reader.readTileAsJPEG(0, 1, 1);
+        } finally {
+            reader.dispose();
+        }
+        final byte[] actual = processTile(fixture);
+        assertFalse(Arrays.equals(expected, actual));
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(actual));
+        assertEquals(16, image.getWidth());
+        assertEquals(16, image.getHeight());
+    }
+
+    /**
+     * Requests the second tile in the second row of the given 64x56 TIFF with
+     * 16x16 tiles.
+     */
+    private byte[] processTile(Path fixture) throws Exception {
+        OperationList ops = new OperationList(
+                new Crop(16, 16, 16, 16),
+                new Encode(Format.JPG));
+        Info info = Info.builder()
+                .withSize(64, 56)
+                .withFormat(Format.TIF)
+                .build();
+
+        instance.setSourceFile(fixture);
+        instance.setSourceFormat(Format.TIF);
+
+        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            instance.process(ops, info, os);
+            return os.toByteArray();
+        }
+    }
+
+    @Test
+    public void testProcessWithLosslessJPEGTransform() throws Exception {
+        final byte[] transformed = processLosslessJPEGTransform();
+        BufferedImage image =
+                ImageIO.read(new ByteArrayInputStream(transformed));
+        assertEquals(48, image.getWidth());
+        assertEquals(32, image.getHeight());
+
+        Configuration.getInstance().setProperty(
+                Key.PROCESSOR_IMAGEIO_LOSSLESS_JPEG_TRANSFORMS, false);
+        final byte[] reencoded = processLosslessJPEGTransform();
+        assertFalse(Arrays.equals(transformed, reencoded));
+    }
+
+    /**
+     * Crops a block-aligned region from a 64x56 JPEG and rotates it.
+     */
+    private byte[] processLosslessJPEGTransform() throws Exception {
+        OperationList ops = new OperationList(
+                new Crop(16, 0, 32, 48),
+                new Rotate(90),
+                new Encode(Format.JPG));
+        Info info = Info.builder()
+                .withSize(64, 56)
+                .withFormat(Format.JPG)
+                .build();
+
+        instance.setSourceFile(TestUtil.getImage("jpg-rgb-64x56x8-baseline.jpg"));
+        instance.setSourceFormat(Format.JPG);
+
+        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            instance.process(ops, info, os);
+            return os.toByteArray();
+        }
+    }
+
+    @Test
+    public void testProcessWithStreamingToJPEG() throws Exception {
+        BufferedImage image = processStreaming(Format.JPG);
+        assertEquals(32, image.getWidth());
+        assertEquals(24, image.getHeight());
+    }
+
+    @Test
+    public void testProcessWithStreamingToPNG() throws Exception {
+        BufferedImage image = processStreaming(Format.PNG);
+        assertEquals(32, image.getWidth());
+        assertEquals(24, image.getHeight());
+    }
+
+    @Test
+    public void testProcessWithStreamingToTIFF() throws Exception {
+        BufferedImage image = processStreaming(Format.TIF);
+        assertEquals(32, image.getWidth());
+        assertEquals(24, image.getHeight());
+    }
+
+    /**
+     * Crops and scales a small striped TIFF with a streaming threshold low
+     * enough to force it to be streamed.
+     */
+    private BufferedImage processStreaming(Format outputFormat)
+            throws Exception {
+        Configuration.getInstance().setProperty(
+                Key.PROCESSOR_IMAGEIO_STREAMING_THRESHOLD, "1");
+
+        Path fixture = TestUtil.getImage("tif-rgb-1res-64x56x8-striped-lzw.tif");
+        OperationList ops = new OperationList(
+                new Crop(0, 8, 64, 48),
+                new Scale(32, 24, Scale.Mode.ASPECT_FIT_INSIDE),
+                new Encode(outputFormat));
+        Info info = Info.builder()
+                .withSize(64, 56)
+                .withFormat(Format.TIF)
+                .build();
+
+        instance.setSourceFile(fixture);
+        instance.setSourceFormat(Format.TIF);
+
+        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            instance.process(ops, info, os);
+            return ImageIO.read(new ByteArrayInputStream(os.toByteArray()));
+        }
+    }
+
 }
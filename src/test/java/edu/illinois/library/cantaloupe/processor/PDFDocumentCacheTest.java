@@ -0,0 +1,188 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import edu.illinois.library.cantaloupe.test.TestUtil;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PDFDocumentCacheTest extends BaseTest {
+
+    private PDFDocumentCache instance;
+
+    private static PDFDocumentCache.Document load(String fixture)
+            throws IOException {
+        Path file = TestUtil.getImage(fixture);
+        return new PDFDocumentCache.Document(
+                PDDocument.load(file.toFile()), null, Files.size(file));
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        instance = new PDFDocumentCache(1024 * 1024 * 1024, 64 * 1024 * 1024);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        super.tearDown();
+        instance.purge();
+        PDFDocumentCache.clearInstance();
+    }
+
+    /* acquire() */
+
+    @Test
+    public void testAcquireLoadsOnlyOnce() throws Exception {
+        final AtomicInteger numLoads = new AtomicInteger();
+        final PDFDocumentCache.Loader loader = () -> {
+            numLoads.incrementAndGet();
+            return load("pdf.pdf");
+        };
+        PDFDocumentCache.Document doc1 = instance.acquire("key", loader);
+        PDFDocumentCache.Document doc2 = instance.acquire("key", loader);
+        try {
+            assertSame(doc1, doc2);
+            assertEquals(1, numLoads.get());
+        } finally {
+            doc1.release();
+            doc2.release();
+        }
+    }
+
+    @Test
+    public void testAcquireWithDifferentKeys() throws Exception {
+        PDFDocumentCache.Document doc1 =
+                instance.acquire("key1", () -> load("pdf.pdf"));
+        PDFDocumentCache.Document doc2 =
+                instance.acquire("key2", () -> load("pdf.pdf"));
+        try {
+            assertNotSame(doc1, doc2);
+        } finally {
+            doc1.release();
+            doc2.release();
+        }
+    }
+
+    @Test
+    public void testAcquireWithNullKeyDoesNotCache() throws Exception {
+        PDFDocumentCache.Document doc1 =
+                instance.acquire(null, () -> load("pdf.pdf"));
+        PDFDocumentCache.Document doc2 =
+                instance.acquire(null, () -> load("pdf.pdf"));
+        assertNotSame(doc1, doc2);
+
+        doc1.release();
+        doc2.release();
+        assertTrue(doc1.isClosed());
+        assertTrue(doc2.isClosed());
+    }
+
+    @Test
+    public void testAcquireWhenDisabled() throws Exception {
+        instance = new PDFDocumentCache(0, 0);
+        PDFDocumentCache.Document doc1 =
+                instance.acquire("key", () -> load("pdf.pdf"));
+        PDFDocumentCache.Document doc2 =
+                instance.acquire("key", () -> load("pdf.pdf"));
+        assertNotSame(doc1, doc2);
+
+        doc1.release();
+        doc2.release();
+        assertTrue(doc1.isClosed());
+    }
+
+    /* purge() */
+
+    @Test
+    public void testPurgeDefersClosingDocumentsInUse() throws Exception {
+        PDFDocumentCache.Document doc =
+                instance.acquire("key", () -> load("pdf.pdf"));
+        instance.purge();
+        assertFalse(doc.isClosed());
+        // Still usable
+        assertEquals(1, doc.getPDDocument().getNumberOfPages());
+
+        doc.release();
+        assertTrue(doc.isClosed());
+
+        // The next acquisition loads it anew.
+        PDFDocumentCache.Document doc2 =
+                instance.acquire("key", () -> load("pdf.pdf"));
+        try {
+            assertNotSame(doc, doc2);
+        } finally {
+            doc2.release();
+        }
+    }
+
+    /* getRaster() */
+
+    @Test
+    public void testGetRaster() {
+        BufferedImage image =
+                new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        instance.putRaster("key", 0, 72, image);
+        assertSame(image, instance.getRaster("key", 0, 72));
+        assertNull(instance.getRaster("key", 1, 72));
+        assertNull(instance.getRaster("key", 0, 150));
+        assertNull(instance.getRaster("key2", 0, 72));
+    }
+
+    @Test
+    public void testGetRasterWithNullKey() {
+        BufferedImage image =
+                new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        instance.putRaster(null, 0, 72, image);
+        assertNull(instance.getRaster(null, 0, 72));
+    }
+
+    /* putRaster() */
+
+    @Test
+    public void testPutRasterWithImageLargerThanCache() {
+        instance = new PDFDocumentCache(0, 1024 * 1024);
+        BufferedImage image =
+                new BufferedImage(1024, 1024, BufferedImage.TYPE_INT_RGB);
+        instance.putRaster("key", 0, 72, image);
+        assertNull(instance.getRaster("key", 0, 72));
+    }
+
+    /* readSize() */
+
+    @Test
+    public void testReadSize() {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.PDFBOXPROCESSOR_RASTER_CACHE_MAX_SIZE, "2M");
+        assertEquals(2 * 1024 * 1024, PDFDocumentCache.readSize(
+                Key.PDFBOXPROCESSOR_RASTER_CACHE_MAX_SIZE, 5));
+    }
+
+    @Test
+    public void testReadSizeWithInvalidValue() {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.PDFBOXPROCESSOR_RASTER_CACHE_MAX_SIZE, "cats");
+        assertEquals(5, PDFDocumentCache.readSize(
+                Key.PDFBOXPROCESSOR_RASTER_CACHE_MAX_SIZE, 5));
+    }
+
+    @Test
+    public void testReadSizeWithMissingValue() {
+        Configuration config = Configuration.getInstance();
+        config.clearProperty(Key.PDFBOXPROCESSOR_RASTER_CACHE_MAX_SIZE);
+        assertEquals(5, PDFDocumentCache.readSize(
+                Key.PDFBOXPROCESSOR_RASTER_CACHE_MAX_SIZE, 5));
+    }
+
+}
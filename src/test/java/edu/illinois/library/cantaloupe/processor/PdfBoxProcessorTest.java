@@ -6,6 +6,8 @@ import edu.illinois.library.cantaloupe.image.Dimension;
 import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.image.Info;
+import edu.illinois.library.cantaloupe.operation.ColorTransform;
+import edu.illinois.library.cantaloupe.operation.Crop;
 import edu.illinois.library.cantaloupe.operation.Encode;
 import edu.illinois.library.cantaloupe.operation.OperationList;
 import edu.illinois.library.cantaloupe.operation.ValidationException;
@@ -15,6 +17,9 @@ import org.apache.commons.io.output.NullOutputStream;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
@@ -32,6 +37,7 @@ public class PdfBoxProcessorTest extends AbstractProcessorTest {
         super.setUp();
         Configuration config = Configuration.getInstance();
         config.setProperty(Key.PROCESSOR_DPI, 72);
+        PDFDocumentCache.clearInstance();
         instance = newInstance();
     }
 
@@ -87,6 +93,61 @@ public class PdfBoxProcessorTest extends AbstractProcessorTest {
         assertFalse(Arrays.equals(page1, page2));
     }
 
+    @Test
+    public void testProcessDoesNotModifyCachedRasters() throws Exception {
+        instance.setSourceFile(TestUtil.getImage("pdf.pdf"));
+        final Info imageInfo = instance.readImageInfo();
+        final OperationList plainOps = new OperationList(
+                new Identifier("cats"), new Encode(Format.PNG));
+        final OperationList grayOps = new OperationList(
+                new Identifier("cats"), ColorTransform.GRAY,
+                new Encode(Format.PNG));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        instance.process(plainOps, imageInfo, outputStream);
+        final byte[] expected = outputStream.toByteArray();
+
+        // This renders from the cached raster and converts it to gray.
+        instance.process(grayOps, imageInfo, new NullOutputStream());
+
+        outputStream = new ByteArrayOutputStream();
+        instance.process(plainOps, imageInfo, outputStream);
+        assertArrayEquals(expected, outputStream.toByteArray());
+    }
+
+    @Test
+    public void testProcessWithCropRendersOnlyRegion() throws Exception {
+        // With the raster cache disabled, only the region gets rendered.
+        Configuration.getInstance().setProperty(
+                Key.PDFBOXPROCESSOR_RASTER_CACHE_MAX_SIZE, "0");
+        PDFDocumentCache.clearInstance();
+
+        instance.setSourceFile(TestUtil.getImage("pdf.pdf"));
+        final Info imageInfo = instance.readImageInfo();
+        final OperationList ops = new OperationList(new Identifier("cats"),
+                new Crop(20, 10, 40, 30), new Encode(Format.PNG));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        instance.process(ops, imageInfo, outputStream);
+        final BufferedImage region = ImageIO.read(
+                new ByteArrayInputStream(outputStream.toByteArray()));
+
+        // With it enabled, the region gets cut from the whole page.
+        Configuration.getInstance().setProperty(
+                Key.PDFBOXPROCESSOR_RASTER_CACHE_MAX_SIZE, "64M");
+        PDFDocumentCache.clearInstance();
+
+        outputStream = new ByteArrayOutputStream();
+        instance.process(ops, imageInfo, outputStream);
+        final BufferedImage cropped = ImageIO.read(
+                new ByteArrayInputStream(outputStream.toByteArray()));
+
+        assertEquals(40, region.getWidth());
+        assertEquals(30, region.getHeight());
+        assertArrayEquals(
+                cropped.getRGB(0, 0, 40, 30, null, 0, 40),
+                region.getRGB(0, 0, 40, 30, null, 0, 40));
+    }
+
     @Test(expected = ProcessorException.class)
     public void testProcessWithIllegalPageOptionThrowsException()
             throws Exception {
@@ -1,5 +1,6 @@
 package edu.illinois.library.cantaloupe.processor;
 
+import edu.illinois.library.cantaloupe.cache.CacheStatistics;
 import edu.illinois.library.cantaloupe.cache.SourceCache;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.source.PathStreamFactory;
@@ -26,6 +27,7 @@ public class SourceCacheDownloadTest extends BaseTest {
     @Test
     public void setUp() throws Exception {
         sourceCache = new SourceCache() {
+            private final CacheStatistics statistics = new CacheStatistics();
             private Path tempFile;
 
             {
@@ -33,6 +35,11 @@ public class SourceCacheDownloadTest extends BaseTest {
                 Files.delete(tempFile);
             }
 
+            @Override
+            public CacheStatistics getStatistics() {
+                return statistics;
+            }
+
             @Override
             public Path getSourceImageFile(Identifier identifier)
                     throws IOException {
@@ -0,0 +1,117 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.image.Dimension;
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.Rectangle;
+import edu.illinois.library.cantaloupe.operation.ReductionFactor;
+import edu.illinois.library.cantaloupe.operation.Scale;
+import edu.illinois.library.cantaloupe.processor.codec.ImageReader;
+import edu.illinois.library.cantaloupe.processor.codec.ImageReaderFactory;
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import edu.illinois.library.cantaloupe.test.TestUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.image.Raster;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import static org.junit.Assert.*;
+
+public class StreamedImageTest extends BaseTest {
+
+    /**
+     * 64x56 pixels, with 42 rows per strip.
+     */
+    private static final String FIXTURE =
+            "tif-rgb-1res-64x56x8-striped-uncompressed.tif";
+
+    private ImageReader reader;
+
+    /**
+     * Heights of the regions read by {@link #newRecordingReader()}.
+     */
+    private final List<Integer> bandHeights = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        reader = new ImageReaderFactory().newImageReader(
+                TestUtil.getImage(FIXTURE), Format.TIF);
+    }
+
+    @After
+    public void tearDown() {
+        reader.dispose();
+    }
+
+    /**
+     * @return Reader that delegates to {@link #reader} and records the
+     *         heights of the regions it reads into {@link #bandHeights}.
+     */
+    private ImageReader newRecordingReader() {
+        return (ImageReader) Proxy.newProxyInstance(
+                ImageReader.class.getClassLoader(),
+                new Class<?>[] { ImageReader.class },
+                (proxy, method, args) -> {
+                    if ("readRegion".equals(method.getName())) {
+                        bandHeights.add(((Rectangle) args[1]).intHeight());
+                    }
+                    try {
+                        return method.invoke(reader, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private StreamedImage newInstance(Dimension size,
+                                      int stripHeight) throws Exception {
+        return new StreamedImage(newRecordingReader(),
+                new Rectangle(0, 0, 64, 56), new ReductionFactor(0), size,
+                Scale.Filter.BICUBIC.toResampleFilter(),
+                UnaryOperator.identity(), stripHeight);
+    }
+
+    /* getData() */
+
+    @Test
+    public void testGetDataReadsBandsNoTallerThanNecessary() throws Exception {
+        final int stripHeight = reader.getStripHeight(0);
+        assertEquals(42, stripHeight);
+
+        final StreamedImage image = newInstance(new Dimension(32, 28), 4);
+        final Raster raster = image.getData();
+        assertEquals(32, raster.getWidth());
+        assertEquals(28, raster.getHeight());
+
+        // The source must have been read in more than one band, none of
+        // which is taller than a source strip plus the rows needed by the
+        // resample filter.
+        assertTrue(bandHeights.size() > 1);
+        for (int height : bandHeights) {
+            assertTrue("Band height: " + height, height < 56);
+        }
+        // Each row must have been read about once.
+        final int totalHeight =
+                bandHeights.stream().mapToInt(Integer::intValue).sum();
+        assertTrue("Total height: " + totalHeight, totalHeight < 2 * 56);
+    }
+
+    @Test
+    public void testGetDataWithoutResampling() throws Exception {
+        final StreamedImage image = newInstance(new Dimension(64, 56), 8);
+        final Raster raster = image.getData();
+        assertEquals(64, raster.getWidth());
+        assertEquals(56, raster.getHeight());
+        assertEquals(7, bandHeights.size());
+        for (int height : bandHeights) {
+            assertEquals(8, height);
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.operation.Color;
+import edu.illinois.library.cantaloupe.operation.overlay.Position;
+import edu.illinois.library.cantaloupe.operation.overlay.StringOverlay;
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+public class StringOverlayCacheTest extends BaseTest {
+
+    private StringOverlayCache instance;
+
+    private static StringOverlay newOverlay(String string, Color background) {
+        return new StringOverlay(string, Position.BOTTOM_RIGHT, 5,
+                new Font("SansSerif", Font.PLAIN, 24), 12,
+                Color.WHITE, background, Color.BLACK, 1f);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        instance = new StringOverlayCache();
+    }
+
+    /* getBoxPadding() */
+
+    @Test
+    public void testGetBoxPaddingWithVisibleBackground() {
+        assertTrue(StringOverlayCache.getBoxPadding(
+                newOverlay("cats", Color.BLACK)) > 0);
+    }
+
+    @Test
+    public void testGetBoxPaddingWithTransparentBackground() {
+        assertEquals(0, StringOverlayCache.getBoxPadding(
+                newOverlay("cats", new Color(0, 0, 0, 0))));
+    }
+
+    /* getLayout() */
+
+    @Test
+    public void testGetLayout() {
+        StringOverlay overlay = newOverlay("cats\ndogs and birds", Color.BLACK);
+        StringOverlayCache.Layout layout = instance.getLayout(overlay, 24);
+
+        assertEquals(24, layout.getFont().getSize2D(), 0.00001);
+        assertEquals(2, layout.getLineWidths().length);
+        assertTrue(layout.getLineWidths()[0] < layout.getLineWidths()[1]);
+        assertEquals(layout.getLineWidths()[1], layout.getMaxLineWidth());
+        assertEquals(layout.getLineHeight() * 2, layout.getTotalHeight());
+    }
+
+    @Test
+    public void testGetLayoutCachesLayout() {
+        StringOverlay overlay = newOverlay("cats", Color.BLACK);
+        assertSame(instance.getLayout(overlay, 24),
+                instance.getLayout(overlay, 24));
+    }
+
+    @Test
+    public void testGetLayoutWithSmallerFontSize() {
+        StringOverlay overlay = newOverlay("cats", Color.BLACK);
+        StringOverlayCache.Layout large = instance.getLayout(overlay, 24);
+        StringOverlayCache.Layout small = instance.getLayout(overlay, 12);
+
+        assertEquals(12, small.getFont().getSize2D(), 0.00001);
+        assertTrue(small.getMaxLineWidth() < large.getMaxLineWidth());
+    }
+
+    /* getSprite() */
+
+    @Test
+    public void testGetSprite() {
+        StringOverlay overlay = newOverlay("cats", Color.BLACK);
+        StringOverlayCache.Layout layout = instance.getLayout(overlay, 24);
+        StringOverlayCache.Sprite sprite = instance.getSprite(overlay, layout);
+        BufferedImage image = sprite.getImage();
+        int padding = StringOverlayCache.getBoxPadding(overlay);
+
+        assertEquals(layout.getMaxLineWidth() + padding * 2 +
+                sprite.getMargin() * 2, image.getWidth());
+        assertEquals(layout.getTotalHeight() + padding * 2 +
+                sprite.getMargin() * 2, image.getHeight());
+        // The margin is transparent...
+        assertEquals(0, image.getRGB(0, 0));
+        // and the corner of the box is the background color.
+        assertEquals(0xff000000,
+                image.getRGB(sprite.getMargin(), sprite.getMargin()));
+    }
+
+    @Test
+    public void testGetSpriteCachesSprite() {
+        StringOverlay overlay = newOverlay("cats", Color.BLACK);
+        StringOverlayCache.Layout layout = instance.getLayout(overlay, 24);
+        assertSame(instance.getSprite(overlay, layout),
+                instance.getSprite(overlay, layout));
+    }
+
+    @Test
+    public void testGetSpriteWithDifferentBackgroundColors() {
+        StringOverlay overlay1 = newOverlay("cats", Color.BLACK);
+        StringOverlay overlay2 = newOverlay("cats", Color.RED);
+        StringOverlayCache.Layout layout = instance.getLayout(overlay1, 24);
+        assertSame(layout, instance.getLayout(overlay2, 24));
+        assertNotSame(instance.getSprite(overlay1, layout),
+                instance.getSprite(overlay2, layout));
+    }
+
+    /* purge() */
+
+    @Test
+    public void testPurge() {
+        StringOverlay overlay = newOverlay("cats", Color.BLACK);
+        StringOverlayCache.Layout layout = instance.getLayout(overlay, 24);
+        instance.purge();
+        assertNotSame(layout, instance.getLayout(overlay, 24));
+    }
+
+}
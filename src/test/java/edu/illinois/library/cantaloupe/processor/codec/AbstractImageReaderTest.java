@@ -1,5 +1,7 @@
 package edu.illinois.library.cantaloupe.processor.codec;
 
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.image.Compression;
 import edu.illinois.library.cantaloupe.image.Dimension;
 import edu.illinois.library.cantaloupe.operation.Crop;
@@ -19,6 +21,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
 
 abstract class AbstractImageReaderTest extends BaseTest {
 
@@ -42,6 +45,16 @@ abstract class AbstractImageReaderTest extends BaseTest {
 
     abstract ImageReader newInstance() throws IOException;
 
+    /**
+     * @return Whether {@link ImageReader#read(OperationList, Orientation,
+     *         ReductionFactor, Set)} subsamples the {@link #newInstance()
+     *         fixture} when it is being scaled down. Override to return
+     *         {@literal false} for readers that don't.
+     */
+    boolean isSubsamplingSupported() {
+        return true;
+    }
+
     @Test
     public void testGetCompression() throws Exception {
         assertEquals(Compression.UNCOMPRESSED, instance.getCompression(0));
@@ -62,6 +75,16 @@ abstract class AbstractImageReaderTest extends BaseTest {
         assertEquals(1, instance.getNumResolutions());
     }
 
+    @Test
+    public void testNewInstanceReusesPooledIIOReader() throws Exception {
+        final javax.imageio.ImageReader iioReader =
+                ((AbstractIIOImageReader) instance).iioReader;
+        instance.dispose();
+        instance = newInstance();
+        assertSame(iioReader, ((AbstractIIOImageReader) instance).iioReader);
+        assertNotNull(instance.getSize(0));
+    }
+
     @Test
     public void testGetPreferredIIOImplementationsWithNoUserPreference() {
         String[] impls = ((AbstractIIOImageReader) instance).
@@ -110,6 +133,62 @@ abstract class AbstractImageReaderTest extends BaseTest {
         assertTrue(hints.contains(ReaderHint.ALREADY_CROPPED));
     }
 
+    private BufferedImage readWithSmallScale(ReductionFactor rf)
+            throws Exception {
+        OperationList ops = new OperationList();
+        Crop crop = new Crop();
+        crop.setX(10f);
+        crop.setY(10f);
+        crop.setWidth(40f);
+        crop.setHeight(40f);
+        ops.add(crop);
+        ops.add(new Scale(8, 8, Scale.Mode.ASPECT_FIT_INSIDE));
+        return instance.read(ops, Orientation.ROTATE_0, rf, new HashSet<>());
+    }
+
+    @Test
+    public void testReadWithArgumentsSubsamples() throws Exception {
+        assumeTrue(isSubsamplingSupported());
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.PROCESSOR_IMAGEIO_SUBSAMPLE, true);
+        config.setProperty(Key.PROCESSOR_IMAGEIO_SUBSAMPLE_PRESERVE_QUALITY, false);
+
+        ReductionFactor rf = new ReductionFactor();
+        BufferedImage image = readWithSmallScale(rf);
+        assertEquals(2, rf.factor);
+        assertEquals(10, image.getWidth());
+        assertEquals(10, image.getHeight());
+    }
+
+    @Test
+    public void testReadWithArgumentsSubsamplesPreservingQuality()
+            throws Exception {
+        assumeTrue(isSubsamplingSupported());
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.PROCESSOR_IMAGEIO_SUBSAMPLE, true);
+        config.setProperty(Key.PROCESSOR_IMAGEIO_SUBSAMPLE_PRESERVE_QUALITY, true);
+
+        ReductionFactor rf = new ReductionFactor();
+        BufferedImage image = readWithSmallScale(rf);
+        assertEquals(1, rf.factor);
+        assertEquals(20, image.getWidth());
+        assertEquals(20, image.getHeight());
+    }
+
+    @Test
+    public void testReadWithArgumentsWithSubsamplingDisabled()
+            throws Exception {
+        assumeTrue(isSubsamplingSupported());
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.PROCESSOR_IMAGEIO_SUBSAMPLE, false);
+
+        ReductionFactor rf = new ReductionFactor();
+        BufferedImage image = readWithSmallScale(rf);
+        assertEquals(0, rf.factor);
+        assertEquals(40, image.getWidth());
+        assertEquals(40, image.getHeight());
+    }
+
     @Test
     public void testReadSmallestUsableSubimageReturningBufferedImage() {
         // TODO: write this
@@ -28,6 +28,15 @@ abstract class AbstractImageWriterTest extends BaseTest {
 
     abstract ImageWriter newInstance() throws IOException;
 
+    @Test
+    public void testNewInstanceReusesPooledIIOWriter() throws Exception {
+        final javax.imageio.ImageWriter iioWriter =
+                ((AbstractIIOImageWriter) instance).iioWriter;
+        instance.dispose();
+        instance = newInstance();
+        assertSame(iioWriter, ((AbstractIIOImageWriter) instance).iioWriter);
+    }
+
     @Test
     public void testGetPreferredIIOImplementationsWithNoUserPreference() {
         String[] impls = ((AbstractIIOImageWriter) instance).
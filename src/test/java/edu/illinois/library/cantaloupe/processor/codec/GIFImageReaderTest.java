@@ -26,6 +26,14 @@ public class GIFImageReaderTest extends AbstractImageReaderTest {
         return reader;
     }
 
+    /**
+     * GIFs are always read whole.
+     */
+    @Override
+    boolean isSubsamplingSupported() {
+        return false;
+    }
+
     @Test
     public void testGetApplicationPreferredIIOImplementations() {
         String[] impls = ((GIFImageReader) instance).
@@ -115,4 +123,17 @@ public class GIFImageReaderTest extends AbstractImageReaderTest {
         assertEquals(2, seq.length());
     }
 
+    /* streamSequence() */
+
+    @Test
+    public void testStreamSequenceWithAnimatedImage() throws Exception {
+        instance = new GIFImageReader();
+        instance.setSource(TestUtil.getImage("gif-animated-looping.gif"));
+        StreamingImageSequence seq = instance.streamSequence();
+        assertNotNull(seq.next());
+        assertNotNull(seq.next());
+        assertNull(seq.next());
+        assertNull(seq.next());
+    }
+
 }
@@ -180,6 +180,43 @@ public class GIFImageWriterTest extends AbstractImageWriterTest {
         }
     }
 
+    @Test
+    public void testWriteWithStreamingSequence() throws Exception {
+        Path image = TestUtil.getImage("gif-animated-looping.gif");
+        edu.illinois.library.cantaloupe.processor.codec.ImageReader reader = null;
+        try {
+            reader = new ImageReaderFactory().newImageReader(image, Format.GIF);
+            StreamingImageSequence sequence = reader.streamSequence();
+
+            try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+                instance.write(sequence, os);
+
+                try (ByteArrayInputStream is = new ByteArrayInputStream(os.toByteArray())) {
+                    reader.dispose();
+                    reader = null;
+                    try {
+                        reader = new ImageReaderFactory().newImageReader(is, Format.GIF);
+                        assertEquals(2, reader.getNumImages());
+                    } finally {
+                        if (reader != null) {
+                            reader.dispose();
+                        }
+                    }
+                }
+            }
+        } finally {
+            if (reader != null) {
+                reader.dispose();
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWriteWithEmptyStreamingSequence() throws Exception {
+        StreamingImageSequence sequence = () -> null;
+        instance.write(sequence, new ByteArrayOutputStream());
+    }
+
     private void checkForICCProfile() throws Exception {
         // Read it back in
         final Iterator<javax.imageio.ImageReader> readers =
@@ -0,0 +1,105 @@
+package edu.illinois.library.cantaloupe.processor.codec;
+
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class IIOPluginPoolTest extends BaseTest {
+
+    private static final String KEY = "key";
+
+    private final AtomicInteger resetCount = new AtomicInteger();
+    private final List<Object> disposed = new ArrayList<>();
+
+    private IIOPluginPool<Object> instance;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        instance = new IIOPluginPool<>(o -> resetCount.incrementAndGet(),
+                disposed::add);
+    }
+
+    /* key() */
+
+    @Test
+    public void testKey() {
+        assertEquals(IIOPluginPool.key(Format.JPG, new String[] { "a", "b" }),
+                IIOPluginPool.key(Format.JPG, new String[] { "a", "b" }));
+        assertNotEquals(IIOPluginPool.key(Format.JPG, new String[] { "a" }),
+                IIOPluginPool.key(Format.JPG, new String[] { "b" }));
+        assertNotEquals(IIOPluginPool.key(Format.JPG, new String[] { "a" }),
+                IIOPluginPool.key(Format.PNG, new String[] { "a" }));
+    }
+
+    /* borrow() */
+
+    @Test
+    public void testBorrowWithEmptyPool() {
+        assertNull(instance.borrow(KEY));
+    }
+
+    @Test
+    public void testBorrowReturnsMostRecentlyReleasedInstance() {
+        Object first = new Object(), second = new Object();
+        instance.release(KEY, first);
+        instance.release(KEY, second);
+        assertSame(second, instance.borrow(KEY));
+        assertSame(first, instance.borrow(KEY));
+        assertNull(instance.borrow(KEY));
+    }
+
+    @Test
+    public void testBorrowWithDifferentKey() {
+        instance.release(KEY, new Object());
+        assertNull(instance.borrow("other"));
+    }
+
+    /* clear() */
+
+    @Test
+    public void testClear() {
+        Object pooled = new Object();
+        instance.release(KEY, pooled);
+        instance.clear();
+        assertEquals(0, instance.size(KEY));
+        assertTrue(disposed.contains(pooled));
+    }
+
+    /* release() */
+
+    @Test
+    public void testReleaseResetsInstance() {
+        instance.release(KEY, new Object());
+        assertEquals(1, resetCount.get());
+        assertEquals(1, instance.size(KEY));
+    }
+
+    @Test
+    public void testReleaseDisposesInstancesBeyondMaxPoolSize() {
+        for (int i = 0; i < IIOPluginPool.MAX_POOL_SIZE + 2; i++) {
+            instance.release(KEY, new Object());
+        }
+        assertEquals(IIOPluginPool.MAX_POOL_SIZE, instance.size(KEY));
+        assertEquals(2, disposed.size());
+    }
+
+    @Test
+    public void testReleaseDisposesInstancesThatCannotBeReset() {
+        instance = new IIOPluginPool<>(o -> {
+            throw new IllegalStateException();
+        }, disposed::add);
+        Object broken = new Object();
+        instance.release(KEY, broken);
+        assertEquals(0, instance.size(KEY));
+        assertTrue(disposed.contains(broken));
+    }
+
+}
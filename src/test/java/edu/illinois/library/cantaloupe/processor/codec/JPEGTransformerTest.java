@@ -0,0 +1,282 @@
+package edu.illinois.library.cantaloupe.processor.codec;
+
+import edu.illinois.library.cantaloupe.image.Dimension;
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.operation.Crop;
+import edu.illinois.library.cantaloupe.operation.Encode;
+import edu.illinois.library.cantaloupe.operation.OperationList;
+import edu.illinois.library.cantaloupe.operation.Rotate;
+import edu.illinois.library.cantaloupe.operation.Scale;
+import edu.illinois.library.cantaloupe.operation.Transpose;
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import edu.illinois.library.cantaloupe.test.TestUtil;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class JPEGTransformerTest extends BaseTest {
+
+    private static final Dimension FULL_SIZE = new Dimension(64, 56);
+
+    private static byte[] readFixture(String name) throws Exception {
+        return Files.readAllBytes(TestUtil.getImage(name));
+    }
+
+    private static BufferedImage decode(byte[] data) throws Exception {
+        return ImageIO.read(new ByteArrayInputStream(data));
+    }
+
+    /**
+     * Asserts that the pixels of the given image match those of the given
+     * region of the given source image, rotated 90 degrees clockwise. JPEG
+     * decoders aren't exact enough for them to be identical.
+     */
+    private static void assertRotatedRegion(BufferedImage source,
+                                            int x, int y,
+                                            BufferedImage image) {
+        long totalDiff = 0;
+        for (int ty = 0; ty < image.getHeight(); ty++) {
+            for (int tx = 0; tx < image.getWidth(); tx++) {
+                final int expected = source.getRGB(
+                        x + ty, y + image.getWidth() - 1 - tx);
+                final int actual = image.getRGB(tx, ty);
+                for (int shift = 0; shift < 24; shift += 8) {
+                    totalDiff += Math.abs(((expected >> shift) & 0xff) -
+                            ((actual >> shift) & 0xff));
+                }
+            }
+        }
+        final double meanDiff =
+                totalDiff / (3.0 * image.getWidth() * image.getHeight());
+        assertTrue("Mean difference: " + meanDiff, meanDiff < 2);
+    }
+
+    /* canTransform() */
+
+    @Test
+    public void testCanTransformWithCropAndRotation() {
+        OperationList ops = new OperationList(
+                new Crop(16, 16, 32, 32),
+                new Rotate(270),
+                new Encode(Format.JPG));
+        assertTrue(JPEGTransformer.canTransform(ops, FULL_SIZE));
+    }
+
+    @Test
+    public void testCanTransformWithTranspose() {
+        OperationList ops = new OperationList(
+                Transpose.HORIZONTAL,
+                new Encode(Format.JPG));
+        assertTrue(JPEGTransformer.canTransform(ops, FULL_SIZE));
+    }
+
+    @Test
+    public void testCanTransformWithNoEffectiveOperations() {
+        OperationList ops = new OperationList(
+                new Rotate(0),
+                new Encode(Format.JPG));
+        assertFalse(JPEGTransformer.canTransform(ops, FULL_SIZE));
+    }
+
+    @Test
+    public void testCanTransformWithNonJPEGOutputFormat() {
+        OperationList ops = new OperationList(
+                new Rotate(90),
+                new Encode(Format.PNG));
+        assertFalse(JPEGTransformer.canTransform(ops, FULL_SIZE));
+    }
+
+    @Test
+    public void testCanTransformWithArbitraryRotation() {
+        OperationList ops = new OperationList(
+                new Rotate(45),
+                new Encode(Format.JPG));
+        assertFalse(JPEGTransformer.canTransform(ops, FULL_SIZE));
+    }
+
+    @Test
+    public void testCanTransformWithScale() {
+        OperationList ops = new OperationList(
+                new Scale(0.5),
+                new Rotate(90),
+                new Encode(Format.JPG));
+        assertFalse(JPEGTransformer.canTransform(ops, FULL_SIZE));
+    }
+
+    @Test
+    public void testCanTransformWithAlignedMCUSize() {
+        OperationList ops = new OperationList(
+                new Crop(16, 16, 32, 32),
+                Transpose.HORIZONTAL,
+                new Encode(Format.JPG));
+        assertTrue(JPEGTransformer.canTransform(
+                ops, FULL_SIZE, new Dimension(16, 16)));
+    }
+
+    @Test
+    public void testCanTransformWithUnalignedMCUSize() {
+        OperationList ops = new OperationList(
+                new Crop(8, 8, 32, 32),
+                new Rotate(90),
+                new Encode(Format.JPG));
+        assertTrue(JPEGTransformer.canTransform(
+                ops, FULL_SIZE, new Dimension(8, 8)));
+        assertFalse(JPEGTransformer.canTransform(
+                ops, FULL_SIZE, new Dimension(16, 16)));
+    }
+
+    /* readMCUSize() */
+
+    @Test
+    public void testReadMCUSize() throws Exception {
+        try (InputStream is = Files.newInputStream(
+                TestUtil.getImage("jpg-rgb-64x56x8-baseline.jpg"))) {
+            assertEquals(new Dimension(16, 16),
+                    JPEGTransformer.readMCUSize(is));
+        }
+    }
+
+    @Test
+    public void testReadMCUSizeWithUnsupportedImage() throws Exception {
+        try (InputStream is = Files.newInputStream(
+                TestUtil.getImage("jpg-rgb-64x56x8-plane.jpg"))) {
+            assertNull(JPEGTransformer.readMCUSize(is));
+        }
+    }
+
+    @Test
+    public void testReadMCUSizeWithNonJPEGData() throws Exception {
+        try (InputStream is = Files.newInputStream(TestUtil.getImage("png"))) {
+            assertNull(JPEGTransformer.readMCUSize(is));
+        }
+    }
+
+    /* transform() */
+
+    @Test
+    public void testTransformWithCropAndRotation() throws Exception {
+        final byte[] data = readFixture("jpg-rgb-64x56x8-baseline.jpg");
+        OperationList ops = new OperationList(
+                new Crop(16, 0, 32, 48),
+                new Rotate(90),
+                new Encode(Format.JPG));
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        assertTrue(new JPEGTransformer(data).transform(ops, FULL_SIZE, os));
+
+        BufferedImage image = decode(os.toByteArray());
+        assertEquals(48, image.getWidth());
+        assertEquals(32, image.getHeight());
+        assertRotatedRegion(decode(data), 16, 0, image);
+    }
+
+    @Test
+    public void testTransformWithMirroringAndRotation() throws Exception {
+        final byte[] data = readFixture("jpg-rgb-64x56x8-baseline.jpg");
+        final Dimension croppedSize = new Dimension(48, 48);
+
+        OperationList ops = new OperationList(
+                new Crop(0, 0, 48, 48),
+                new Encode(Format.JPG));
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        assertTrue(new JPEGTransformer(data).transform(ops, FULL_SIZE, os));
+        final byte[] cropped = os.toByteArray();
+
+        // Mirroring and then rotating 270 degrees is equivalent to
+        // transposing, and doing that twice has no effect on the
+        // coefficients, so the pixels should be identical.
+        ops = new OperationList(
+                Transpose.HORIZONTAL,
+                new Rotate(270),
+                new Encode(Format.JPG));
+        os = new ByteArrayOutputStream();
+        assertTrue(new JPEGTransformer(cropped).transform(
+                ops, croppedSize, os));
+        final byte[] transposed = os.toByteArray();
+        os = new ByteArrayOutputStream();
+        assertTrue(new JPEGTransformer(transposed).transform(
+                ops, croppedSize, os));
+
+        BufferedImage expected = decode(cropped);
+        BufferedImage actual = decode(os.toByteArray());
+        assertEquals(48, actual.getWidth());
+        assertEquals(48, actual.getHeight());
+        for (int y = 0; y < 48; y++) {
+            for (int x = 0; x < 48; x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testTransformWithUnalignedCrop() throws Exception {
+        final byte[] data = readFixture("jpg-rgb-64x56x8-baseline.jpg");
+        OperationList ops = new OperationList(
+                new Crop(4, 4, 32, 32),
+                new Encode(Format.JPG));
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        assertFalse(new JPEGTransformer(data).transform(ops, FULL_SIZE, os));
+        assertEquals(0, os.size());
+    }
+
+    @Test
+    public void testTransformWithMirroringOfPartialBlocks() throws Exception {
+        final byte[] data = readFixture("jpg-rgb-64x56x8-baseline.jpg");
+        // The right edge of the region isn't aligned to the block grid.
+        OperationList ops = new OperationList(
+                new Crop(16, 16, 20, 32),
+                Transpose.HORIZONTAL,
+                new Encode(Format.JPG));
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        assertFalse(new JPEGTransformer(data).transform(ops, FULL_SIZE, os));
+        assertEquals(0, os.size());
+    }
+
+    @Test
+    public void testTransformWithUnsupportedImage() throws Exception {
+        final byte[] data = readFixture("jpg-rgb-64x56x8-plane.jpg");
+        OperationList ops = new OperationList(
+                new Rotate(180),
+                new Encode(Format.JPG));
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        assertFalse(new JPEGTransformer(data).transform(ops, FULL_SIZE, os));
+        assertEquals(0, os.size());
+    }
+
+    @Test
+    public void testTransformWithNonJPEGData() throws Exception {
+        final byte[] data = readFixture("png");
+        OperationList ops = new OperationList(
+                new Rotate(180),
+                new Encode(Format.JPG));
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        assertFalse(new JPEGTransformer(data).transform(ops, FULL_SIZE, os));
+        assertEquals(0, os.size());
+    }
+
+    @Test
+    public void testTransformRetainsICCProfile() throws Exception {
+        final byte[] data = readFixture("jpg-icc.jpg");
+        OperationList ops = new OperationList(
+                new Rotate(180),
+                new Encode(Format.JPG));
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        assertTrue(new JPEGTransformer(data).transform(ops, FULL_SIZE, os));
+        assertTrue(new String(os.toByteArray(), StandardCharsets.ISO_8859_1)
+                .contains("ICC_PROFILE"));
+    }
+
+}
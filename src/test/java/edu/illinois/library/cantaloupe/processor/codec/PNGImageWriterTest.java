@@ -120,6 +120,44 @@ public class PNGImageWriterTest extends AbstractImageWriterTest {
         checkForXMPMetadata(os.toByteArray());
     }
 
+    @Test
+    public void testWriteWithBufferedImageAndParallelEncodingDisabled()
+            throws Exception {
+        final Configuration config = Configuration.getInstance();
+        config.setProperty(Key.PROCESSOR_PRESERVE_METADATA, true);
+        config.setProperty(Key.PROCESSOR_PNG_PARALLEL_ENCODING, false);
+
+        final PNGImageReader reader = new PNGImageReader();
+        reader.setSource(TestUtil.getImage("png-xmp.png"));
+        final Metadata metadata = reader.getMetadata(0);
+        final BufferedImage image = reader.read();
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        instance.dispose();
+        instance = newInstance();
+        instance.setMetadata(metadata);
+        instance.write(image, os);
+        checkForXMPMetadata(os.toByteArray());
+    }
+
+    @Test
+    public void testWriteWithBufferedImageAndUnrecognizedFilter()
+            throws Exception {
+        final Configuration config = Configuration.getInstance();
+        config.setProperty(Key.PROCESSOR_PNG_FILTER, "bogus");
+
+        final PNGImageReader reader = new PNGImageReader();
+        reader.setSource(TestUtil.getImage("png-rgb-64x56x8.png"));
+        final BufferedImage image = reader.read();
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        instance.write(image, os);
+        BufferedImage result =
+                ImageIO.read(new ByteArrayInputStream(os.toByteArray()));
+        assertEquals(64, result.getWidth());
+        assertEquals(56, result.getHeight());
+    }
+
     @Test
     public void testWriteWithPlanarImage() throws Exception {
         final PNGImageReader reader = new PNGImageReader();
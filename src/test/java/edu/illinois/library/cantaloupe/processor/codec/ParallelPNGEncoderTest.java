@@ -0,0 +1,237 @@
+package edu.illinois.library.cantaloupe.processor.codec;
+
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import edu.illinois.library.cantaloupe.test.TestUtil;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Adler32;
+
+import static org.junit.Assert.*;
+
+public class ParallelPNGEncoderTest extends BaseTest {
+
+    /**
+     * @return Image with noisy gradients in all bands.
+     */
+    public static BufferedImage newImage(int width, int height, int type) {
+        final BufferedImage image = new BufferedImage(width, height, type);
+        final WritableRaster raster = image.getRaster();
+        final int max = (1 << raster.getSampleModel().getSampleSize(0)) - 1;
+        final Random random = new Random(1);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                for (int b = 0; b < raster.getNumBands(); b++) {
+                    raster.setSample(x, y, b,
+                            (x * 3 + y * 5 + b * 40 + random.nextInt(8)) & max);
+                }
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Encodes the given image with the default compression level and filter.
+     */
+    public static void encodeInParallel(RenderedImage image,
+                                        OutputStream outputStream)
+            throws IOException {
+        new ParallelPNGEncoder(6, ParallelPNGEncoder.Filter.ADAPTIVE)
+                .encode(image, outputStream);
+    }
+
+    private static byte[] encode(ParallelPNGEncoder encoder,
+                                 BufferedImage image) throws Exception {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        encoder.encode(image, os);
+        return os.toByteArray();
+    }
+
+    private static void assertSamplesEqual(BufferedImage expected,
+                                           byte[] png) throws Exception {
+        final BufferedImage actual =
+                ImageIO.read(new ByteArrayInputStream(png));
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        final Raster expectedRaster = expected.getRaster();
+        final Raster actualRaster = actual.getRaster();
+        assertEquals(expectedRaster.getNumBands(), actualRaster.getNumBands());
+        assertArrayEquals(
+                expectedRaster.getPixels(0, 0, expected.getWidth(),
+                        expected.getHeight(), (int[]) null),
+                actualRaster.getPixels(0, 0, actual.getWidth(),
+                        actual.getHeight(), (int[]) null));
+    }
+
+    /* canEncode() */
+
+    @Test
+    public void testCanEncodeWithSupportedImages() {
+        assertTrue(ParallelPNGEncoder.canEncode(
+                new BufferedImage(8, 8, BufferedImage.TYPE_3BYTE_BGR)));
+        assertTrue(ParallelPNGEncoder.canEncode(
+                new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB)));
+        assertTrue(ParallelPNGEncoder.canEncode(
+                new BufferedImage(8, 8, BufferedImage.TYPE_BYTE_GRAY)));
+        assertTrue(ParallelPNGEncoder.canEncode(
+                new BufferedImage(8, 8, BufferedImage.TYPE_USHORT_GRAY)));
+    }
+
+    @Test
+    public void testCanEncodeWithIndexedImage() {
+        assertFalse(ParallelPNGEncoder.canEncode(
+                new BufferedImage(8, 8, BufferedImage.TYPE_BYTE_INDEXED)));
+    }
+
+    @Test
+    public void testCanEncodeWithPremultipliedAlpha() {
+        assertFalse(ParallelPNGEncoder.canEncode(
+                new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB_PRE)));
+    }
+
+    /* combineAdler32() */
+
+    @Test
+    public void testCombineAdler32() {
+        final byte[] data = new byte[100000];
+        new Random(1).nextBytes(data);
+
+        Adler32 adler = new Adler32();
+        adler.update(data);
+        final long expected = adler.getValue();
+
+        adler = new Adler32();
+        adler.update(data, 0, 70000);
+        final long adler1 = adler.getValue();
+        adler = new Adler32();
+        adler.update(data, 70000, 30000);
+        final long adler2 = adler.getValue();
+
+        assertEquals(expected,
+                ParallelPNGEncoder.combineAdler32(adler1, adler2, 30000));
+        assertEquals(adler1,
+                ParallelPNGEncoder.combineAdler32(1, adler1, 70000));
+    }
+
+    /* ParallelPNGEncoder() */
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorWithIllegalCompressionLevel() {
+        new ParallelPNGEncoder(10, ParallelPNGEncoder.Filter.ADAPTIVE);
+    }
+
+    /* encode() */
+
+    @Test
+    public void testEncodeWithAllFilters() throws Exception {
+        final BufferedImage image =
+                newImage(61, 47, BufferedImage.TYPE_3BYTE_BGR);
+        for (ParallelPNGEncoder.Filter filter :
+                ParallelPNGEncoder.Filter.values()) {
+            assertSamplesEqual(image,
+                    encode(new ParallelPNGEncoder(6, filter), image));
+        }
+    }
+
+    @Test
+    public void testEncodeWith16BitRGBAImage() throws Exception {
+        final BufferedImage image = ImageIO.read(
+                TestUtil.getImage("png-rgba-64x56x16.png").toFile());
+        assertSamplesEqual(image, encode(new ParallelPNGEncoder(
+                6, ParallelPNGEncoder.Filter.ADAPTIVE), image));
+    }
+
+    @Test
+    public void testEncodeWithMultipleChunks() throws Exception {
+        // Large enough to be divided into several chunks
+        final BufferedImage image =
+                newImage(1000, 200, BufferedImage.TYPE_4BYTE_ABGR);
+        assertTrue(1000 * 200 * 4 > 3 * ParallelPNGEncoder.CHUNK_SIZE);
+        assertSamplesEqual(image, encode(new ParallelPNGEncoder(
+                6, ParallelPNGEncoder.Filter.ADAPTIVE), image));
+    }
+
+    @Test
+    public void testEncodeWithMultipleChunksAndSubimage() throws Exception {
+        final BufferedImage image =
+                newImage(1200, 1000, BufferedImage.TYPE_3BYTE_BGR)
+                        .getSubimage(100, 50, 900, 700);
+        assertSamplesEqual(image, encode(new ParallelPNGEncoder(
+                1, ParallelPNGEncoder.Filter.PAETH), image));
+    }
+
+    @Test
+    public void testEncodeWith16BitGrayImage() throws Exception {
+        final BufferedImage image =
+                newImage(400, 400, BufferedImage.TYPE_USHORT_GRAY);
+        assertSamplesEqual(image, encode(new ParallelPNGEncoder(
+                6, ParallelPNGEncoder.Filter.ADAPTIVE), image));
+    }
+
+    @Test
+    public void testEncodeWithMetadata() throws Exception {
+        final BufferedImage image =
+                newImage(32, 32, BufferedImage.TYPE_BYTE_GRAY);
+        final ParallelPNGEncoder encoder =
+                new ParallelPNGEncoder(6, ParallelPNGEncoder.Filter.ADAPTIVE);
+        encoder.addTextEntry("Title", "Cats");
+        encoder.setXMP("<rdf:RDF></rdf:RDF>");
+        final byte[] png = encode(encoder, image);
+
+        final ImageReader reader =
+                ImageIO.getImageReadersByFormatName("PNG").next();
+        try (ImageInputStream is = ImageIO.createImageInputStream(
+                new ByteArrayInputStream(png))) {
+            reader.setInput(is);
+            final IIOMetadataNode tree = (IIOMetadataNode) reader
+                    .getImageMetadata(0)
+                    .getAsTree("javax_imageio_png_1.0");
+
+            IIOMetadataNode entry = (IIOMetadataNode)
+                    tree.getElementsByTagName("tEXtEntry").item(0);
+            assertEquals("Title", entry.getAttribute("keyword"));
+            assertEquals("Cats", entry.getAttribute("value"));
+
+            entry = (IIOMetadataNode)
+                    tree.getElementsByTagName("iTXtEntry").item(0);
+            assertEquals("XML:com.adobe.xmp", entry.getAttribute("keyword"));
+            assertEquals("<rdf:RDF></rdf:RDF>", entry.getAttribute("text"));
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    @Test
+    public void testEncodeWritesChunksInOrder() throws Exception {
+        final BufferedImage image =
+                newImage(16, 16, BufferedImage.TYPE_3BYTE_BGR);
+        final ParallelPNGEncoder encoder =
+                new ParallelPNGEncoder(6, ParallelPNGEncoder.Filter.ADAPTIVE);
+        encoder.addTextEntry("Title", "Cats");
+        final String png = new String(encode(encoder, image),
+                StandardCharsets.ISO_8859_1);
+
+        final int[] positions = Arrays.stream(
+                new String[] { "IHDR", "tEXt", "IDAT", "IEND" })
+                .mapToInt(png::indexOf)
+                .toArray();
+        for (int i = 1; i < positions.length; i++) {
+            assertTrue(positions[i] > positions[i - 1]);
+        }
+    }
+
+}
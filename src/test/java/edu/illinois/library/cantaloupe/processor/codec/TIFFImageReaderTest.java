@@ -7,7 +7,13 @@ import edu.illinois.library.cantaloupe.test.TestUtil;
 import edu.illinois.library.cantaloupe.util.SystemUtils;
 import org.junit.Test;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 import static org.junit.Assert.*;
 
@@ -20,6 +26,14 @@ public class TIFFImageReaderTest extends AbstractImageReaderTest {
         return reader;
     }
 
+    /**
+     * The fixture is reduced by reading one of its smaller resolutions.
+     */
+    @Override
+    boolean isSubsamplingSupported() {
+        return false;
+    }
+
     /* getApplicationPreferredIIOImplementations() */
 
     @Test
@@ -117,6 +131,50 @@ public class TIFFImageReaderTest extends AbstractImageReaderTest {
                 ((AbstractIIOImageReader) instance).getPreferredIIOImplementations());
     }
 
+    /* getStructure() */
+
+    @Test
+    public void testGetStructure() throws Exception {
+        TIFFStructure structure = ((TIFFImageReader) instance).getStructure();
+        assertEquals(3, structure.getNumImages());
+        assertEquals(new Dimension(64, 56), structure.getSize(0));
+        assertEquals(new Dimension(16, 16), structure.getTileSize(0));
+    }
+
+    @Test
+    public void testGetStructureIsSharedAmongReadersOfTheSameFile()
+            throws Exception {
+        TIFFStructure.getCache().purge();
+        TIFFStructure structure = ((TIFFImageReader) instance).getStructure();
+
+        TIFFImageReader reader = newInstance();
+        try {
+            assertSame(structure, reader.getStructure());
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    @Test
+    public void testGetStructureWithModifiedFile() throws Exception {
+        Path file = Files.createTempFile(getClass().getSimpleName(), ".tif");
+        try {
+            Files.copy(TestUtil.getImage("tif-rgb-3res-64x56x16-tiled-uncompressed.tif"),
+                    file, StandardCopyOption.REPLACE_EXISTING);
+            instance.setSource(file);
+            assertEquals(3, instance.getNumImages());
+            instance.dispose();
+
+            Files.copy(TestUtil.getImage("tif-rgb-1res-64x56x8-striped-lzw.tif"),
+                    file, StandardCopyOption.REPLACE_EXISTING);
+            instance.setSource(file);
+            assertEquals(1, instance.getNumImages());
+        } finally {
+            instance.dispose();
+            Files.deleteIfExists(file);
+        }
+    }
+
     /* getUserPreferredIIOImplementation() */
 
     @Test
@@ -134,6 +192,51 @@ public class TIFFImageReaderTest extends AbstractImageReaderTest {
         assertEquals(new Dimension(16, 16), instance.getTileSize(0));
     }
 
+    /* readTileAsJPEG() */
+
+    @Test
+    public void testReadTileAsJPEG() throws Exception {
+        instance.dispose();
+        instance = new TIFFImageReader();
+        instance.setSource(TestUtil.getImage("tif-rgb-1res-64x56x8-tiled-jpeg.tif"));
+        byte[] data = instance.readTileAsJPEG(0, 1, 1);
+
+        BufferedImage tile = ImageIO.read(new ByteArrayInputStream(data));
+        assertEquals(16, tile.getWidth());
+        assertEquals(16, tile.getHeight());
+        BufferedImage full = instance.read();
+        assertEquals(full.getRGB(20, 20), tile.getRGB(4, 4));
+    }
+
+    @Test
+    public void testReadTileAsJPEGWithEdgeTile() throws Exception {
+        instance.dispose();
+        instance = new TIFFImageReader();
+        instance.setSource(TestUtil.getImage("tif-rgb-1res-64x56x8-tiled-jpeg.tif"));
+        // The bottom row of tiles extends past the bottom of the image.
+        assertNull(instance.readTileAsJPEG(0, 0, 3));
+    }
+
+    @Test
+    public void testReadTileAsJPEGWithNonJPEGImage() throws Exception {
+        assertNull(instance.readTileAsJPEG(0, 0, 0));
+    }
+
+    @Test
+    public void testReadTileAsJPEGWithStripedImage() throws Exception {
+        instance.dispose();
+        instance = new TIFFImageReader();
+        instance.setSource(TestUtil.getImage("tif-rgb-1res-64x56x8-striped-jpeg.tif"));
+        assertNull(instance.readTileAsJPEG(0, 0, 0));
+    }
+
+    /* spliceJPEGTables() */
+
+    @Test(expected = IOException.class)
+    public void testSpliceJPEGTablesWithInvalidImage() throws Exception {
+        TIFFImageReader.spliceJPEGTables(null, new byte[] { 0, 1, 2 }, false);
+    }
+
     @Test
     public void testReadWithMultiResolutionImage() {
         // TODO: write this
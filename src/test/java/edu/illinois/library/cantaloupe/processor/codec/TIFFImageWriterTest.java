@@ -20,7 +20,9 @@ import javax.media.jai.PlanarImage;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -267,6 +269,52 @@ public class TIFFImageWriterTest extends AbstractImageWriterTest {
         }
     }
 
+    @Test
+    public void testWriteWithBufferedImageSequence() throws Exception {
+        final BufferedImageSequence seq = new BufferedImageSequence();
+        seq.add(new BufferedImage(1024, 768, BufferedImage.TYPE_3BYTE_BGR));
+        seq.add(new BufferedImage(512, 384, BufferedImage.TYPE_3BYTE_BGR));
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        instance.write(seq, os);
+
+        final TIFFImageReader reader = new TIFFImageReader();
+        try (ImageInputStream iis = ImageIO.createImageInputStream(
+                new ByteArrayInputStream(os.toByteArray()))) {
+            reader.setSource(iis);
+            assertEquals(2, reader.getNumImages());
+            assertEquals(2, reader.getNumResolutions());
+            assertEquals(TIFFImageWriter.PYRAMID_TILE_SIZE,
+                    reader.getTileSize(0).intWidth());
+            assertEquals(TIFFImageWriter.PYRAMID_TILE_SIZE,
+                    reader.getTileSize(1).intHeight());
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    @Test
+    public void testWriteTiled() throws Exception {
+        final List<BufferedImage> images = Arrays.asList(
+                new BufferedImage(300, 200, BufferedImage.TYPE_3BYTE_BGR),
+                new BufferedImage(150, 100, BufferedImage.TYPE_3BYTE_BGR));
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        instance.writeTiled(images, 64, os);
+
+        final TIFFImageReader reader = new TIFFImageReader();
+        try (ImageInputStream iis = ImageIO.createImageInputStream(
+                new ByteArrayInputStream(os.toByteArray()))) {
+            reader.setSource(iis);
+            assertEquals(2, reader.getNumImages());
+            assertEquals(64, reader.getTileSize(0).intWidth());
+            assertEquals(64, reader.getTileSize(1).intHeight());
+            assertEquals(150, reader.getSize(1).intWidth());
+        } finally {
+            reader.dispose();
+        }
+    }
+
     private void checkForIPTCMetadata(byte[] imageData) throws Exception {
         final ImageReader reader = getIIOReader();
         try (ImageInputStream iis = ImageIO.createImageInputStream(new ByteArrayInputStream(imageData))) {
@@ -0,0 +1,102 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ByteRangeTest extends BaseTest {
+
+    /* parse() */
+
+    @Test
+    public void testParseWithClosedRange() {
+        List<ByteRange> ranges = ByteRange.parse("bytes=10-19", 100);
+        assertEquals(1, ranges.size());
+        assertEquals(10, ranges.get(0).getStart());
+        assertEquals(19, ranges.get(0).getEnd());
+        assertEquals(10, ranges.get(0).getLength());
+    }
+
+    @Test
+    public void testParseWithOpenRange() {
+        List<ByteRange> ranges = ByteRange.parse("bytes=90-", 100);
+        assertEquals(90, ranges.get(0).getStart());
+        assertEquals(99, ranges.get(0).getEnd());
+    }
+
+    @Test
+    public void testParseWithSuffixRange() {
+        List<ByteRange> ranges = ByteRange.parse("bytes=-10", 100);
+        assertEquals(90, ranges.get(0).getStart());
+        assertEquals(99, ranges.get(0).getEnd());
+    }
+
+    @Test
+    public void testParseWithSuffixRangeLongerThanLength() {
+        List<ByteRange> ranges = ByteRange.parse("bytes=-500", 100);
+        assertEquals(0, ranges.get(0).getStart());
+        assertEquals(99, ranges.get(0).getEnd());
+    }
+
+    @Test
+    public void testParseWithEndBeyondLength() {
+        List<ByteRange> ranges = ByteRange.parse("bytes=50-500", 100);
+        assertEquals(99, ranges.get(0).getEnd());
+    }
+
+    @Test
+    public void testParseWithMultipleRanges() {
+        List<ByteRange> ranges = ByteRange.parse("bytes=0-9, 20-29", 100);
+        assertEquals(2, ranges.size());
+        assertEquals("0-9", ranges.get(0).toString());
+        assertEquals("20-29", ranges.get(1).toString());
+    }
+
+    @Test
+    public void testParseWithUnsatisfiableRange() {
+        assertTrue(ByteRange.parse("bytes=100-", 100).isEmpty());
+    }
+
+    @Test
+    public void testParseOmitsUnsatisfiableRanges() {
+        List<ByteRange> ranges = ByteRange.parse("bytes=200-, 0-9", 100);
+        assertEquals(1, ranges.size());
+        assertEquals("0-9", ranges.get(0).toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseWithUnsupportedUnit() {
+        ByteRange.parse("items=0-9", 100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseWithInvertedRange() {
+        ByteRange.parse("bytes=9-0", 100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseWithNonNumericRange() {
+        ByteRange.parse("bytes=a-b", 100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseWithTooManyRanges() {
+        StringBuilder header = new StringBuilder("bytes=0-0");
+        for (int i = 1; i <= ByteRange.MAX_RANGES; i++) {
+            header.append(",").append(i).append("-").append(i);
+        }
+        ByteRange.parse(header.toString(), 100);
+    }
+
+    /* toContentRange() */
+
+    @Test
+    public void testToContentRange() {
+        assertEquals("bytes 10-19/100",
+                ByteRange.parse("bytes=10-19", 100).get(0).toContentRange(100));
+    }
+
+}
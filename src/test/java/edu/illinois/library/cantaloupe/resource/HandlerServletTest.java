@@ -0,0 +1,74 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.http.ResourceException;
+import edu.illinois.library.cantaloupe.http.Response;
+import edu.illinois.library.cantaloupe.test.TestUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Functional test of asynchronous request handling.
+ */
+public class HandlerServletTest extends ResourceTest {
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.HTTP_ASYNC_ENABLED, true);
+        config.setProperty(Key.HTTP_ASYNC_MAX_THREADS, 4);
+        // The servlet reads the configuration when it is initialized.
+        appServer.stop();
+        appServer.start();
+    }
+
+    @Override
+    protected String getEndpointPath() {
+        return Route.IIIF_2_PATH;
+    }
+
+    @Test
+    public void testAsyncGETWithSmallResponse() throws Exception {
+        client = newClient("/jpg-rgb-64x56x8-baseline.jpg/info.json");
+        Response response = client.send();
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getBodyAsString().contains("\"width\""));
+    }
+
+    /**
+     * Tests a response larger than {@link
+     * AsyncResponseOutputStream#MAX_QUEUED_CHUNKS} chunks.
+     */
+    @Test
+    public void testAsyncGETWithLargeResponse() throws Exception {
+        final String image = "jpg-icc-chunked.jpg";
+        final byte[] expected = Files.readAllBytes(TestUtil.getImage(image));
+        assertTrue(expected.length > AsyncResponseOutputStream.CHUNK_SIZE *
+                AsyncResponseOutputStream.MAX_QUEUED_CHUNKS);
+
+        client = newClient("/" + image + "/full/full/0/default.jpg");
+        Response response = client.send();
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(expected, response.getBody());
+    }
+
+    @Test
+    public void testAsyncGETWithError() throws Exception {
+        client = newClient("/bogus.jpg/info.json");
+        try {
+            client.send();
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(404, e.getStatusCode());
+        }
+    }
+
+}
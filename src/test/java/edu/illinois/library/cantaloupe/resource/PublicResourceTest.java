@@ -0,0 +1,104 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.*;
+
+public class PublicResourceTest extends BaseTest {
+
+    /* matchesIfRange() */
+
+    @Test
+    public void testMatchesIfRangeWithMatchingTag() {
+        assertTrue(PublicResource.matchesIfRange("\"abc\"", "\"abc\""));
+    }
+
+    @Test
+    public void testMatchesIfRangeWithNonMatchingTag() {
+        assertFalse(PublicResource.matchesIfRange("\"abd\"", "\"abc\""));
+    }
+
+    @Test
+    public void testMatchesIfRangeWithNullTag() {
+        assertFalse(PublicResource.matchesIfRange("\"abc\"", null));
+    }
+
+    @Test
+    public void testMatchesIfRangeWithWeakTag() {
+        assertFalse(PublicResource.matchesIfRange("W/\"abc\"", "W/\"abc\""));
+    }
+
+    /* matchesIfNoneMatch() */
+
+    @Test
+    public void testMatchesIfNoneMatchWithNullHeader() {
+        assertFalse(PublicResource.matchesIfNoneMatch(null, "\"abc\""));
+    }
+
+    @Test
+    public void testMatchesIfNoneMatchWithMatchingTag() {
+        assertTrue(PublicResource.matchesIfNoneMatch("\"abc\"", "\"abc\""));
+    }
+
+    @Test
+    public void testMatchesIfNoneMatchWithNonMatchingTag() {
+        assertFalse(PublicResource.matchesIfNoneMatch("\"abd\"", "\"abc\""));
+    }
+
+    @Test
+    public void testMatchesIfNoneMatchWithList() {
+        assertTrue(PublicResource.matchesIfNoneMatch(
+                "\"xyz\", \"abc\"", "\"abc\""));
+    }
+
+    @Test
+    public void testMatchesIfNoneMatchWithWeakTag() {
+        assertTrue(PublicResource.matchesIfNoneMatch("W/\"abc\"", "\"abc\""));
+    }
+
+    @Test
+    public void testMatchesIfNoneMatchWithWildcard() {
+        assertTrue(PublicResource.matchesIfNoneMatch("*", "\"abc\""));
+    }
+
+    /* newEntityTag() */
+
+    @Test
+    public void testNewEntityTagWithBytes() {
+        String tag1 = PublicResource.newEntityTag(
+                "cats".getBytes(StandardCharsets.UTF_8));
+        String tag2 = PublicResource.newEntityTag(
+                "dogs".getBytes(StandardCharsets.UTF_8));
+        assertTrue(tag1.matches("\"[0-9a-f]{40}\""));
+        assertNotEquals(tag1, tag2);
+    }
+
+    /* newWeakEntityTag() */
+
+    @Test
+    public void testNewWeakEntityTag() {
+        assertTrue(PublicResource.newWeakEntityTag("cats")
+                .matches("W/\"[0-9a-f]{40}\""));
+        assertEquals(PublicResource.newWeakEntityTag("cats"),
+                PublicResource.newWeakEntityTag("cats"));
+        assertNotEquals(PublicResource.newWeakEntityTag("cats"),
+                PublicResource.newWeakEntityTag("dogs"));
+    }
+
+    /* writeWithRanges() */
+
+    @Test
+    public void testWriteWithRangesWithMissingFile() throws Exception {
+        PublicResource instance = new PublicResource() {};
+        instance.setRequest(new Request(new MockHttpServletRequest()));
+        instance.setResponse(new MockHttpServletResponse());
+
+        assertFalse(instance.writeWithRanges(
+                Paths.get("/bogus/bogus/bogus.jpg")));
+    }
+
+}
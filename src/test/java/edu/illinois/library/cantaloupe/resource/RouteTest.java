@@ -1,6 +1,7 @@
 package edu.illinois.library.cantaloupe.resource;
 
 import edu.illinois.library.cantaloupe.resource.admin.AdminResource;
+import edu.illinois.library.cantaloupe.resource.api.InfosResource;
 import edu.illinois.library.cantaloupe.resource.api.TaskResource;
 import edu.illinois.library.cantaloupe.resource.api.TasksResource;
 import org.junit.Before;
@@ -44,6 +45,10 @@ public class RouteTest {
         assertEquals(edu.illinois.library.cantaloupe.resource.api.HealthResource.class,
                 route.getResource());
 
+        route = Route.forPath(Route.METRICS_PATH);
+        assertEquals(edu.illinois.library.cantaloupe.resource.api.MetricsResource.class,
+                route.getResource());
+
         route = Route.forPath(Route.STATUS_PATH);
         assertEquals(edu.illinois.library.cantaloupe.resource.api.StatusResource.class,
                 route.getResource());
@@ -51,6 +56,10 @@ public class RouteTest {
         route = Route.forPath(Route.TASKS_PATH);
         assertEquals(TasksResource.class, route.getResource());
 
+        route = Route.forPath(Route.INFOS_PATH);
+        assertEquals(InfosResource.class, route.getResource());
+        assertTrue(route.getPathArguments().isEmpty());
+
         route = Route.forPath(Route.TASKS_PATH + "/0bef-234a");
         assertEquals(TaskResource.class, route.getResource());
         assertEquals("0bef-234a", route.getPathArguments().get(0));
@@ -108,4 +117,53 @@ public class RouteTest {
         assertNull(route);
     }
 
+    @Test
+    public void testForPathWithEmptySegment() {
+        assertNull(Route.forPath(Route.IIIF_2_PATH + "//info.json"));
+        assertNull(Route.forPath(Route.IIIF_2_PATH + "/0bef-234a//max/0/default.jpg"));
+    }
+
+    @Test
+    public void testForPathWithPathNotBeginningWithSlash() {
+        assertNull(Route.forPath("admin"));
+    }
+
+    @Test
+    public void testForPathWithIIIF2ImagePathContainingMultiplePeriods() {
+        Route route = Route.forPath(Route.IIIF_2_PATH + "/0bef-234a/full/max/0/default.x.jpg");
+        assertEquals(edu.illinois.library.cantaloupe.resource.iiif.v2.ImageResource.class,
+                route.getResource());
+        assertEquals("default.x", route.getPathArguments().get(4));
+        assertEquals("jpg", route.getPathArguments().get(5));
+    }
+
+    @Test
+    public void testForPathWithIIIF1ImagePathContainingMultiplePeriods() {
+        assertNull(Route.forPath(Route.IIIF_1_PATH + "/0bef-234a/full/full/0/native.x.jpg"));
+    }
+
+    @Test
+    public void testForPathWithUnsupportedExtension() {
+        assertNull(Route.forPath(Route.IIIF_2_PATH + "/0bef-234a/full/max/0/default.JPG"));
+        assertNull(Route.forPath(Route.IIIF_2_PATH + "/0bef-234a/full/max/0/default."));
+    }
+
+    @Test
+    public void testForPathWithInfoJSONIdentifier() {
+        Route route = Route.forPath(Route.IIIF_2_PATH + "/info.json");
+        assertEquals(edu.illinois.library.cantaloupe.resource.iiif.v2.IdentifierResource.class,
+                route.getResource());
+        assertEquals("info.json", route.getPathArguments().get(0));
+    }
+
+    @Test
+    public void testNewResource() {
+        Route route = Route.forPath(Route.IIIF_2_PATH + "/0bef-234a/info.json");
+        AbstractResource resource1 = route.newResource();
+        AbstractResource resource2 = route.newResource();
+        assertTrue(resource1 instanceof
+                edu.illinois.library.cantaloupe.resource.iiif.v2.InformationResource);
+        assertNotSame(resource1, resource2);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,175 @@
+package edu.illinois.library.cantaloupe.resource.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.http.Headers;
+import edu.illinois.library.cantaloupe.http.Method;
+import edu.illinois.library.cantaloupe.http.ResourceException;
+import edu.illinois.library.cantaloupe.http.Response;
+import edu.illinois.library.cantaloupe.image.MediaType;
+import edu.illinois.library.cantaloupe.resource.Route;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Functional test of InfosResource.
+ */
+public class InfosResourceTest extends AbstractAPIResourceTest {
+
+    private static final String JPG_IMAGE = "jpg-rgb-64x56x8-baseline.jpg";
+    private static final String PNG_IMAGE = "png-rgb-64x56x8.png";
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+
+        client.setMethod(Method.POST);
+        client.setContentType(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected String getEndpointPath() {
+        return Route.INFOS_PATH;
+    }
+
+    private JsonNode post(String entity) throws Exception {
+        client.setEntity(entity);
+        Response response = client.send();
+        assertEquals(200, response.getStatus());
+        assertEquals("application/json;charset=UTF-8",
+                response.getHeaders().getFirstValue("Content-Type"));
+        return new ObjectMapper().readTree(response.getBodyAsString());
+    }
+
+    @Override
+    @Test
+    public void testOPTIONSWhenEnabled() throws Exception {
+        client.setMethod(Method.OPTIONS);
+        Response response = client.send();
+        assertEquals(204, response.getStatus());
+
+        Headers headers = response.getHeaders();
+        List<String> methods =
+                Arrays.asList(StringUtils.split(headers.getFirstValue("Allow"), ", "));
+        assertEquals(2, methods.size());
+        assertTrue(methods.contains("POST"));
+        assertTrue(methods.contains("OPTIONS"));
+    }
+
+    @Test
+    public void testPOST() throws Exception {
+        JsonNode results = post("{ \"identifiers\": [\"" + PNG_IMAGE +
+                "\", \"" + JPG_IMAGE + "\"] }");
+
+        // Results are in request order.
+        List<String> keys = new ArrayList<>();
+        Iterator<String> it = results.fieldNames();
+        it.forEachRemaining(keys::add);
+        assertEquals(Arrays.asList(PNG_IMAGE, JPG_IMAGE), keys);
+
+        JsonNode image = results.get(JPG_IMAGE).get("images").get(0);
+        assertEquals(64, image.get("width").asInt());
+        assertEquals(56, image.get("height").asInt());
+        assertEquals(JPG_IMAGE, results.get(JPG_IMAGE).get("identifier").asText());
+    }
+
+    @Test
+    public void testPOSTWithDuplicateIdentifiers() throws Exception {
+        JsonNode results = post("{ \"identifiers\": [\"" + JPG_IMAGE +
+                "\", \"" + JPG_IMAGE + "\"] }");
+        assertEquals(1, results.size());
+    }
+
+    @Test
+    public void testPOSTWithInfoCacheHit() throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.CACHE_SERVER_RESOLVE_FIRST, false);
+        config.setProperty(Key.INFO_CACHE_ENABLED, true);
+
+        final String entity = "{ \"identifiers\": [\"" + JPG_IMAGE + "\"] }";
+        JsonNode results1 = post(entity);
+        Thread.sleep(1000); // infos are cached asynchronously
+        JsonNode results2 = post(entity);
+        assertEquals(results1, results2);
+    }
+
+    @Test
+    public void testPOSTWithMissingImage() throws Exception {
+        JsonNode results = post("{ \"identifiers\": [\"" + JPG_IMAGE +
+                "\", \"bogus\"] }");
+        assertEquals(404, results.get("bogus").get("status").asInt());
+        assertNotNull(results.get("bogus").get("error"));
+        assertNotNull(results.get(JPG_IMAGE).get("images"));
+    }
+
+    @Test
+    public void testPOSTWithEmptyRequestBody() throws Exception {
+        try {
+            client.send();
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(400, e.getStatusCode());
+        }
+    }
+
+    @Test
+    public void testPOSTWithMalformedRequestBody() throws Exception {
+        try {
+            client.setEntity("{ this is: invalid\" }");
+            client.send();
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(400, e.getStatusCode());
+        }
+    }
+
+    @Test
+    public void testPOSTWithMissingIdentifiers() throws Exception {
+        try {
+            client.setEntity("{ \"cats\": [] }");
+            client.send();
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(400, e.getStatusCode());
+        }
+    }
+
+    @Test
+    public void testPOSTWithNonStringIdentifier() throws Exception {
+        try {
+            client.setEntity("{ \"identifiers\": [3] }");
+            client.send();
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(400, e.getStatusCode());
+        }
+    }
+
+    @Test
+    public void testPOSTWithTooManyIdentifiers() throws Exception {
+        final List<String> identifiers = new ArrayList<>();
+        for (int i = 0; i <= InfosResource.MAX_IDENTIFIERS; i++) {
+            identifiers.add("\"" + i + "\"");
+        }
+        try {
+            client.setEntity("{ \"identifiers\": [" +
+                    String.join(",", identifiers) + "] }");
+            client.send();
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(400, e.getStatusCode());
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package edu.illinois.library.cantaloupe.resource.api;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.http.ResourceException;
+import edu.illinois.library.cantaloupe.http.Response;
+import edu.illinois.library.cantaloupe.resource.Route;
+import edu.illinois.library.cantaloupe.status.Metrics;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MetricsResourceTest extends AbstractAPIResourceTest {
+
+    @Override
+    protected String getEndpointPath() {
+        return Route.METRICS_PATH;
+    }
+
+    @Test
+    public void testGETWithEndpointEnabled() throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.API_ENABLED, true);
+
+        Response response = client.send();
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    public void testGETWithEndpointDisabled() throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.API_ENABLED, false);
+        try {
+            client.send();
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(403, e.getStatusCode());
+        }
+    }
+
+    @Test
+    public void testGETResponseBody() throws Exception {
+        Metrics.getInstance().record(Metrics.Stage.DECODE,
+                "MetricsResourceTest", 1000);
+
+        Response response = client.send();
+        String body = response.getBodyAsString();
+        assertTrue(body.contains("# TYPE cantaloupe_decode_seconds histogram"));
+        assertTrue(body.contains(
+                "cantaloupe_decode_seconds_count{processor=\"MetricsResourceTest\"} "));
+    }
+
+    @Test
+    public void testGETResponseHeaders() throws Exception {
+        Response response = client.send();
+        assertEquals("text/plain; version=0.0.4; charset=UTF-8",
+                response.getHeaders().getFirstValue("Content-Type"));
+    }
+
+}
@@ -149,6 +149,30 @@ public class TasksResourceTest extends AbstractAPIResourceTest {
         assertNotNull(response.getHeaders().getFirstValue("Location"));
     }
 
+    @Test
+    public void testPOSTWithSeedCacheVerb() throws Exception {
+        client.setEntity("{ \"verb\": \"SeedCache\", " +
+                "\"identifiers\": [\"jpg-rgb-64x56x8-baseline.jpg\"] }");
+        client.setContentType(MediaType.APPLICATION_JSON);
+        Response response = client.send();
+
+        assertEquals(202, response.getStatus());
+        assertNotNull(response.getHeaders().getFirstValue("Location"));
+    }
+
+    @Test
+    public void testPOSTWithSeedCacheVerbAndInvalidFormat() throws Exception {
+        try {
+            client.setEntity("{ \"verb\": \"SeedCache\", " +
+                    "\"prefix\": \"jpg\", \"format\": \"cats\" }");
+            client.setContentType(MediaType.APPLICATION_JSON);
+            client.send();
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(400, e.getStatusCode());
+        }
+    }
+
     @Test
     public void testPOSTResponseHeaders() throws Exception {
         client.setEntity("{ \"verb\": \"PurgeDelegateMethodInvocationCache\" }");
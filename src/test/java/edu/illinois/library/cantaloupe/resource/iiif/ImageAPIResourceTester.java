@@ -133,6 +133,93 @@ public class ImageAPIResourceTester {
         }
     }
 
+    public void testConditionalGETWithMatchingEntityTag(URI uri)
+            throws Exception {
+        Client client = newClient(uri);
+        try {
+            Response response = client.send();
+            final String eTag = response.getHeaders().getFirstValue("ETag");
+            assertNotNull(eTag);
+
+            client.getHeaders().set("If-None-Match", eTag);
+            response = client.send();
+            assertEquals(304, response.getStatus());
+            assertEquals(eTag, response.getHeaders().getFirstValue("ETag"));
+            assertEquals(0, response.getBody().length);
+
+            // A weak comparison should also match.
+            client.getHeaders().set("If-None-Match",
+                    "\"bogus\", W/" + eTag.replaceFirst("^W/", ""));
+            response = client.send();
+            assertEquals(304, response.getStatus());
+        } finally {
+            client.stop();
+        }
+    }
+
+    public void testConditionalGETWithNonMatchingEntityTag(URI uri)
+            throws Exception {
+        Client client = newClient(uri);
+        try {
+            client.getHeaders().set("If-None-Match", "\"bogus\"");
+            Response response = client.send();
+            assertEquals(200, response.getStatus());
+            assertNotNull(response.getHeaders().getFirstValue("ETag"));
+        } finally {
+            client.stop();
+        }
+    }
+
+    public void testConditionalGETWithMatchingEntityTagAndInfoCacheHit(URI uri)
+            throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.CACHE_SERVER_RESOLVE_FIRST, false);
+        config.setProperty(Key.INFO_CACHE_ENABLED, true);
+
+        testConditionalGETWithMatchingEntityTag(uri);
+    }
+
+    /**
+     * Tests that a revalidation that can be answered from a cached info is
+     * answered with 304 without accessing the source image, which is
+     * deleted before revalidating.
+     */
+    public void testConditionalGETWithMatchingEntityTagAndInfoCacheHitDoesNotAccessSource(URI uri)
+            throws Exception {
+        // Create a directory that will contain a source image. We don't want
+        // to use the image fixtures dir because we'll need to delete one.
+        Path sourceDir = Files.createTempDirectory("source");
+        Path imageFixture = TestUtil.getImage(IMAGE);
+        Path sourceImage = sourceDir.resolve(imageFixture.getFileName());
+        Files.copy(imageFixture, sourceImage);
+
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.FILESYSTEMSOURCE_PATH_PREFIX,
+                sourceDir.toString() + "/");
+        config.setProperty(Key.CACHE_SERVER_RESOLVE_FIRST, false);
+        config.setProperty(Key.INFO_CACHE_ENABLED, true);
+
+        Client client = newClient(uri);
+        try {
+            // Request the image to cache its info.
+            Response response = client.send();
+            final String eTag = response.getHeaders().getFirstValue("ETag");
+            assertNotNull(eTag);
+
+            // The info may write asynchronously, so wait.
+            Thread.sleep(1000);
+
+            Files.delete(sourceImage);
+
+            client.getHeaders().set("If-None-Match", eTag);
+            response = client.send();
+            assertEquals(304, response.getStatus());
+            assertEquals(eTag, response.getHeaders().getFirstValue("ETag"));
+        } finally {
+            client.stop();
+        }
+    }
+
     public void testCachingWhenCachesAreEnabledButNegativeCacheQueryArgumentIsSupplied(URI uri)
             throws Exception {
         Path cacheDir = initializeFilesystemCache();
@@ -1,19 +1,27 @@
 package edu.illinois.library.cantaloupe.resource.iiif;
 
+import edu.illinois.library.cantaloupe.cache.CacheFactory;
+import edu.illinois.library.cantaloupe.cache.CacheStatistics;
 import edu.illinois.library.cantaloupe.cache.InfoService;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.http.Client;
 import edu.illinois.library.cantaloupe.http.ResourceException;
 import edu.illinois.library.cantaloupe.http.Response;
+import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Info;
 import edu.illinois.library.cantaloupe.operation.OperationList;
+import edu.illinois.library.cantaloupe.processor.AdmissionController;
+import edu.illinois.library.cantaloupe.processor.Processor;
+import edu.illinois.library.cantaloupe.processor.ProcessorFactory;
 import edu.illinois.library.cantaloupe.test.TestUtil;
 
 import java.io.File;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 
 import static edu.illinois.library.cantaloupe.test.Assert.HTTPAssert.*;
 import static edu.illinois.library.cantaloupe.test.Assert.PathAssert.*;
@@ -107,6 +115,42 @@ public class ImageResourceTester extends ImageAPIResourceTester {
         }
     }
 
+    /**
+     * @param infoURI  URI of an image whose request will cache the info of
+     *                 the source image.
+     * @param imageURI URI of a different image of the same source image.
+     */
+    public void testDerivativeCacheMissIsRecordedOnceWithInfoCacheHit(
+            URI infoURI, URI imageURI) throws Exception {
+        initializeFilesystemCache();
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.INFO_CACHE_ENABLED, true);
+        config.setProperty(Key.CACHE_SERVER_RESOLVE_FIRST, false);
+
+        Client client = newClient(infoURI);
+        try {
+            client.send();
+        } finally {
+            client.stop();
+        }
+        assertEquals(1, InfoService.getInstance().getInfoCache().size());
+
+        final CacheStatistics statistics =
+                CacheFactory.getDerivativeCache().getStatistics();
+        final CacheStatistics.Counts before =
+                statistics.getCounts(CacheStatistics.Window.TOTAL);
+        client = newClient(imageURI);
+        try {
+            client.send();
+        } finally {
+            client.stop();
+        }
+        final CacheStatistics.Counts after =
+                statistics.getCounts(CacheStatistics.Window.TOTAL);
+        assertEquals(1, after.getMisses() - before.getMisses());
+        assertEquals(1, after.getPuts() - before.getPuts());
+    }
+
     public void testCacheWithDerivativeCacheEnabledAndInfoCacheDisabledAndResolveFirstEnabled(
             URI uri, Path sourceFile) throws Exception {
         final Path cacheDir = initializeFilesystemCache();
@@ -393,6 +437,141 @@ public class ImageResourceTester extends ImageAPIResourceTester {
         assertStatus(400, uri);
     }
 
+    public void testRangeRequest(URI uri) throws Exception {
+        Client client = newClient(uri);
+        try {
+            final byte[] entity = client.send().getBody();
+
+            client.getHeaders().set("Range", "bytes=0-9");
+            Response response = client.send();
+            assertEquals(206, response.getStatus());
+            assertEquals("bytes", response.getHeaders().getFirstValue("Accept-Ranges"));
+            assertEquals("bytes 0-9/" + entity.length,
+                    response.getHeaders().getFirstValue("Content-Range"));
+            assertArrayEquals(Arrays.copyOfRange(entity, 0, 10),
+                    response.getBody());
+        } finally {
+            client.stop();
+        }
+    }
+
+    public void testRangeRequestWithDerivativeCacheHit(URI uri)
+            throws Exception {
+        initializeFilesystemCache();
+
+        Client client = newClient(uri);
+        try {
+            // Request the image to cache it.
+            final byte[] entity = client.send().getBody();
+
+            client.getHeaders().set("Range", "bytes=-10");
+            Response response = client.send();
+            assertEquals(206, response.getStatus());
+            assertEquals("bytes " + (entity.length - 10) + "-" +
+                            (entity.length - 1) + "/" + entity.length,
+                    response.getHeaders().getFirstValue("Content-Range"));
+            assertArrayEquals(
+                    Arrays.copyOfRange(entity, entity.length - 10, entity.length),
+                    response.getBody());
+        } finally {
+            client.stop();
+        }
+    }
+
+    public void testRangeRequestWithMultipleRanges(URI uri) throws Exception {
+        Client client = newClient(uri);
+        try {
+            final byte[] entity = client.send().getBody();
+
+            client.getHeaders().set("Range", "bytes=0-9, 20-29");
+            Response response = client.send();
+            assertEquals(206, response.getStatus());
+            assertTrue(response.getHeaders().getFirstValue("Content-Type")
+                    .startsWith("multipart/byteranges; boundary="));
+            final String body = new String(response.getBody(),
+                    StandardCharsets.ISO_8859_1);
+            assertTrue(body.contains("Content-Range: bytes 0-9/" + entity.length));
+            assertTrue(body.contains("Content-Range: bytes 20-29/" + entity.length));
+            assertTrue(body.contains(new String(
+                    Arrays.copyOfRange(entity, 20, 30),
+                    StandardCharsets.ISO_8859_1)));
+        } finally {
+            client.stop();
+        }
+    }
+
+    public void testRangeRequestWithNonMatchingIfRange(URI uri)
+            throws Exception {
+        Client client = newClient(uri);
+        try {
+            final byte[] entity = client.send().getBody();
+
+            client.getHeaders().set("Range", "bytes=0-9");
+            client.getHeaders().set("If-Range", "\"bogus\"");
+            Response response = client.send();
+            assertEquals(200, response.getStatus());
+            assertArrayEquals(entity, response.getBody());
+        } finally {
+            client.stop();
+        }
+    }
+
+    public void testRangeRequestWithWeakIfRange(URI uri) throws Exception {
+        Client client = newClient(uri);
+        try {
+            Response response = client.send();
+            final byte[] entity = response.getBody();
+            final String eTag = response.getHeaders().getFirstValue("ETag");
+            assertTrue(eTag.startsWith("W/"));
+
+            // A weak entity tag never satisfies If-Range.
+            client.getHeaders().set("Range", "bytes=0-9");
+            client.getHeaders().set("If-Range", eTag);
+            response = client.send();
+            assertEquals(200, response.getStatus());
+            assertArrayEquals(entity, response.getBody());
+        } finally {
+            client.stop();
+        }
+    }
+
+    public void testRangeRequestWithUnsatisfiableRange(URI uri)
+            throws Exception {
+        Client client = newClient(uri);
+        try {
+            client.getHeaders().set("Range", "bytes=99999999-");
+            client.send();
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(416, e.getStatusCode());
+        } finally {
+            client.stop();
+        }
+    }
+
+    public void testProcessingRejectedWhenProcessorIsBusy(URI uri)
+            throws Exception {
+        final Configuration config = Configuration.getInstance();
+        config.setProperty(Key.PROCESSOR_ADMISSION_ENABLED, true);
+        config.setProperty(Key.PROCESSOR_ADMISSION_MAX_CONCURRENT, 1);
+        config.setProperty(Key.PROCESSOR_ADMISSION_MAX_QUEUED, 0);
+        config.setProperty(Key.PROCESSOR_ADMISSION_RETRY_AFTER, 7);
+
+        Client client = newClient(uri);
+        // Occupy the processor that would process the request.
+        try (Processor processor = new ProcessorFactory().newProcessor(Format.JPG);
+             AdmissionController.Permit permit =
+                     AdmissionController.getInstance().acquire(processor, 1)) {
+            client.send();
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(503, e.getStatusCode());
+            assertEquals("7", e.getResponse().getHeaders().get("Retry-After"));
+        } finally {
+            client.stop();
+        }
+    }
+
     public void testPurgeFromCacheWhenSourceIsMissingAndOptionIsFalse(URI uri,
                                                                       OperationList opList)
             throws Exception {
@@ -173,6 +173,39 @@ public class ImageResourceTest extends ResourceTest {
         // noop
     }
 
+    @Test
+    public void testGETConditionalWithMatchingEntityTag() throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/full/full/0/color.jpg");
+        tester.testConditionalGETWithMatchingEntityTag(uri);
+    }
+
+    @Test
+    public void testGETConditionalWithMatchingEntityTagAndInfoCacheHit()
+            throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/full/full/0/color.jpg");
+        tester.testConditionalGETWithMatchingEntityTagAndInfoCacheHit(uri);
+    }
+
+    @Test
+    public void testGETConditionalWithMatchingEntityTagAndInfoCacheHitDoesNotAccessSource()
+            throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/full/full/0/color.jpg");
+        tester.testConditionalGETWithMatchingEntityTagAndInfoCacheHitDoesNotAccessSource(uri);
+    }
+
+    @Test
+    public void testGETConditionalWithMatchingEntityTagAndInfoCacheHitAndNegotiatedFormatDoesNotAccessSource()
+            throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/full/full/0/color");
+        tester.testConditionalGETWithMatchingEntityTagAndInfoCacheHitDoesNotAccessSource(uri);
+    }
+
+    @Test
+    public void testGETConditionalWithNonMatchingEntityTag() throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/full/full/0/color.jpg");
+        tester.testConditionalGETWithNonMatchingEntityTag(uri);
+    }
+
     @Test
     public void testGETContentDispositionHeaderWithNoHeader() throws Exception {
         URI uri = getHTTPURI("/" + IMAGE + "/full/full/0/color.jpg");
@@ -385,13 +418,60 @@ public class ImageResourceTest extends ResourceTest {
      * Tests the default response headers. Individual headers may be tested
      * more thoroughly elsewhere.
      */
+    @Test
+    public void testGETProcessingRejectedWhenProcessorIsBusy() throws Exception {
+        // The image must be modified, as unmodified images aren't processed.
+        URI uri = getHTTPURI("/" + IMAGE + "/full/full/90/color.jpg");
+        tester.testProcessingRejectedWhenProcessorIsBusy(uri);
+    }
+
+    @Test
+    public void testGETRangeRequest() throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/full/full/0/color.jpg");
+        tester.testRangeRequest(uri);
+    }
+
+    @Test
+    public void testGETRangeRequestWithDerivativeCacheHit() throws Exception {
+        // The image must be modified as unmodified images are served from
+        // the source.
+        URI uri = getHTTPURI("/" + IMAGE + "/full/full/90/color.jpg");
+        tester.testRangeRequestWithDerivativeCacheHit(uri);
+    }
+
+    @Test
+    public void testGETRangeRequestWithMultipleRanges() throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/full/full/0/color.jpg");
+        tester.testRangeRequestWithMultipleRanges(uri);
+    }
+
+    @Test
+    public void testGETRangeRequestWithNonMatchingIfRange() throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/full/full/0/color.jpg");
+        tester.testRangeRequestWithNonMatchingIfRange(uri);
+    }
+
+    @Test
+    public void testGETRangeRequestWithWeakIfRange() throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/full/full/0/color.jpg");
+        tester.testRangeRequestWithWeakIfRange(uri);
+    }
+
+    @Test
+    public void testGETRangeRequestWithUnsatisfiableRange() throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/full/full/0/color.jpg");
+        tester.testRangeRequestWithUnsatisfiableRange(uri);
+    }
+
     @Test
     public void testGETResponseHeaders() throws Exception {
         client = newClient("/" + IMAGE + "/full/full/0/color.jpg");
         Response response = client.send();
         Headers headers = response.getHeaders();
-        assertEquals(8, headers.size());
+        assertEquals(10, headers.size());
 
+        // Accept-Ranges
+        assertEquals("bytes", headers.getFirstValue("Accept-Ranges"));
         // Access-Control-Allow-Origin
         assertEquals("*", headers.getFirstValue("Access-Control-Allow-Origin"));
         // Content-Length
@@ -400,6 +480,8 @@ public class ImageResourceTest extends ResourceTest {
         assertEquals("image/jpeg", headers.getFirstValue("Content-Type"));
         // Date
         assertNotNull(headers.getFirstValue("Date"));
+        // ETag
+        assertTrue(headers.getFirstValue("ETag").matches("W/\"[0-9a-f]+\""));
         // Link
         assertTrue(headers.getFirstValue("Link").contains("://"));
         // Server
@@ -170,6 +170,25 @@ public class InformationResourceTest extends ResourceTest {
                 uri, TestUtil.getImage(IMAGE));
     }
 
+    @Test
+    public void testGETConditionalWithMatchingEntityTag() throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/info.json");
+        tester.testConditionalGETWithMatchingEntityTag(uri);
+    }
+
+    @Test
+    public void testGETConditionalWithMatchingEntityTagAndInfoCacheHit()
+            throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/info.json");
+        tester.testConditionalGETWithMatchingEntityTagAndInfoCacheHit(uri);
+    }
+
+    @Test
+    public void testGETConditionalWithNonMatchingEntityTag() throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/info.json");
+        tester.testConditionalGETWithNonMatchingEntityTag(uri);
+    }
+
     @Test
     public void testGETEndpointEnabled() {
         Configuration config = Configuration.getInstance();
@@ -455,7 +474,7 @@ public class InformationResourceTest extends ResourceTest {
         client = newClient("/" + IMAGE + "/info.json");
         Response response = client.send();
         Headers headers = response.getHeaders();
-        assertEquals(8, headers.size());
+        assertEquals(9, headers.size());
 
         // Access-Control-Allow-Origin
         assertEquals("*", headers.getFirstValue("Access-Control-Allow-Origin"));
@@ -466,6 +485,8 @@ public class InformationResourceTest extends ResourceTest {
                 headers.getFirstValue("Content-Type"));
         // Date
         assertNotNull(headers.getFirstValue("Date"));
+        // ETag
+        assertTrue(headers.getFirstValue("ETag").matches("\"[0-9a-f]+\""));
         // Link
         assertTrue(headers.getFirstValue("Link").contains("://"));
         // Server
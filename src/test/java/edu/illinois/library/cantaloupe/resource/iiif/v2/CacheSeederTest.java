@@ -0,0 +1,162 @@
+package edu.illinois.library.cantaloupe.resource.iiif.v2;
+
+import edu.illinois.library.cantaloupe.cache.CacheFacade;
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.Key;
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.image.Info;
+import edu.illinois.library.cantaloupe.image.ScaleConstraint;
+import edu.illinois.library.cantaloupe.operation.OperationList;
+import edu.illinois.library.cantaloupe.processor.FileProcessor;
+import edu.illinois.library.cantaloupe.processor.Processor;
+import edu.illinois.library.cantaloupe.processor.ProcessorFactory;
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import edu.illinois.library.cantaloupe.test.TestUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CacheSeederTest extends BaseTest {
+
+    private static final Identifier IDENTIFIER =
+            new Identifier("jpg-rgb-594x522x8-baseline.jpg");
+
+    private CacheSeeder instance;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+
+        final Configuration config = Configuration.getInstance();
+        config.setProperty(Key.PROCESSOR_FALLBACK, "Java2dProcessor");
+        config.setProperty(Key.SOURCE_STATIC, "FilesystemSource");
+        config.setProperty(Key.FILESYSTEMSOURCE_LOOKUP_STRATEGY,
+                "BasicLookupStrategy");
+        config.setProperty(Key.FILESYSTEMSOURCE_PATH_PREFIX,
+                TestUtil.getFixturePath() + "/images/");
+        config.setProperty(Key.DERIVATIVE_CACHE_ENABLED, true);
+        config.setProperty(Key.DERIVATIVE_CACHE, "FilesystemCache");
+        config.setProperty(Key.FILESYSTEMCACHE_PATHNAME,
+                Files.createTempDirectory("test").toString());
+
+        instance = new CacheSeeder(Quality.DEFAULT, OutputFormat.JPG);
+    }
+
+    private Parameters newParameters(String region, String size) {
+        return new Parameters(new Identifier("cats"), region, size,
+                "0", "default", "jpg");
+    }
+
+    /* getParameters() */
+
+    @Test
+    public void testGetParameters() throws Exception {
+        final Info info = Info.builder().withSize(1500, 1200).build();
+        try (Processor processor =
+                     new ProcessorFactory().newProcessor(Format.JPG)) {
+            List<Parameters> params = instance.getParameters(
+                    new Identifier("cats"), info, processor);
+
+            // 9 tiles at scale factor 1; 4 at 2; the full image at 4, 8, and
+            // 16; and the full and half sizes.
+            assertEquals(18, params.size());
+            assertEquals(18, new HashSet<>(params).size());
+            assertTrue(params.contains(newParameters("0,0,512,512", "512,")));
+            assertTrue(params.contains(newParameters("1024,1024,476,176", "476,")));
+            assertTrue(params.contains(newParameters("1024,0,476,1024", "238,")));
+            assertTrue(params.contains(newParameters("full", "375,")));
+            assertTrue(params.contains(newParameters("full", "750,")));
+            assertTrue(params.contains(newParameters("full", "full")));
+        }
+    }
+
+    /* seed() */
+
+    @Test
+    public void testSeed() throws Exception {
+        instance.seed(IDENTIFIER);
+
+        assertEquals(1, instance.getNumImagesSeeded());
+        assertEquals(0, instance.getNumImagesFailed());
+        // 4 tiles at scale factor 1; the full image at 2, 4, and 8; and the
+        // full and 74-pixel-wide sizes.
+        assertEquals(9, instance.getNumDerivativesRendered() +
+                instance.getNumDerivativesSkipped());
+        assertTrue(instance.getNumDerivativesRendered() > 0);
+    }
+
+    @Test
+    public void testSeedSkipsCachedDerivatives() throws Exception {
+        instance.seed(IDENTIFIER);
+        final long rendered = instance.getNumDerivativesRendered();
+        final long skipped = instance.getNumDerivativesSkipped();
+
+        instance.seed(IDENTIFIER);
+        assertEquals(rendered, instance.getNumDerivativesRendered());
+        assertEquals(skipped + rendered + skipped,
+                instance.getNumDerivativesSkipped());
+    }
+
+    @Test
+    public void testSeedRendersEveryDerivativeWithOneProcessor()
+            throws Exception {
+        instance.seed(IDENTIFIER);
+        // Only the full-size no-op is served directly from the source.
+        assertEquals(8, instance.getNumDerivativesRendered());
+        assertEquals(1, instance.getNumDerivativesSkipped());
+    }
+
+    @Test
+    public void testSeedUsesTheScaleConstraint() throws Exception {
+        final ScaleConstraint scaleConstraint = new ScaleConstraint(1, 2);
+        instance = new CacheSeeder(Quality.DEFAULT, OutputFormat.JPG,
+                scaleConstraint);
+        instance.seed(IDENTIFIER);
+        assertEquals(0, instance.getNumImagesFailed());
+
+        // Look up the full size in the same way as ImageResource would.
+        final CacheFacade cacheFacade = new CacheFacade();
+        final Info info;
+        try (Processor processor =
+                     new ProcessorFactory().newProcessor(Format.JPG)) {
+            ((FileProcessor) processor).setSourceFile(
+                    TestUtil.getImage(IDENTIFIER.toString()));
+            processor.setSourceFormat(Format.JPG);
+            info = cacheFacade.getOrReadInfo(IDENTIFIER, processor);
+        }
+        final OperationList ops = new Parameters(IDENTIFIER, "full", "full",
+                "0", "default", "jpg").toOperationList();
+        ops.setScaleConstraint(scaleConstraint);
+        ops.applyNonEndpointMutations(info, null);
+        ops.freeze();
+        try (InputStream is = cacheFacade.newDerivativeImageInputStream(ops)) {
+            assertNotNull(is);
+        }
+    }
+
+    @Test
+    public void testSeedWithMissingImage() throws Exception {
+        try {
+            instance.seed(new Identifier("bogus"));
+            fail("Expected exception");
+        } catch (NoSuchFileException e) {
+            assertEquals(1, instance.getNumImagesFailed());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSeedWithNoDerivativeCache() throws Exception {
+        Configuration.getInstance()
+                .setProperty(Key.DERIVATIVE_CACHE_ENABLED, false);
+        instance.seed(IDENTIFIER);
+    }
+
+}
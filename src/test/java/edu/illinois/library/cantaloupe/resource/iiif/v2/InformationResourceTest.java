@@ -2,6 +2,9 @@ package edu.illinois.library.cantaloupe.resource.iiif.v2;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.illinois.library.cantaloupe.Application;
+import edu.illinois.library.cantaloupe.cache.CacheFacade;
+import edu.illinois.library.cantaloupe.cache.InfoResponseCache;
+import edu.illinois.library.cantaloupe.cache.InfoService;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.Key;
 import edu.illinois.library.cantaloupe.http.Headers;
@@ -170,6 +173,25 @@ public class InformationResourceTest extends ResourceTest {
                 uri, TestUtil.getImage(IMAGE));
     }
 
+    @Test
+    public void testGETConditionalWithMatchingEntityTag() throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/info.json");
+        tester.testConditionalGETWithMatchingEntityTag(uri);
+    }
+
+    @Test
+    public void testGETConditionalWithMatchingEntityTagAndInfoCacheHit()
+            throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/info.json");
+        tester.testConditionalGETWithMatchingEntityTagAndInfoCacheHit(uri);
+    }
+
+    @Test
+    public void testGETConditionalWithNonMatchingEntityTag() throws Exception {
+        URI uri = getHTTPURI("/" + IMAGE + "/info.json");
+        tester.testConditionalGETWithNonMatchingEntityTag(uri);
+    }
+
     @Test
     public void testGETEndpointEnabled() {
         Configuration config = Configuration.getInstance();
@@ -446,6 +468,91 @@ public class InformationResourceTest extends ResourceTest {
                 Route.IIIF_2_PATH + "/" + IMAGE, info.get("@id"));
     }
 
+    @Test
+    public void testGETResponseCacheHit() throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.CACHE_SERVER_RESOLVE_FIRST, false);
+        config.setProperty(Key.INFO_RESPONSE_CACHE_ENABLED, true);
+        InfoService.getInstance().purgeObjectCache();
+
+        client = newClient("/" + IMAGE + "/info.json");
+        client.getHeaders().set("Accept-Encoding", "identity");
+        Response response1 = client.send();
+        assertEquals(1, InfoResponseCache.getInstance().size());
+        Response response2 = client.send();
+
+        assertEquals(response1.getBodyAsString(), response2.getBodyAsString());
+        assertEquals(response1.getHeaders().getFirstValue("ETag"),
+                response2.getHeaders().getFirstValue("ETag"));
+        assertEquals("application/json;charset=UTF-8",
+                response2.getHeaders().getFirstValue("Content-Type"));
+        assertNull(response2.getHeaders().getFirstValue("Content-Encoding"));
+    }
+
+    @Test
+    public void testGETResponseCacheHitVariesOnAcceptEncoding()
+            throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.CACHE_SERVER_RESOLVE_FIRST, false);
+        config.setProperty(Key.INFO_RESPONSE_CACHE_ENABLED, true);
+        config.setProperty(Key.INFO_RESPONSE_CACHE_GZIP, true);
+        InfoService.getInstance().purgeObjectCache();
+
+        client = newClient("/" + IMAGE + "/info.json");
+        for (String encoding : new String[] { "identity", "gzip" }) {
+            client.getHeaders().set("Accept-Encoding", encoding);
+            Response response = client.send();
+            List<String> parts = Arrays.asList(StringUtils.split(
+                    response.getHeaders().getFirstValue("Vary"), ", "));
+            assertTrue(parts.contains("Accept-Encoding"));
+        }
+    }
+
+    @Test
+    public void testGETResponseCacheHitWithDifferentBaseURI() throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.CACHE_SERVER_RESOLVE_FIRST, false);
+        config.setProperty(Key.INFO_RESPONSE_CACHE_ENABLED, true);
+        InfoService.getInstance().purgeObjectCache();
+
+        client = newClient("/" + IMAGE + "/info.json");
+        client.send();
+
+        config.setProperty(Key.BASE_URI, "http://example.org/");
+        Response response = client.send();
+
+        ImageInfo<?, ?> info = new ObjectMapper().readValue(
+                response.getBodyAsString(), ImageInfo.class);
+        assertEquals("http://example.org" +
+                Route.IIIF_2_PATH + "/" + IMAGE, info.get("@id"));
+        assertEquals(2, InfoResponseCache.getInstance().size());
+    }
+
+    @Test
+    public void testGETResponseCacheIsPurged() throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.INFO_RESPONSE_CACHE_ENABLED, true);
+        InfoService.getInstance().purgeObjectCache();
+
+        client = newClient("/" + IMAGE + "/info.json");
+        client.send();
+        assertEquals(1, InfoResponseCache.getInstance().size());
+
+        new CacheFacade().purge(new Identifier(IMAGE));
+        assertEquals(0, InfoResponseCache.getInstance().size());
+    }
+
+    @Test
+    public void testGETResponseCacheWhenDisabled() throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.INFO_RESPONSE_CACHE_ENABLED, false);
+        InfoService.getInstance().purgeObjectCache();
+
+        client = newClient("/" + IMAGE + "/info.json");
+        client.send();
+        assertEquals(0, InfoResponseCache.getInstance().size());
+    }
+
     /**
      * Tests the default response headers. Individual headers may be tested
      * more thoroughly elsewhere.
@@ -455,7 +562,7 @@ public class InformationResourceTest extends ResourceTest {
         client = newClient("/" + IMAGE + "/info.json");
         Response response = client.send();
         Headers headers = response.getHeaders();
-        assertEquals(7, headers.size());
+        assertEquals(8, headers.size());
 
         // Access-Control-Allow-Origin
         assertEquals("*", headers.getFirstValue("Access-Control-Allow-Origin"));
@@ -466,6 +573,8 @@ public class InformationResourceTest extends ResourceTest {
                 headers.getFirstValue("Content-Type"));
         // Date
         assertNotNull(headers.getFirstValue("Date"));
+        // ETag
+        assertTrue(headers.getFirstValue("ETag").matches("\"[0-9a-f]+\""));
         // Server
         assertNotNull(headers.getFirstValue("Server"));
         // Vary
@@ -20,7 +20,9 @@ import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.attribute.PosixFilePermission;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 public class FilesystemSourceTest extends AbstractSourceTest {
@@ -303,6 +305,43 @@ public class FilesystemSourceTest extends AbstractSourceTest {
         assertEquals(Format.UNKNOWN, instance.getFormat());
     }
 
+    /* listIdentifiers() */
+
+    @Test
+    public void testListIdentifiers() throws Exception {
+        useBasicLookupStrategy();
+
+        List<Identifier> identifiers =
+                FilesystemSource.listIdentifiers("jpg-rgb-64x56x8-");
+        assertEquals(Arrays.asList(
+                new Identifier("jpg-rgb-64x56x8-baseline.jpg"),
+                new Identifier("jpg-rgb-64x56x8-line.jpg"),
+                new Identifier("jpg-rgb-64x56x8-plane.jpg")), identifiers);
+    }
+
+    @Test
+    public void testListIdentifiersWithNoMatches() throws Exception {
+        useBasicLookupStrategy();
+
+        assertTrue(FilesystemSource.listIdentifiers("bogus").isEmpty());
+        assertTrue(FilesystemSource.listIdentifiers("bogus/bogus").isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testListIdentifiersWithIllegalPrefix() throws Exception {
+        useBasicLookupStrategy();
+
+        FilesystemSource.listIdentifiers("../");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testListIdentifiersUsingScriptLookupStrategy()
+            throws Exception {
+        useScriptLookupStrategy();
+
+        FilesystemSource.listIdentifiers("jpg");
+    }
+
     /* newStreamFactory() */
 
     @Test
@@ -28,6 +28,28 @@ public class SourceFactoryTest extends BaseTest {
         assertEquals(5, SourceFactory.getAllSources().size());
     }
 
+    @Test
+    public void listIdentifiersWithStaticFilesystemSource() throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.SOURCE_STATIC,
+                FilesystemSource.class.getSimpleName());
+        config.setProperty(Key.FILESYSTEMSOURCE_LOOKUP_STRATEGY,
+                "BasicLookupStrategy");
+        config.setProperty(Key.FILESYSTEMSOURCE_PATH_PREFIX,
+                TestUtil.getFixturePath() + "/images/");
+
+        assertEquals(3, instance.listIdentifiers("jpg-rgb-64x56x8-").size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void listIdentifiersWithOtherStaticSource() throws Exception {
+        Configuration config = Configuration.getInstance();
+        config.setProperty(Key.SOURCE_STATIC,
+                HttpSource.class.getSimpleName());
+
+        instance.listIdentifiers("jpg");
+    }
+
     @Test
     public void newSourceWithValidStaticResolverSimpleClassName()
             throws Exception {
@@ -3,6 +3,8 @@ package edu.illinois.library.cantaloupe.status;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Map;
+
 import static org.junit.Assert.*;
 
 public class ApplicationStatusTest {
@@ -14,6 +16,37 @@ public class ApplicationStatusTest {
         instance = new ApplicationStatus();
     }
 
+    @Test
+    public void testGetAdmissionActiveCount() {
+        assertTrue(instance.getAdmissionActiveCount() >= 0);
+    }
+
+    @Test
+    public void testGetAdmissionQueueDepth() {
+        assertTrue(instance.getAdmissionQueueDepth() >= 0);
+    }
+
+    @Test
+    public void testGetAdmissionRejectedCount() {
+        assertTrue(instance.getAdmissionRejectedCount() >= 0);
+    }
+
+    @Test
+    public void testGetBufferPoolHitRate() {
+        double rate = instance.getBufferPoolHitRate();
+        assertTrue(rate >= 0 && rate <= 1);
+    }
+
+    @Test
+    public void testGetBufferPoolMaxSize() {
+        assertTrue(instance.getBufferPoolMaxSize() >= 0);
+    }
+
+    @Test
+    public void testGetBufferPoolSize() {
+        assertTrue(instance.getBufferPoolSize() >= 0);
+    }
+
     @Test
     public void testGetDMICMaxSize() {
         assertTrue(instance.getDMICMaxSize() > 100);
@@ -34,6 +67,11 @@ public class ApplicationStatusTest {
         assertEquals(0, instance.getInfoCacheSize());
     }
 
+    @Test
+    public void testGetInfoCacheStatistics() {
+        assertNotNull(instance.getInfoCacheStatistics());
+    }
+
     @Test
     public void testGetVMFreeHeap() {
         assertTrue(instance.getVMFreeHeap() > 1000);
@@ -59,4 +97,17 @@ public class ApplicationStatusTest {
         assertTrue(instance.getVMUsedHeap() > 1000);
     }
 
-}
\ No newline at end of file
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testToMap() {
+        Map<String,Object> map = instance.toMap();
+        Map<String,Object> infoCache = (Map<String,Object>) map.get("infoCache");
+        Map<String,Object> statistics =
+                (Map<String,Object>) infoCache.get("statistics");
+        assertTrue(statistics.containsKey("total"));
+        assertTrue(statistics.containsKey("lastMinute"));
+        assertTrue(map.containsKey("derivativeCache"));
+        assertTrue(map.containsKey("sourceCache"));
+    }
+
+}
@@ -0,0 +1,51 @@
+package edu.illinois.library.cantaloupe.status;
+
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest extends BaseTest {
+
+    private LatencyHistogram instance;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        instance = new LatencyHistogram();
+    }
+
+    @Test
+    public void testGetCumulativeCounts() {
+        instance.record(TimeUnit.MICROSECONDS.toNanos(50));
+        instance.record(TimeUnit.MICROSECONDS.toNanos(100));
+        instance.record(TimeUnit.MICROSECONDS.toNanos(101));
+        instance.record(TimeUnit.MINUTES.toNanos(1));
+
+        long[] counts = instance.getCumulativeCounts();
+        assertEquals(LatencyHistogram.BUCKET_BOUNDS.length + 1, counts.length);
+        assertEquals(2, counts[0]);
+        assertEquals(3, counts[1]);
+        assertEquals(3, counts[counts.length - 2]);
+        assertEquals(4, counts[counts.length - 1]);
+    }
+
+    @Test
+    public void testRecord() {
+        instance.record(1000);
+        instance.record(2000);
+        assertEquals(2, instance.getCount());
+        assertEquals(3000, instance.getSum());
+    }
+
+    @Test
+    public void testRecordIgnoresNegativeDurations() {
+        instance.record(-1);
+        assertEquals(0, instance.getCount());
+        assertEquals(0, instance.getSum());
+    }
+
+}
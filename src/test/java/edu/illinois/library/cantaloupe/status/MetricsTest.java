@@ -0,0 +1,111 @@
+package edu.illinois.library.cantaloupe.status;
+
+import edu.illinois.library.cantaloupe.test.BaseTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest extends BaseTest {
+
+    private Metrics instance;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        Metrics.clearInstance();
+        instance = Metrics.getInstance();
+    }
+
+    /* getHistogram() */
+
+    @Test
+    public void testGetHistogramWithNothingRecorded() {
+        assertNull(instance.getHistogram(Metrics.Stage.DECODE, "cats"));
+    }
+
+    @Test
+    public void testGetHistogramWithNullLabelValue() {
+        instance.record(Metrics.Stage.AUTHORIZATION, null, 1000);
+        assertEquals(1, instance.getHistogram(
+                Metrics.Stage.AUTHORIZATION, null).getCount());
+    }
+
+    /* record() */
+
+    @Test
+    public void testRecord() {
+        instance.record(Metrics.Stage.DECODE, "cats", 1000);
+        instance.record(Metrics.Stage.DECODE, "cats", 2000);
+        instance.record(Metrics.Stage.DECODE, "dogs", 3000);
+
+        LatencyHistogram histogram =
+                instance.getHistogram(Metrics.Stage.DECODE, "cats");
+        assertEquals(2, histogram.getCount());
+        assertEquals(3000, histogram.getSum());
+        assertEquals(1, instance.getHistogram(
+                Metrics.Stage.DECODE, "dogs").getCount());
+        assertNull(instance.getHistogram(Metrics.Stage.ENCODE, "cats"));
+    }
+
+    /* writePrometheus() */
+
+    @Test
+    public void testWritePrometheusWithNothingRecorded() throws Exception {
+        StringWriter writer = new StringWriter();
+        instance.writePrometheus(writer);
+        assertEquals("", writer.toString());
+    }
+
+    @Test
+    public void testWritePrometheusWithLabel() throws Exception {
+        instance.record(Metrics.Stage.ENCODE, "jpg",
+                TimeUnit.MILLISECONDS.toNanos(3));
+
+        StringWriter writer = new StringWriter();
+        instance.writePrometheus(writer);
+        String output = writer.toString();
+
+        assertTrue(output.contains("# HELP cantaloupe_encode_seconds "));
+        assertTrue(output.contains("# TYPE cantaloupe_encode_seconds histogram\n"));
+        assertTrue(output.contains(
+                "cantaloupe_encode_seconds_bucket{format=\"jpg\",le=\"0.0025\"} 0\n"));
+        assertTrue(output.contains(
+                "cantaloupe_encode_seconds_bucket{format=\"jpg\",le=\"0.005\"} 1\n"));
+        assertTrue(output.contains(
+                "cantaloupe_encode_seconds_bucket{format=\"jpg\",le=\"+Inf\"} 1\n"));
+        assertTrue(output.contains(
+                "cantaloupe_encode_seconds_sum{format=\"jpg\"} 0.003\n"));
+        assertTrue(output.contains(
+                "cantaloupe_encode_seconds_count{format=\"jpg\"} 1\n"));
+    }
+
+    @Test
+    public void testWritePrometheusWithoutLabel() throws Exception {
+        instance.record(Metrics.Stage.AUTHORIZATION, null,
+                TimeUnit.SECONDS.toNanos(1));
+
+        StringWriter writer = new StringWriter();
+        instance.writePrometheus(writer);
+        String output = writer.toString();
+
+        assertTrue(output.contains(
+                "cantaloupe_authorization_seconds_bucket{le=\"1\"} 1\n"));
+        assertTrue(output.contains("cantaloupe_authorization_seconds_sum 1.0\n"));
+        assertTrue(output.contains("cantaloupe_authorization_seconds_count 1\n"));
+    }
+
+    @Test
+    public void testWritePrometheusEscapesLabelValues() throws Exception {
+        instance.record(Metrics.Stage.DELEGATE_METHOD, "a\"b", 1000);
+
+        StringWriter writer = new StringWriter();
+        instance.writePrometheus(writer);
+        assertTrue(writer.toString().contains(
+                "cantaloupe_delegate_method_seconds_count{method=\"a\\\"b\"} 1\n"));
+    }
+
+}
@@ -4,6 +4,10 @@ import edu.illinois.library.cantaloupe.test.BaseTest;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.Assert.*;
 
 public class ObjectCacheTest extends BaseTest {
@@ -35,6 +39,21 @@ public class ObjectCacheTest extends BaseTest {
         assertSame(value, instance.get(key));
     }
 
+    @Test
+    public void testGetWithLoader() {
+        final AtomicInteger numLoads = new AtomicInteger();
+        assertEquals("dogs", instance.get("cats", k -> {
+            numLoads.incrementAndGet();
+            return "dogs";
+        }));
+        assertEquals("dogs", instance.get("cats", k -> {
+            numLoads.incrementAndGet();
+            return "birds";
+        }));
+        assertEquals(1, numLoads.get());
+        assertEquals("dogs", instance.get("cats"));
+    }
+
     @Test
     public void testMaxSize() {
         assertEquals(MAX_SIZE, instance.maxSize());
@@ -68,6 +87,28 @@ public class ObjectCacheTest extends BaseTest {
         assertEquals(MAX_SIZE, instance.size());
     }
 
+    @Test
+    public void testPutRespectsMaxWeight() {
+        ObjectCache<String,String> instance =
+                new ObjectCache<>(10, String::length, (k, v) -> {});
+        instance.put("1", "cats");
+        instance.put("2", "dogs");
+        instance.put("3", "birds");
+        instance.cleanUp();
+        assertEquals(2, instance.size());
+        assertEquals(10, instance.maxSize());
+    }
+
+    @Test
+    public void testRemoveNotifiesRemovalListener() {
+        final Set<String> removedKeys = new HashSet<>();
+        ObjectCache<String,String> instance = new ObjectCache<>(
+                10, String::length, (k, v) -> removedKeys.add(k));
+        instance.put("1", "cats");
+        instance.remove("1");
+        assertTrue(removedKeys.contains("1"));
+    }
+
     @Test
     public void testRemove() {
         instance.put("1", "1");
@@ -85,6 +126,17 @@ public class ObjectCacheTest extends BaseTest {
         assertEquals(0, instance.size());
     }
 
+    @Test
+    public void testRemoveAllWithPredicate() {
+        instance.put("cats1", "1");
+        instance.put("cats2", "2");
+        instance.put("dogs1", "3");
+        instance.removeAll(key -> key.startsWith("cats"));
+        assertNull(instance.get("cats1"));
+        assertNull(instance.get("cats2"));
+        assertNotNull(instance.get("dogs1"));
+    }
+
     @Test
     public void testSize() {
         assertEquals(0, instance.size());
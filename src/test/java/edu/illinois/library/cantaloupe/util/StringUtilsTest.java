@@ -108,6 +108,24 @@ public class StringUtilsTest extends BaseTest {
         assertSame(str, StringUtils.stripStart(str, toStrip));
     }
 
+    @Test
+    public void testToByteSize() {
+        assertEquals(1024, StringUtils.toByteSize("1024"));
+        assertEquals(1024, StringUtils.toByteSize("1K"));
+        assertEquals(1024, StringUtils.toByteSize("1KB"));
+        assertEquals(1536, StringUtils.toByteSize("1.5K"));
+        assertEquals(1024 * 1024, StringUtils.toByteSize("1M"));
+        assertEquals(1024 * 1024, StringUtils.toByteSize("1 MB"));
+        assertEquals((long) Math.pow(1024, 3), StringUtils.toByteSize("1G"));
+        assertEquals((long) Math.pow(1024, 4), StringUtils.toByteSize("1TB"));
+        assertEquals((long) Math.pow(1024, 5), StringUtils.toByteSize("1P"));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testToByteSizeWithIllegalArgument() {
+        StringUtils.toByteSize("cats");
+    }
+
     @Test
     public void testTrimXMPWithTrimmableXMP() {
         String xmp = "<?xpacket id=\"cats\"?>" +